@@ -0,0 +1,46 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a load test client acknowledges a received live event message.
+ */
+public enum AckPolicy {
+
+  /**
+   * Acknowledges every delivery, no message is retried.
+   */
+  ALWAYS,
+
+  /**
+   * Never acknowledges, every message is retried until the retry amount is exhausted.
+   */
+  NEVER,
+
+  /**
+   * Acknowledges each delivery with the configured ratio.
+   */
+  SAMPLED,
+
+  /**
+   * Acknowledges redeliveries only, every message is retried exactly once.
+   */
+  REDELIVERED;
+
+  /**
+   * Decides whether the given delivery is acknowledged.
+   *
+   * @param redelivery true if the message has been received before
+   * @param ackRatio   the ratio of acknowledged deliveries for {@link #SAMPLED}
+   * @return true if the delivery is acknowledged
+   */
+  public boolean shouldAcknowledge(boolean redelivery, double ackRatio) {
+    return switch (this) {
+      case ALWAYS -> true;
+      case NEVER -> false;
+      case SAMPLED -> ThreadLocalRandom.current().nextDouble() < ackRatio;
+      case REDELIVERED -> redelivery;
+    };
+  }
+
+}
@@ -0,0 +1,111 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+/**
+ * Observes the live event messages received by all load test clients. The first delivery of each
+ * message ingested after the start of the measurement is recorded with its latency since ingest,
+ * further deliveries are counted as redeliveries. Each delivery is acknowledged according to the
+ * {@link AckPolicy}.
+ */
+public class DeliveryObserver {
+
+  static final String INGEST_NANOS = "ingestNanos";
+  private static final String MESSAGE_ID = "message-id";
+
+  private final AckPolicy ackPolicy;
+  private final double ackRatio;
+  private final LatencyRecorder latencyRecorder;
+  private final Set<String> receivedMessageIds = ConcurrentHashMap.newKeySet();
+  private final LongAdder firstDeliveries = new LongAdder();
+  private final LongAdder redeliveries = new LongAdder();
+  private volatile long measuredFromNanos = Long.MIN_VALUE;
+
+  /**
+   * Creates a new {@link DeliveryObserver}.
+   *
+   * @param settings        the settings of the load test
+   * @param latencyRecorder the recorder of the delivery latencies
+   */
+  public DeliveryObserver(LoadTestSettings settings, LatencyRecorder latencyRecorder) {
+    this.ackPolicy = settings.ackPolicy();
+    this.ackRatio = settings.ackRatio();
+    this.latencyRecorder = latencyRecorder;
+  }
+
+  /**
+   * Creates the frame handler of the events subscription of the given session.
+   *
+   * @param stompSession the stomp session of one client
+   * @return the {@link StompFrameHandler}
+   */
+  public StompFrameHandler frameHandler(StompSession stompSession) {
+    return new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return LiveEventMessage.class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        observe(stompSession, headers, (LiveEventMessage) payload);
+      }
+    };
+  }
+
+  private void observe(StompSession stompSession, StompHeaders headers,
+      LiveEventMessage liveEventMessage) {
+    var receivedNanos = System.nanoTime();
+    var messageId = headers.getMessageId();
+    var ingestNanos = ingestNanos(liveEventMessage);
+    var redelivery = !this.receivedMessageIds.add(messageId);
+    if (ingestNanos >= this.measuredFromNanos) {
+      if (redelivery) {
+        this.redeliveries.increment();
+      } else {
+        this.firstDeliveries.increment();
+        this.latencyRecorder.record(receivedNanos - ingestNanos);
+      }
+    }
+    if (this.ackPolicy.shouldAcknowledge(redelivery, this.ackRatio)) {
+      var ackHeaders = new StompHeaders();
+      ackHeaders.set(MESSAGE_ID, messageId);
+      stompSession.acknowledge(ackHeaders, true);
+    }
+  }
+
+  private static long ingestNanos(LiveEventMessage liveEventMessage) {
+    var eventContent = (Map<?, ?>) liveEventMessage.getEventContent();
+    return ((Number) eventContent.get(INGEST_NANOS)).longValue();
+  }
+
+  /**
+   * Starts the measurement, deliveries of messages ingested before are acknowledged but not
+   * recorded anymore.
+   *
+   * @param measuredFromNanos the {@link System#nanoTime()} of the measurement start
+   */
+  public void startMeasurement(long measuredFromNanos) {
+    this.measuredFromNanos = measuredFromNanos;
+    this.latencyRecorder.reset();
+    this.firstDeliveries.reset();
+    this.redeliveries.reset();
+  }
+
+  public long firstDeliveries() {
+    return this.firstDeliveries.sum();
+  }
+
+  public long redeliveries() {
+    return this.redeliveries.sum();
+  }
+
+}
@@ -0,0 +1,82 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latency samples of concurrent threads into a preallocated array. The percentiles are
+ * exact, samples beyond the capacity are counted but not kept.
+ */
+public class LatencyRecorder {
+
+  private final AtomicLongArray samples;
+  private final AtomicInteger recordedSamples = new AtomicInteger();
+
+  /**
+   * Creates a new {@link LatencyRecorder}.
+   *
+   * @param capacity the maximum amount of kept samples
+   */
+  public LatencyRecorder(int capacity) {
+    this.samples = new AtomicLongArray(capacity);
+  }
+
+  /**
+   * Records one latency sample.
+   *
+   * @param latencyNanos the latency in nanoseconds
+   */
+  public void record(long latencyNanos) {
+    var index = this.recordedSamples.getAndIncrement();
+    if (index < this.samples.length()) {
+      this.samples.set(index, latencyNanos);
+    }
+  }
+
+  /**
+   * Discards all recorded samples.
+   */
+  public void reset() {
+    this.recordedSamples.set(0);
+  }
+
+  /**
+   * Returns the amount of recorded samples, including the ones beyond the capacity.
+   *
+   * @return the amount of recorded samples
+   */
+  public int count() {
+    return this.recordedSamples.get();
+  }
+
+  /**
+   * Returns a sorted copy of the kept samples.
+   *
+   * @return the sorted samples in nanoseconds
+   */
+  public long[] sortedSamples() {
+    var keptSamples = new long[Math.min(count(), this.samples.length())];
+    for (int i = 0; i < keptSamples.length; i++) {
+      keptSamples[i] = this.samples.get(i);
+    }
+    Arrays.sort(keptSamples);
+    return keptSamples;
+  }
+
+  /**
+   * Returns the given percentile of sorted samples.
+   *
+   * @param sortedSamples the sorted samples
+   * @param percentile    the percentile between 0 and 100
+   * @return the sample at the percentile or 0 if there are no samples
+   */
+  public static long percentile(long[] sortedSamples, double percentile) {
+    if (sortedSamples.length == 0) {
+      return 0;
+    }
+    var rank = (int) Math.ceil(percentile / 100 * sortedSamples.length);
+    return sortedSamples[Math.max(rank, 1) - 1];
+  }
+
+}
@@ -0,0 +1,310 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import static de.caritas.cob.liveservice.loadtest.DeliveryObserver.INGEST_NANOS;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.caritas.cob.liveservice.LiveServiceApplication;
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+/**
+ * Load test of a local service instance. It connects the configured amount of SockJS stomp
+ * clients with tokens of a {@link LocalKeycloakStandIn}, sends live events with the configured
+ * rate via {@code POST /liveevent/send}, first for a warm-up and then for the measurement, and
+ * reports the connect throughput, the latency from ingest to receipt, the retry ratio and the heap
+ * usage. Clients and service share one JVM, so the heap figures include both sides.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec@run-load-test
+ * -Dloadtest.args="--clients=5000 --rate=500 --duration=60 --ack=sampled --ack-ratio=0.8"}.
+ */
+public class LiveServiceLoadTest {
+
+  private static final String SOCKET_URL = "ws://localhost:%d/live";
+  private static final String SEND_URL = "http://localhost:%d/liveevent/send";
+  private static final String SUBSCRIPTION_ENDPOINT = "/user/events";
+  private static final String USER_ID_PREFIX = "load-user-";
+  private static final long SUBSCRIPTION_SETTLE_MILLIS = 1000;
+  private static final long HEAP_SAMPLE_MILLIS = 100;
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+  private static final double BYTES_PER_MIB = 1024d * 1024d;
+
+  private final LoadTestSettings settings;
+  private final LocalKeycloakStandIn keycloakStandIn;
+  private final ConfigurableApplicationContext applicationContext;
+  private final int port;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+  private final LatencyRecorder latencyRecorder;
+  private final DeliveryObserver deliveryObserver;
+  private final LongAdder sentEvents = new LongAdder();
+  private final LongAdder acceptedEvents = new LongAdder();
+  private final LongAdder failedEvents = new LongAdder();
+  private final AtomicLong peakHeapBytes = new AtomicLong();
+
+  private LiveServiceLoadTest(LoadTestSettings settings, LocalKeycloakStandIn keycloakStandIn,
+      ConfigurableApplicationContext applicationContext) {
+    this.settings = settings;
+    this.keycloakStandIn = keycloakStandIn;
+    this.applicationContext = applicationContext;
+    this.port = Integer.parseInt(
+        applicationContext.getEnvironment().getRequiredProperty("local.server.port"));
+    var expectedDeliveries = (long) settings.rate() * settings.duration().toSeconds()
+        * settings.recipients();
+    this.latencyRecorder = new LatencyRecorder(
+        (int) Math.min(expectedDeliveries * 2, Integer.MAX_VALUE - 8));
+    this.deliveryObserver = new DeliveryObserver(settings, this.latencyRecorder);
+  }
+
+  /**
+   * Starts the keycloak stand-in and the service, runs the load test and prints the report.
+   *
+   * @param args the {@link LoadTestSettings} arguments
+   */
+  public static void main(String[] args) throws InterruptedException {
+    var settings = LoadTestSettings.fromArgs(args);
+    try (var keycloakStandIn = LocalKeycloakStandIn.start();
+        var applicationContext = new SpringApplicationBuilder(LiveServiceApplication.class)
+            .profiles("loadtest")
+            .initializers(context -> context.getBeanFactory().registerSingleton(
+                "testClassesExcludeFilter", new TestClassesExcludeFilter()))
+            .run(keycloakStandIn.applicationArguments())) {
+      new LiveServiceLoadTest(settings, keycloakStandIn, applicationContext).run();
+    }
+  }
+
+  private void run() throws InterruptedException {
+    System.out.println("Load test settings: " + this.settings);
+    var stompClient = new WebSocketStompClient(new SockJsClient(
+        List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    var baselineHeapBytes = usedHeapAfterGc();
+
+    var stompSessions = connectClients(stompClient);
+    var connectedHeapBytes = usedHeapAfterGc();
+    System.out.printf("Heap: %.1f MiB before connect, %.1f MiB with %d sessions"
+            + " (%.1f KiB per session, clients included)%n", baselineHeapBytes / BYTES_PER_MIB,
+        connectedHeapBytes / BYTES_PER_MIB, stompSessions.size(),
+        (connectedHeapBytes - baselineHeapBytes) / 1024d / Math.max(stompSessions.size(), 1));
+    Thread.sleep(SUBSCRIPTION_SETTLE_MILLIS);
+
+    if (!this.settings.warmup().isZero()) {
+      sendLiveEvents(this.settings.warmup());
+      awaitDeliveries();
+    }
+    var enqueuedBeforeMeasurement = counterSum("live.event.enqueued");
+    var retriedBeforeMeasurement = counterSum("live.event.retried");
+    startMeasurement();
+    sendLiveEvents(this.settings.duration());
+    awaitDeliveries();
+    reportDeliveries(counterSum("live.event.enqueued") - enqueuedBeforeMeasurement,
+        counterSum("live.event.retried") - retriedBeforeMeasurement);
+
+    disconnectClients(stompSessions);
+    stompClient.stop();
+  }
+
+  private List<StompSession> connectClients(WebSocketStompClient stompClient)
+      throws InterruptedException {
+    var accessTokens = new ArrayList<String>(this.settings.clients());
+    for (int client = 0; client < this.settings.clients(); client++) {
+      accessTokens.add(this.keycloakStandIn.issueAccessToken(USER_ID_PREFIX + client));
+    }
+    var permits = new Semaphore(this.settings.connectConcurrency());
+    var stompSessions = new ConcurrentLinkedQueue<StompSession>();
+    var failedConnects = new LongAdder();
+    var connects = new ArrayList<CompletableFuture<StompSession>>(this.settings.clients());
+
+    var startNanos = System.nanoTime();
+    for (String accessToken : accessTokens) {
+      permits.acquire();
+      var connectHeaders = new StompHeaders();
+      connectHeaders.add("accessToken", accessToken);
+      connects.add(stompClient.connectAsync(SOCKET_URL.formatted(this.port),
+              new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+              })
+          .whenComplete((stompSession, error) -> {
+            permits.release();
+            if (isNull(error)) {
+              stompSession.subscribe(SUBSCRIPTION_ENDPOINT,
+                  this.deliveryObserver.frameHandler(stompSession));
+              stompSessions.add(stompSession);
+            } else {
+              failedConnects.increment();
+            }
+          }));
+    }
+    CompletableFuture.allOf(connects.toArray(CompletableFuture[]::new))
+        .exceptionally(error -> null)
+        .join();
+    var connectSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+    System.out.printf("Connect: %d of %d clients in %.2f s, %.0f connects/s, %d failed%n",
+        stompSessions.size(), this.settings.clients(), connectSeconds,
+        stompSessions.size() / connectSeconds, failedConnects.sum());
+    return new ArrayList<>(stompSessions);
+  }
+
+  private void startMeasurement() {
+    this.sentEvents.reset();
+    this.acceptedEvents.reset();
+    this.failedEvents.reset();
+    this.deliveryObserver.startMeasurement(System.nanoTime());
+  }
+
+  private void sendLiveEvents(Duration sendDuration) throws InterruptedException {
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    this.peakHeapBytes.set(this.memoryMXBean.getHeapMemoryUsage().getUsed());
+    scheduler.scheduleAtFixedRate(this::sampleHeap, 0, HEAP_SAMPLE_MILLIS, MILLISECONDS);
+    scheduler.scheduleAtFixedRate(this::sendLiveEvent, 0, 1_000_000_000L / this.settings.rate(),
+        NANOSECONDS);
+    Thread.sleep(sendDuration.toMillis());
+    scheduler.shutdownNow();
+  }
+
+  private void sendLiveEvent() {
+    var firstRecipient = ThreadLocalRandom.current().nextInt(this.settings.clients());
+    var userIds = new ArrayList<String>(this.settings.recipients());
+    for (int recipient = 0; recipient < this.settings.recipients(); recipient++) {
+      userIds.add(USER_ID_PREFIX + (firstRecipient + recipient) % this.settings.clients());
+    }
+    var liveEventMessage = new LiveEventMessage()
+        .eventType(EventType.DIRECTMESSAGE)
+        .userIds(userIds)
+        .eventContent(Map.of(INGEST_NANOS, System.nanoTime()));
+    var request = HttpRequest.newBuilder(URI.create(SEND_URL.formatted(this.port)))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(toJson(liveEventMessage)))
+        .build();
+    this.sentEvents.increment();
+    this.httpClient.sendAsync(request, BodyHandlers.discarding())
+        .whenComplete((response, error) -> {
+          if (isNull(error) && response.statusCode() / 100 == 2) {
+            this.acceptedEvents.increment();
+          } else {
+            this.failedEvents.increment();
+          }
+        });
+  }
+
+  private String toJson(LiveEventMessage liveEventMessage) {
+    try {
+      return this.objectMapper.writeValueAsString(liveEventMessage);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void sampleHeap() {
+    this.peakHeapBytes.accumulateAndGet(this.memoryMXBean.getHeapMemoryUsage().getUsed(),
+        Math::max);
+  }
+
+  /**
+   * Waits until all requests are answered, all deliveries are received and the retry queue of the
+   * service is empty, at most for the drain timeout.
+   */
+  private void awaitDeliveries() throws InterruptedException {
+    var liveEventMessageQueue = this.applicationContext.getBean(LiveEventMessageQueue.class);
+    var drainDeadline = System.nanoTime() + this.settings.drainTimeout().toNanos();
+    while (System.nanoTime() < drainDeadline
+        && (this.acceptedEvents.sum() + this.failedEvents.sum() < this.sentEvents.sum()
+        || this.deliveryObserver.firstDeliveries() < expectedDeliveries()
+        || liveEventMessageQueue.size() > 0)) {
+      Thread.sleep(HEAP_SAMPLE_MILLIS);
+    }
+  }
+
+  private long expectedDeliveries() {
+    return this.acceptedEvents.sum() * this.settings.recipients();
+  }
+
+  private void reportDeliveries(double enqueued, double retried) {
+    var sortedLatencies = this.latencyRecorder.sortedSamples();
+
+    System.out.printf("Events: %d sent, %d accepted, %d failed, %d of %d deliveries received%n",
+        this.sentEvents.sum(), this.acceptedEvents.sum(), this.failedEvents.sum(),
+        this.deliveryObserver.firstDeliveries(), expectedDeliveries());
+    System.out.printf("Latency ingest to receipt: p50 %.2f ms, p99 %.2f ms, p999 %.2f ms,"
+            + " max %.2f ms%n", millis(sortedLatencies, 50), millis(sortedLatencies, 99),
+        millis(sortedLatencies, 99.9), millis(sortedLatencies, 100));
+    System.out.printf("Retries: %.0f retried of %.0f enqueued messages, ratio %.3f,"
+            + " %d redeliveries received, %d messages still queued%n", retried, enqueued,
+        enqueued > 0 ? retried / enqueued : 0, this.deliveryObserver.redeliveries(),
+        this.applicationContext.getBean(LiveEventMessageQueue.class).size());
+    System.out.printf("Heap: peak %.1f MiB while sending, %.1f MiB max%n",
+        this.peakHeapBytes.get() / BYTES_PER_MIB,
+        this.memoryMXBean.getHeapMemoryUsage().getMax() / BYTES_PER_MIB);
+  }
+
+  private static double millis(long[] sortedLatencies, double percentile) {
+    return LatencyRecorder.percentile(sortedLatencies, percentile) / NANOS_PER_MILLI;
+  }
+
+  private double counterSum(String name) {
+    return this.applicationContext.getBean(MeterRegistry.class).find(name).counters().stream()
+        .mapToDouble(Counter::count)
+        .sum();
+  }
+
+  /**
+   * Disconnects all clients and waits until the service has removed their sessions, so the
+   * service is not stopped while it still handles the disconnects.
+   */
+  private void disconnectClients(List<StompSession> stompSessions) throws InterruptedException {
+    stompSessions.forEach(StompSession::disconnect);
+    var socketUserRegistry = this.applicationContext.getBean(SocketUserRegistry.class);
+    var disconnectDeadline = System.nanoTime() + this.settings.drainTimeout().toNanos();
+    while (socketUserRegistry.sessionCount() > 0 && System.nanoTime() < disconnectDeadline) {
+      Thread.sleep(HEAP_SAMPLE_MILLIS);
+    }
+  }
+
+  /**
+   * Collects garbage first, so the used heap reflects the retained objects only.
+   */
+  private long usedHeapAfterGc() {
+    this.memoryMXBean.gc();
+    return this.memoryMXBean.getHeapMemoryUsage().getUsed();
+  }
+
+}
@@ -0,0 +1,67 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import static java.util.Objects.isNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of one load test run, given as {@code --name=value} arguments.
+ *
+ * @param clients            the amount of stomp clients, each one connects as a different user
+ * @param connectConcurrency the maximum amount of connects in flight
+ * @param rate               the amount of live events sent per second
+ * @param warmup             the duration of the unmeasured send phase before the measurement
+ * @param duration           the duration of the measured send phase
+ * @param recipients         the amount of users addressed by each live event
+ * @param ackPolicy          the acknowledge policy of the clients
+ * @param ackRatio           the ratio of acknowledged deliveries for {@link AckPolicy#SAMPLED}
+ * @param drainTimeout       the maximum time to wait for outstanding deliveries after the send
+ *                           phase
+ */
+public record LoadTestSettings(int clients, int connectConcurrency, int rate, Duration warmup,
+                               Duration duration, int recipients, AckPolicy ackPolicy, double ackRatio,
+                               Duration drainTimeout) {
+
+  /**
+   * Creates the settings from the given arguments, missing arguments keep their defaults.
+   *
+   * @param args arguments like {@code --clients=5000 --rate=500 --duration=60 --ack=sampled}
+   * @return the {@link LoadTestSettings}
+   */
+  public static LoadTestSettings fromArgs(String[] args) {
+    var values = new HashMap<String, String>();
+    for (String arg : args) {
+      var separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Argument must look like --name=value: " + arg);
+      }
+      values.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    var settings = new LoadTestSettings(
+        intValue(values, "clients", 2000),
+        intValue(values, "connect-concurrency", 64),
+        intValue(values, "rate", 200),
+        Duration.ofSeconds(intValue(values, "warmup", 5)),
+        Duration.ofSeconds(intValue(values, "duration", 30)),
+        intValue(values, "recipients", 1),
+        AckPolicy.valueOf(values.getOrDefault("ack", "always").toUpperCase(Locale.ROOT)),
+        Double.parseDouble(values.getOrDefault("ack-ratio", "0.9")),
+        Duration.ofSeconds(intValue(values, "drain-timeout", 15)));
+    if (settings.clients() <= 0 || settings.rate() <= 0 || settings.connectConcurrency() <= 0) {
+      throw new IllegalArgumentException("Clients, rate and connect concurrency must be positive");
+    }
+    if (settings.recipients() > settings.clients()) {
+      throw new IllegalArgumentException("Recipients must not exceed the amount of clients");
+    }
+    return settings;
+  }
+
+  private static int intValue(Map<String, String> values, String name, int defaultValue) {
+    var value = values.get(name);
+    return isNull(value) ? defaultValue : Integer.parseInt(value);
+  }
+
+}
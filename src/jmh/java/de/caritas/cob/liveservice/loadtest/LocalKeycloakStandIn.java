@@ -0,0 +1,147 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import org.keycloak.jose.jwk.JSONWebKeySet;
+import org.keycloak.jose.jwk.JWK;
+import org.keycloak.jose.jwk.JWKBuilder;
+import org.keycloak.jose.jws.JWSBuilder;
+import org.keycloak.protocol.oidc.representations.OIDCConfigurationRepresentation;
+import org.keycloak.representations.AccessToken;
+import org.keycloak.util.JsonSerialization;
+
+/**
+ * Local stand-in for the keycloak realm. It serves the openid configuration and the realm keys the
+ * same way keycloak does and issues access tokens signed with them, so the socket connects of the load test pass the real
+ * token verification of the service.
+ */
+public class LocalKeycloakStandIn implements AutoCloseable {
+
+  private static final String REALM = "loadtest";
+  private static final String KEY_ID = "loadtest-key";
+  private static final String REALM_PATH = "/auth/realms/" + REALM;
+  private static final String OPENID_CONNECT_PATH = REALM_PATH + "/protocol/openid-connect";
+  private static final String CERTS_PATH = OPENID_CONNECT_PATH + "/certs";
+  private static final String CONFIGURATION_PATH = REALM_PATH
+      + "/.well-known/openid-configuration";
+  private static final int TOKEN_LIFESPAN_SECONDS = 3600;
+
+  private final KeyPair keyPair;
+  private final HttpServer httpServer;
+
+  private LocalKeycloakStandIn(KeyPair keyPair, HttpServer httpServer) {
+    this.keyPair = keyPair;
+    this.httpServer = httpServer;
+  }
+
+  /**
+   * Generates a realm key and starts serving it on a free local port.
+   *
+   * @return the started {@link LocalKeycloakStandIn}
+   */
+  public static LocalKeycloakStandIn start() {
+    try {
+      var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+      keyPairGenerator.initialize(2048);
+      var keyPair = keyPairGenerator.generateKeyPair();
+      var httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      var standIn = new LocalKeycloakStandIn(keyPair, httpServer);
+      httpServer.createContext(CONFIGURATION_PATH,
+          exchange -> serveJson(exchange, standIn.openIdConfiguration()));
+      httpServer.createContext(CERTS_PATH, exchange -> serveJson(exchange, standIn.realmKeys()));
+      httpServer.start();
+      return standIn;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("RSA key generation is not available", e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private OIDCConfigurationRepresentation openIdConfiguration() {
+    var openIdConfiguration = new OIDCConfigurationRepresentation();
+    var openIdConnectUrl = baseUrl() + OPENID_CONNECT_PATH;
+    openIdConfiguration.setIssuer(realmUrl());
+    openIdConfiguration.setAuthorizationEndpoint(openIdConnectUrl + "/auth");
+    openIdConfiguration.setTokenEndpoint(openIdConnectUrl + "/token");
+    openIdConfiguration.setLogoutEndpoint(openIdConnectUrl + "/logout");
+    openIdConfiguration.setJwksUri(baseUrl() + CERTS_PATH);
+    return openIdConfiguration;
+  }
+
+  private JSONWebKeySet realmKeys() {
+    var realmKeys = new JSONWebKeySet();
+    realmKeys.setKeys(new JWK[]{
+        JWKBuilder.create().kid(KEY_ID).algorithm("RS256").rsa(this.keyPair.getPublic())});
+    return realmKeys;
+  }
+
+  private static void serveJson(HttpExchange exchange, Object representation)
+      throws IOException {
+    var body = JsonSerialization.writeValueAsBytes(representation);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (var responseBody = exchange.getResponseBody()) {
+      responseBody.write(body);
+    }
+  }
+
+  /**
+   * Issues a signed access token for the given user id.
+   *
+   * @param userId the user id claim of the token
+   * @return the encoded access token
+   */
+  public String issueAccessToken(String userId) {
+    var now = System.currentTimeMillis() / 1000;
+    var accessToken = new AccessToken();
+    accessToken.id(UUID.randomUUID().toString())
+        .issuer(realmUrl())
+        .subject(userId)
+        .type("Bearer")
+        .iat(now)
+        .exp(now + TOKEN_LIFESPAN_SECONDS);
+    accessToken.setOtherClaims("userId", userId);
+    return new JWSBuilder().kid(KEY_ID).type("JWT").jsonContent(accessToken)
+        .rsa256(this.keyPair.getPrivate());
+  }
+
+  /**
+   * Returns the command line arguments which point the service to this stand-in. They take
+   * precedence over the empty defaults of the application properties.
+   *
+   * @return the application arguments
+   */
+  public String[] applicationArguments() {
+    return new String[]{
+        "--keycloak.auth-server-url=" + authServerUrl(),
+        "--keycloak.realm=" + REALM,
+        "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + realmUrl(),
+        "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + baseUrl() + CERTS_PATH};
+  }
+
+  private String baseUrl() {
+    return "http://localhost:" + this.httpServer.getAddress().getPort();
+  }
+
+  private String authServerUrl() {
+    return baseUrl() + "/auth";
+  }
+
+  private String realmUrl() {
+    return baseUrl() + REALM_PATH;
+  }
+
+  @Override
+  public void close() {
+    this.httpServer.stop(0);
+  }
+
+}
@@ -0,0 +1,34 @@
+package de.caritas.cob.liveservice.loadtest;
+
+import java.io.IOException;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * Excludes the classes of the test output directory from the component scan of the service, e.g.
+ * the test configurations which replace the token verification by mocks. The load test runs on the
+ * test classpath, but must start the service with its production beans only.
+ */
+public class TestClassesExcludeFilter extends TypeExcludeFilter {
+
+  private final String testClassesLocation = LiveServiceLoadTest.class.getProtectionDomain()
+      .getCodeSource().getLocation().toString();
+
+  @Override
+  public boolean match(MetadataReader metadataReader,
+      MetadataReaderFactory metadataReaderFactory) throws IOException {
+    return metadataReader.getResource().getURL().toString().startsWith(this.testClassesLocation);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TestClassesExcludeFilter;
+  }
+
+  @Override
+  public int hashCode() {
+    return TestClassesExcludeFilter.class.hashCode();
+  }
+
+}
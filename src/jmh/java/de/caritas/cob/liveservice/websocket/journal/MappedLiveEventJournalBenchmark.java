@@ -0,0 +1,99 @@
+package de.caritas.cob.liveservice.websocket.journal;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventJournalProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.SerializedLiveEvent;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.HeapPressureMonitor;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Measures the cost the {@link MappedLiveEventJournal} adds to recording and acknowledging one
+ * message, including the rolling of full segments and the background sync and compaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappedLiveEventJournalBenchmark {
+
+  @Param({"256", "4096"})
+  private int payloadSize;
+
+  private final AtomicLong messageSequence = new AtomicLong();
+  private final LiveEventMessage liveEventMessage =
+      new LiveEventMessage().eventType(EventType.DIRECTMESSAGE);
+  private final WebSocketUserSession webSocketUserSession = WebSocketUserSession.builder()
+      .websocketSessionId("session")
+      .userId("user")
+      .build();
+
+  private Path journalDirectory;
+  private SerializedLiveEvent serializedLiveEvent;
+  private MappedLiveEventJournal journal;
+
+  @Setup
+  public void setup() throws IOException {
+    this.journalDirectory = Files.createTempDirectory("live-event-journal");
+    this.serializedLiveEvent = new SerializedLiveEvent(new byte[payloadSize],
+        MimeTypeUtils.APPLICATION_JSON);
+    var liveEventJournalProperties = new LiveEventJournalProperties();
+    liveEventJournalProperties.setDirectory(this.journalDirectory.toString());
+    liveEventJournalProperties.setSegmentSize(DataSize.ofMegabytes(16));
+    liveEventJournalProperties.setCompactionInterval(Duration.ofSeconds(1));
+    var liveEventQueueProperties = new LiveEventQueueProperties();
+    liveEventQueueProperties.setHeapPressureThreshold(1.0);
+    this.journal = new MappedLiveEventJournal(new LiveEventMessageQueue(liveEventQueueProperties,
+        new HeapPressureMonitor(liveEventQueueProperties),
+        new LiveEventMetrics(new SimpleMeterRegistry())), liveEventJournalProperties);
+    this.journal.start();
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException, IOException {
+    this.journal.stop();
+    try (Stream<Path> files = Files.walk(this.journalDirectory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public void recordEnqueueAndRemoval() {
+    var messageId = "message " + this.messageSequence.incrementAndGet();
+    this.journal.recordEnqueue(IdentifiedMessage.builder()
+        .messageId(messageId)
+        .liveEventMessage(this.liveEventMessage)
+        .serializedLiveEvent(this.serializedLiveEvent)
+        .websocketUserSession(this.webSocketUserSession)
+        .retryAmount(1)
+        .createdDate(LocalDateTime.now(ZoneOffset.UTC))
+        .build());
+    this.journal.recordRemoval(messageId);
+  }
+
+}
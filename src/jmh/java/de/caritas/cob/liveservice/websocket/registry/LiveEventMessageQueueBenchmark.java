@@ -0,0 +1,95 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures adding and acknowledging messages and sweeping for due retries in the
+ * {@link LiveEventMessageQueue} while a given amount of messages is pending. The pending messages
+ * become due far in the future, so the sweep measures the cost of finding nothing due, the
+ * {@code dueMessages} parameter adds messages which are due on each sweep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LiveEventMessageQueueBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int pendingMessages;
+
+  @Param({"0", "100"})
+  private int dueMessages;
+
+  private final AtomicLong messageSequence = new AtomicLong();
+  private final LiveEventMessage liveEventMessage =
+      new LiveEventMessage().eventType(EventType.DIRECTMESSAGE);
+  private final WebSocketUserSession webSocketUserSession = WebSocketUserSession.builder()
+      .websocketSessionId("session")
+      .userId("user")
+      .build();
+
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Setup
+  public void setup() {
+    var liveEventQueueProperties = new LiveEventQueueProperties();
+    liveEventQueueProperties.setMaxMessages(Integer.MAX_VALUE);
+    liveEventQueueProperties.setMaxMessagesPerUser(Integer.MAX_VALUE);
+    liveEventQueueProperties.setHeapPressureThreshold(1.0);
+    this.liveEventMessageQueue = new LiveEventMessageQueue(liveEventQueueProperties,
+        new HeapPressureMonitor(liveEventQueueProperties),
+        new LiveEventMetrics(new SimpleMeterRegistry()));
+    setField(this.liveEventMessageQueue, "minimumSecondsBeforeRetry", 1);
+    var pendingCreatedDate = LocalDateTime.now(ZoneOffset.UTC).plusDays(1);
+    for (int i = 0; i < pendingMessages; i++) {
+      this.liveEventMessageQueue.addIdentifiedMessage(identifiedMessage(pendingCreatedDate));
+    }
+    var dueCreatedDate = LocalDateTime.now(ZoneOffset.UTC).minusDays(1);
+    for (int i = 0; i < dueMessages; i++) {
+      this.liveEventMessageQueue.addIdentifiedMessage(identifiedMessage(dueCreatedDate));
+    }
+  }
+
+  @Benchmark
+  public void addAndAcknowledge() {
+    var identifiedMessage = identifiedMessage(LocalDateTime.now(ZoneOffset.UTC));
+    this.liveEventMessageQueue.addIdentifiedMessage(identifiedMessage);
+    this.liveEventMessageQueue.removeIdentifiedMessageWithId(identifiedMessage.getMessageId());
+  }
+
+  @Benchmark
+  public Collection<IdentifiedMessage> sweepDueMessages() {
+    return this.liveEventMessageQueue.getCurrentOpenMessages();
+  }
+
+  private IdentifiedMessage identifiedMessage(LocalDateTime createdDate) {
+    return IdentifiedMessage.builder()
+        .messageId("message " + this.messageSequence.incrementAndGet())
+        .liveEventMessage(this.liveEventMessage)
+        .websocketUserSession(this.webSocketUserSession)
+        .retryAmount(1)
+        .createdDate(createdDate)
+        .build();
+  }
+
+}
@@ -0,0 +1,89 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures connecting, disconnecting and looking up sessions in the {@link SocketUserRegistry}
+ * while a given amount of other sessions is connected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SocketUserRegistryBenchmark {
+
+  private static final int SESSIONS_PER_USER = 2;
+
+  @Param({"1000", "10000", "100000"})
+  private int connectedSessions;
+
+  private SocketUserRegistry socketUserRegistry;
+  private String knownSessionId;
+  private String knownUserId;
+
+  @Setup
+  public void setup() {
+    this.socketUserRegistry = new SocketUserRegistry();
+    IntStream.range(0, connectedSessions)
+        .mapToObj(sessionNumber -> WebSocketUserSession.builder()
+            .websocketSessionId("session " + sessionNumber)
+            .userId("user " + sessionNumber / SESSIONS_PER_USER)
+            .build())
+        .forEach(this.socketUserRegistry::addUser);
+    this.knownSessionId = "session " + connectedSessions / 2;
+    this.knownUserId = "user " + connectedSessions / 2 / SESSIONS_PER_USER;
+  }
+
+  /**
+   * One thread local session which is connected and disconnected again.
+   */
+  @State(Scope.Thread)
+  public static class ThreadSession {
+
+    private WebSocketUserSession webSocketUserSession;
+
+    @Setup
+    public void setup() {
+      var threadId = Thread.currentThread().getId();
+      this.webSocketUserSession = WebSocketUserSession.builder()
+          .websocketSessionId("benchmark session " + threadId)
+          .userId("benchmark user " + threadId)
+          .build();
+    }
+  }
+
+  @Benchmark
+  public void addAndRemoveSession(ThreadSession threadSession) {
+    this.socketUserRegistry.addUser(threadSession.webSocketUserSession);
+    this.socketUserRegistry.removeSession(threadSession.webSocketUserSession
+        .getWebsocketSessionId());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void addAndRemoveSessionConcurrently(ThreadSession threadSession) {
+    addAndRemoveSession(threadSession);
+  }
+
+  @Benchmark
+  public WebSocketUserSession findUserBySessionId() {
+    return this.socketUserRegistry.findUserBySessionId(this.knownSessionId);
+  }
+
+  @Benchmark
+  public Collection<WebSocketUserSession> findSessionsByUserId() {
+    return this.socketUserRegistry.findSessionsByUserId(this.knownUserId);
+  }
+
+}
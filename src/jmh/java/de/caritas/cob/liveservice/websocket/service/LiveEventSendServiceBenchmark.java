@@ -0,0 +1,99 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.api.model.VideoCallRequestDTO;
+import de.caritas.cob.liveservice.websocket.cluster.InMemoryLiveSessionDirectory;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.HeapPressureMonitor;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+
+/**
+ * Measures the fan-out of one live event to a given amount of recipient sessions, including
+ * serialization, queueing and header creation. The stub broker channel acknowledges each message
+ * immediately, so the queue keeps its size during the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LiveEventSendServiceBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int recipientSessions;
+
+  private LiveEventSendService liveEventSendService;
+  private List<WebSocketUserSession> webSocketUserSessions;
+
+  @Setup
+  public void setup() {
+    var liveEventQueueProperties = new LiveEventQueueProperties();
+    var liveEventMetrics = new LiveEventMetrics(new SimpleMeterRegistry());
+    var liveEventMessageQueue = new LiveEventMessageQueue(liveEventQueueProperties,
+        new HeapPressureMonitor(liveEventQueueProperties), liveEventMetrics);
+    setField(liveEventMessageQueue, "minimumSecondsBeforeRetry", 1);
+    var simpMessagingTemplate = new SimpMessagingTemplate(
+        new AcknowledgingChannel(liveEventMessageQueue));
+    simpMessagingTemplate.setMessageConverter(new MappingJackson2MessageConverter());
+    this.liveEventSendService = new LiveEventSendService(simpMessagingTemplate,
+        liveEventMessageQueue, liveEventMetrics,
+        new InMemoryLiveSessionDirectory(new SocketUserRegistry()));
+    this.webSocketUserSessions = IntStream.range(0, recipientSessions)
+        .mapToObj(sessionNumber -> WebSocketUserSession.builder()
+            .websocketSessionId("session " + sessionNumber)
+            .userId("user " + sessionNumber)
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public void sendLiveEventToUsers() {
+    this.liveEventSendService.sendLiveEventToUsers(this.webSocketUserSessions,
+        new LiveEventMessage()
+            .eventType(EventType.VIDEOCALLREQUEST)
+            .eventContent(new VideoCallRequestDTO()
+                .videoCallUrl("video.domain.com/44c7644a-5977-11eb-ae93-0242ac130002")
+                .initiatorUsername("consultant")
+                .initiatorRcUserId("ag89h3tjkerg94t")
+                .rcGroupId("xGklslk2JJKK")));
+  }
+
+  private static class AcknowledgingChannel implements MessageChannel {
+
+    private final LiveEventMessageQueue liveEventMessageQueue;
+
+    private AcknowledgingChannel(LiveEventMessageQueue liveEventMessageQueue) {
+      this.liveEventMessageQueue = liveEventMessageQueue;
+    }
+
+    @Override
+    public boolean send(Message<?> message, long timeout) {
+      var messageId = StompHeaderAccessor.wrap(message).getMessageId();
+      this.liveEventMessageQueue.removeIdentifiedMessageWithId(messageId);
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.api.model.VideoCallRequestDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.AuxCounters.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
+import org.springframework.web.socket.sockjs.frame.SockJsFrame;
+import org.springframework.web.socket.sockjs.frame.SockJsMessageCodec;
+
+/**
+ * Compares the cost of one live event on the wire for the plain WebSocket endpoint and the SockJS
+ * endpoint. Both encode the same STOMP MESSAGE frame, SockJS additionally wraps it as a JSON
+ * escaped array frame. The event is encoded as JSON, or as CBOR for the plain endpoint as SockJS
+ * only transports text. The frame is optionally compressed like the permessage-deflate extension
+ * does, keeping the compression context between the frames. The events differ in their ids and
+ * rotate through more frames than the compression window holds. The average time is the CPU per
+ * message, the aux counter {@code bytesPerEvent} the size of the frame on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StompFrameEncodingBenchmark {
+
+  private static final int FRAMES = 1024;
+
+  @Param({"SOCKJS_JSON", "WEBSOCKET_JSON", "WEBSOCKET_CBOR"})
+  private String transport;
+
+  @Param({"false", "true"})
+  private boolean compressed;
+
+  private final StompEncoder stompEncoder = new StompEncoder();
+  private final SockJsMessageCodec sockJsMessageCodec = new Jackson2SockJsMessageCodec();
+  private final byte[] deflateBuffer = new byte[8192];
+  private List<Message<byte[]>> liveEventFrames;
+  private int nextFrame;
+  private Deflater deflater;
+
+  @Setup
+  public void setup() throws Exception {
+    var cbor = "WEBSOCKET_CBOR".equals(this.transport);
+    var objectMapper = cbor ? new CBORMapper() : new ObjectMapper();
+    this.liveEventFrames = new ArrayList<>(FRAMES);
+    for (int i = 0; i < FRAMES; i++) {
+      var payload = objectMapper.writeValueAsBytes(new LiveEventMessage()
+          .eventType(EventType.VIDEOCALLREQUEST)
+          .eventContent(new VideoCallRequestDTO()
+              .videoCallUrl("video.domain.com/" + UUID.randomUUID())
+              .initiatorUsername("consultant " + i)
+              .initiatorRcUserId(randomId())
+              .rcGroupId(randomId())));
+      var stompHeaderAccessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+      stompHeaderAccessor.setDestination("/user/events");
+      stompHeaderAccessor.setSubscriptionId("sub-0");
+      stompHeaderAccessor.setMessageId(UUID.randomUUID().toString());
+      stompHeaderAccessor.setContentType(cbor ? MediaType.APPLICATION_CBOR
+          : MediaType.APPLICATION_JSON);
+      stompHeaderAccessor.setLeaveMutable(true);
+      this.liveEventFrames.add(MessageBuilder.createMessage(payload,
+          stompHeaderAccessor.getMessageHeaders()));
+    }
+    this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.deflater.end();
+  }
+
+  @Benchmark
+  public byte[] encodeLiveEvent(FrameSize frameSize) {
+    var stompFrame = this.stompEncoder.encode(
+        this.liveEventFrames.get(this.nextFrame++ % FRAMES));
+    var wireFrame = "SOCKJS_JSON".equals(this.transport)
+        ? SockJsFrame.messageFrame(this.sockJsMessageCodec, new String(stompFrame, UTF_8))
+        .getContentBytes()
+        : stompFrame;
+    if (this.compressed) {
+      wireFrame = deflate(wireFrame);
+    }
+    frameSize.bytesPerEvent = wireFrame.length;
+    return wireFrame;
+  }
+
+  private static String randomId() {
+    return UUID.randomUUID().toString().substring(0, 15);
+  }
+
+  private byte[] deflate(byte[] frame) {
+    this.deflater.setInput(frame);
+    var length = this.deflater.deflate(this.deflateBuffer, 0, this.deflateBuffer.length,
+        Deflater.SYNC_FLUSH);
+    // permessage-deflate removes the empty block ending each flushed message
+    return Arrays.copyOf(this.deflateBuffer, length - 4);
+  }
+
+  /**
+   * Holds the size of the last encoded frame.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(Type.EVENTS)
+  public static class FrameSize {
+
+    public long bytesPerEvent;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.bytesPerEvent = 0;
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import de.caritas.cob.liveservice.websocket.cluster.InMemoryLiveSessionDirectory;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+
+/**
+ * Measures the resolution of recipient user ids to socket sessions. The average time per operation
+ * is expected to depend on the amount of recipients only and to stay flat for a growing amount of
+ * connected sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WebSocketSessionIdResolverBenchmark {
+
+  private static final int SESSIONS_PER_USER = 2;
+
+  @Param({"1000", "10000", "100000"})
+  private int connectedSessions;
+
+  @Param({"1", "10", "100"})
+  private int recipients;
+
+  private WebSocketSessionIdResolver webSocketSessionIdResolver;
+  private SocketUserRegistry socketUserRegistry;
+  private List<String> recipientUserIds;
+  private String singleRecipientUserId;
+
+  @Setup
+  public void setup() {
+    this.socketUserRegistry = new SocketUserRegistry();
+    IntStream.range(0, connectedSessions)
+        .mapToObj(sessionNumber -> WebSocketUserSession.builder()
+            .websocketSessionId("session " + sessionNumber)
+            .userId("user " + sessionNumber / SESSIONS_PER_USER)
+            .build())
+        .forEach(this.socketUserRegistry::addUser);
+    this.webSocketSessionIdResolver = new WebSocketSessionIdResolver(this.socketUserRegistry,
+        new DefaultSimpUserRegistry(), new InMemoryLiveSessionDirectory(this.socketUserRegistry));
+
+    var connectedUsers = connectedSessions / SESSIONS_PER_USER;
+    this.recipientUserIds = IntStream.range(0, recipients)
+        .mapToObj(recipient -> "user " + (recipient * 7919 % connectedUsers))
+        .collect(Collectors.toList());
+    this.singleRecipientUserId = this.recipientUserIds.get(0);
+  }
+
+  @Benchmark
+  public List<WebSocketUserSession> resolveUserSessions() {
+    return this.webSocketSessionIdResolver.resolveUserSessions(this.recipientUserIds);
+  }
+
+  @Benchmark
+  public Optional<WebSocketUserSession> resolveUserSession() {
+    return this.webSocketSessionIdResolver.resolveUserSession(this.singleRecipientUserId);
+  }
+
+}
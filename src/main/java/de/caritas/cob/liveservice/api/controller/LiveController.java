@@ -1,16 +1,24 @@
 package de.caritas.cob.liveservice.api.controller;
 
+import static java.util.Objects.isNull;
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 
+import de.caritas.cob.liveservice.api.dispatch.AsyncLiveEventDispatcher;
 import de.caritas.cob.liveservice.api.facade.LiveEventFacade;
+import de.caritas.cob.liveservice.api.model.LiveEventBatchResult;
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
 import de.caritas.cob.liveservice.generated.api.controller.LiveeventApi;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
@@ -24,9 +32,14 @@ import org.springframework.web.server.ResponseStatusException;
 public class LiveController implements LiveeventApi {
 
   private final @NonNull LiveEventFacade liveEventFacade;
+  private final @NonNull ObjectProvider<AsyncLiveEventDispatcher> asyncLiveEventDispatcher;
+
+  @Value("${live.event.batch.maximum.size}")
+  private Integer maximumBatchSize;
 
   /**
-   * Trigger entry point for live event sending.
+   * Trigger entry point for live event sending. If the asynchronous dispatch is enabled the event
+   * is only accepted for dispatch, otherwise it is sent before the response is returned.
    *
    * @param liveEventMessage the {@link LiveEventMessage} of the live event
    */
@@ -35,8 +48,49 @@ public class LiveController implements LiveeventApi {
     if (isEmpty(liveEventMessage.getUserIds())) {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User ids must not be empty");
     }
-    this.liveEventFacade.triggerLiveEvent(liveEventMessage);
-    return new ResponseEntity<>(HttpStatus.OK);
+    var dispatcher = this.asyncLiveEventDispatcher.getIfAvailable();
+    if (isNull(dispatcher)) {
+      this.liveEventFacade.triggerLiveEvent(liveEventMessage);
+      return new ResponseEntity<>(HttpStatus.OK);
+    }
+    this.liveEventFacade.validateEventType(liveEventMessage);
+    this.liveEventFacade.validateQueueCapacity();
+    if (!dispatcher.accept(liveEventMessage)) {
+      throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+          "Live event dispatch buffer is full");
+    }
+    return new ResponseEntity<>(HttpStatus.ACCEPTED);
+  }
+
+  /**
+   * Trigger entry point for sending a batch of live events in one request.
+   *
+   * @param liveEventMessages the {@link LiveEventMessage}s of the live events
+   * @return the {@link LiveEventBatchResult} with the outcome of each event
+   */
+  @Override
+  public ResponseEntity<LiveEventBatchResult> sendLiveEventBatch(
+      @Valid @RequestBody List<LiveEventMessage> liveEventMessages) {
+    if (isEmpty(liveEventMessages)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Live events must not be empty");
+    }
+    if (liveEventMessages.size() > this.maximumBatchSize) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "Batch must not contain more than " + this.maximumBatchSize + " live events");
+    }
+    return new ResponseEntity<>(this.liveEventFacade.triggerLiveEvents(liveEventMessages),
+        HttpStatus.OK);
+  }
+
+  /**
+   * Maps violations of the request schema within a batch to a bad request.
+   *
+   * @param exception the {@link ConstraintViolationException} of the method validation
+   * @return a bad request response
+   */
+  @ExceptionHandler(ConstraintViolationException.class)
+  public ResponseEntity<Void> handleConstraintViolation(ConstraintViolationException exception) {
+    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
   }
 
 }
@@ -0,0 +1,175 @@
+package de.caritas.cob.liveservice.api.dispatch;
+
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.api.facade.LiveEventFacade;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Accepts live events into a bounded ring buffer and hands them over to the
+ * {@link LiveEventFacade} on a dedicated pool of dispatcher threads, so callers of the REST API do
+ * not wait for the resolution and fan-out of the event.
+ *
+ * <p>A dispatcher finding the buffer empty spins briefly and then parks until a producer accepting
+ * an event unparks it, so idle dispatchers do not wake up periodically.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "live.event.dispatch.async.enabled", havingValue = "true")
+public class AsyncLiveEventDispatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLiveEventDispatcher.class);
+  private static final int SPINS_BEFORE_PARKING = 100;
+  private static final long MAXIMUM_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final @NonNull LiveEventFacade liveEventFacade;
+  private final @NonNull MeterRegistry meterRegistry;
+  private final Queue<Thread> parkedDispatchers = new ConcurrentLinkedQueue<>();
+
+  @Value("${live.event.dispatch.buffer.capacity}")
+  private Integer bufferCapacity;
+
+  @Value("${live.event.dispatch.threads}")
+  private Integer dispatcherThreads;
+
+  private MpmcRingBuffer<LiveEventMessage> ringBuffer;
+  private ExecutorService dispatcherPool;
+  private Counter droppedEvents;
+  private Counter failedEvents;
+  private volatile boolean running;
+
+  /**
+   * Creates the ring buffer, registers its metrics and starts the dispatcher threads.
+   */
+  @PostConstruct
+  public void startDispatcher() {
+    this.ringBuffer = new MpmcRingBuffer<>(this.bufferCapacity);
+    Gauge.builder("live.event.dispatch.buffer.depth", this.ringBuffer, MpmcRingBuffer::size)
+        .description("Amount of accepted live events waiting for dispatch")
+        .register(this.meterRegistry);
+    Gauge.builder("live.event.dispatch.buffer.capacity", this.ringBuffer,
+            MpmcRingBuffer::capacity)
+        .register(this.meterRegistry);
+    this.droppedEvents = Counter.builder("live.event.dispatch.dropped")
+        .description("Live events rejected because the dispatch buffer was full")
+        .register(this.meterRegistry);
+    this.failedEvents = Counter.builder("live.event.dispatch.failed")
+        .description("Live events which could not be dispatched")
+        .register(this.meterRegistry);
+
+    this.running = true;
+    this.dispatcherPool = Executors.newFixedThreadPool(this.dispatcherThreads,
+        new CustomizableThreadFactory("live-event-dispatcher-"));
+    for (int i = 0; i < this.dispatcherThreads; i++) {
+      this.dispatcherPool.execute(this::dispatchLoop);
+    }
+  }
+
+  /**
+   * Stops the dispatcher threads and dispatches the events left in the buffer.
+   */
+  @PreDestroy
+  public void stopDispatcher() throws InterruptedException {
+    this.running = false;
+    Thread parkedDispatcher;
+    while (nonNull(parkedDispatcher = this.parkedDispatchers.poll())) {
+      LockSupport.unpark(parkedDispatcher);
+    }
+    this.dispatcherPool.shutdown();
+    if (!this.dispatcherPool.awaitTermination(5, TimeUnit.SECONDS)) {
+      this.dispatcherPool.shutdownNow();
+    }
+    LiveEventMessage liveEventMessage;
+    while (nonNull(liveEventMessage = this.ringBuffer.poll())) {
+      dispatch(liveEventMessage);
+    }
+  }
+
+  /**
+   * Accepts the given live event for asynchronous dispatch.
+   *
+   * @param liveEventMessage the live event to dispatch
+   * @return true if the event has been accepted, false if the buffer is full
+   */
+  public boolean accept(LiveEventMessage liveEventMessage) {
+    if (this.ringBuffer.offer(liveEventMessage)) {
+      var parkedDispatcher = this.parkedDispatchers.poll();
+      if (nonNull(parkedDispatcher)) {
+        LockSupport.unpark(parkedDispatcher);
+      }
+      return true;
+    }
+    this.droppedEvents.increment();
+    LOGGER.warn("Dispatch buffer is full, reject live event with type {}",
+        liveEventMessage.getEventType());
+    return false;
+  }
+
+  private void dispatchLoop() {
+    var idleCount = 0;
+    while (this.running) {
+      var liveEventMessage = this.ringBuffer.poll();
+      if (nonNull(liveEventMessage)) {
+        idleCount = 0;
+        dispatch(liveEventMessage);
+      } else if (idleCount < SPINS_BEFORE_PARKING) {
+        idleCount++;
+        Thread.onSpinWait();
+      } else {
+        park();
+      }
+    }
+  }
+
+  /**
+   * Parks the current dispatcher until a producer unparks it. The dispatcher is registered before
+   * the buffer is checked again, so an event accepted meanwhile either is seen by the check or
+   * unparks the dispatcher. The park timeout is only a safety net.
+   */
+  private void park() {
+    var dispatcher = Thread.currentThread();
+    this.parkedDispatchers.offer(dispatcher);
+    if (this.running && this.ringBuffer.size() == 0) {
+      LockSupport.parkNanos(this, MAXIMUM_PARK_NANOS);
+    }
+    this.parkedDispatchers.remove(dispatcher);
+  }
+
+  private void dispatch(LiveEventMessage liveEventMessage) {
+    try {
+      this.liveEventFacade.triggerLiveEvent(liveEventMessage);
+    } catch (RuntimeException e) {
+      this.failedEvents.increment();
+      LOGGER.error("Dispatch of live event with type {} failed",
+          liveEventMessage.getEventType(), e);
+    }
+  }
+
+  int bufferedEvents() {
+    return this.ringBuffer.size();
+  }
+
+  int parkedDispatchers() {
+    return this.parkedDispatchers.size();
+  }
+
+}
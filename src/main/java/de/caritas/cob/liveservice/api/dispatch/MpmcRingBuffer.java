@@ -0,0 +1,114 @@
+package de.caritas.cob.liveservice.api.dispatch;
+
+import static java.util.Objects.isNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for multiple producers and multiple consumers. Each slot carries a
+ * sequence number which tells producers and consumers whether the slot is free or filled for their
+ * current position, so neither side needs a lock. Offering to a full buffer fails immediately.
+ *
+ * @param <E> the type of the buffered elements
+ */
+public class MpmcRingBuffer<E> {
+
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong enqueuePosition = new AtomicLong();
+  private final AtomicLong dequeuePosition = new AtomicLong();
+
+  /**
+   * Creates a new {@link MpmcRingBuffer}.
+   *
+   * @param capacity the capacity of the buffer, rounded up to the next power of two of at least
+   *                 two, a single slot could not tell a filled slot from a free one
+   */
+  public MpmcRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    var normalizedCapacity = 2;
+    while (normalizedCapacity < capacity) {
+      normalizedCapacity <<= 1;
+    }
+    this.elements = new AtomicReferenceArray<>(normalizedCapacity);
+    this.sequences = new AtomicLongArray(normalizedCapacity);
+    for (int i = 0; i < normalizedCapacity; i++) {
+      this.sequences.set(i, i);
+    }
+    this.mask = normalizedCapacity - 1;
+  }
+
+  /**
+   * Adds the given element to the buffer.
+   *
+   * @param element the element to add
+   * @return true if the element has been added, false if the buffer is full
+   */
+  public boolean offer(E element) {
+    if (isNull(element)) {
+      throw new IllegalArgumentException("Element must not be null");
+    }
+    var position = this.enqueuePosition.get();
+    while (true) {
+      var index = (int) (position & this.mask);
+      var difference = this.sequences.get(index) - position;
+      if (difference == 0) {
+        if (this.enqueuePosition.compareAndSet(position, position + 1)) {
+          this.elements.set(index, element);
+          this.sequences.set(index, position + 1);
+          return true;
+        }
+        position = this.enqueuePosition.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = this.enqueuePosition.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element of the buffer.
+   *
+   * @return the removed element or null if the buffer is empty
+   */
+  public E poll() {
+    var position = this.dequeuePosition.get();
+    while (true) {
+      var index = (int) (position & this.mask);
+      var difference = this.sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (this.dequeuePosition.compareAndSet(position, position + 1)) {
+          var element = this.elements.getAndSet(index, null);
+          this.sequences.set(index, position + this.mask + 1);
+          return element;
+        }
+        position = this.dequeuePosition.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = this.dequeuePosition.get();
+      }
+    }
+  }
+
+  /**
+   * Returns the approximate amount of buffered elements.
+   *
+   * @return the amount of buffered elements
+   */
+  public int size() {
+    var size = this.enqueuePosition.get() - this.dequeuePosition.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public int capacity() {
+    return this.mask + 1;
+  }
+
+}
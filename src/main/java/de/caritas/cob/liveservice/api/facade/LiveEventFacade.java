@@ -1,9 +1,34 @@
 package de.caritas.cob.liveservice.api.facade;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+
 import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventBatchResult;
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.api.model.LiveEventOutcome;
+import de.caritas.cob.liveservice.api.model.LiveEventOutcome.StatusEnum;
+import de.caritas.cob.liveservice.websocket.config.LiveEventMailboxProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
 import de.caritas.cob.liveservice.websocket.service.LiveEventSendService;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import de.caritas.cob.liveservice.websocket.service.WebSocketSessionIdResolver;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -19,20 +44,237 @@ public class LiveEventFacade {
 
   private final @NonNull WebSocketSessionIdResolver sessionIdResolver;
   private final @NonNull LiveEventSendService liveEventSendService;
+  private final @NonNull LiveEventMetrics liveEventMetrics;
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull QueuedLiveEventSendService queuedLiveEventSendService;
+  private final @NonNull LiveEventMailboxProperties liveEventMailboxProperties;
+  private final @NonNull LiveSessionDirectory liveSessionDirectory;
 
   /**
-   * Triggers a live event to given registered users.
+   * Receives the live events other instances of the service forward to the users of this
+   * instance.
+   */
+  @PostConstruct
+  public void receiveForwardedLiveEvents() {
+    this.liveSessionDirectory.receiveForwardedLiveEvents(this::deliverForwardedLiveEvent);
+  }
+
+  /**
+   * Triggers a live event to given registered users. Users connected to another instance of the
+   * service receive the event through the broker relay. If the mailbox is enabled, the event is
+   * stored for the users without socket session.
    *
    * @param liveEventMessage the type of the event message
    */
   public void triggerLiveEvent(LiveEventMessage liveEventMessage) {
     validateEventType(liveEventMessage);
-    var socketSessionIds = this.sessionIdResolver
-        .resolveUserSessions(liveEventMessage.getUserIds());
+    validateQueueCapacity();
+    var userIds = liveEventMessage.getUserIds();
+    var socketSessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
+    this.liveEventMetrics.recordFanOut(socketSessionIds.size());
+    var userIdsWithoutSession = findUserIdsWithoutSession(userIds, socketSessionIds);
+    var remoteNodeIdsByUserId = this.sessionIdResolver
+        .resolveRemoteNodeIdsByUserId(userIdsWithoutSession);
+    var offlineUserIds = findOfflineUserIds(userIdsWithoutSession,
+        remoteNodeIdsByUserId.keySet());
     this.liveEventSendService.sendLiveEventToUsers(socketSessionIds, liveEventMessage);
+    sendToRemoteUsers(remoteNodeIdsByUserId, liveEventMessage);
+    storeForOfflineUsers(offlineUserIds, liveEventMessage);
+  }
+
+  /**
+   * Triggers a batch of live events. The recipients of all events are resolved in one pass and the
+   * deliveries are grouped per socket session. Invalid events are rejected without affecting the
+   * other events of the batch.
+   *
+   * @param liveEventMessages the live event messages of the batch
+   * @return the outcome of each event in the order of the batch
+   */
+  public LiveEventBatchResult triggerLiveEvents(List<LiveEventMessage> liveEventMessages) {
+    validateQueueCapacity();
+    var outcomes = new ArrayList<LiveEventOutcome>(liveEventMessages.size());
+    var validLiveEvents = new ArrayList<LiveEventMessage>(liveEventMessages.size());
+    for (int index = 0; index < liveEventMessages.size(); index++) {
+      var liveEventMessage = liveEventMessages.get(index);
+      var outcome = new LiveEventOutcome(index, StatusEnum.SENT);
+      try {
+        validateBatchEvent(liveEventMessage);
+        validLiveEvents.add(liveEventMessage);
+      } catch (ResponseStatusException e) {
+        outcome.status(StatusEnum.REJECTED).reason(e.getReason());
+        validLiveEvents.add(null);
+      }
+      outcomes.add(outcome);
+    }
+
+    var sessionsByUserId = this.sessionIdResolver.resolveUserSessionsByUserId(
+        validLiveEvents.stream()
+            .filter(Objects::nonNull)
+            .flatMap(liveEventMessage -> liveEventMessage.getUserIds().stream())
+            .collect(Collectors.toSet()));
+    var liveEventsBySession = new LinkedHashMap<WebSocketUserSession, List<LiveEventMessage>>();
+    var remoteNodeIdsByUserId = this.sessionIdResolver.resolveRemoteNodeIdsByUserId(
+        sessionsByUserId.entrySet().stream()
+            .filter(userSessions -> isEmpty(userSessions.getValue()))
+            .map(Entry::getKey)
+            .collect(Collectors.toList()));
+    var remoteNodeIdsOfLiveEvents = new ArrayList<Map<String, Set<String>>>(
+        validLiveEvents.size());
+    var offlineUserIdsOfLiveEvents = new ArrayList<List<String>>(validLiveEvents.size());
+    for (int index = 0; index < validLiveEvents.size(); index++) {
+      var liveEventMessage = validLiveEvents.get(index);
+      if (nonNull(liveEventMessage)) {
+        var sessionCount = groupBySession(liveEventMessage, sessionsByUserId, liveEventsBySession);
+        this.liveEventMetrics.recordFanOut(sessionCount);
+        var remoteNodeIdsOfLiveEvent = selectRemoteNodeIds(liveEventMessage.getUserIds(),
+            remoteNodeIdsByUserId);
+        outcomes.get(index).sessionCount(sessionCount)
+            .status(sessionCount > 0 || !remoteNodeIdsOfLiveEvent.isEmpty() ? StatusEnum.SENT
+                : StatusEnum.NOACTIVESESSION);
+        remoteNodeIdsOfLiveEvents.add(remoteNodeIdsOfLiveEvent);
+        offlineUserIdsOfLiveEvents.add(findOfflineUserIds(
+            findUserIdsWithoutSession(liveEventMessage.getUserIds(), sessionsByUserId),
+            remoteNodeIdsByUserId.keySet()));
+      } else {
+        remoteNodeIdsOfLiveEvents.add(emptyMap());
+        offlineUserIdsOfLiveEvents.add(emptyList());
+      }
+    }
+
+    this.liveEventSendService.sendLiveEventsToSessions(liveEventsBySession);
+    for (int index = 0; index < validLiveEvents.size(); index++) {
+      sendToRemoteUsers(remoteNodeIdsOfLiveEvents.get(index), validLiveEvents.get(index));
+      var storedCount = storeForOfflineUsers(offlineUserIdsOfLiveEvents.get(index),
+          validLiveEvents.get(index));
+      if (storedCount > 0 && outcomes.get(index).getStatus() == StatusEnum.NOACTIVESESSION) {
+        outcomes.get(index).status(StatusEnum.STORED);
+      }
+    }
+    return new LiveEventBatchResult().outcomes(outcomes);
+  }
+
+  /**
+   * Delivers a live event forwarded by another instance to the sessions of its users on this
+   * instance. The event is not forwarded again, users who have disconnected meanwhile get it stored
+   * if the mailbox is enabled.
+   */
+  private void deliverForwardedLiveEvent(LiveEventMessage liveEventMessage) {
+    var userIds = liveEventMessage.getUserIds();
+    var socketSessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
+    this.liveEventMetrics.recordFanOut(socketSessionIds.size());
+    var offlineUserIds = findOfflineUserIds(findUserIdsWithoutSession(userIds, socketSessionIds),
+        emptyList());
+    this.liveEventSendService.sendLiveEventToUsers(socketSessionIds, liveEventMessage);
+    storeForOfflineUsers(offlineUserIds, liveEventMessage);
+  }
+
+  private static List<String> findUserIdsWithoutSession(List<String> userIds,
+      List<WebSocketUserSession> socketSessions) {
+    if (isEmpty(userIds)) {
+      return emptyList();
+    }
+    var onlineUserIds = socketSessions.stream()
+        .map(WebSocketUserSession::getUserId)
+        .collect(Collectors.toSet());
+    return userIds.stream()
+        .distinct()
+        .filter(userId -> !onlineUserIds.contains(userId))
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> findUserIdsWithoutSession(List<String> userIds,
+      Map<String, List<WebSocketUserSession>> sessionsByUserId) {
+    return userIds.stream()
+        .distinct()
+        .filter(userId -> isEmpty(sessionsByUserId.get(userId)))
+        .collect(Collectors.toList());
+  }
+
+  private static Map<String, Set<String>> selectRemoteNodeIds(List<String> userIds,
+      Map<String, Set<String>> remoteNodeIdsByUserId) {
+    var remoteNodeIdsOfUsers = new LinkedHashMap<String, Set<String>>();
+    userIds.forEach(userId -> {
+      var nodeIds = remoteNodeIdsByUserId.get(userId);
+      if (nonNull(nodeIds)) {
+        remoteNodeIdsOfUsers.put(userId, nodeIds);
+      }
+    });
+    return remoteNodeIdsOfUsers;
   }
 
-  private void validateEventType(LiveEventMessage liveEventMessage) {
+  private List<String> findOfflineUserIds(List<String> userIdsWithoutSession,
+      Collection<String> remoteUserIds) {
+    if (!this.liveEventMailboxProperties.isEnabled()) {
+      return emptyList();
+    }
+    return userIdsWithoutSession.stream()
+        .filter(userId -> !remoteUserIds.contains(userId))
+        .collect(Collectors.toList());
+  }
+
+  private void sendToRemoteUsers(Map<String, Set<String>> remoteNodeIdsByUserId,
+      LiveEventMessage liveEventMessage) {
+    if (!remoteNodeIdsByUserId.isEmpty()) {
+      this.liveEventSendService.sendLiveEventToRemoteUsers(remoteNodeIdsByUserId,
+          liveEventMessage);
+    }
+  }
+
+  /**
+   * Stores the live event for the given users without socket session. A user who has connected
+   * meanwhile would miss the stored event until the next subscription, so the stored events of
+   * such users are flushed to their new session right away.
+   */
+  private int storeForOfflineUsers(List<String> offlineUserIds,
+      LiveEventMessage liveEventMessage) {
+    if (isEmpty(offlineUserIds)) {
+      return 0;
+    }
+    var storedCount = this.liveEventSendService.storeLiveEventForUsers(offlineUserIds,
+        liveEventMessage,
+        this.liveEventMailboxProperties.timeToLiveOf(liveEventMessage.getEventType()));
+    offlineUserIds.forEach(userId -> this.sessionIdResolver.resolveUserSession(userId)
+        .ifPresent(this.queuedLiveEventSendService::flushUserMessages));
+    return storedCount;
+  }
+
+  private void validateBatchEvent(LiveEventMessage liveEventMessage) {
+    validateEventType(liveEventMessage);
+    if (isEmpty(liveEventMessage.getUserIds())) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User ids must not be empty");
+    }
+  }
+
+  private static int groupBySession(LiveEventMessage liveEventMessage,
+      Map<String, List<WebSocketUserSession>> sessionsByUserId,
+      Map<WebSocketUserSession, List<LiveEventMessage>> liveEventsBySession) {
+    var sessionCount = 0;
+    for (String userId : new LinkedHashSet<>(liveEventMessage.getUserIds())) {
+      for (WebSocketUserSession session : sessionsByUserId.getOrDefault(userId, emptyList())) {
+        liveEventsBySession.computeIfAbsent(session, key -> new ArrayList<>())
+            .add(liveEventMessage);
+        sessionCount++;
+      }
+    }
+    return sessionCount;
+  }
+
+  /**
+   * Validates that the live event queue accepts new messages, so producers back off instead of
+   * sending events which can not be retried.
+   */
+  public void validateQueueCapacity() {
+    if (this.liveEventMessageQueue.rejectsNewMessages()) {
+      throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Live event queue is full");
+    }
+  }
+
+  /**
+   * Validates the event type of the given live event message.
+   *
+   * @param liveEventMessage the live event message to validate
+   */
+  public void validateEventType(LiveEventMessage liveEventMessage) {
     try {
       EventType.fromValue(liveEventMessage.getEventType().toString());
     } catch (IllegalArgumentException | NullPointerException e) {
@@ -0,0 +1,351 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.function.Predicate.not;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.cluster.MembershipListener;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveClusterProperties;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link LiveSessionDirectory} shared by all members of the hazelcast cluster. The node ids of each
+ * user are held in a distributed map. Node ids are the uuids of the members, the node ids of a
+ * member leaving the cluster are removed by the oldest remaining member.
+ *
+ * <p>The directory map is read through a near cache, which keeps the node ids of the users and the
+ * absence of users without node ids. Each change of the nodes of a user invalidates the entry of
+ * the user on all members, so lookups of known users never leave the member. Node ids of members
+ * which have left are ignored, entries changed while partitions migrate may still hold them.
+ *
+ * <p>Each member publishes a {@link LiveUserSummary} of its connected users, which is mirrored by
+ * all other members. The recipients of a live event contained in the summary of another member
+ * are read from the map in one batch. Users connected within the last publish interval are still
+ * missing from the summaries, so all other recipients are read one by one, which the near cache
+ * answers locally after their first lookup. Disconnected users are dropped from the summary when
+ * it is rebuilt.
+ *
+ * <p>Each member listens on its own topic for forwarded live events. Forwarded live events are
+ * not acknowledged, a live event forwarded to a member that leaves meanwhile is lost.
+ */
+@Component
+@ConditionalOnProperty(name = "live.cluster.directory", havingValue = "hazelcast")
+@RequiredArgsConstructor
+public class HazelcastLiveSessionDirectory implements LiveSessionDirectory, MembershipListener {
+
+  public static final String DIRECTORY_MAP_NAME = "live-session-directory";
+  static final String SUMMARY_MAP_NAME = "live-session-summaries";
+  static final String FORWARDING_TOPIC_PREFIX = "live-session-node-";
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(HazelcastLiveSessionDirectory.class);
+
+  private final @NonNull HazelcastInstance hazelcastInstance;
+  private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull LiveClusterProperties liveClusterProperties;
+  private final Map<String, LiveUserSummary> remoteSummaries = new ConcurrentHashMap<>();
+  private final Set<String> removedNodeIds = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean summaryChanged = new AtomicBoolean();
+  private volatile LiveUserSummary localSummary;
+  private String localNodeId;
+  private IMap<String, HashSet<String>> nodeIdsByUserId;
+  private IMap<String, byte[]> summariesByNodeId;
+  private ScheduledExecutorService summaryExecutor;
+
+  /**
+   * Joins the directory map, mirrors the summaries of the other members, registers this directory
+   * in the {@link SocketUserRegistry} and starts publishing the summary of this member.
+   */
+  @PostConstruct
+  public void start() {
+    this.localNodeId = this.hazelcastInstance.getCluster().getLocalMember().getUuid().toString();
+    this.localSummary = createSummary();
+    this.nodeIdsByUserId = this.hazelcastInstance.getMap(DIRECTORY_MAP_NAME);
+    this.summariesByNodeId = this.hazelcastInstance.getMap(SUMMARY_MAP_NAME);
+    this.summariesByNodeId.addEntryListener(new SummaryMirror(), true);
+    this.summariesByNodeId.forEach(this::mirrorSummary);
+    this.hazelcastInstance.getCluster().addMembershipListener(this);
+    this.socketUserRegistry.useSessionDirectory(this);
+    publishSummary();
+
+    this.summaryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "live-user-summary");
+      thread.setDaemon(true);
+      return thread;
+    });
+    var publishMillis = this.liveClusterProperties.getSummaryPublishInterval().toMillis();
+    this.summaryExecutor.scheduleWithFixedDelay(this::publishChangedSummary, publishMillis,
+        publishMillis, TimeUnit.MILLISECONDS);
+    var rebuildMillis = this.liveClusterProperties.getSummaryRebuildInterval().toMillis();
+    this.summaryExecutor.scheduleWithFixedDelay(this::rebuildSummary, rebuildMillis,
+        rebuildMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops publishing the summary of this member.
+   *
+   * @throws InterruptedException if interrupted while waiting for a running publication
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    this.summaryExecutor.shutdownNow();
+    this.summaryExecutor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public String getLocalNodeId() {
+    return this.localNodeId;
+  }
+
+  /**
+   * Adds the user to the summary of this member and the local node to the nodes of the user. The
+   * update is submitted without waiting for it, updates of one user submitted by the same member
+   * are applied in order.
+   *
+   * @param userId the id of the user with a session on this node
+   */
+  @Override
+  public void registerUser(String userId) {
+    this.localSummary.add(userId);
+    this.summaryChanged.set(true);
+    this.nodeIdsByUserId.submitToKey(userId, new NodeIdUpdate(this.localNodeId, true));
+  }
+
+  /**
+   * Removes the local node from the nodes of the user without waiting for the update. The user
+   * stays in the summary of this member until the summary is rebuilt.
+   *
+   * @param userId the id of the user without session on this node
+   */
+  @Override
+  public void unregisterUser(String userId) {
+    this.nodeIdsByUserId.submitToKey(userId, new NodeIdUpdate(this.localNodeId, false));
+  }
+
+  /**
+   * Reads the nodes of the user from the directory map through the near cache.
+   *
+   * @param userId the user id to search for
+   * @return the ids of the other nodes holding sessions of the user
+   */
+  @Override
+  public Set<String> findRemoteNodeIds(String userId) {
+    if (isNull(userId)) {
+      return emptySet();
+    }
+    return remoteNodeIdsOf(this.nodeIdsByUserId.get(userId));
+  }
+
+  /**
+   * Reads the nodes of all users the summary of another member may contain from the directory map
+   * in one batch. The other users may have connected after the last summary publication, they
+   * are read one by one, so their absence is kept in the near cache as well.
+   *
+   * @param userIds the user ids to search for
+   * @return the ids of the other nodes by user id, only for users with other nodes
+   */
+  @Override
+  public Map<String, Set<String>> findRemoteNodeIdsByUserId(Collection<String> userIds) {
+    var summarizedUserIds = userIds.stream()
+        .filter(this::mightBeRemote)
+        .collect(Collectors.toSet());
+    Map<String, HashSet<String>> summarizedNodeIdsByUserId = summarizedUserIds.isEmpty()
+        ? emptyMap() : this.nodeIdsByUserId.getAll(summarizedUserIds);
+    var nodeIdsByUserId = new LinkedHashMap<String, Set<String>>();
+    userIds.stream()
+        .filter(Objects::nonNull)
+        .forEach(userId -> {
+          var nodeIds = remoteNodeIdsOf(summarizedUserIds.contains(userId)
+              ? summarizedNodeIdsByUserId.get(userId) : this.nodeIdsByUserId.get(userId));
+          if (!nodeIds.isEmpty()) {
+            nodeIdsByUserId.put(userId, nodeIds);
+          }
+        });
+    return nodeIdsByUserId;
+  }
+
+  private boolean mightBeRemote(String userId) {
+    return nonNull(userId) && this.remoteSummaries.values().stream()
+        .anyMatch(summary -> summary.mightContain(userId));
+  }
+
+  private Set<String> remoteNodeIdsOf(Set<String> nodeIds) {
+    if (isNull(nodeIds)) {
+      return emptySet();
+    }
+    return nodeIds.stream()
+        .filter(not(this.localNodeId::equals))
+        .filter(not(this.removedNodeIds::contains))
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public void forwardLiveEvent(String nodeId, LiveEventMessage liveEventMessage) {
+    try {
+      this.hazelcastInstance.<String>getTopic(FORWARDING_TOPIC_PREFIX + nodeId)
+          .publish(this.objectMapper.writeValueAsString(liveEventMessage));
+    } catch (JsonProcessingException e) {
+      LOGGER.error("Live event with type {} can not be forwarded to node {}",
+          liveEventMessage.getEventType(), nodeId, e);
+    }
+  }
+
+  @Override
+  public void receiveForwardedLiveEvents(Consumer<LiveEventMessage> liveEventHandler) {
+    this.hazelcastInstance.<String>getTopic(FORWARDING_TOPIC_PREFIX + this.localNodeId)
+        .addMessageListener(message -> {
+          try {
+            liveEventHandler.accept(this.objectMapper
+                .readValue(message.getMessageObject(), LiveEventMessage.class));
+          } catch (JsonProcessingException e) {
+            LOGGER.error("Forwarded live event of node {} can not be read",
+                message.getPublishingMember().getUuid(), e);
+          }
+        });
+  }
+
+  @Override
+  public void memberAdded(MembershipEvent membershipEvent) {
+    // the users of a new member are registered by the member itself
+  }
+
+  /**
+   * Drops the summary of the removed member and ignores its node id from now on, since the near
+   * cache may still hold it. If this member is the oldest one, the node id of the removed member
+   * is removed from the maps.
+   *
+   * @param membershipEvent the {@link MembershipEvent}
+   */
+  @Override
+  public void memberRemoved(MembershipEvent membershipEvent) {
+    var removedNodeId = membershipEvent.getMember().getUuid().toString();
+    this.remoteSummaries.remove(removedNodeId);
+    this.removedNodeIds.add(removedNodeId);
+    var oldestMember = membershipEvent.getMembers().iterator().next();
+    if (oldestMember.localMember()) {
+      LOGGER.info("Remove users of node {} from the session directory", removedNodeId);
+      this.summariesByNodeId.delete(removedNodeId);
+      this.nodeIdsByUserId.executeOnEntries(new NodeIdUpdate(removedNodeId, false));
+    }
+  }
+
+  private LiveUserSummary createSummary() {
+    return LiveUserSummary.create(this.liveClusterProperties.getSummaryExpectedUsers(),
+        this.liveClusterProperties.getSummaryFalsePositiveRate());
+  }
+
+  private void publishChangedSummary() {
+    if (this.summaryChanged.getAndSet(false)) {
+      publishSummary();
+    }
+  }
+
+  /**
+   * Swaps in an empty summary before filling it with the connected users, so users registering
+   * meanwhile are never missing from it.
+   */
+  private void rebuildSummary() {
+    var summary = createSummary();
+    this.localSummary = summary;
+    this.socketUserRegistry.retrieveAllUsers().stream()
+        .map(WebSocketUserSession::getUserId)
+        .filter(Objects::nonNull)
+        .forEach(summary::add);
+    this.summaryChanged.set(false);
+    publishSummary();
+  }
+
+  private void publishSummary() {
+    try {
+      this.summariesByNodeId.set(this.localNodeId, this.localSummary.toByteArray());
+    } catch (RuntimeException e) {
+      this.summaryChanged.set(true);
+      LOGGER.warn("Summary of node {} can not be published", this.localNodeId, e);
+    }
+  }
+
+  private void mirrorSummary(String nodeId, byte[] summary) {
+    if (!this.localNodeId.equals(nodeId)) {
+      this.remoteSummaries.put(nodeId, LiveUserSummary.fromByteArray(summary));
+    }
+  }
+
+  /**
+   * Mirrors the published summaries of the other members.
+   */
+  private class SummaryMirror implements EntryAddedListener<String, byte[]>,
+      EntryUpdatedListener<String, byte[]>, EntryRemovedListener<String, byte[]> {
+
+    @Override
+    public void entryAdded(EntryEvent<String, byte[]> event) {
+      mirrorSummary(event.getKey(), event.getValue());
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<String, byte[]> event) {
+      mirrorSummary(event.getKey(), event.getValue());
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<String, byte[]> event) {
+      remoteSummaries.remove(event.getKey());
+    }
+
+  }
+
+  /**
+   * Adds the node id to or removes it from the node ids of a user on the owning member. Entries
+   * are only written if their node ids change.
+   */
+  record NodeIdUpdate(String nodeId, boolean registered)
+      implements EntryProcessor<String, HashSet<String>, Void> {
+
+    @Override
+    public Void process(Map.Entry<String, HashSet<String>> entry) {
+      var nodeIds = isNull(entry.getValue()) ? new HashSet<String>() : entry.getValue();
+      var changed = this.registered ? nodeIds.add(this.nodeId) : nodeIds.remove(this.nodeId);
+      if (changed) {
+        entry.setValue(nodeIds.isEmpty() ? null : nodeIds);
+      }
+      return null;
+    }
+
+  }
+
+}
@@ -0,0 +1,124 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import static java.util.Collections.emptySet;
+import static java.util.Objects.isNull;
+import static java.util.function.Predicate.not;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link LiveSessionDirectory} held in memory. As a bean it is the directory of a single node, so
+ * no live event is forwarded. Further nodes sharing the same directory can be created with
+ * {@link #newNode(SocketUserRegistry)}, e.g. to run several nodes in one process.
+ */
+@Component
+@ConditionalOnProperty(name = "live.cluster.directory", havingValue = "in-memory",
+    matchIfMissing = true)
+public class InMemoryLiveSessionDirectory implements LiveSessionDirectory {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryLiveSessionDirectory.class);
+
+  private final String localNodeId = UUID.randomUUID().toString();
+  private final SocketUserRegistry socketUserRegistry;
+  private final Map<String, Set<String>> nodeIdsByUserId;
+  private final Map<String, Consumer<LiveEventMessage>> liveEventHandlersByNodeId;
+
+  @Autowired
+  public InMemoryLiveSessionDirectory(@NonNull SocketUserRegistry socketUserRegistry) {
+    this(socketUserRegistry, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+  }
+
+  private InMemoryLiveSessionDirectory(SocketUserRegistry socketUserRegistry,
+      Map<String, Set<String>> nodeIdsByUserId,
+      Map<String, Consumer<LiveEventMessage>> liveEventHandlersByNodeId) {
+    this.socketUserRegistry = socketUserRegistry;
+    this.nodeIdsByUserId = nodeIdsByUserId;
+    this.liveEventHandlersByNodeId = liveEventHandlersByNodeId;
+  }
+
+  /**
+   * Registers this directory in the {@link SocketUserRegistry} of the node.
+   */
+  @PostConstruct
+  public void start() {
+    this.socketUserRegistry.useSessionDirectory(this);
+  }
+
+  /**
+   * Creates another node sharing the users and forwarding of this directory.
+   *
+   * @param socketUserRegistry the {@link SocketUserRegistry} of the new node
+   * @return the started directory of the new node
+   */
+  public InMemoryLiveSessionDirectory newNode(@NonNull SocketUserRegistry socketUserRegistry) {
+    var node = new InMemoryLiveSessionDirectory(socketUserRegistry, this.nodeIdsByUserId,
+        this.liveEventHandlersByNodeId);
+    node.start();
+    return node;
+  }
+
+  @Override
+  public String getLocalNodeId() {
+    return this.localNodeId;
+  }
+
+  @Override
+  public void registerUser(String userId) {
+    this.nodeIdsByUserId.compute(userId, (id, nodeIds) -> {
+      var userNodeIds = isNull(nodeIds) ? ConcurrentHashMap.<String>newKeySet() : nodeIds;
+      userNodeIds.add(this.localNodeId);
+      return userNodeIds;
+    });
+  }
+
+  @Override
+  public void unregisterUser(String userId) {
+    this.nodeIdsByUserId.computeIfPresent(userId, (id, nodeIds) -> {
+      nodeIds.remove(this.localNodeId);
+      return nodeIds.isEmpty() ? null : nodeIds;
+    });
+  }
+
+  @Override
+  public Set<String> findRemoteNodeIds(String userId) {
+    var nodeIds = isNull(userId) ? null : this.nodeIdsByUserId.get(userId);
+    if (isNull(nodeIds)) {
+      return emptySet();
+    }
+    return nodeIds.stream()
+        .filter(not(this.localNodeId::equals))
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public void forwardLiveEvent(String nodeId, LiveEventMessage liveEventMessage) {
+    var liveEventHandler = this.liveEventHandlersByNodeId.get(nodeId);
+    if (isNull(liveEventHandler)) {
+      LOGGER.warn("Live event with type {} can not be forwarded to unknown node {}",
+          liveEventMessage.getEventType(), nodeId);
+      return;
+    }
+    liveEventHandler.accept(liveEventMessage);
+  }
+
+  @Override
+  public void receiveForwardedLiveEvents(Consumer<LiveEventMessage> liveEventHandler) {
+    this.liveEventHandlersByNodeId.put(this.localNodeId, liveEventHandler);
+  }
+
+}
@@ -0,0 +1,114 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the ids of the users connected to one node. A summary never denies a user it
+ * contains, but may claim a user it does not contain with the false positive rate it has been
+ * sized for. Users are added without lock, a summary can not remove users and is rebuilt instead.
+ */
+public class LiveUserSummary {
+
+  private static final double LN_2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final int bitCount;
+  private final int hashCount;
+
+  private LiveUserSummary(AtomicLongArray words, int hashCount) {
+    this.words = words;
+    this.bitCount = words.length() * Long.SIZE;
+    this.hashCount = hashCount;
+  }
+
+  /**
+   * Creates an empty summary sized for the given amount of users.
+   *
+   * @param expectedUsers     the amount of users the summary is sized for
+   * @param falsePositiveRate the rate of false positives with the expected amount of users
+   * @return the empty {@link LiveUserSummary}
+   */
+  public static LiveUserSummary create(int expectedUsers, double falsePositiveRate) {
+    var users = Math.max(1, expectedUsers);
+    var bits = (long) Math.ceil(-users * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+    var wordCount = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, (bits + Long.SIZE - 1)
+        / Long.SIZE);
+    var hashCount = (int) Math.max(1, Math.round((double) wordCount * Long.SIZE / users * LN_2));
+    return new LiveUserSummary(new AtomicLongArray(wordCount), hashCount);
+  }
+
+  /**
+   * Reads a summary written by {@link #toByteArray()}.
+   *
+   * @param bytes the written summary
+   * @return the read {@link LiveUserSummary}
+   */
+  public static LiveUserSummary fromByteArray(byte[] bytes) {
+    var buffer = ByteBuffer.wrap(bytes);
+    var hashCount = buffer.getInt();
+    var words = new long[buffer.remaining() / Long.BYTES];
+    buffer.asLongBuffer().get(words);
+    return new LiveUserSummary(new AtomicLongArray(words), hashCount);
+  }
+
+  /**
+   * Adds the given user to the summary.
+   *
+   * @param userId the id of the user
+   */
+  public void add(String userId) {
+    var hash = hash(userId);
+    var firstHash = (int) hash;
+    var secondHash = (int) (hash >>> 32);
+    for (int i = 0; i < this.hashCount; i++) {
+      var bit = Math.floorMod(firstHash + i * secondHash, this.bitCount);
+      var mask = 1L << bit;
+      this.words.getAndAccumulate(bit / Long.SIZE, mask, (word, bitMask) -> word | bitMask);
+    }
+  }
+
+  /**
+   * Checks if the given user may be contained in the summary.
+   *
+   * @param userId the id of the user
+   * @return false if the user is not contained, true if the user may be contained
+   */
+  public boolean mightContain(String userId) {
+    var hash = hash(userId);
+    var firstHash = (int) hash;
+    var secondHash = (int) (hash >>> 32);
+    for (int i = 0; i < this.hashCount; i++) {
+      var bit = Math.floorMod(firstHash + i * secondHash, this.bitCount);
+      if ((this.words.get(bit / Long.SIZE) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the summary to publish it to the other nodes.
+   *
+   * @return the written summary
+   */
+  public byte[] toByteArray() {
+    var buffer = ByteBuffer.allocate(Integer.BYTES + this.words.length() * Long.BYTES);
+    buffer.putInt(this.hashCount);
+    for (int i = 0; i < this.words.length(); i++) {
+      buffer.putLong(this.words.get(i));
+    }
+    return buffer.array();
+  }
+
+  private static long hash(String userId) {
+    var hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < userId.length(); i++) {
+      hash = (hash ^ userId.charAt(i)) * 0x100000001b3L;
+    }
+    hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+    hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+
+}
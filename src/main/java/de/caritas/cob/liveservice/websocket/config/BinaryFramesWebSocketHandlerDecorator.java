@@ -0,0 +1,67 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+/**
+ * Decorates the websocket sessions, so the frames of a session which selected a binary encoding of
+ * the live events are sent as binary websocket messages. The STOMP handler sends all frames except
+ * octet streams as text messages, which would corrupt binary payloads like CBOR. SockJS sessions
+ * only transport text, they are not decorated and can not select a binary encoding.
+ */
+public class BinaryFramesWebSocketHandlerDecorator extends WebSocketHandlerDecorator {
+
+  /**
+   * Session attribute holding the {@link AtomicBoolean} which switches the session to binary
+   * frames. Only sessions able to transport binary frames have this attribute.
+   */
+  public static final String BINARY_FRAMES = "liveBinaryFrames";
+
+  /**
+   * Creates the decorator of the given handler.
+   *
+   * @param delegate the decorated {@link WebSocketHandler}
+   */
+  public BinaryFramesWebSocketHandlerDecorator(WebSocketHandler delegate) {
+    super(delegate);
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+    if (session instanceof SockJsSession) {
+      super.afterConnectionEstablished(session);
+      return;
+    }
+    var binaryFrames = new AtomicBoolean();
+    session.getAttributes().put(BINARY_FRAMES, binaryFrames);
+    super.afterConnectionEstablished(new BinaryFramesSession(session, binaryFrames));
+  }
+
+  private static class BinaryFramesSession extends WebSocketSessionDecorator {
+
+    private final AtomicBoolean binaryFrames;
+
+    private BinaryFramesSession(WebSocketSession session, AtomicBoolean binaryFrames) {
+      super(session);
+      this.binaryFrames = binaryFrames;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+      if (this.binaryFrames.get() && message instanceof TextMessage textMessage) {
+        super.sendMessage(new BinaryMessage(textMessage.asBytes()));
+      } else {
+        super.sendMessage(message);
+      }
+    }
+  }
+
+}
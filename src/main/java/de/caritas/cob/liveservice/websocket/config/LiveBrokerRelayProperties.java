@@ -0,0 +1,97 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the optional relay to an external STOMP broker, which replaces the in-memory
+ * simple broker so several instances of the service share their subscriptions and users. The
+ * broker must accept the user destinations of the sessions, e.g. {@code /events-user{sessionId}},
+ * as they are, like ActiveMQ Artemis does.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.broker.relay")
+public class LiveBrokerRelayProperties {
+
+  /**
+   * Enables the relay to the external STOMP broker.
+   */
+  private boolean enabled = false;
+
+  /**
+   * Host of the STOMP broker.
+   */
+  @NotBlank
+  private String host = "localhost";
+
+  /**
+   * STOMP port of the broker.
+   */
+  @Min(1)
+  @Max(65535)
+  private int port = 61613;
+
+  /**
+   * Login of the connections opened on behalf of the socket sessions.
+   */
+  @NotBlank
+  private String clientLogin = "guest";
+
+  /**
+   * Passcode of the connections opened on behalf of the socket sessions.
+   */
+  @NotNull
+  private String clientPasscode = "guest";
+
+  /**
+   * Login of the shared connection used to publish live events.
+   */
+  @NotBlank
+  private String systemLogin = "guest";
+
+  /**
+   * Passcode of the shared connection used to publish live events.
+   */
+  @NotNull
+  private String systemPasscode = "guest";
+
+  /**
+   * Virtual host of the broker, the relay host is used if not set.
+   */
+  private String virtualHost;
+
+  /**
+   * Interval in which the shared connection sends heartbeats to the broker.
+   */
+  @NotNull
+  private Duration systemHeartbeatSendInterval = Duration.ofSeconds(10);
+
+  /**
+   * Interval in which the shared connection expects heartbeats from the broker.
+   */
+  @NotNull
+  private Duration systemHeartbeatReceiveInterval = Duration.ofSeconds(10);
+
+  /**
+   * Destination to which user destinations that can not be resolved locally are broadcast, so
+   * the instance holding the session of the user can deliver them.
+   */
+  @NotBlank
+  private String userDestinationBroadcast = "/topic/live-unresolved-user-destination";
+
+  /**
+   * Destination on which the instances exchange the users of their socket sessions.
+   */
+  @NotBlank
+  private String userRegistryBroadcast = "/topic/live-user-registry";
+
+}
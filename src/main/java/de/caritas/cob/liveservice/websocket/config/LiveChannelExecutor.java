@@ -0,0 +1,45 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Executor of a client channel, which exposes its load to the metrics.
+ */
+public interface LiveChannelExecutor extends TaskExecutor {
+
+  /**
+   * Returns the name of the channel, e.g. inbound.
+   *
+   * @return the name of the channel
+   */
+  String getChannelName();
+
+  /**
+   * Returns the amount of messages waiting for a thread.
+   *
+   * @return the amount of waiting messages
+   */
+  int getQueueSize();
+
+  /**
+   * Returns the amount of threads handling a message.
+   *
+   * @return the amount of active threads
+   */
+  int getActiveCount();
+
+  /**
+   * Returns the amount of threads of the executor.
+   *
+   * @return the amount of threads
+   */
+  int getPoolSize();
+
+  /**
+   * Returns the amount of messages rejected since the start.
+   *
+   * @return the amount of rejected messages
+   */
+  long getRejectedCount();
+
+}
@@ -0,0 +1,44 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import lombok.Getter;
+import lombok.NonNull;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the executors of the client inbound and outbound channel, which are registered as channel
+ * executors by the {@link WebSocketConfig} and observed by the metrics. With enabled virtual
+ * threads ({@code spring.threads.virtual.enabled}) the channels run on virtual threads, otherwise
+ * on bounded pools of platform threads.
+ */
+@Getter
+@Component
+public class LiveChannelExecutors {
+
+  private final LiveChannelExecutor inbound;
+  private final LiveChannelExecutor outbound;
+
+  /**
+   * Creates the executors of both channels.
+   *
+   * @param liveChannelProperties the {@link LiveChannelProperties}
+   * @param environment           the {@link Environment} enabling virtual threads
+   */
+  public LiveChannelExecutors(@NonNull LiveChannelProperties liveChannelProperties,
+      @NonNull Environment environment) {
+    var virtualThreads = Threading.VIRTUAL.isActive(environment);
+    this.inbound = createExecutor("inbound", liveChannelProperties.getInbound(), virtualThreads);
+    this.outbound = createExecutor("outbound", liveChannelProperties.getOutbound(),
+        virtualThreads);
+  }
+
+  private static LiveChannelExecutor createExecutor(String channelName,
+      ChannelExecutor channelExecutor, boolean virtualThreads) {
+    return virtualThreads
+        ? new VirtualLiveChannelExecutor(channelName, channelExecutor)
+        : new PooledLiveChannelExecutor(channelName, channelExecutor);
+  }
+
+}
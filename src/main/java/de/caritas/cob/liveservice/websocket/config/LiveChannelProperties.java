@@ -0,0 +1,114 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the executors of the client inbound channel, which handles the frames received
+ * from the socket sessions, and the client outbound channel, which writes the frames to the socket
+ * sessions. The pool settings apply to platform threads, with enabled virtual threads only the
+ * virtual concurrency limit and the order apply.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.channel")
+public class LiveChannelProperties {
+
+  /**
+   * Executor of the client inbound channel.
+   */
+  @Valid
+  @NotNull
+  private ChannelExecutor inbound = new ChannelExecutor();
+
+  /**
+   * Executor of the client outbound channel.
+   */
+  @Valid
+  @NotNull
+  private ChannelExecutor outbound = new ChannelExecutor();
+
+  /**
+   * Amount of threads of the scheduler of the message broker.
+   */
+  @Min(1)
+  private int brokerSchedulerPoolSize = 10;
+
+  /**
+   * Configuration of the executor of one channel.
+   */
+  @Data
+  public static class ChannelExecutor {
+
+    /**
+     * Amount of threads kept running.
+     */
+    @Min(1)
+    private int corePoolSize = 8;
+
+    /**
+     * Maximum amount of threads, further threads are started once the queue is full.
+     */
+    @Min(1)
+    private int maxPoolSize = 16;
+
+    /**
+     * Maximum amount of messages waiting for a thread, further messages are rejected.
+     */
+    @Min(0)
+    private int queueCapacity = 1000;
+
+    /**
+     * Time threads above the core pool size are kept idle before they stop.
+     */
+    @NotNull
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * Maximum amount of messages handled at once on virtual threads, further senders wait.
+     */
+    @Min(1)
+    private int virtualConcurrencyLimit = 10_000;
+
+    /**
+     * Handling of the messages rejected by the full executor.
+     */
+    @NotNull
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+    /**
+     * Handles the messages of one socket session in the order they are sent to the channel, the
+     * messages of different sessions are still handled in parallel. Failures of ordered messages
+     * are only logged, so ordered inbound frames failing e.g. with an invalid token are not
+     * answered with an error frame.
+     */
+    private boolean preserveOrder = false;
+
+  }
+
+  /**
+   * Handling of messages rejected by a full channel executor.
+   */
+  public enum RejectionPolicy {
+
+    /**
+     * Handles the message on the sending thread, which slows down the sender, e.g. the reading of
+     * frames of the socket session or the sending of live events.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Drops the message. Dropped live events are sent again by the retries of the queue, dropped
+     * inbound frames are answered with an error frame, unless their order is preserved.
+     */
+    ABORT
+  }
+
+}
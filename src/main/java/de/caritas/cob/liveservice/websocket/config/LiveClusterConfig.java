@@ -0,0 +1,67 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static de.caritas.cob.liveservice.websocket.cluster.HazelcastLiveSessionDirectory.DIRECTORY_MAP_NAME;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the embedded hazelcast member holding the shared session directory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "live.cluster.directory", havingValue = "hazelcast")
+public class LiveClusterConfig {
+
+  /**
+   * Starts the hazelcast member of this instance, which joins the configured members. The
+   * directory map is read through a near cache, which is invalidated right away whenever the nodes
+   * of a user change, so lookups of known users stay on this member.
+   *
+   * @param liveClusterProperties the {@link LiveClusterProperties}
+   * @return the started {@link HazelcastInstance}
+   */
+  @Bean(destroyMethod = "shutdown")
+  public HazelcastInstance liveClusterHazelcastInstance(
+      LiveClusterProperties liveClusterProperties) {
+    var config = new Config()
+        .setClusterName(liveClusterProperties.getClusterName())
+        .setProperty("hazelcast.logging.type", "slf4j")
+        .setProperty("hazelcast.phone.home.enabled", "false")
+        .setProperty("hazelcast.shutdownhook.enabled", "false")
+        .setProperty("hazelcast.map.invalidation.batch.enabled", "false")
+        .addMapConfig(directoryMapConfig(liveClusterProperties));
+    var networkConfig = config.getNetworkConfig()
+        .setPort(liveClusterProperties.getPort())
+        .setPortAutoIncrement(true);
+    networkConfig.getJoin().getMulticastConfig().setEnabled(false);
+    networkConfig.getJoin().getAutoDetectionConfig().setEnabled(false);
+    networkConfig.getJoin().getTcpIpConfig()
+        .setEnabled(true)
+        .setMembers(liveClusterProperties.getMembers());
+    return Hazelcast.newHazelcastInstance(config);
+  }
+
+  private MapConfig directoryMapConfig(LiveClusterProperties liveClusterProperties) {
+    var evictionConfig = new EvictionConfig()
+        .setEvictionPolicy(EvictionPolicy.LRU)
+        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+        .setSize(liveClusterProperties.getDirectoryNearCacheSize());
+    return new MapConfig(DIRECTORY_MAP_NAME)
+        .setNearCacheConfig(new NearCacheConfig(DIRECTORY_MAP_NAME)
+            .setInMemoryFormat(InMemoryFormat.OBJECT)
+            .setInvalidateOnChange(true)
+            .setCacheLocalEntries(true)
+            .setEvictionConfig(evictionConfig));
+  }
+
+}
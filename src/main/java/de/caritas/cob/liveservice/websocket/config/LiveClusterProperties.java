@@ -0,0 +1,95 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the session directory, which maps each user to the instances of the service
+ * holding sessions of the user, so live events can be forwarded to the instances of their
+ * recipients.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.cluster")
+public class LiveClusterProperties {
+
+  /**
+   * Store of the session directory. The in-memory store only knows this instance, the hazelcast
+   * store is shared by all instances joining the same hazelcast cluster.
+   */
+  @NotNull
+  private Directory directory = Directory.IN_MEMORY;
+
+  /**
+   * Name of the hazelcast cluster of the instances.
+   */
+  @NotBlank
+  private String clusterName = "live-service";
+
+  /**
+   * Port of the embedded hazelcast member, the next free port is used if it is taken.
+   */
+  @Min(1)
+  @Max(65535)
+  private int port = 5701;
+
+  /**
+   * Addresses of the other instances, e.g. {@code 10.0.0.2:5701}. The member only joins these
+   * instances, without addresses it does not join a cluster.
+   */
+  @NotNull
+  private List<String> members = new ArrayList<>();
+
+  /**
+   * Amount of users whose nodes, or whose absence from the directory, each instance keeps in its
+   * near cache of the directory.
+   */
+  @Min(1)
+  private int directoryNearCacheSize = 100_000;
+
+  /**
+   * Amount of users the summary of the connected users of each instance is sized for.
+   */
+  @Min(1)
+  private int summaryExpectedUsers = 20_000;
+
+  /**
+   * Rate of users a summary claims without holding them, if it holds the expected amount of users.
+   */
+  @DecimalMin("0.0001")
+  @DecimalMax("0.5")
+  private double summaryFalsePositiveRate = 0.01;
+
+  /**
+   * Interval in which the summary of this instance is published, if users have connected.
+   */
+  @NotNull
+  private Duration summaryPublishInterval = Duration.ofSeconds(1);
+
+  /**
+   * Interval in which the summary of this instance is rebuilt to drop disconnected users.
+   */
+  @NotNull
+  private Duration summaryRebuildInterval = Duration.ofMinutes(1);
+
+  /**
+   * Stores of the session directory.
+   */
+  public enum Directory {
+    IN_MEMORY,
+    HAZELCAST
+  }
+
+}
@@ -0,0 +1,51 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the optional journal which persists queued live event messages on local disk,
+ * so they survive a restart of the service.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.event.journal")
+public class LiveEventJournalProperties {
+
+  /**
+   * Enables the journal.
+   */
+  private boolean enabled = false;
+
+  /**
+   * Directory of the journal segment files, should be located on a persistent volume.
+   */
+  @NotBlank
+  private String directory = "live-event-journal";
+
+  /**
+   * Size of one memory-mapped segment file, between 64KB and 1GB.
+   */
+  @NotNull
+  private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+  /**
+   * Interval in which written entries are forced to the storage device.
+   */
+  @NotNull
+  private Duration syncInterval = Duration.ofMillis(50);
+
+  /**
+   * Interval in which outdated segments are compacted.
+   */
+  @NotNull
+  private Duration compactionInterval = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,49 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the mailbox which stores live events for users without socket session until
+ * they subscribe again.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.event.mailbox")
+public class LiveEventMailboxProperties {
+
+  /**
+   * Enables storing live events for users without socket session.
+   */
+  private boolean enabled = false;
+
+  /**
+   * Time stored live events wait for their user, if no time to live is set for their event type.
+   */
+  @NotNull
+  private Duration timeToLive = Duration.ofMinutes(10);
+
+  /**
+   * Time stored live events of the event type wait for their user.
+   */
+  private Map<EventType, Duration> eventTypes = new EnumMap<>(EventType.class);
+
+  /**
+   * Returns the time to live of stored live events of the given {@link EventType}.
+   *
+   * @param eventType the {@link EventType}
+   * @return the configured time to live of the event type or the default time to live
+   */
+  public Duration timeToLiveOf(EventType eventType) {
+    return this.eventTypes.getOrDefault(eventType, this.timeToLive);
+  }
+
+}
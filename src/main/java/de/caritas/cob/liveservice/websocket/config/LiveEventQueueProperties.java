@@ -0,0 +1,127 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the limits of the queue holding live event messages until they are
+ * acknowledged.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.event.queue")
+public class LiveEventQueueProperties {
+
+  /**
+   * Maximum amount of queued messages of all users.
+   */
+  @Min(1)
+  private int maxMessages = 100_000;
+
+  /**
+   * Maximum amount of queued messages of one user.
+   */
+  @Min(1)
+  private int maxMessagesPerUser = 500;
+
+  /**
+   * Policy applied if a limit is reached.
+   */
+  @NotNull
+  private EvictionPolicy evictionPolicy = EvictionPolicy.DROP_OLDEST;
+
+  /**
+   * Priorities of the event types for {@link EvictionPolicy#DROP_LOWEST_PRIORITY}, messages of
+   * event types without priority have priority 0.
+   */
+  private Map<EventType, Integer> priorities = new EnumMap<>(EventType.class);
+
+  /**
+   * Fraction of the maximum heap which may be used after a garbage collection before the queue
+   * stops growing, 1 disables the heap pressure check.
+   */
+  @DecimalMin("0.1")
+  @DecimalMax("1.0")
+  private double heapPressureThreshold = 0.85;
+
+  /**
+   * Handling of the queued messages of a socket session which has been removed.
+   */
+  @NotNull
+  private SessionRemovedPolicy sessionRemovedPolicy = SessionRemovedPolicy.PARK;
+
+  /**
+   * Time parked messages wait for a new socket session of their user before they are given up.
+   */
+  @NotNull
+  private Duration parkTimeout = Duration.ofMinutes(2);
+
+  /**
+   * Maximum amount of parked messages of one user, the oldest parked messages are removed to make
+   * room.
+   */
+  @Min(1)
+  private int maxParkedMessagesPerUser = 100;
+
+  /**
+   * Returns the eviction priority of the given {@link EventType}.
+   *
+   * @param eventType the {@link EventType}
+   * @return the configured priority or 0
+   */
+  public int priorityOf(EventType eventType) {
+    return this.priorities.getOrDefault(eventType, 0);
+  }
+
+  /**
+   * Policies applied if a queue limit is reached.
+   */
+  public enum EvictionPolicy {
+
+    /**
+     * Removes the oldest queued messages of the user or of all users to make room.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Removes the queued messages with the lowest event type priority to make room, the oldest
+     * message first within the same priority.
+     */
+    DROP_LOWEST_PRIORITY,
+
+    /**
+     * Keeps the queued messages, new messages are sent once without retries and producers are
+     * answered with too many requests while the queue of all users is full.
+     */
+    REJECT_NEW
+  }
+
+  /**
+   * Handling of the queued messages of a removed socket session.
+   */
+  public enum SessionRemovedPolicy {
+
+    /**
+     * Removes the messages from the queue.
+     */
+    DROP,
+
+    /**
+     * Stops the retries of the messages until the user subscribes with a new socket session or the
+     * park timeout is reached.
+     */
+    PARK
+  }
+
+}
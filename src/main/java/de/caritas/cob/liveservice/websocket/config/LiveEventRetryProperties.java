@@ -0,0 +1,64 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the exponential backoff between retries of queued live events.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.event.retry.backoff")
+public class LiveEventRetryProperties {
+
+  /**
+   * Delay between the first and the second retry of a message.
+   */
+  @NotNull
+  private Duration initialDelay = Duration.ofSeconds(1);
+
+  /**
+   * Factor the delay is multiplied with after each retry.
+   */
+  @DecimalMin("1.0")
+  private double multiplier = 2.0;
+
+  /**
+   * Upper limit of the delay between two retries.
+   */
+  @NotNull
+  private Duration maxDelay = Duration.ofSeconds(30);
+
+  /**
+   * Fraction of the delay which is randomized, 0 disables and 1 enables full jitter.
+   */
+  @DecimalMin("0.0")
+  @DecimalMax("1.0")
+  private double jitter = 0.2;
+
+  /**
+   * Limits overriding the global settings for single event types.
+   */
+  private Map<EventType, EventTypeLimits> eventTypes = new EnumMap<>(EventType.class);
+
+  /**
+   * Retry limits of one {@link EventType}.
+   */
+  @Data
+  public static class EventTypeLimits {
+
+    private Duration maxDelay;
+    private Integer maxRetryAmount;
+  }
+
+}
@@ -0,0 +1,91 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static org.springframework.web.socket.WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.server.ServerEndpointConfig;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.standard.TomcatRequestUpgradeStrategy;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+/**
+ * Handshake handler of the websocket endpoints, which negotiates the permessage-deflate extension
+ * offered by the client if compression is enabled. Tomcat falls back to its own installed
+ * extensions if none has been selected, so with disabled compression the offered extensions are
+ * hidden from the upgrade of the request.
+ */
+public class LiveHandshakeHandler extends DefaultHandshakeHandler {
+
+  static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+  private final boolean compressionEnabled;
+
+  /**
+   * Creates the handshake handler.
+   *
+   * @param compressionEnabled true to accept the permessage-deflate extension
+   */
+  public LiveHandshakeHandler(boolean compressionEnabled) {
+    super(compressionEnabled ? new TomcatRequestUpgradeStrategy()
+        : new WithoutExtensionsUpgradeStrategy());
+    this.compressionEnabled = compressionEnabled;
+  }
+
+  @Override
+  protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+      List<WebSocketExtension> requestedExtensions, List<WebSocketExtension> supportedExtensions) {
+    if (!this.compressionEnabled) {
+      return Collections.emptyList();
+    }
+    return requestedExtensions.stream()
+        .filter(extension -> PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+        .toList();
+  }
+
+  private static class WithoutExtensionsUpgradeStrategy extends TomcatRequestUpgradeStrategy {
+
+    @Override
+    protected void upgradeHttpToWebSocket(HttpServletRequest request,
+        HttpServletResponse response, ServerEndpointConfig endpointConfig,
+        Map<String, String> pathParams) throws Exception {
+      super.upgradeHttpToWebSocket(new WithoutExtensionsRequest(request), response,
+          endpointConfig, pathParams);
+    }
+  }
+
+  private static class WithoutExtensionsRequest extends HttpServletRequestWrapper {
+
+    private WithoutExtensionsRequest(HttpServletRequest request) {
+      super(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return isExtensionsHeader(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return isExtensionsHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+          .filter(name -> !isExtensionsHeader(name))
+          .toList());
+    }
+
+    private static boolean isExtensionsHeader(String name) {
+      return SEC_WEBSOCKET_EXTENSIONS.equalsIgnoreCase(name);
+    }
+  }
+
+}
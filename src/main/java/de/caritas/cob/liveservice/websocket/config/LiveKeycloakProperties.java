@@ -0,0 +1,25 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the realm keys used for the verification of socket tokens.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.keycloak.jwks")
+public class LiveKeycloakProperties {
+
+  /**
+   * Interval of the background reload of the realm keys.
+   */
+  @NotNull
+  private Duration refreshInterval = Duration.ofMinutes(5);
+
+}
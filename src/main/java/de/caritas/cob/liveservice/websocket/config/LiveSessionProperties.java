@@ -0,0 +1,50 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the liveness of the socket sessions. The heartbeats are negotiated by the
+ * simple broker, which closes sessions missing the heartbeats of their client. With enabled broker
+ * relay the external broker negotiates the heartbeats. Sessions of clients without heartbeats are
+ * closed by the idle session reaper once no frame has been received for the idle timeout, if it is
+ * enabled.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.session")
+public class LiveSessionProperties {
+
+  /**
+   * Interval of the heartbeats the simple broker sends to the clients, zero for none.
+   */
+  @NotNull
+  private Duration heartbeatSendInterval = Duration.ofSeconds(10);
+
+  /**
+   * Interval of the heartbeats the simple broker expects from the clients, zero for none.
+   */
+  @NotNull
+  private Duration heartbeatReceiveInterval = Duration.ofSeconds(10);
+
+  /**
+   * Time without any received frame, heartbeats included, after which a session is closed and
+   * removed, zero for none. Disabled by default, as clients only receiving live events without
+   * heartbeats do not send any frame. If enabled it must be a multiple of the heartbeat receive
+   * interval and all clients must negotiate heartbeats.
+   */
+  @NotNull
+  private Duration idleTimeout = Duration.ZERO;
+
+  /**
+   * Interval of the search for idle sessions.
+   */
+  @NotNull
+  private Duration reapInterval = Duration.ofSeconds(30);
+
+}
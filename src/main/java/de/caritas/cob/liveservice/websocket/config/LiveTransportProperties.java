@@ -0,0 +1,56 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static java.util.Objects.isNull;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of the encoding of the frames sent to the socket sessions. Both options only take
+ * effect for clients asking for them, all other clients keep receiving uncompressed JSON.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "live.transport")
+public class LiveTransportProperties {
+
+  /**
+   * Accepts the permessage-deflate extension offered by clients in the websocket handshake. Each
+   * compressing session holds its own deflater and inflater, which costs some hundred kilobytes of
+   * native memory per session.
+   */
+  private boolean compressionEnabled = true;
+
+  /**
+   * Sends the live events encoded as CBOR in binary frames to sessions of the plain websocket
+   * endpoint connecting with the STOMP header {@code content-type:application/cbor}.
+   */
+  private boolean cborEnabled = true;
+
+  /**
+   * Returns the content type of the live events for a session connecting with the given STOMP
+   * content type header.
+   *
+   * @param requestedContentType the content type header of the connect frame
+   * @return CBOR if it is requested and enabled, otherwise null for the default JSON encoding
+   */
+  public MimeType contentTypeOf(String requestedContentType) {
+    if (!this.cborEnabled || isNull(requestedContentType)) {
+      return null;
+    }
+    try {
+      return APPLICATION_CBOR.equalsTypeAndSubtype(
+          MimeTypeUtils.parseMimeType(requestedContentType)) ? APPLICATION_CBOR : null;
+    } catch (InvalidMimeTypeException e) {
+      return null;
+    }
+  }
+
+}
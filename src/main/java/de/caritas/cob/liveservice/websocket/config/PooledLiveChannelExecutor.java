@@ -0,0 +1,56 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.RejectionPolicy;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded pool of platform threads of a client channel, which counts the messages it rejects and
+ * applies the configured {@link RejectionPolicy} to them.
+ */
+public class PooledLiveChannelExecutor extends ThreadPoolTaskExecutor
+    implements LiveChannelExecutor {
+
+  @Getter
+  private final String channelName;
+  private final RejectionPolicy rejectionPolicy;
+  private final LongAdder rejectedCount = new LongAdder();
+
+  /**
+   * Creates the executor of the given channel, the executor is started by the message broker
+   * configuration.
+   *
+   * @param channelName     the name of the channel, e.g. inbound
+   * @param channelExecutor the configuration of the executor
+   */
+  public PooledLiveChannelExecutor(String channelName, ChannelExecutor channelExecutor) {
+    this.channelName = channelName;
+    this.rejectionPolicy = channelExecutor.getRejectionPolicy();
+    setCorePoolSize(channelExecutor.getCorePoolSize());
+    setMaxPoolSize(channelExecutor.getMaxPoolSize());
+    setQueueCapacity(channelExecutor.getQueueCapacity());
+    setKeepAliveSeconds((int) channelExecutor.getKeepAlive().toSeconds());
+    setThreadNamePrefix("client-" + channelName + "-");
+    setRejectedExecutionHandler(this::rejectTask);
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return this.rejectedCount.sum();
+  }
+
+  private void rejectTask(Runnable task, ThreadPoolExecutor executor) {
+    this.rejectedCount.increment();
+    if (this.rejectionPolicy == RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+      task.run();
+      return;
+    }
+    throw new RejectedExecutionException(
+        "Client " + this.channelName + " channel executor is saturated");
+  }
+
+}
@@ -0,0 +1,83 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Executor of a client channel handling each message on a new virtual thread, so blocking
+ * handlers like the token verification of a connect do not hold a platform thread. Senders wait
+ * once the concurrency limit is reached, messages are never rejected.
+ */
+public class VirtualLiveChannelExecutor extends SimpleAsyncTaskExecutor
+    implements LiveChannelExecutor {
+
+  @Getter
+  private final String channelName;
+  private final AtomicInteger waitingCount = new AtomicInteger();
+  private final AtomicInteger activeCount = new AtomicInteger();
+
+  /**
+   * Creates the executor of the given channel.
+   *
+   * @param channelName     the name of the channel, e.g. inbound
+   * @param channelExecutor the configuration of the executor
+   */
+  public VirtualLiveChannelExecutor(String channelName, ChannelExecutor channelExecutor) {
+    super("client-" + channelName + "-");
+    this.channelName = channelName;
+    setVirtualThreads(true);
+    setConcurrencyLimit(channelExecutor.getVirtualConcurrencyLimit());
+    setTaskDecorator(this::trackTask);
+  }
+
+  /**
+   * Counts the given task as waiting until its virtual thread has started.
+   *
+   * @param task the task to execute
+   */
+  @Override
+  public void execute(Runnable task) {
+    this.waitingCount.incrementAndGet();
+    try {
+      super.execute(task);
+    } catch (RuntimeException e) {
+      this.waitingCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  @Override
+  public int getQueueSize() {
+    return this.waitingCount.get();
+  }
+
+  @Override
+  public int getActiveCount() {
+    return this.activeCount.get();
+  }
+
+  @Override
+  public int getPoolSize() {
+    return this.activeCount.get();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return 0;
+  }
+
+  private Runnable trackTask(Runnable task) {
+    return () -> {
+      this.waitingCount.decrementAndGet();
+      this.activeCount.incrementAndGet();
+      try {
+        task.run();
+      } finally {
+        this.activeCount.decrementAndGet();
+      }
+    };
+  }
+
+}
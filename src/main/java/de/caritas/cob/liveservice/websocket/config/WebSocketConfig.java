@@ -1,19 +1,28 @@
 package de.caritas.cob.liveservice.websocket.config;
 
 import static de.caritas.cob.liveservice.websocket.model.Subscription.EVENTS;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import de.caritas.cob.liveservice.websocket.service.BrokerChannelInterceptor;
+import de.caritas.cob.liveservice.websocket.service.BrokerRelayChannelInterceptor;
 import de.caritas.cob.liveservice.websocket.service.ClientInboundChannelInterceptor;
+import java.util.List;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * Global websocket configuration class.
@@ -23,48 +32,148 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  public static final String SOCKJS_ENDPOINT = "/live";
+  public static final String WEBSOCKET_ENDPOINT = "/live/ws";
+
   @Value("${app.base.url}")
   private String appBaseUrl;
 
   private final @NonNull ClientInboundChannelInterceptor clientInboundChannelInterceptor;
+  private final @NonNull BrokerChannelInterceptor brokerChannelInterceptor;
+  private final @NonNull BrokerRelayChannelInterceptor brokerRelayChannelInterceptor;
+  private final @NonNull LiveBrokerRelayProperties liveBrokerRelayProperties;
+  private final @NonNull LiveChannelProperties liveChannelProperties;
+  private final @NonNull LiveChannelExecutors liveChannelExecutors;
+  private final @NonNull LiveTransportProperties liveTransportProperties;
+  private final @NonNull LiveSessionProperties liveSessionProperties;
+  private final @NonNull ObjectMapper objectMapper;
 
   /**
-   * Configures the socket message broker to provide several endpoints.
+   * Configures the socket message broker to provide several endpoints. With enabled broker relay
+   * the subscriptions are relayed to the external STOMP broker, which is shared with the other
+   * instances of the service, otherwise the in-memory simple broker is used, which negotiates the
+   * configured heartbeats with the clients. Subscriptions handled by either broker pass the
+   * interceptor of the broker channel.
    *
    * @param config the message broker registry
    */
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
-    config.enableSimpleBroker(EVENTS.getSubscriptionEndpoint())
+    config.setPreservePublishOrder(this.liveChannelProperties.getOutbound().isPreserveOrder());
+    config.configureBrokerChannel().interceptors(this.brokerChannelInterceptor);
+    if (this.liveBrokerRelayProperties.isEnabled()) {
+      enableStompBrokerRelay(config);
+    } else {
+      var session = this.liveSessionProperties;
+      config.enableSimpleBroker(EVENTS.getSubscriptionEndpoint())
+          .setHeartbeatValue(new long[]{session.getHeartbeatSendInterval().toMillis(),
+              session.getHeartbeatReceiveInterval().toMillis()})
+          .setTaskScheduler(taskScheduler());
+    }
+  }
+
+  private void enableStompBrokerRelay(MessageBrokerRegistry config) {
+    var relay = this.liveBrokerRelayProperties;
+    config.enableStompBrokerRelay(EVENTS.getSubscriptionEndpoint(),
+            relay.getUserDestinationBroadcast(), relay.getUserRegistryBroadcast())
+        .setRelayHost(relay.getHost())
+        .setRelayPort(relay.getPort())
+        .setClientLogin(relay.getClientLogin())
+        .setClientPasscode(relay.getClientPasscode())
+        .setSystemLogin(relay.getSystemLogin())
+        .setSystemPasscode(relay.getSystemPasscode())
+        .setVirtualHost(relay.getVirtualHost())
+        .setSystemHeartbeatSendInterval(relay.getSystemHeartbeatSendInterval().toMillis())
+        .setSystemHeartbeatReceiveInterval(relay.getSystemHeartbeatReceiveInterval().toMillis())
+        .setUserDestinationBroadcast(relay.getUserDestinationBroadcast())
+        .setUserRegistryBroadcast(relay.getUserRegistryBroadcast())
         .setTaskScheduler(taskScheduler());
   }
 
   /**
-   * Registers the global websocket endpoint.
+   * Registers the global websocket endpoints. Both endpoints share the channels, interceptors and
+   * handlers, they only differ in the framing of the frames. The SockJS endpoint supports clients
+   * without websocket support by its fallback transports, the plain endpoint saves the SockJS
+   * framing and handshake negotiation of clients speaking STOMP over plain websockets. The
+   * websocket handshakes of both endpoints negotiate the permessage-deflate compression.
    *
    * @param registry the stomp endpoint registry
    */
   @Override
   public void registerStompEndpoints(StompEndpointRegistry registry) {
-    registry.addEndpoint("/live")
+    var handshakeHandler = new LiveHandshakeHandler(
+        this.liveTransportProperties.isCompressionEnabled());
+    registry.addEndpoint(SOCKJS_ENDPOINT)
+        .setHandshakeHandler(handshakeHandler)
         .setAllowedOriginPatterns(this.appBaseUrl)
         .withSockJS();
+    registry.addEndpoint(WEBSOCKET_ENDPOINT)
+        .setHandshakeHandler(handshakeHandler)
+        .setAllowedOriginPatterns(this.appBaseUrl);
+    registry.setPreserveReceiveOrder(this.liveChannelProperties.getInbound().isPreserveOrder());
   }
 
   /**
-   * Configures additional client inbound handling interceptors.
+   * Decorates the websocket handler, so sessions selecting the CBOR encoding receive binary
+   * frames.
+   *
+   * @param registration the websocket transport registration
+   */
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    registration.addDecoratorFactory(BinaryFramesWebSocketHandlerDecorator::new);
+  }
+
+  /**
+   * Configures the executor and additional interceptors of the client inbound channel.
    *
    * @param registration the socket channel registration
    */
   @Override
   public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.executor(this.liveChannelExecutors.getInbound());
     registration.interceptors(this.clientInboundChannelInterceptor);
+    if (this.liveBrokerRelayProperties.isEnabled()) {
+      registration.interceptors(this.brokerRelayChannelInterceptor);
+    }
+  }
+
+  /**
+   * Configures the executor and additional interceptors of the client outbound channel.
+   *
+   * @param registration the socket channel registration
+   */
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.executor(this.liveChannelExecutors.getOutbound());
+    if (this.liveBrokerRelayProperties.isEnabled()) {
+      registration.interceptors(this.brokerRelayChannelInterceptor);
+    }
+  }
+
+  /**
+   * Adds the CBOR converter for sessions selecting the binary encoding of the live events. It
+   * shares the modules of the JSON object mapper and only converts messages with the CBOR content
+   * type, all other messages are still converted by the default converters.
+   *
+   * @param messageConverters the list of custom message converters
+   * @return true to add the default converters as well
+   */
+  @Override
+  public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+    if (this.liveTransportProperties.isCborEnabled()) {
+      var cborMessageConverter = new MappingJackson2MessageConverter(APPLICATION_CBOR);
+      cborMessageConverter.setObjectMapper(this.objectMapper.copyWith(new CBORFactory()));
+      cborMessageConverter.setStrictContentTypeMatch(true);
+      messageConverters.add(cborMessageConverter);
+    }
+    return true;
   }
 
   @Bean
   public ThreadPoolTaskScheduler taskScheduler() {
     ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-    scheduler.setPoolSize(10);
+    scheduler.setPoolSize(this.liveChannelProperties.getBrokerSchedulerPoolSize());
     scheduler.setThreadNamePrefix("task-scheduler-");
     return scheduler;
   }
@@ -0,0 +1,147 @@
+package de.caritas.cob.liveservice.websocket.journal;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.SerializedLiveEvent;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Encodes and decodes the bodies of journal records. Both record types start with the message id,
+ * an enqueue record additionally holds everything needed to send the serialized event again.
+ */
+final class JournalRecords {
+
+  private static final int ABSENT = -1;
+
+  private JournalRecords() {
+  }
+
+  /**
+   * Encodes the body of an enqueue record.
+   *
+   * @param identifiedMessage the queued message
+   * @return the encoded body or null if the message lacks the user or the serialized event and can
+   *     not be restored
+   */
+  static byte[] encodeEnqueue(IdentifiedMessage identifiedMessage) {
+    var serializedLiveEvent = identifiedMessage.getSerializedLiveEvent();
+    var websocketUserSession = identifiedMessage.getWebsocketUserSession();
+    var liveEventMessage = identifiedMessage.getLiveEventMessage();
+    if (isNull(serializedLiveEvent) || isNull(websocketUserSession)
+        || isNull(websocketUserSession.getUserId()) || isNull(liveEventMessage)
+        || isNull(liveEventMessage.getEventType())) {
+      return null;
+    }
+    var messageId = utf8(identifiedMessage.getMessageId());
+    var userId = utf8(websocketUserSession.getUserId());
+    var eventType = utf8(liveEventMessage.getEventType().getValue());
+    var contentType = isNull(serializedLiveEvent.getContentType()) ? null
+        : utf8(serializedLiveEvent.getContentType().toString());
+    var payload = serializedLiveEvent.getPayload();
+    var body = ByteBuffer.allocate(5 * Integer.BYTES + Long.BYTES + Integer.BYTES
+        + messageId.length + userId.length + eventType.length
+        + (isNull(contentType) ? 0 : contentType.length) + payload.length);
+    putBytes(body, messageId);
+    putBytes(body, userId);
+    putBytes(body, eventType);
+    putBytes(body, contentType);
+    body.putLong(nonNull(identifiedMessage.getCreatedDate())
+        ? identifiedMessage.getCreatedDate().toInstant(ZoneOffset.UTC).toEpochMilli()
+        : System.currentTimeMillis());
+    body.putInt(nonNull(identifiedMessage.getRetryAmount()) ? identifiedMessage.getRetryAmount()
+        : 0);
+    putBytes(body, payload);
+    return body.array();
+  }
+
+  /**
+   * Decodes the body of an enqueue record into a message without socket session and next retry
+   * date.
+   *
+   * @param body the encoded body
+   * @return the decoded {@link IdentifiedMessage}
+   * @throws IllegalArgumentException if the event type is unknown
+   */
+  static IdentifiedMessage decodeEnqueue(byte[] body) {
+    var buffer = ByteBuffer.wrap(body);
+    var messageId = getString(buffer);
+    var userId = getString(buffer);
+    var eventType = EventType.fromValue(getString(buffer));
+    var contentType = getString(buffer);
+    var createdDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()),
+        ZoneOffset.UTC);
+    var retryAmount = buffer.getInt();
+    var payload = getBytes(buffer);
+    return IdentifiedMessage.builder()
+        .messageId(messageId)
+        .websocketUserSession(WebSocketUserSession.builder().userId(userId).build())
+        .liveEventMessage(new LiveEventMessage().eventType(eventType))
+        .serializedLiveEvent(new SerializedLiveEvent(payload,
+            isNull(contentType) ? null : MimeTypeUtils.parseMimeType(contentType)))
+        .retryAmount(retryAmount)
+        .createdDate(createdDate)
+        .build();
+  }
+
+  /**
+   * Encodes the body of a remove record.
+   *
+   * @param messageId the id of the removed message
+   * @return the encoded body
+   */
+  static byte[] encodeRemoval(String messageId) {
+    var encodedMessageId = utf8(messageId);
+    var body = ByteBuffer.allocate(Integer.BYTES + encodedMessageId.length);
+    putBytes(body, encodedMessageId);
+    return body.array();
+  }
+
+  /**
+   * Reads the message id of a record body of any type.
+   *
+   * @param body the encoded body
+   * @return the message id
+   */
+  static String messageIdOf(byte[] body) {
+    return getString(ByteBuffer.wrap(body));
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] value) {
+    if (isNull(value)) {
+      buffer.putInt(ABSENT);
+    } else {
+      buffer.putInt(value.length);
+      buffer.put(value);
+    }
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    var length = buffer.getInt();
+    if (length == ABSENT) {
+      return null;
+    }
+    var value = new byte[length];
+    buffer.get(value);
+    return value;
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    var value = getBytes(buffer);
+    return isNull(value) ? null : new String(value, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,201 @@
+package de.caritas.cob.liveservice.websocket.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the {@link MappedLiveEventJournal}. Records are appended behind each
+ * other, each with the length of its body, a CRC32 checksum and its type. The file is created with
+ * its full size, so the end of the written records is marked by a length of zero and a torn record
+ * is detected by its checksum.
+ *
+ * <p>Appending is not thread safe, the journal appends under its lock. The amount of live entries
+ * is maintained by the journal as well.
+ */
+final class JournalSegment {
+
+  static final byte ENQUEUE = 1;
+  static final byte REMOVE = 2;
+  static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+  private static final String FILE_PREFIX = "journal-";
+  private static final String FILE_SUFFIX = ".log";
+
+  private final long sequence;
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private int writePosition;
+  private int liveEntries;
+  private volatile boolean dirty;
+
+  private JournalSegment(long sequence, Path path, MappedByteBuffer buffer) {
+    this.sequence = sequence;
+    this.path = path;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Creates a new segment file with the given size in the given directory.
+   *
+   * @param directory the journal directory
+   * @param sequence  the sequence of the segment, segments are replayed in this order
+   * @param size      the size of the file in bytes
+   * @return the created {@link JournalSegment}
+   * @throws IOException if the file can not be created or mapped
+   */
+  static JournalSegment create(Path directory, long sequence, int size) throws IOException {
+    var path = directory.resolve(FILE_PREFIX + sequence + FILE_SUFFIX);
+    try (var fileChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new JournalSegment(sequence, path, fileChannel.map(MapMode.READ_WRITE, 0, size));
+    }
+  }
+
+  /**
+   * Opens an existing segment file read only, its write position is set behind the last valid
+   * record.
+   *
+   * @param path the path of the segment file
+   * @return the opened {@link JournalSegment}
+   * @throws IOException if the file can not be mapped
+   */
+  static JournalSegment open(Path path) throws IOException {
+    try (var fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var segment = new JournalSegment(sequenceOf(path), path,
+          fileChannel.map(MapMode.READ_ONLY, 0, fileChannel.size()));
+      segment.forEachRecord((offset, type, body) -> { });
+      return segment;
+    }
+  }
+
+  /**
+   * Checks if the given path is the path of a segment file.
+   *
+   * @param path the path to check
+   * @return true if the file name matches the name of segment files
+   */
+  static boolean isSegmentFile(Path path) {
+    var fileName = path.getFileName().toString();
+    return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+  }
+
+  /**
+   * Extracts the sequence of the segment from the name of its file.
+   *
+   * @param path the path of the segment file
+   * @return the sequence of the segment
+   */
+  static long sequenceOf(Path path) {
+    var fileName = path.getFileName().toString();
+    return Long.parseLong(
+        fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+  }
+
+  /**
+   * Appends a record if the segment has enough room left.
+   *
+   * @param type the type of the record
+   * @param body the body of the record
+   * @return the offset of the record or -1 if the segment is full
+   */
+  int append(byte type, byte[] body) {
+    var offset = this.writePosition;
+    if (offset + HEADER_SIZE + body.length > this.buffer.capacity()) {
+      return -1;
+    }
+    this.buffer.putInt(offset + Integer.BYTES, checksumOf(type, body));
+    this.buffer.put(offset + 2 * Integer.BYTES, type);
+    this.buffer.put(offset + HEADER_SIZE, body);
+    this.buffer.putInt(offset, body.length);
+    this.writePosition = offset + HEADER_SIZE + body.length;
+    this.dirty = true;
+    return offset;
+  }
+
+  /**
+   * Calls the given consumer for each valid record, from the first record until the end of the
+   * written records or the first corrupt record.
+   *
+   * @param recordConsumer the consumer of the records
+   */
+  void forEachRecord(RecordConsumer recordConsumer) {
+    var offset = 0;
+    while (offset + HEADER_SIZE <= this.buffer.capacity()) {
+      var length = this.buffer.getInt(offset);
+      if (length <= 0 || offset + HEADER_SIZE + length > this.buffer.capacity()) {
+        break;
+      }
+      var type = this.buffer.get(offset + 2 * Integer.BYTES);
+      var body = new byte[length];
+      this.buffer.get(offset + HEADER_SIZE, body);
+      if (this.buffer.getInt(offset + Integer.BYTES) != checksumOf(type, body)) {
+        break;
+      }
+      recordConsumer.accept(offset, type, body);
+      offset += HEADER_SIZE + length;
+    }
+    this.writePosition = offset;
+  }
+
+  /**
+   * Forces the records written since the last call to the storage device.
+   */
+  void force() {
+    if (this.dirty) {
+      this.dirty = false;
+      this.buffer.force();
+    }
+  }
+
+  /**
+   * Deletes the segment file. The mapping is released when the segment is garbage collected.
+   *
+   * @throws IOException if the file can not be deleted
+   */
+  void delete() throws IOException {
+    Files.deleteIfExists(this.path);
+  }
+
+  void acquireEntry() {
+    this.liveEntries++;
+  }
+
+  void releaseEntry() {
+    this.liveEntries--;
+  }
+
+  int liveEntries() {
+    return this.liveEntries;
+  }
+
+  int writePosition() {
+    return this.writePosition;
+  }
+
+  long sequence() {
+    return this.sequence;
+  }
+
+  private static int checksumOf(byte type, byte[] body) {
+    var crc = new CRC32();
+    crc.update(type);
+    crc.update(body);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Consumer of the records of a segment.
+   */
+  @FunctionalInterface
+  interface RecordConsumer {
+
+    void accept(int offset, byte type, byte[] body);
+
+  }
+
+}
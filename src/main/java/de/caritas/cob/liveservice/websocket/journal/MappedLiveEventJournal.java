@@ -0,0 +1,332 @@
+package de.caritas.cob.liveservice.websocket.journal;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.websocket.config.LiveEventJournalProperties;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventJournal;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only {@link LiveEventJournal} on memory-mapped segment files. Recording a message only
+ * copies its serialized event into the mapped memory, so the written records survive a crash of
+ * the service immediately and are forced to the storage device in a fixed interval to survive a
+ * crash of the host as well.
+ *
+ * <p>On startup the segments are replayed and all messages without removal record are restored to
+ * the {@link LiveEventMessageQueue} as parked messages of their user. Retries after the enqueue are
+ * not recorded, so restored messages start with the retry amount they have been queued with.
+ *
+ * <p>Full segments are sealed and compacted in the background from the oldest one on. The live
+ * entries of a sealed segment are copied to the current segment before the sealed segment is
+ * deleted, so a removal record is never deleted before the enqueue record it refers to.
+ */
+@Component
+@ConditionalOnProperty(name = "live.event.journal.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MappedLiveEventJournal implements LiveEventJournal {
+
+  static final int MIN_SEGMENT_SIZE = 64 * 1024;
+  static final int MAX_SEGMENT_SIZE = 1024 * 1024 * 1024;
+  private static final Logger LOGGER = LoggerFactory.getLogger(MappedLiveEventJournal.class);
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, EntryLocation> liveEntries = new HashMap<>();
+  private final Deque<JournalSegment> sealedSegments = new ArrayDeque<>();
+  private Path directory;
+  private int segmentSize;
+  private JournalSegment currentSegment;
+  private ScheduledExecutorService maintenanceExecutor;
+
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull LiveEventJournalProperties liveEventJournalProperties;
+
+  /**
+   * Replays the existing segments into the queue, opens a new segment and starts the background
+   * sync and compaction.
+   *
+   * @throws IOException if the journal directory can not be read or the segment not be created
+   */
+  @PostConstruct
+  public void start() throws IOException {
+    this.directory = Path.of(this.liveEventJournalProperties.getDirectory());
+    this.segmentSize = segmentSizeOf(this.liveEventJournalProperties);
+    Files.createDirectories(this.directory);
+    var restoredMessages = replaySegments();
+    var lastSequence = isNull(this.sealedSegments.peekLast()) ? 0L
+        : this.sealedSegments.peekLast().sequence();
+    this.currentSegment = JournalSegment.create(this.directory, lastSequence + 1,
+        this.segmentSize);
+    restoreMessages(restoredMessages);
+
+    this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "live-event-journal");
+      thread.setDaemon(true);
+      return thread;
+    });
+    var syncMillis = this.liveEventJournalProperties.getSyncInterval().toMillis();
+    this.maintenanceExecutor.scheduleWithFixedDelay(this::sync, syncMillis, syncMillis,
+        TimeUnit.MILLISECONDS);
+    var compactionMillis = this.liveEventJournalProperties.getCompactionInterval().toMillis();
+    this.maintenanceExecutor.scheduleWithFixedDelay(this::compact, compactionMillis,
+        compactionMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the background tasks and forces all written records to the storage device.
+   *
+   * @throws InterruptedException if interrupted while waiting for the background tasks
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    this.maintenanceExecutor.shutdown();
+    this.maintenanceExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    sync();
+  }
+
+  /**
+   * Appends an enqueue record with the serialized event of the given message. Messages without
+   * user or serialized event are not recorded, because they can not be restored.
+   *
+   * @param identifiedMessage the queued message
+   */
+  @Override
+  public void recordEnqueue(IdentifiedMessage identifiedMessage) {
+    var body = JournalRecords.encodeEnqueue(identifiedMessage);
+    if (isNull(body)) {
+      LOGGER.debug("Message with id {} is not restorable and not journaled",
+          identifiedMessage.getMessageId());
+      return;
+    }
+    this.lock.lock();
+    try {
+      var location = append(JournalSegment.ENQUEUE, body);
+      if (nonNull(location)) {
+        releaseEntry(this.liveEntries.put(identifiedMessage.getMessageId(), location));
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Appends a removal record if the message with the given id has been recorded.
+   *
+   * @param messageId the id of the removed message
+   */
+  @Override
+  public void recordRemoval(String messageId) {
+    this.lock.lock();
+    try {
+      var location = this.liveEntries.remove(messageId);
+      if (nonNull(location)) {
+        releaseEntry(location);
+        append(JournalSegment.REMOVE, JournalRecords.encodeRemoval(messageId));
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Forces the records of all segments written since the last sync to the storage device.
+   */
+  void sync() {
+    List<JournalSegment> segments;
+    this.lock.lock();
+    try {
+      segments = new ArrayList<>(this.sealedSegments);
+      segments.add(this.currentSegment);
+    } finally {
+      this.lock.unlock();
+    }
+    try {
+      segments.forEach(JournalSegment::force);
+    } catch (UncheckedIOException e) {
+      LOGGER.error("Failed to sync live event journal", e);
+    }
+  }
+
+  /**
+   * Copies the live entries of the sealed segments to the current segment and deletes the sealed
+   * segments, oldest first. The lock is held per copied entry only, so recording is not blocked
+   * for the whole compaction.
+   */
+  void compact() {
+    List<JournalSegment> segments;
+    this.lock.lock();
+    try {
+      segments = new ArrayList<>(this.sealedSegments);
+    } finally {
+      this.lock.unlock();
+    }
+    for (JournalSegment segment : segments) {
+      segment.forEachRecord((offset, type, body) -> {
+        if (type == JournalSegment.ENQUEUE) {
+          copyForward(segment, offset, body);
+        }
+      });
+      sync();
+      try {
+        deleteSealedSegment(segment);
+      } catch (IOException | UncheckedIOException e) {
+        LOGGER.error("Failed to delete live event journal segment {}", segment.sequence(), e);
+        return;
+      }
+    }
+  }
+
+  private void copyForward(JournalSegment segment, int offset, byte[] body) {
+    var messageId = JournalRecords.messageIdOf(body);
+    this.lock.lock();
+    try {
+      var location = this.liveEntries.get(messageId);
+      if (nonNull(location) && location.segment() == segment && location.offset() == offset) {
+        var copiedLocation = append(JournalSegment.ENQUEUE, body);
+        if (nonNull(copiedLocation)) {
+          this.liveEntries.put(messageId, copiedLocation);
+          releaseEntry(location);
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void deleteSealedSegment(JournalSegment segment) throws IOException {
+    this.lock.lock();
+    try {
+      if (segment.liveEntries() > 0) {
+        throw new IOException("Segment still contains " + segment.liveEntries() + " entries");
+      }
+      this.sealedSegments.remove(segment);
+      segment.delete();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private EntryLocation append(byte type, byte[] body) {
+    if (JournalSegment.HEADER_SIZE + body.length > this.segmentSize) {
+      LOGGER.warn("Journal record of {} bytes exceeds the segment size", body.length);
+      return null;
+    }
+    var offset = this.currentSegment.append(type, body);
+    if (offset < 0 && rollSegment()) {
+      offset = this.currentSegment.append(type, body);
+    }
+    if (offset < 0 || type == JournalSegment.REMOVE) {
+      return null;
+    }
+    this.currentSegment.acquireEntry();
+    return new EntryLocation(this.currentSegment, offset);
+  }
+
+  private boolean rollSegment() {
+    try {
+      var nextSegment = JournalSegment.create(this.directory,
+          this.currentSegment.sequence() + 1, this.segmentSize);
+      this.sealedSegments.addLast(this.currentSegment);
+      this.currentSegment = nextSegment;
+      return true;
+    } catch (IOException e) {
+      LOGGER.error("Failed to create live event journal segment, record is not journaled", e);
+      return false;
+    }
+  }
+
+  private static void releaseEntry(EntryLocation location) {
+    if (nonNull(location)) {
+      location.segment().releaseEntry();
+    }
+  }
+
+  private Map<String, ReplayedEntry> replaySegments() throws IOException {
+    List<Path> segmentFiles;
+    try (var files = Files.list(this.directory)) {
+      segmentFiles = files.filter(JournalSegment::isSegmentFile)
+          .sorted(Comparator.comparingLong(JournalSegment::sequenceOf))
+          .collect(Collectors.toList());
+    }
+    var replayedEntries = new LinkedHashMap<String, ReplayedEntry>();
+    for (Path segmentFile : segmentFiles) {
+      var segment = JournalSegment.open(segmentFile);
+      segment.forEachRecord((offset, type, body) -> {
+        var messageId = JournalRecords.messageIdOf(body);
+        if (type == JournalSegment.ENQUEUE) {
+          replayedEntries.put(messageId, new ReplayedEntry(new EntryLocation(segment, offset),
+              body));
+        } else {
+          replayedEntries.remove(messageId);
+        }
+      });
+      this.sealedSegments.addLast(segment);
+    }
+    LOGGER.info("Replayed {} live event journal segments with {} queued messages",
+        segmentFiles.size(), replayedEntries.size());
+    return replayedEntries;
+  }
+
+  private void restoreMessages(Map<String, ReplayedEntry> replayedEntries) {
+    replayedEntries.forEach((messageId, replayedEntry) -> {
+      replayedEntry.location().segment().acquireEntry();
+      this.liveEntries.put(messageId, replayedEntry.location());
+    });
+    replayedEntries.forEach((messageId, replayedEntry) -> {
+      try {
+        this.liveEventMessageQueue.restoreParkedMessage(
+            JournalRecords.decodeEnqueue(replayedEntry.body()));
+      } catch (IllegalArgumentException e) {
+        LOGGER.warn("Failed to restore message with id {}", messageId, e);
+      }
+    });
+    this.liveEventMessageQueue.useJournal(this);
+    replayedEntries.keySet().stream()
+        .filter(messageId -> this.liveEventMessageQueue.findIdentifiedMessageWithId(messageId)
+            .isEmpty())
+        .forEach(this::recordRemoval);
+  }
+
+  private static int segmentSizeOf(LiveEventJournalProperties liveEventJournalProperties) {
+    var segmentSize = liveEventJournalProperties.getSegmentSize().toBytes();
+    if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+      throw new IllegalArgumentException("Journal segment size must be between 64KB and 1GB");
+    }
+    return (int) segmentSize;
+  }
+
+  private record EntryLocation(JournalSegment segment, int offset) {
+
+  }
+
+  private record ReplayedEntry(EntryLocation location, byte[] body) {
+
+  }
+
+}
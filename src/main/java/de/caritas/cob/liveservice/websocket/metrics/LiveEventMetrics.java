@@ -0,0 +1,188 @@
+package de.caritas.cob.liveservice.websocket.metrics;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the counters and distributions of the live event delivery pipeline. The meters are
+ * registered once, the counters per event type on creation and the counters of each eviction or
+ * rejection reason on its first use, so recording only increments the looked up meter.
+ */
+@Component
+public class LiveEventMetrics {
+
+  static final String EVENT_TYPE_TAG = "eventType";
+  static final String REASON_TAG = "reason";
+  private static final String UNKNOWN_EVENT_TYPE = "unknown";
+
+  private final @NonNull MeterRegistry meterRegistry;
+  private final EventTypeCounters enqueued;
+  private final EventTypeCounters stored;
+  private final EventTypeCounters acknowledged;
+  private final EventTypeCounters retried;
+  private final EventTypeCounters givenUp;
+  private final Map<String, EventTypeCounters> evictedByReason = new ConcurrentHashMap<>();
+  private final Map<String, EventTypeCounters> rejectedByReason = new ConcurrentHashMap<>();
+  private final DistributionSummary fanOut;
+
+  /**
+   * Registers the meters of the live event delivery pipeline.
+   *
+   * @param meterRegistry the {@link MeterRegistry} to register the meters in
+   */
+  public LiveEventMetrics(@NonNull MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.enqueued = counters("live.event.enqueued",
+        "Live event messages queued for a socket session");
+    this.stored = counters("live.event.stored",
+        "Live event messages stored for a user without socket session");
+    this.acknowledged = counters("live.event.acknowledged",
+        "Queued live event messages acknowledged by the client");
+    this.retried = counters("live.event.retried", "Retries to send queued live event messages");
+    this.givenUp = counters("live.event.given.up",
+        "Queued live event messages removed without acknowledgement");
+    this.fanOut = DistributionSummary.builder("live.event.fanout")
+        .description("Amount of socket sessions one live event is sent to")
+        .baseUnit("sessions")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  /**
+   * Counts a live event message queued for one socket session.
+   *
+   * @param eventType the {@link EventType} of the message
+   */
+  public void countEnqueued(EventType eventType) {
+    this.enqueued.increment(eventType);
+  }
+
+  /**
+   * Counts a live event message stored in the mailbox of a user without socket session.
+   *
+   * @param eventType the {@link EventType} of the message
+   */
+  public void countStored(EventType eventType) {
+    this.stored.increment(eventType);
+  }
+
+  /**
+   * Counts a queued message acknowledged by the stomp client.
+   *
+   * @param identifiedMessage the acknowledged message
+   */
+  public void countAcknowledged(IdentifiedMessage identifiedMessage) {
+    this.acknowledged.increment(eventTypeOf(identifiedMessage));
+  }
+
+  /**
+   * Counts a retry to send a queued message.
+   *
+   * @param identifiedMessage the retried message
+   */
+  public void countRetry(IdentifiedMessage identifiedMessage) {
+    this.retried.increment(eventTypeOf(identifiedMessage));
+  }
+
+  /**
+   * Counts a queued message removed because its maximum retry amount has been reached.
+   *
+   * @param identifiedMessage the given up message
+   */
+  public void countGivenUp(IdentifiedMessage identifiedMessage) {
+    this.givenUp.increment(eventTypeOf(identifiedMessage));
+  }
+
+  /**
+   * Counts a queued message removed to make room for further messages.
+   *
+   * @param identifiedMessage the evicted message
+   * @param reason            the limit which caused the eviction
+   */
+  public void countEvicted(IdentifiedMessage identifiedMessage, String reason) {
+    reasonCounters(this.evictedByReason, reason, "live.event.queue.evicted",
+        "Queued live event messages removed to keep the queue within its limits")
+        .increment(eventTypeOf(identifiedMessage));
+  }
+
+  /**
+   * Counts a message which has not been queued because the queue has reached a limit. The message
+   * is sent once without retries.
+   *
+   * @param identifiedMessage the rejected message
+   * @param reason            the limit which caused the rejection
+   */
+  public void countRejected(IdentifiedMessage identifiedMessage, String reason) {
+    reasonCounters(this.rejectedByReason, reason, "live.event.queue.rejected",
+        "Live event messages not queued because the queue has reached a limit")
+        .increment(eventTypeOf(identifiedMessage));
+  }
+
+  /**
+   * Records the amount of socket sessions one live event has been sent to.
+   *
+   * @param sessionCount the amount of recipient sessions
+   */
+  public void recordFanOut(int sessionCount) {
+    this.fanOut.record(sessionCount);
+  }
+
+  private EventTypeCounters counters(String name, String description) {
+    return new EventTypeCounters(eventTypeTag -> Counter.builder(name)
+        .description(description)
+        .tag(EVENT_TYPE_TAG, eventTypeTag)
+        .register(this.meterRegistry));
+  }
+
+  private EventTypeCounters reasonCounters(Map<String, EventTypeCounters> countersByReason,
+      String reason, String name, String description) {
+    var counters = countersByReason.get(reason);
+    if (nonNull(counters)) {
+      return counters;
+    }
+    return countersByReason.computeIfAbsent(reason,
+        key -> new EventTypeCounters(eventTypeTag -> Counter.builder(name)
+            .description(description)
+            .tag(EVENT_TYPE_TAG, eventTypeTag)
+            .tag(REASON_TAG, key)
+            .register(this.meterRegistry)));
+  }
+
+  private static EventType eventTypeOf(IdentifiedMessage identifiedMessage) {
+    var liveEventMessage = identifiedMessage.getLiveEventMessage();
+    return isNull(liveEventMessage) ? null : liveEventMessage.getEventType();
+  }
+
+  /**
+   * Counters of one metric per {@link EventType}, registered on creation and read only afterwards.
+   */
+  private static final class EventTypeCounters {
+
+    private final Map<EventType, Counter> counters = new EnumMap<>(EventType.class);
+    private final Counter unknownCounter;
+
+    private EventTypeCounters(Function<String, Counter> registration) {
+      for (EventType eventType : EventType.values()) {
+        this.counters.put(eventType, registration.apply(eventType.getValue()));
+      }
+      this.unknownCounter = registration.apply(UNKNOWN_EVENT_TYPE);
+    }
+
+    private void increment(EventType eventType) {
+      (isNull(eventType) ? this.unknownCounter : this.counters.get(eventType)).increment();
+    }
+  }
+
+}
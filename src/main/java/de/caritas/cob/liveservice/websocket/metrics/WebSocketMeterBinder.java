@@ -0,0 +1,64 @@
+package de.caritas.cob.liveservice.websocket.metrics;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelExecutor;
+import de.caritas.cob.liveservice.websocket.config.LiveChannelExecutors;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the gauges of the socket sessions, the message queue and the client channel executors to
+ * the meter registry.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebSocketMeterBinder implements MeterBinder {
+
+  private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull LiveChannelExecutors liveChannelExecutors;
+
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    Gauge.builder("live.socket.sessions", this.socketUserRegistry,
+            SocketUserRegistry::sessionCount)
+        .description("Connected socket sessions")
+        .register(meterRegistry);
+    Gauge.builder("live.socket.users", this.socketUserRegistry, SocketUserRegistry::userCount)
+        .description("Distinct users with at least one connected socket session")
+        .register(meterRegistry);
+    Gauge.builder("live.event.queue.size", this.liveEventMessageQueue,
+            LiveEventMessageQueue::size)
+        .description("Live event messages waiting for acknowledgement")
+        .register(meterRegistry);
+    bindChannelExecutor(meterRegistry, this.liveChannelExecutors.getInbound());
+    bindChannelExecutor(meterRegistry, this.liveChannelExecutors.getOutbound());
+  }
+
+  private void bindChannelExecutor(MeterRegistry meterRegistry, LiveChannelExecutor executor) {
+    Gauge.builder("live.channel.queue.size", executor, LiveChannelExecutor::getQueueSize)
+        .description("Messages waiting for a thread of the client channel executor")
+        .tag("channel", executor.getChannelName())
+        .register(meterRegistry);
+    Gauge.builder("live.channel.active.threads", executor, LiveChannelExecutor::getActiveCount)
+        .description("Threads of the client channel executor handling a message")
+        .tag("channel", executor.getChannelName())
+        .register(meterRegistry);
+    Gauge.builder("live.channel.pool.size", executor, LiveChannelExecutor::getPoolSize)
+        .description("Threads of the client channel executor")
+        .tag("channel", executor.getChannelName())
+        .register(meterRegistry);
+    FunctionCounter.builder("live.channel.rejected", executor,
+            LiveChannelExecutor::getRejectedCount)
+        .description("Messages rejected by the full client channel executor")
+        .tag("channel", executor.getChannelName())
+        .register(meterRegistry);
+  }
+
+}
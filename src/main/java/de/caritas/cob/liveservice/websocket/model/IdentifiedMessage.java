@@ -14,7 +14,9 @@ public class IdentifiedMessage {
   private String messageId;
   private WebSocketUserSession websocketUserSession;
   private LiveEventMessage liveEventMessage;
+  private SerializedLiveEvent serializedLiveEvent;
   private Integer retryAmount;
   private LocalDateTime createdDate;
+  private LocalDateTime nextRetryDate;
 
 }
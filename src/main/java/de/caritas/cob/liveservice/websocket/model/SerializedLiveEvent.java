@@ -0,0 +1,16 @@
+package de.caritas.cob.liveservice.websocket.model;
+
+import lombok.Value;
+import org.springframework.util.MimeType;
+
+/**
+ * Holds the encoded payload of one live event message. The payload is encoded once and shared by
+ * all recipient sessions and retries, so it must not be modified.
+ */
+@Value
+public class SerializedLiveEvent {
+
+  byte[] payload;
+  MimeType contentType;
+
+}
@@ -0,0 +1,16 @@
+package de.caritas.cob.liveservice.websocket.model;
+
+import java.security.Principal;
+import lombok.Value;
+
+/**
+ * Principal of a socket session, named by the id of its user. It registers the session in the
+ * {@link org.springframework.messaging.simp.user.SimpUserRegistry}, so user destinations can be
+ * resolved across all instances of the service.
+ */
+@Value
+public class WebSocketUserPrincipal implements Principal {
+
+  String name;
+
+}
@@ -1,19 +1,47 @@
 package de.caritas.cob.liveservice.websocket.model;
 
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Builder;
-import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.util.MimeType;
 
 /**
- * Represents one socket user connection.
+ * Represents one socket user connection. Instances are immutable, changes like a new subscription
+ * are applied by replacing the session in the registry. The content type is the encoding of the
+ * live events selected by the client, null for the default JSON encoding.
+ *
+ * <p>Only the time of the last received frame is updated in place, as it changes with each frame.
+ * Replacing instances share it, it is not part of the equality of sessions.
  */
-@Data
-@Builder
-@EqualsAndHashCode
+@Value
+@Builder(toBuilder = true)
 public class WebSocketUserSession {
 
-  private String websocketSessionId;
-  private String subscriptionId;
-  private String userId;
+  String websocketSessionId;
+  String subscriptionId;
+  String userId;
+  MimeType contentType;
+
+  @Builder.Default
+  @EqualsAndHashCode.Exclude
+  AtomicLong lastActivity = new AtomicLong(System.currentTimeMillis());
+
+  /**
+   * Records a frame received from the client of the session.
+   */
+  public void recordActivity() {
+    this.lastActivity.set(System.currentTimeMillis());
+  }
+
+  /**
+   * Returns whether no frame has been received from the client since the given time.
+   *
+   * @param epochMillis the time in milliseconds since the epoch
+   * @return true if the last frame has been received before the given time
+   */
+  public boolean isIdleSince(long epochMillis) {
+    return this.lastActivity.get() < epochMillis;
+  }
 
 }
@@ -0,0 +1,67 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects heap pressure by the usage of the tenured heap pools after the last garbage collection.
+ * The check reads a flag maintained by the JVM, so it is cheap enough to be done for each queued
+ * message.
+ */
+@Component
+public class HeapPressureMonitor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HeapPressureMonitor.class);
+
+  private final List<MemoryPoolMXBean> monitoredPools;
+
+  /**
+   * Creates a new {@link HeapPressureMonitor} and sets the collection usage threshold of the
+   * tenured heap pools. Only tenured pools support usage thresholds besides collection usage
+   * thresholds, young pools are nearly empty after each collection anyway.
+   *
+   * @param liveEventQueueProperties the properties with the heap pressure threshold
+   */
+  @Autowired
+  public HeapPressureMonitor(@NonNull LiveEventQueueProperties liveEventQueueProperties) {
+    this(ManagementFactory.getMemoryPoolMXBeans(),
+        liveEventQueueProperties.getHeapPressureThreshold());
+  }
+
+  HeapPressureMonitor(List<MemoryPoolMXBean> memoryPools, double heapPressureThreshold) {
+    this.monitoredPools = heapPressureThreshold >= 1.0 ? List.of() : memoryPools.stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .filter(MemoryPoolMXBean::isUsageThresholdSupported)
+        .filter(MemoryPoolMXBean::isCollectionUsageThresholdSupported)
+        .filter(pool -> pool.getUsage().getMax() > 0)
+        .collect(Collectors.toList());
+    this.monitoredPools.forEach(pool -> pool.setCollectionUsageThreshold(
+        (long) (pool.getUsage().getMax() * heapPressureThreshold)));
+    LOGGER.info("Monitor heap pressure of memory pools {}",
+        this.monitoredPools.stream().map(MemoryPoolMXBean::getName).collect(Collectors.toList()));
+  }
+
+  /**
+   * Checks if the usage of a heap pool after the last garbage collection exceeds the threshold.
+   *
+   * @return true if the heap is under pressure
+   */
+  public boolean isUnderPressure() {
+    for (MemoryPoolMXBean pool : this.monitoredPools) {
+      if (pool.isCollectionUsageThresholdExceeded()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,27 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+
+/**
+ * Journal to persist the content of the {@link LiveEventMessageQueue}. If a journal is set, the
+ * queue records each added message and each removal, regardless if the message has been
+ * acknowledged, given up or evicted.
+ */
+public interface LiveEventJournal {
+
+  /**
+   * Records the given message as queued. An already recorded message with the same id is
+   * replaced.
+   *
+   * @param identifiedMessage the queued message
+   */
+  void recordEnqueue(IdentifiedMessage identifiedMessage);
+
+  /**
+   * Records the removal of the message with the given id.
+   *
+   * @param messageId the id of the removed message
+   */
+  void recordRemoval(String messageId);
+
+}
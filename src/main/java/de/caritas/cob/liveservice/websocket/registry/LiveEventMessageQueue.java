@@ -1,15 +1,37 @@
 package de.caritas.cob.liveservice.websocket.registry;
 
 import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties.EvictionPolicy;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties.SessionRemovedPolicy;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,53 +39,567 @@ import org.springframework.stereotype.Component;
 
 /**
  * Container class to hold all queued live event message as long as they are acknowledged by the
- * client.
+ * client. Messages are stored by their message id and additionally ordered by their next retry
+ * date, so acknowledging is a single map removal and the retry sweep only visits due messages.
+ * If a {@link LiveEventRetryTimer} is used, the retry dates are handed over to the timer instead.
+ *
+ * <p>The queue is limited in total, per user and by heap pressure. Messages are kept in eviction
+ * order, so the {@link EvictionPolicy} can make room by removing the first messages of all users
+ * or of one user. The limits are checked without a global lock, concurrent adds may exceed them
+ * briefly.
+ *
+ * <p>Messages are indexed by the socket session they are sent to, so the messages of a removed
+ * session are dropped or parked without scanning the queue. Parked messages are not retried and
+ * are indexed by their user until the user subscribes with a new session. Messages for users
+ * without session are parked right away.
+ *
+ * <p>If a {@link LiveEventJournal} is used, each added and each removed message is recorded, so
+ * the queue can be restored after a restart.
  */
 @Component
+@RequiredArgsConstructor
 public class LiveEventMessageQueue {
 
+  static final String GLOBAL_LIMIT = "globalLimit";
+  static final String USER_LIMIT = "userLimit";
+  static final String HEAP_PRESSURE = "heapPressure";
+  static final String SESSION_REMOVED = "sessionRemoved";
+  static final String PARKED_LIMIT = "parkedLimit";
   private static final Logger LOGGER = LoggerFactory.getLogger(LiveEventMessageQueue.class);
 
-  private final Set<IdentifiedMessage> queuedLiveMessages = new CopyOnWriteArraySet<>();
+  private final Map<String, QueuedMessage> queuedLiveMessages = new ConcurrentHashMap<>();
+  private final NavigableSet<RetryDeadline> retryDeadlines = new ConcurrentSkipListSet<>();
+  private final NavigableSet<EvictionCandidate> evictionOrder = new ConcurrentSkipListSet<>();
+  private final Map<String, NavigableSet<EvictionCandidate>> evictionOrderByUser =
+      new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> messageIdsBySessionId = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> parkedMessageIdsByUserId = new ConcurrentHashMap<>();
+  private final AtomicLong deadlineSequence = new AtomicLong();
+  private final AtomicLong queueSequence = new AtomicLong();
+  private volatile LiveEventRetryTimer retryTimer;
+  private volatile LiveEventJournal journal;
+
+  private final @NonNull LiveEventQueueProperties liveEventQueueProperties;
+  private final @NonNull HeapPressureMonitor heapPressureMonitor;
+  private final @NonNull LiveEventMetrics liveEventMetrics;
 
   @Value("${live.event.minimum.seconds.before.retry}")
   private Integer minimumSecondsBeforeRetry;
 
   /**
-   * Adds the given {@link IdentifiedMessage} to the registry.
+   * Adds the given {@link IdentifiedMessage} to the registry. If no next retry date is set the
+   * message becomes due after the configured minimum seconds before retry. If a limit is reached
+   * the configured {@link EvictionPolicy} either removes queued messages to make room or rejects
+   * the given message.
    *
    * @param identifiedMessage the identified queued message
+   * @return true if the message has been queued, false if it has been rejected
    */
-  public synchronized void addIdentifiedMessage(IdentifiedMessage identifiedMessage) {
+  public boolean addIdentifiedMessage(IdentifiedMessage identifiedMessage) {
     LOGGER.info("Add message with id {} to queue", identifiedMessage.getMessageId());
-    this.queuedLiveMessages.add(identifiedMessage);
+    return addIdentifiedMessage(identifiedMessage, false);
+  }
+
+  private boolean addIdentifiedMessage(IdentifiedMessage identifiedMessage, boolean parked) {
+    if (rejectsNewMessages()) {
+      this.liveEventMetrics.countRejected(identifiedMessage,
+          this.heapPressureMonitor.isUnderPressure() ? HEAP_PRESSURE : GLOBAL_LIMIT);
+      return false;
+    }
+    var evictionCandidate = new EvictionCandidate(priorityOf(identifiedMessage),
+        this.queueSequence.incrementAndGet(), identifiedMessage.getMessageId(),
+        userIdOf(identifiedMessage));
+    var userOverflow = new ArrayList<EvictionCandidate>();
+    if (!addToUserEvictionOrder(evictionCandidate, userOverflow)) {
+      this.liveEventMetrics.countRejected(identifiedMessage, USER_LIMIT);
+      return false;
+    }
+    if (isNull(identifiedMessage.getNextRetryDate())) {
+      identifiedMessage.setNextRetryDate(
+          identifiedMessage.getCreatedDate().plus(this.minimumSecondsBeforeRetry, SECONDS));
+    }
+    this.queuedLiveMessages.compute(identifiedMessage.getMessageId(), (messageId, previous) -> {
+      if (nonNull(previous)) {
+        unscheduleMessage(previous);
+        removeEvictionCandidate(previous.evictionCandidate());
+      }
+      return scheduleMessage(identifiedMessage, evictionCandidate, parked);
+    });
+    this.evictionOrder.add(evictionCandidate);
+    if (nonNull(this.journal)) {
+      this.journal.recordEnqueue(identifiedMessage);
+    }
+    userOverflow.forEach(overflowCandidate -> evict(overflowCandidate, USER_LIMIT));
+    enforceGlobalLimit();
+    return true;
+  }
+
+  /**
+   * Adds the given {@link IdentifiedMessage} restored from a previous run of the service as
+   * parked message of its user until the configured park timeout.
+   *
+   * @param identifiedMessage the restored message
+   * @return true if the message has been queued, false if it has been rejected
+   */
+  public boolean restoreParkedMessage(IdentifiedMessage identifiedMessage) {
+    return parkUserMessage(identifiedMessage, this.liveEventQueueProperties.getParkTimeout());
   }
 
   /**
-   * Removes the {@link IdentifiedMessage} with the given id.
+   * Adds the given {@link IdentifiedMessage} as parked message of its user. The message is flushed
+   * when the user subscribes and is given up at the end of the given park timeout. If the user
+   * has more parked messages than allowed, the oldest ones are removed. Messages without user are
+   * not added.
+   *
+   * @param identifiedMessage the message for a user without socket session
+   * @param parkTimeout       the time the message waits for the user
+   * @return true if the message has been queued, false if it has been rejected
+   */
+  public boolean parkUserMessage(IdentifiedMessage identifiedMessage, Duration parkTimeout) {
+    var userId = userIdOf(identifiedMessage);
+    if (isNull(userId)) {
+      return false;
+    }
+    LOGGER.info("Add parked message with id {} to queue", identifiedMessage.getMessageId());
+    identifiedMessage.setNextRetryDate(LocalDateTime.now(ZoneOffset.UTC).plus(parkTimeout));
+    var added = addIdentifiedMessage(identifiedMessage, true);
+    enforceParkedLimit(userId);
+    return added;
+  }
+
+  /**
+   * Checks if new messages are rejected because the queue of all users is full or the heap is
+   * under pressure. This is only the case for {@link EvictionPolicy#REJECT_NEW}, the other
+   * policies make room instead.
+   *
+   * @return true if new messages are rejected
+   */
+  public boolean rejectsNewMessages() {
+    return this.liveEventQueueProperties.getEvictionPolicy() == EvictionPolicy.REJECT_NEW
+        && (size() >= this.liveEventQueueProperties.getMaxMessages()
+        || this.heapPressureMonitor.isUnderPressure());
+  }
+
+  /**
+   * Removes the {@link IdentifiedMessage} with the given id together with its retry deadline.
    *
    * @param messageId the id of the {@link IdentifiedMessage}
+   * @return an {@link Optional} of the removed message
    */
-  public synchronized void removeIdentifiedMessageWithId(String messageId) {
+  public Optional<IdentifiedMessage> removeIdentifiedMessageWithId(String messageId) {
     LOGGER.info("Remove message with id {} from queue", messageId);
-    this.queuedLiveMessages.removeIf(message -> message.getMessageId().equals(messageId));
+    var removedMessage = this.queuedLiveMessages.remove(messageId);
+    if (nonNull(removedMessage)) {
+      discardMessage(removedMessage);
+    }
+    return Optional.ofNullable(removedMessage).map(QueuedMessage::identifiedMessage);
   }
 
   /**
-   * Retrieves all current queued {@link IdentifiedMessage}s.
+   * Finds the queued {@link IdentifiedMessage} with the given id.
    *
-   * @return all current {@link IdentifiedMessage}
+   * @param messageId the id of the {@link IdentifiedMessage}
+   * @return an {@link Optional} of the queued message
    */
-  public synchronized Collection<IdentifiedMessage> getCurrentOpenMessages() {
-    return new LinkedList<>(queuedLiveMessages).stream()
-        .filter(this::minimumSecondsBeforeRetryReached)
+  public Optional<IdentifiedMessage> findIdentifiedMessageWithId(String messageId) {
+    return Optional.ofNullable(this.queuedLiveMessages.get(messageId))
+        .map(QueuedMessage::identifiedMessage);
+  }
+
+  /**
+   * Returns the amount of currently queued messages.
+   *
+   * @return the amount of queued messages
+   */
+  public int size() {
+    return this.queuedLiveMessages.size();
+  }
+
+  /**
+   * Checks if the {@link IdentifiedMessage} with the given id is parked, i.e. its socket session
+   * has been removed and its user has not subscribed again.
+   *
+   * @param messageId the id of the {@link IdentifiedMessage}
+   * @return true if the message is queued and parked
+   */
+  public boolean isParked(String messageId) {
+    var queuedMessage = this.queuedLiveMessages.get(messageId);
+    return nonNull(queuedMessage) && queuedMessage.parked();
+  }
+
+  /**
+   * Handles the queued messages of a removed socket session according to the configured
+   * {@link SessionRemovedPolicy}. Parked messages become due at the end of the park timeout.
+   *
+   * @param socketSessionId the id of the removed socket session
+   */
+  public void removeSessionMessages(String socketSessionId) {
+    var messageIds = this.messageIdsBySessionId.remove(socketSessionId);
+    if (isNull(messageIds)) {
+      return;
+    }
+    if (this.liveEventQueueProperties.getSessionRemovedPolicy() == SessionRemovedPolicy.DROP) {
+      LOGGER.info("Drop {} messages of removed socket session {}", messageIds.size(),
+          socketSessionId);
+      messageIds.forEach(messageId -> dropSessionMessage(messageId, socketSessionId));
+    } else {
+      LOGGER.info("Park {} messages of removed socket session {}", messageIds.size(),
+          socketSessionId);
+      var parkedUntil = LocalDateTime.now(ZoneOffset.UTC)
+          .plus(this.liveEventQueueProperties.getParkTimeout());
+      var userIds = new HashSet<String>();
+      messageIds.forEach(messageId -> parkSessionMessage(messageId, socketSessionId, parkedUntil,
+          userIds));
+      userIds.forEach(this::enforceParkedLimit);
+    }
+  }
+
+  /**
+   * Assigns the parked messages of the user of the given session to the session. The messages
+   * become due after the configured minimum seconds before retry, like newly queued messages, but
+   * are returned so they can be flushed to the session immediately.
+   *
+   * @param webSocketUserSession the new session of the user
+   * @return the unparked messages in the order they have been queued
+   */
+  public List<IdentifiedMessage> unparkUserMessages(WebSocketUserSession webSocketUserSession) {
+    if (isNull(webSocketUserSession.getUserId())) {
+      return emptyList();
+    }
+    var messageIds = this.parkedMessageIdsByUserId.remove(webSocketUserSession.getUserId());
+    if (isNull(messageIds)) {
+      return emptyList();
+    }
+    LOGGER.info("Unpark {} messages of user with id {}", messageIds.size(),
+        webSocketUserSession.getUserId());
+    var nextRetryDate = LocalDateTime.now(ZoneOffset.UTC)
+        .plus(this.minimumSecondsBeforeRetry, SECONDS);
+    var unparkedMessages = new ArrayList<QueuedMessage>(messageIds.size());
+    messageIds.forEach(messageId -> this.queuedLiveMessages.computeIfPresent(messageId,
+        (id, queuedMessage) -> {
+          if (!queuedMessage.parked()) {
+            return queuedMessage;
+          }
+          unscheduleMessage(queuedMessage);
+          var identifiedMessage = queuedMessage.identifiedMessage();
+          identifiedMessage.setWebsocketUserSession(webSocketUserSession);
+          identifiedMessage.setNextRetryDate(nextRetryDate);
+          var unparkedMessage = scheduleMessage(identifiedMessage,
+              queuedMessage.evictionCandidate(), false);
+          unparkedMessages.add(unparkedMessage);
+          return unparkedMessage;
+        }));
+    return unparkedMessages.stream()
+        .sorted(Comparator.comparingLong(
+            unparkedMessage -> unparkedMessage.evictionCandidate().sequence()))
+        .map(QueuedMessage::identifiedMessage)
         .collect(Collectors.toList());
   }
 
-  private boolean minimumSecondsBeforeRetryReached(IdentifiedMessage identifiedMessage) {
-    return identifiedMessage.getCreatedDate()
-        .plus(this.minimumSecondsBeforeRetry, SECONDS)
-        .isBefore(LocalDateTime.now(ZoneOffset.UTC));
+  private void dropSessionMessage(String messageId, String socketSessionId) {
+    var queuedMessage = this.queuedLiveMessages.get(messageId);
+    if (nonNull(queuedMessage) && socketSessionId.equals(queuedMessage.sessionId())
+        && this.queuedLiveMessages.remove(messageId, queuedMessage)) {
+      discardMessage(queuedMessage);
+      this.liveEventMetrics.countEvicted(queuedMessage.identifiedMessage(), SESSION_REMOVED);
+    }
+  }
+
+  private void parkSessionMessage(String messageId, String socketSessionId,
+      LocalDateTime parkedUntil, Set<String> userIds) {
+    this.queuedLiveMessages.computeIfPresent(messageId, (id, queuedMessage) -> {
+      if (!socketSessionId.equals(queuedMessage.sessionId())) {
+        return queuedMessage;
+      }
+      if (nonNull(queuedMessage.evictionCandidate().userId())) {
+        userIds.add(queuedMessage.evictionCandidate().userId());
+      }
+      unscheduleMessage(queuedMessage);
+      queuedMessage.identifiedMessage().setNextRetryDate(parkedUntil);
+      return scheduleMessage(queuedMessage.identifiedMessage(),
+          queuedMessage.evictionCandidate(), true);
+    });
+  }
+
+  /**
+   * Hands the retry deadlines of all queued messages over to the given timer, including the ones
+   * of messages queued before the timer has been set.
+   *
+   * @param retryTimer the {@link LiveEventRetryTimer} to use
+   */
+  public void useRetryTimer(LiveEventRetryTimer retryTimer) {
+    this.retryTimer = retryTimer;
+    this.retryDeadlines.forEach(retryDeadline -> this.queuedLiveMessages.computeIfPresent(
+        retryDeadline.messageId(), (messageId, queuedMessage) -> {
+          if (!retryDeadline.equals(queuedMessage.retryDeadline())) {
+            return queuedMessage;
+          }
+          unscheduleMessage(queuedMessage);
+          return scheduleMessage(queuedMessage.identifiedMessage(),
+              queuedMessage.evictionCandidate(), queuedMessage.parked());
+        }));
+  }
+
+  /**
+   * Records all further added and removed messages in the given journal.
+   *
+   * @param journal the {@link LiveEventJournal} to use
+   */
+  public void useJournal(LiveEventJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Schedules the next retry of the given queued {@link IdentifiedMessage} at the given date. If
+   * the message has been parked meanwhile, it stays parked.
+   *
+   * @param identifiedMessage the already queued message
+   * @param nextRetryDate     the date of the next retry
+   */
+  public void rescheduleIdentifiedMessage(IdentifiedMessage identifiedMessage,
+      LocalDateTime nextRetryDate) {
+    identifiedMessage.setNextRetryDate(nextRetryDate);
+    this.queuedLiveMessages.computeIfPresent(identifiedMessage.getMessageId(),
+        (messageId, queuedMessage) -> {
+          if (queuedMessage.parked()) {
+            return queuedMessage;
+          }
+          unscheduleMessage(queuedMessage);
+          return scheduleMessage(identifiedMessage, queuedMessage.evictionCandidate(), false);
+        });
+  }
+
+  /**
+   * Retrieves all current queued {@link IdentifiedMessage}s whose next retry date has passed,
+   * ordered by their retry date. Messages scheduled on a {@link LiveEventRetryTimer} are not
+   * contained.
+   *
+   * @return all current due {@link IdentifiedMessage}
+   */
+  public Collection<IdentifiedMessage> getCurrentOpenMessages() {
+    var now = toEpochMillis(LocalDateTime.now(ZoneOffset.UTC));
+    List<IdentifiedMessage> dueMessages = new ArrayList<>();
+    for (RetryDeadline retryDeadline : this.retryDeadlines) {
+      if (retryDeadline.dueMillis() >= now) {
+        break;
+      }
+      var queuedMessage = this.queuedLiveMessages.get(retryDeadline.messageId());
+      if (isNull(queuedMessage) || !retryDeadline.equals(queuedMessage.retryDeadline())) {
+        this.retryDeadlines.remove(retryDeadline);
+      } else {
+        dueMessages.add(queuedMessage.identifiedMessage());
+      }
+    }
+    return dueMessages;
+  }
+
+  private QueuedMessage scheduleMessage(IdentifiedMessage identifiedMessage,
+      EvictionCandidate evictionCandidate, boolean parked) {
+    var sessionId = parked ? null : sessionIdOf(identifiedMessage);
+    var currentRetryTimer = this.retryTimer;
+    RetryDeadline retryDeadline = null;
+    if (nonNull(currentRetryTimer)) {
+      currentRetryTimer.scheduleRetry(identifiedMessage);
+    } else {
+      retryDeadline = new RetryDeadline(toEpochMillis(identifiedMessage.getNextRetryDate()),
+          this.deadlineSequence.incrementAndGet(), identifiedMessage.getMessageId());
+      this.retryDeadlines.add(retryDeadline);
+    }
+    var queuedMessage = new QueuedMessage(identifiedMessage, retryDeadline, evictionCandidate,
+        sessionId, parked);
+    if (parked) {
+      addToIndex(this.parkedMessageIdsByUserId, evictionCandidate.userId(),
+          identifiedMessage.getMessageId());
+    } else {
+      addToIndex(this.messageIdsBySessionId, sessionId, identifiedMessage.getMessageId());
+    }
+    return queuedMessage;
+  }
+
+  private void unscheduleMessage(QueuedMessage queuedMessage) {
+    if (nonNull(queuedMessage.retryDeadline())) {
+      this.retryDeadlines.remove(queuedMessage.retryDeadline());
+    }
+    var messageId = queuedMessage.identifiedMessage().getMessageId();
+    if (queuedMessage.parked()) {
+      removeFromIndex(this.parkedMessageIdsByUserId, queuedMessage.evictionCandidate().userId(),
+          messageId);
+    } else {
+      removeFromIndex(this.messageIdsBySessionId, queuedMessage.sessionId(), messageId);
+    }
+  }
+
+  private static void addToIndex(Map<String, Set<String>> index, String key, String messageId) {
+    if (nonNull(key)) {
+      index.compute(key, (indexKey, messageIds) -> {
+        var indexedMessageIds = isNull(messageIds) ? ConcurrentHashMap.<String>newKeySet()
+            : messageIds;
+        indexedMessageIds.add(messageId);
+        return indexedMessageIds;
+      });
+    }
+  }
+
+  private static void removeFromIndex(Map<String, Set<String>> index, String key,
+      String messageId) {
+    if (nonNull(key)) {
+      index.computeIfPresent(key, (indexKey, messageIds) -> {
+        messageIds.remove(messageId);
+        return messageIds.isEmpty() ? null : messageIds;
+      });
+    }
+  }
+
+  /**
+   * Adds the candidate to the eviction order of its user. Candidates beyond the limit of the user
+   * are collected as overflow, with {@link EvictionPolicy#REJECT_NEW} the candidate is rejected
+   * instead.
+   */
+  private boolean addToUserEvictionOrder(EvictionCandidate evictionCandidate,
+      List<EvictionCandidate> userOverflow) {
+    if (isNull(evictionCandidate.userId())) {
+      return true;
+    }
+    var maxMessagesPerUser = this.liveEventQueueProperties.getMaxMessagesPerUser();
+    var rejectsAtLimit =
+        this.liveEventQueueProperties.getEvictionPolicy() == EvictionPolicy.REJECT_NEW;
+    var added = new AtomicBoolean(true);
+    this.evictionOrderByUser.compute(evictionCandidate.userId(), (userId, candidates) -> {
+      var userCandidates = isNull(candidates) ? new TreeSet<EvictionCandidate>() : candidates;
+      if (rejectsAtLimit && userCandidates.size() >= maxMessagesPerUser) {
+        added.set(false);
+        return userCandidates;
+      }
+      userCandidates.add(evictionCandidate);
+      while (userCandidates.size() > maxMessagesPerUser) {
+        userOverflow.add(userCandidates.pollFirst());
+      }
+      return userCandidates;
+    });
+    return added.get();
+  }
+
+  private void enforceGlobalLimit() {
+    if (this.liveEventQueueProperties.getEvictionPolicy() == EvictionPolicy.REJECT_NEW) {
+      return;
+    }
+    if (this.heapPressureMonitor.isUnderPressure()) {
+      evictFirst(HEAP_PRESSURE);
+    }
+    while (size() > this.liveEventQueueProperties.getMaxMessages() && evictFirst(GLOBAL_LIMIT)) {
+      LOGGER.debug("Evicted message to keep the queue within its limit");
+    }
+  }
+
+  private void enforceParkedLimit(String userId) {
+    var parkedMessageIds = this.parkedMessageIdsByUserId.get(userId);
+    var maxParkedMessages = this.liveEventQueueProperties.getMaxParkedMessagesPerUser();
+    if (isNull(parkedMessageIds) || parkedMessageIds.size() <= maxParkedMessages) {
+      return;
+    }
+    parkedMessageIds.stream()
+        .map(this.queuedLiveMessages::get)
+        .filter(Objects::nonNull)
+        .map(QueuedMessage::evictionCandidate)
+        .sorted(Comparator.comparingLong(EvictionCandidate::sequence))
+        .limit(Math.max(parkedMessageIds.size() - maxParkedMessages, 0))
+        .collect(Collectors.toList())
+        .forEach(evictionCandidate -> evict(evictionCandidate, PARKED_LIMIT));
+  }
+
+  private boolean evictFirst(String reason) {
+    var evictionCandidate = this.evictionOrder.pollFirst();
+    if (isNull(evictionCandidate)) {
+      return false;
+    }
+    evict(evictionCandidate, reason);
+    return true;
+  }
+
+  private void evict(EvictionCandidate evictionCandidate, String reason) {
+    var queuedMessage = this.queuedLiveMessages.get(evictionCandidate.messageId());
+    if (nonNull(queuedMessage) && evictionCandidate.equals(queuedMessage.evictionCandidate())
+        && this.queuedLiveMessages.remove(evictionCandidate.messageId(), queuedMessage)) {
+      LOGGER.info("Evict message with id {} from queue, reason {}",
+          evictionCandidate.messageId(), reason);
+      discardMessage(queuedMessage);
+      this.liveEventMetrics.countEvicted(queuedMessage.identifiedMessage(), reason);
+    }
+  }
+
+  private void discardMessage(QueuedMessage queuedMessage) {
+    unscheduleMessage(queuedMessage);
+    removeEvictionCandidate(queuedMessage.evictionCandidate());
+    if (nonNull(this.retryTimer)) {
+      this.retryTimer.cancelRetry(queuedMessage.identifiedMessage().getMessageId());
+    }
+    if (nonNull(this.journal)) {
+      this.journal.recordRemoval(queuedMessage.identifiedMessage().getMessageId());
+    }
+  }
+
+  private void removeEvictionCandidate(EvictionCandidate evictionCandidate) {
+    this.evictionOrder.remove(evictionCandidate);
+    if (nonNull(evictionCandidate.userId())) {
+      this.evictionOrderByUser.computeIfPresent(evictionCandidate.userId(),
+          (userId, candidates) -> {
+            candidates.remove(evictionCandidate);
+            return candidates.isEmpty() ? null : candidates;
+          });
+    }
+  }
+
+  private int priorityOf(IdentifiedMessage identifiedMessage) {
+    var liveEventMessage = identifiedMessage.getLiveEventMessage();
+    if (this.liveEventQueueProperties.getEvictionPolicy() != EvictionPolicy.DROP_LOWEST_PRIORITY
+        || isNull(liveEventMessage)) {
+      return 0;
+    }
+    return this.liveEventQueueProperties.priorityOf(liveEventMessage.getEventType());
+  }
+
+  private static String userIdOf(IdentifiedMessage identifiedMessage) {
+    var websocketUserSession = identifiedMessage.getWebsocketUserSession();
+    return isNull(websocketUserSession) ? null : websocketUserSession.getUserId();
+  }
+
+  private static String sessionIdOf(IdentifiedMessage identifiedMessage) {
+    var websocketUserSession = identifiedMessage.getWebsocketUserSession();
+    return isNull(websocketUserSession) ? null : websocketUserSession.getWebsocketSessionId();
+  }
+
+  private static long toEpochMillis(LocalDateTime dateTime) {
+    return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  private record QueuedMessage(IdentifiedMessage identifiedMessage, RetryDeadline retryDeadline,
+                               EvictionCandidate evictionCandidate, String sessionId,
+                               boolean parked) {
+
+  }
+
+  /**
+   * Position of a queued message in the eviction order, the lowest priority and within the same
+   * priority the oldest message comes first.
+   */
+  private record EvictionCandidate(int priority, long sequence, String messageId, String userId)
+      implements Comparable<EvictionCandidate> {
+
+    @Override
+    public int compareTo(EvictionCandidate other) {
+      var comparePriority = Integer.compare(this.priority, other.priority);
+      return comparePriority != 0 ? comparePriority : Long.compare(this.sequence, other.sequence);
+    }
+  }
+
+  private record RetryDeadline(long dueMillis, long sequence, String messageId)
+      implements Comparable<RetryDeadline> {
+
+    @Override
+    public int compareTo(RetryDeadline other) {
+      var compareDue = Long.compare(this.dueMillis, other.dueMillis);
+      return compareDue != 0 ? compareDue : Long.compare(this.sequence, other.sequence);
+    }
   }
 
 }
@@ -0,0 +1,27 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+
+/**
+ * Timer to take over the retry deadlines of the {@link LiveEventMessageQueue}. If a timer is set,
+ * the queue does not order the messages itself but schedules and cancels each message on the
+ * timer.
+ */
+public interface LiveEventRetryTimer {
+
+  /**
+   * Schedules the retry of the given message at its next retry date. An already scheduled retry of
+   * the same message is replaced.
+   *
+   * @param identifiedMessage the queued message
+   */
+  void scheduleRetry(IdentifiedMessage identifiedMessage);
+
+  /**
+   * Cancels the scheduled retry of the message with the given id.
+   *
+   * @param messageId the id of the removed message
+   */
+  void cancelRetry(String messageId);
+
+}
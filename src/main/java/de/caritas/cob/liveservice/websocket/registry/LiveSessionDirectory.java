@@ -0,0 +1,82 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Directory of the nodes holding socket sessions of each user, shared by all instances of the
+ * service. If a directory is set, the {@link SocketUserRegistry} registers each user with the
+ * first session on this node and unregisters the user with the last one. Live events for users
+ * connected to other nodes are forwarded to these nodes.
+ */
+public interface LiveSessionDirectory {
+
+  /**
+   * Returns the id of this node in the directory.
+   *
+   * @return the id of the local node
+   */
+  String getLocalNodeId();
+
+  /**
+   * Registers the local node for the given user.
+   *
+   * @param userId the id of the user with a session on this node
+   */
+  void registerUser(String userId);
+
+  /**
+   * Removes the local node from the nodes of the given user.
+   *
+   * @param userId the id of the user without session on this node
+   */
+  void unregisterUser(String userId);
+
+  /**
+   * Finds the other nodes holding sessions of the given user. The lookup is done for each
+   * recipient of a live event without local session, so repeated lookups of a user must be
+   * answered on the local node until the nodes of the user change.
+   *
+   * @param userId the user id to search for
+   * @return the ids of the other nodes of the user or an empty set
+   */
+  Set<String> findRemoteNodeIds(String userId);
+
+  /**
+   * Finds the other nodes holding sessions of each of the given users at once. The recipients of a
+   * live event are resolved by one call, implementations may read all of them in one round trip.
+   *
+   * @param userIds the user ids to search for
+   * @return the ids of the other nodes by user id, only for users with other nodes
+   */
+  default Map<String, Set<String>> findRemoteNodeIdsByUserId(Collection<String> userIds) {
+    var nodeIdsByUserId = new LinkedHashMap<String, Set<String>>();
+    userIds.forEach(userId -> {
+      var nodeIds = findRemoteNodeIds(userId);
+      if (!nodeIds.isEmpty()) {
+        nodeIdsByUserId.put(userId, nodeIds);
+      }
+    });
+    return nodeIdsByUserId;
+  }
+
+  /**
+   * Forwards a live event to the given node, which delivers it to the sessions of its users.
+   *
+   * @param nodeId           the id of the node to forward to
+   * @param liveEventMessage the live event with the recipients connected to the node
+   */
+  void forwardLiveEvent(String nodeId, LiveEventMessage liveEventMessage);
+
+  /**
+   * Sets the handler of the live events forwarded to this node by other nodes.
+   *
+   * @param liveEventHandler the handler delivering forwarded live events
+   */
+  void receiveForwardedLiveEvents(Consumer<LiveEventMessage> liveEventHandler);
+
+}
@@ -1,38 +1,88 @@
 package de.caritas.cob.liveservice.websocket.registry;
 
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 /**
- * Registry to hold and handle all current registered users.
+ * Registry to hold and handle all current registered users. Sessions are indexed by their socket
+ * session id and by their user id, so all operations work without scanning the registry and
+ * without a global lock.
+ *
+ * <p>Changes of the sessions of one user are made while holding the lock of the user, one of a
+ * fixed set of reentrant locks. Unlike monitors these locks do not pin virtual threads to their
+ * carrier thread while waiting, e.g. for the {@link LiveSessionDirectory}.
+ *
+ * <p>If a {@link LiveSessionDirectory} is used, each user is registered in the directory with the
+ * first session and unregistered with the last session. The directory is updated while the lock of
+ * the user is held, so the updates of one user reach the directory in order.
  */
 @Component
 public class SocketUserRegistry {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SocketUserRegistry.class);
+  private static final int USER_LOCK_STRIPES = 64;
 
-  private final Set<WebSocketUserSession> subscribedUsers = new CopyOnWriteArraySet<>();
+  private final Map<String, WebSocketUserSession> sessionsBySessionId = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, WebSocketUserSession>> sessionsByUserId =
+      new ConcurrentHashMap<>();
+  private final ReentrantLock[] userLocks = IntStream.range(0, USER_LOCK_STRIPES)
+      .mapToObj(stripe -> new ReentrantLock())
+      .toArray(ReentrantLock[]::new);
+  private volatile LiveSessionDirectory sessionDirectory;
 
   /**
    * Adds the given {@link WebSocketUserSession} to the registry.
    *
    * @param webSocketUserSession the user session to be added
    */
-  public synchronized void addUser(WebSocketUserSession webSocketUserSession) {
+  public void addUser(WebSocketUserSession webSocketUserSession) {
     LOGGER.info("User with id {} is connected", webSocketUserSession.getUserId());
-    this.subscribedUsers.add(webSocketUserSession);
+    WebSocketUserSession previousSession;
+    var lock = userLock(webSocketUserSession.getUserId());
+    lock.lock();
+    try {
+      previousSession = this.sessionsBySessionId.put(webSocketUserSession.getWebsocketSessionId(),
+          webSocketUserSession);
+      addToUserIndex(webSocketUserSession);
+    } finally {
+      lock.unlock();
+    }
+    if (nonNull(previousSession)
+        && !Objects.equals(previousSession.getUserId(), webSocketUserSession.getUserId())) {
+      removeFromUserIndexLocked(previousSession);
+    }
   }
 
-  public synchronized void clearAllSessions() {
-    this.subscribedUsers.clear();
+  /**
+   * Removes all sessions and unregisters their users from the {@link LiveSessionDirectory}.
+   */
+  public void clearAllSessions() {
+    this.sessionsBySessionId.clear();
+    this.sessionsByUserId.keySet().forEach(userId -> {
+      var lock = userLock(userId);
+      lock.lock();
+      try {
+        if (nonNull(this.sessionsByUserId.remove(userId))) {
+          unregisterFromDirectory(userId);
+        }
+      } finally {
+        lock.unlock();
+      }
+    });
   }
 
   /**
@@ -40,11 +90,51 @@ public class SocketUserRegistry {
    *
    * @param sessionId the session id to identify the user session to remove
    */
-  public synchronized void removeSession(String sessionId) {
-    WebSocketUserSession sessionToRemove = findUserBySessionId(sessionId);
+  public void removeSession(String sessionId) {
     LOGGER.info("Remove socket session with id {}", sessionId);
-    if (nonNull(sessionToRemove)) {
-      this.subscribedUsers.remove(sessionToRemove);
+    var removed = false;
+    while (!removed) {
+      var session = this.sessionsBySessionId.get(sessionId);
+      if (isNull(session)) {
+        return;
+      }
+      var lock = userLock(session.getUserId());
+      lock.lock();
+      try {
+        removed = this.sessionsBySessionId.remove(sessionId, session);
+        if (removed) {
+          removeFromUserIndex(session);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Assigns the given subscription id to the session with the given socket session id.
+   *
+   * @param socketSessionId the socket session id of the subscribing session
+   * @param subscriptionId  the id of the subscription
+   */
+  public void updateSubscriptionId(String socketSessionId, String subscriptionId) {
+    var updated = false;
+    while (!updated) {
+      var session = this.sessionsBySessionId.get(socketSessionId);
+      if (isNull(session)) {
+        return;
+      }
+      var subscribedSession = session.toBuilder().subscriptionId(subscriptionId).build();
+      var lock = userLock(session.getUserId());
+      lock.lock();
+      try {
+        updated = this.sessionsBySessionId.replace(socketSessionId, session, subscribedSession);
+        if (updated) {
+          addToUserIndex(subscribedSession);
+        }
+      } finally {
+        lock.unlock();
+      }
     }
   }
 
@@ -54,11 +144,26 @@ public class SocketUserRegistry {
    * @param socketSessionId the socket session id to search for
    * @return the {@link WebSocketUserSession} or null if session does not exist
    */
-  public synchronized WebSocketUserSession findUserBySessionId(String socketSessionId) {
-    return this.subscribedUsers.stream()
-        .filter(userSession -> socketSessionId.equals(userSession.getWebsocketSessionId()))
-        .findFirst()
-        .orElse(null);
+  public WebSocketUserSession findUserBySessionId(String socketSessionId) {
+    return this.sessionsBySessionId.get(socketSessionId);
+  }
+
+  /**
+   * Returns the amount of registered socket sessions.
+   *
+   * @return the amount of sessions
+   */
+  public int sessionCount() {
+    return this.sessionsBySessionId.size();
+  }
+
+  /**
+   * Returns the amount of distinct users with at least one registered socket session.
+   *
+   * @return the amount of users
+   */
+  public int userCount() {
+    return this.sessionsByUserId.size();
   }
 
   /**
@@ -66,9 +171,86 @@ public class SocketUserRegistry {
    *
    * @return all socket session users
    */
-  public synchronized List<WebSocketUserSession> retrieveAllUsers() {
-    return new LinkedList<>(this.subscribedUsers);
+  public List<WebSocketUserSession> retrieveAllUsers() {
+    return new ArrayList<>(this.sessionsBySessionId.values());
   }
 
+  /**
+   * Registers the users of all further added and removed sessions in the given directory. Users
+   * with sessions already registered here are registered in the directory as well.
+   *
+   * @param sessionDirectory the {@link LiveSessionDirectory} to use
+   */
+  public void useSessionDirectory(LiveSessionDirectory sessionDirectory) {
+    this.sessionDirectory = sessionDirectory;
+    this.sessionsByUserId.keySet().forEach(sessionDirectory::registerUser);
+  }
+
+  /**
+   * Returns all sessions currently registered for the given user id.
+   *
+   * @param userId the user id to search for
+   * @return the registered sessions of the user or an empty collection
+   */
+  public Collection<WebSocketUserSession> findSessionsByUserId(String userId) {
+    if (isNull(userId)) {
+      return emptyList();
+    }
+    var userSessions = this.sessionsByUserId.get(userId);
+    return isNull(userSessions) ? emptyList() : userSessions.values();
+  }
+
+  private void addToUserIndex(WebSocketUserSession webSocketUserSession) {
+    var userId = webSocketUserSession.getUserId();
+    if (nonNull(userId)) {
+      var userSessions = this.sessionsByUserId.get(userId);
+      if (isNull(userSessions)) {
+        userSessions = new ConcurrentHashMap<>();
+        this.sessionsByUserId.put(userId, userSessions);
+        registerInDirectory(userId);
+      }
+      userSessions.put(webSocketUserSession.getWebsocketSessionId(), webSocketUserSession);
+    }
+  }
+
+  private void removeFromUserIndexLocked(WebSocketUserSession webSocketUserSession) {
+    var lock = userLock(webSocketUserSession.getUserId());
+    lock.lock();
+    try {
+      removeFromUserIndex(webSocketUserSession);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void removeFromUserIndex(WebSocketUserSession webSocketUserSession) {
+    var userId = webSocketUserSession.getUserId();
+    var userSessions = isNull(userId) ? null : this.sessionsByUserId.get(userId);
+    if (nonNull(userSessions)) {
+      userSessions.remove(webSocketUserSession.getWebsocketSessionId());
+      if (userSessions.isEmpty()) {
+        this.sessionsByUserId.remove(userId);
+        unregisterFromDirectory(userId);
+      }
+    }
+  }
+
+  private ReentrantLock userLock(String userId) {
+    return this.userLocks[Math.floorMod(Objects.hashCode(userId), USER_LOCK_STRIPES)];
+  }
+
+  private void registerInDirectory(String userId) {
+    var directory = this.sessionDirectory;
+    if (nonNull(directory)) {
+      directory.registerUser(userId);
+    }
+  }
+
+  private void unregisterFromDirectory(String userId) {
+    var directory = this.sessionDirectory;
+    if (nonNull(directory)) {
+      directory.unregisterUser(userId);
+    }
+  }
 
 }
@@ -0,0 +1,288 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer which keeps its timeouts in a ring of buckets, one bucket per tick. Scheduling and
+ * cancelling a timeout are constant time operations, each tick only visits the timeouts of the
+ * current bucket. Expired tasks are executed on the single worker thread of the timer, so they
+ * must not block.
+ */
+public class HashedWheelTimer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+  private final long tickDurationNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+  private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+  private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+  private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+  private final Thread workerThread;
+
+  private volatile long startTime;
+  private volatile boolean running = true;
+  private long tick;
+
+  /**
+   * Creates a new {@link HashedWheelTimer}.
+   *
+   * @param tickDuration the duration of one tick
+   * @param unit         the unit of the tick duration
+   * @param wheelSize    the amount of buckets, rounded up to the next power of two
+   * @param threadName   the name of the worker thread
+   */
+  public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, String threadName) {
+    if (tickDuration <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+    }
+    this.tickDurationNanos = unit.toNanos(tickDuration);
+    this.wheel = createWheel(wheelSize);
+    this.mask = this.wheel.length - 1;
+    this.workerThread = new Thread(this::runWorker, threadName);
+    this.workerThread.setDaemon(true);
+  }
+
+  private static Bucket[] createWheel(int wheelSize) {
+    var normalizedSize = 1;
+    while (normalizedSize < wheelSize) {
+      normalizedSize <<= 1;
+    }
+    var buckets = new Bucket[normalizedSize];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+    return buckets;
+  }
+
+  /**
+   * Starts the worker thread of the timer.
+   */
+  public void start() {
+    this.workerThread.start();
+    try {
+      this.startTimeInitialized.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Stops the worker thread. Timeouts not expired yet are discarded.
+   */
+  public void stop() {
+    this.running = false;
+    this.workerThread.interrupt();
+  }
+
+  /**
+   * Schedules the given task to be executed once after the given delay.
+   *
+   * @param task  the task to execute
+   * @param delay the delay after which the task is executed
+   * @param unit  the unit of the delay
+   * @return the {@link Timeout} which can be used to cancel the task
+   */
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    var deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - this.startTime;
+    var timeout = new WheelTimeout(this, task, deadline);
+    this.pendingTimeouts.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Returns the amount of timeouts which are scheduled or waiting to be transferred into the
+   * wheel.
+   *
+   * @return the amount of pending timeouts
+   */
+  public int pendingTimeouts() {
+    var pending = this.pendingTimeouts.size();
+    for (Bucket bucket : this.wheel) {
+      pending += bucket.size;
+    }
+    return pending;
+  }
+
+  private void runWorker() {
+    this.startTime = System.nanoTime();
+    this.startTimeInitialized.countDown();
+
+    while (this.running) {
+      if (waitForNextTick()) {
+        removeCancelledTimeouts();
+        transferPendingTimeouts();
+        this.wheel[(int) (this.tick & this.mask)].expireTimeouts();
+        this.tick++;
+      }
+    }
+  }
+
+  private boolean waitForNextTick() {
+    var deadline = this.tickDurationNanos * (this.tick + 1);
+    while (this.running) {
+      var sleepNanos = deadline - (System.nanoTime() - this.startTime);
+      if (sleepNanos <= 0) {
+        return true;
+      }
+      LockSupport.parkNanos(this, sleepNanos);
+    }
+    return false;
+  }
+
+  private void transferPendingTimeouts() {
+    WheelTimeout timeout;
+    while (nonNull(timeout = this.pendingTimeouts.poll())) {
+      if (timeout.state.get() == WheelTimeout.STATE_CANCELLED) {
+        continue;
+      }
+      var calculatedTicks = timeout.deadline / this.tickDurationNanos;
+      timeout.remainingRounds = (calculatedTicks - this.tick) / this.wheel.length;
+      var ticks = Math.max(calculatedTicks, this.tick);
+      this.wheel[(int) (ticks & this.mask)].add(timeout);
+    }
+  }
+
+  private void removeCancelledTimeouts() {
+    WheelTimeout timeout;
+    while (nonNull(timeout = this.cancelledTimeouts.poll())) {
+      if (nonNull(timeout.bucket)) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  /**
+   * Handle of one scheduled task.
+   */
+  public interface Timeout {
+
+    /**
+     * Cancels the task if it has not been executed yet.
+     *
+     * @return true if the task has been cancelled by this call
+     */
+    boolean cancel();
+
+    boolean isExpired();
+
+  }
+
+  private static final class WheelTimeout implements Timeout {
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+    private long remainingRounds;
+    private WheelTimeout next;
+    private WheelTimeout prev;
+    private Bucket bucket;
+
+    private WheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean cancel() {
+      if (!this.state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+        return false;
+      }
+      this.timer.cancelledTimeouts.add(this);
+      return true;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.state.get() == STATE_EXPIRED;
+    }
+
+    private void expire() {
+      if (this.state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+        try {
+          this.task.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("Execution of timer task failed", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Doubly linked list of timeouts, only accessed by the worker thread.
+   */
+  private static final class Bucket {
+
+    private WheelTimeout head;
+    private WheelTimeout tail;
+    private volatile int size;
+
+    private void add(WheelTimeout timeout) {
+      timeout.bucket = this;
+      if (isNull(this.head)) {
+        this.head = timeout;
+      } else {
+        this.tail.next = timeout;
+        timeout.prev = this.tail;
+      }
+      this.tail = timeout;
+      this.size++;
+    }
+
+    private void expireTimeouts() {
+      var timeout = this.head;
+      while (nonNull(timeout)) {
+        var next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          timeout.expire();
+        } else if (timeout.state.get() == WheelTimeout.STATE_CANCELLED) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    private void remove(WheelTimeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (nonNull(timeout.prev)) {
+        timeout.prev.next = timeout.next;
+      }
+      if (nonNull(timeout.next)) {
+        timeout.next.prev = timeout.prev;
+      }
+      if (timeout == this.head) {
+        this.head = timeout.next;
+      }
+      if (timeout == this.tail) {
+        this.tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+      this.size--;
+    }
+  }
+
+}
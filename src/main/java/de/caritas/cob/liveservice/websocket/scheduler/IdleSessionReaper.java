@@ -0,0 +1,88 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import de.caritas.cob.liveservice.websocket.config.LiveSessionProperties;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler to remove socket sessions which have not received any frame for the configured idle
+ * timeout. Connections dropped without a close frame are otherwise only detected by missing
+ * heartbeats, which clients may not send, and keep their registry entries and queued messages.
+ * The queued messages of reaped sessions are handled like the ones of disconnected sessions, by
+ * the session removed policy of the {@link LiveEventMessageQueue}.
+ */
+@Component
+public class IdleSessionReaper {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IdleSessionReaper.class);
+  private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+  private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull LiveSessionProperties liveSessionProperties;
+  private final @NonNull MessageChannel clientOutboundChannel;
+
+  /**
+   * Creates the reaper.
+   *
+   * @param socketUserRegistry    the registry of the socket sessions
+   * @param liveEventMessageQueue the queue of the messages awaiting acknowledgement
+   * @param liveSessionProperties the liveness configuration of the sessions
+   * @param clientOutboundChannel the channel to close the sessions by
+   */
+  public IdleSessionReaper(@NonNull SocketUserRegistry socketUserRegistry,
+      @NonNull LiveEventMessageQueue liveEventMessageQueue,
+      @NonNull LiveSessionProperties liveSessionProperties,
+      @NonNull @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+    this.socketUserRegistry = socketUserRegistry;
+    this.liveEventMessageQueue = liveEventMessageQueue;
+    this.liveSessionProperties = liveSessionProperties;
+    this.clientOutboundChannel = clientOutboundChannel;
+  }
+
+  /**
+   * Closes and removes all sessions idle for longer than the idle timeout and parks or drops their
+   * queued messages according to the session removed policy. Does nothing if the idle timeout is
+   * zero.
+   */
+  @Scheduled(fixedDelayString = "#{@liveSessionProperties.reapInterval.toMillis()}")
+  public void reapIdleSessions() {
+    var idleTimeout = this.liveSessionProperties.getIdleTimeout();
+    if (idleTimeout.isZero()) {
+      return;
+    }
+    var idleSince = System.currentTimeMillis() - idleTimeout.toMillis();
+    this.socketUserRegistry.retrieveAllUsers().stream()
+        .filter(session -> session.isIdleSince(idleSince))
+        .forEach(this::reap);
+  }
+
+  private void reap(WebSocketUserSession session) {
+    var socketSessionId = session.getWebsocketSessionId();
+    LOGGER.info("Reap idle socket session with id {} of user {}", socketSessionId,
+        session.getUserId());
+    this.socketUserRegistry.removeSession(socketSessionId);
+    this.liveEventMessageQueue.removeSessionMessages(socketSessionId);
+    closeConnection(socketSessionId);
+  }
+
+  private void closeConnection(String socketSessionId) {
+    var accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT_ACK);
+    accessor.setSessionId(socketSessionId);
+    accessor.setLeaveMutable(true);
+    this.clientOutboundChannel.send(
+        MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders()));
+  }
+
+}
@@ -3,14 +3,17 @@ package de.caritas.cob.liveservice.websocket.scheduler;
 import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * Scheduler to trigger sending of queued live events.
+ * Scheduler to trigger sending of queued live events by sweeping the queue periodically. Fallback
+ * for the {@link TimerWheelLiveEventScheduler}.
  */
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "live.event.retry.engine", havingValue = "cron")
 public class QueuedLiveEventScheduler {
 
   private final @NonNull QueuedLiveEventSendService queuedLiveEventSendService;
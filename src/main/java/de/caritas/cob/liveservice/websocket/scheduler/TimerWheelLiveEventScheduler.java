@@ -0,0 +1,117 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventRetryTimer;
+import de.caritas.cob.liveservice.websocket.scheduler.HashedWheelTimer.Timeout;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler to trigger sending of queued live events at the retry date of each single message. The
+ * retries are scheduled on a {@link HashedWheelTimer} and cancelled as soon as the message is
+ * removed from the queue, e.g. by an acknowledge of the client. The timer only hands due messages
+ * over to a small pool of send threads, so a slow resend, e.g. a socket write of a slow client,
+ * does not delay the ticks of the wheel.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "live.event.retry.engine", havingValue = "wheel",
+    matchIfMissing = true)
+public class TimerWheelLiveEventScheduler implements LiveEventRetryTimer {
+
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull QueuedLiveEventSendService queuedLiveEventSendService;
+  private final Map<String, Timeout> scheduledRetries = new ConcurrentHashMap<>();
+
+  @Value("${live.event.retry.wheel.tick.millis}")
+  private Long tickMillis;
+
+  @Value("${live.event.retry.wheel.size}")
+  private Integer wheelSize;
+
+  @Value("${live.event.retry.wheel.send.threads}")
+  private Integer sendThreads;
+
+  private HashedWheelTimer hashedWheelTimer;
+  private ExecutorService sendExecutor;
+
+  /**
+   * Starts the timer and hands the retry scheduling of the queue over to it.
+   */
+  @PostConstruct
+  public void startTimer() {
+    this.sendExecutor = Executors.newFixedThreadPool(this.sendThreads,
+        new CustomizableThreadFactory("live-event-retry-"));
+    this.hashedWheelTimer = new HashedWheelTimer(this.tickMillis, TimeUnit.MILLISECONDS,
+        this.wheelSize, "live-event-retry-timer");
+    this.hashedWheelTimer.start();
+    this.liveEventMessageQueue.useRetryTimer(this);
+  }
+
+  /**
+   * Stops the timer.
+   */
+  @PreDestroy
+  public void stopTimer() {
+    this.hashedWheelTimer.stop();
+    this.sendExecutor.shutdown();
+  }
+
+  /**
+   * Schedules the retry of the given message at its next retry date.
+   *
+   * @param identifiedMessage the queued message
+   */
+  @Override
+  public void scheduleRetry(IdentifiedMessage identifiedMessage) {
+    var messageId = identifiedMessage.getMessageId();
+    var delay = Duration.between(LocalDateTime.now(ZoneOffset.UTC),
+        identifiedMessage.getNextRetryDate()).toMillis();
+    var timeout = this.hashedWheelTimer.newTimeout(
+        () -> this.sendExecutor.execute(() -> sendQueuedLiveEvent(messageId)), delay,
+        TimeUnit.MILLISECONDS);
+    var replacedTimeout = this.scheduledRetries.put(messageId, timeout);
+    if (nonNull(replacedTimeout)) {
+      replacedTimeout.cancel();
+    }
+  }
+
+  /**
+   * Cancels the scheduled retry of the message with the given id.
+   *
+   * @param messageId the id of the removed message
+   */
+  @Override
+  public void cancelRetry(String messageId) {
+    var timeout = this.scheduledRetries.remove(messageId);
+    if (nonNull(timeout)) {
+      timeout.cancel();
+    }
+  }
+
+  private void sendQueuedLiveEvent(String messageId) {
+    this.scheduledRetries.computeIfPresent(messageId,
+        (id, timeout) -> timeout.isExpired() ? null : timeout);
+    this.liveEventMessageQueue.findIdentifiedMessageWithId(messageId)
+        .ifPresent(this.queuedLiveEventSendService::sendQueuedLiveEvent);
+  }
+
+}
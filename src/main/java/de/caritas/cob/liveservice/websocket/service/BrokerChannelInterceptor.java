@@ -0,0 +1,63 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static de.caritas.cob.liveservice.websocket.model.Subscription.EVENTS;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.messaging.simp.SimpMessageHeaderAccessor.getDestination;
+import static org.springframework.messaging.simp.SimpMessageHeaderAccessor.getMessageType;
+
+import de.caritas.cob.liveservice.websocket.stomphandler.StompHandlerRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Interceptor of the broker channel. Clients subscribe to the user destination of the live events,
+ * which is translated to the destination of their socket session and sent to the message broker
+ * on this channel. Only then the subscription receiving the live events exists, so the
+ * subscription is passed on to its stomp handler after the broker has handled it.
+ */
+@Service
+@RequiredArgsConstructor
+public class BrokerChannelInterceptor implements ExecutorChannelInterceptor {
+
+  private static final String USER_DESTINATION_PREFIX = EVENTS.getSubscriptionEndpoint() + "-user";
+
+  private final @NonNull StompHandlerRegistry stompHandlerRegistry;
+
+  /**
+   * Method invocation after a message handler has handled a message of the broker channel. Only
+   * subscriptions to the translated user destination handled by the message broker are passed on.
+   *
+   * @param message   the handled {@link Message}
+   * @param channel   the {@link MessageChannel}
+   * @param handler   the {@link MessageHandler} which has handled the message
+   * @param exception the exception thrown by the handler or null
+   */
+  @Override
+  public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+      @NonNull MessageHandler handler, Exception exception) {
+    if (handler instanceof AbstractBrokerMessageHandler && isNull(exception)
+        && isUserDestinationSubscription(message)) {
+      var stompHandler = this.stompHandlerRegistry.retrieveStompHandler(StompCommand.SUBSCRIBE);
+      if (nonNull(stompHandler)) {
+        stompHandler.handleAfterBroker(message);
+      }
+    }
+  }
+
+  private boolean isUserDestinationSubscription(Message<?> message) {
+    var headers = message.getHeaders();
+    var destination = getDestination(headers);
+    return getMessageType(headers) == SimpMessageType.SUBSCRIBE && nonNull(destination)
+        && destination.startsWith(USER_DESTINATION_PREFIX);
+  }
+
+}
@@ -0,0 +1,98 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.messaging.simp.stomp.StompHeaderAccessor.getCommand;
+import static org.springframework.messaging.simp.stomp.StompHeaderAccessor.getDestination;
+import static org.springframework.messaging.simp.stomp.StompHeaderAccessor.getFirstNativeHeader;
+import static org.springframework.messaging.simp.stomp.StompHeaderAccessor.getSessionId;
+
+import de.caritas.cob.liveservice.websocket.config.LiveBrokerRelayProperties;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Interceptor of the client inbound and outbound channel in broker relay mode. Acknowledgements
+ * of live events are handled by the {@link de.caritas.cob.liveservice.websocket.registry
+ * .LiveEventMessageQueue} of this instance, so the external broker delivers to the socket sessions
+ * without acknowledgement and outgoing messages carry the id of the queued message as message id.
+ */
+@Service
+@RequiredArgsConstructor
+public class BrokerRelayChannelInterceptor implements ChannelInterceptor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerRelayChannelInterceptor.class);
+  private static final String NATIVE_HEADER_ACK = "ack";
+  private static final String NATIVE_HEADER_ID = "id";
+  private static final String NATIVE_HEADER_MESSAGE_ID = "message-id";
+
+  private final @NonNull LiveBrokerRelayProperties liveBrokerRelayProperties;
+
+  /**
+   * Keeps client frames the broker must not see from the relay: acknowledgements are already
+   * handled, sending is reserved to the service and the broadcast destinations of the instances
+   * can not be subscribed. Subscriptions are relayed without acknowledgement mode and messages to
+   * the client get the id of their queued message as message id.
+   *
+   * @param message the {@link Message} to be handled
+   * @param channel the {@link MessageChannel}
+   * @return the message to relay or null if it must not be relayed
+   */
+  @Override
+  public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+    var command = getCommand(message.getHeaders());
+    if (isNull(command)) {
+      return message;
+    }
+    return switch (command) {
+      case ACK, NACK, SEND -> null;
+      case SUBSCRIBE -> isBroadcastDestination(getDestination(message.getHeaders()))
+          ? rejectSubscription(message) : withoutNativeHeader(message, NATIVE_HEADER_ACK);
+      case MESSAGE -> withQueuedMessageId(message);
+      default -> message;
+    };
+  }
+
+  private boolean isBroadcastDestination(String destination) {
+    return nonNull(destination)
+        && (destination.startsWith(this.liveBrokerRelayProperties.getUserDestinationBroadcast())
+        || destination.startsWith(this.liveBrokerRelayProperties.getUserRegistryBroadcast()));
+  }
+
+  private static Message<?> rejectSubscription(Message<?> message) {
+    LOGGER.warn("Rejected subscription of session {} to broadcast destination {}",
+        getSessionId(message.getHeaders()), getDestination(message.getHeaders()));
+    return null;
+  }
+
+  private static Message<?> withoutNativeHeader(Message<?> message, String headerName) {
+    if (isNull(getFirstNativeHeader(headerName, message.getHeaders()))) {
+      return message;
+    }
+    var accessor = StompHeaderAccessor.wrap(message);
+    accessor.removeNativeHeader(headerName);
+    accessor.setLeaveMutable(true);
+    return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+  }
+
+  private static Message<?> withQueuedMessageId(Message<?> message) {
+    var queuedMessageId = getFirstNativeHeader(NATIVE_HEADER_ID, message.getHeaders());
+    if (isNull(queuedMessageId) || queuedMessageId.equals(
+        getFirstNativeHeader(NATIVE_HEADER_MESSAGE_ID, message.getHeaders()))) {
+      return message;
+    }
+    var accessor = StompHeaderAccessor.wrap(message);
+    accessor.setNativeHeader(NATIVE_HEADER_MESSAGE_ID, queuedMessageId);
+    accessor.setLeaveMutable(true);
+    return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+  }
+
+}
@@ -1,8 +1,10 @@
 package de.caritas.cob.liveservice.websocket.service;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.springframework.messaging.support.MessageHeaderAccessor.getAccessor;
 
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import de.caritas.cob.liveservice.websocket.stomphandler.StompHandlerRegistry;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -13,13 +15,15 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.stereotype.Service;
 
 /**
- * Interceptor to handle all client inbound messages.
+ * Interceptor to handle all client inbound messages before they are sent to the message handlers.
+ * Each message, heartbeats included, records the activity of its session.
  */
 @Service
 @RequiredArgsConstructor
 public class ClientInboundChannelInterceptor implements ChannelInterceptor {
 
   private final @NonNull StompHandlerRegistry stompHandlerRegistry;
+  private final @NonNull SocketUserRegistry socketUserRegistry;
 
   /**
    * Method invocation everytime a socket message is send to the server and must be handled.
@@ -32,12 +36,22 @@ public class ClientInboundChannelInterceptor implements ChannelInterceptor {
   public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
     var accessor = getAccessor(message, StompHeaderAccessor.class);
     if (nonNull(accessor)) {
+      recordActivity(accessor);
       handleStompCommand(message, accessor);
     }
 
     return message;
   }
 
+  private void recordActivity(StompHeaderAccessor stompHeaderAccessor) {
+    var sessionId = stompHeaderAccessor.getSessionId();
+    var webSocketUserSession = isNull(sessionId) ? null
+        : this.socketUserRegistry.findUserBySessionId(sessionId);
+    if (nonNull(webSocketUserSession)) {
+      webSocketUserSession.recordActivity();
+    }
+  }
+
   private void handleStompCommand(Message<?> message, StompHeaderAccessor stompHeaderAccessor) {
     var stompCommand = stompHeaderAccessor.getCommand();
     var stompHandler = this.stompHandlerRegistry.retrieveStompHandler(stompCommand);
@@ -1,25 +1,35 @@
 package de.caritas.cob.liveservice.websocket.service;
 
+import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.keycloak.adapters.rotation.AdapterTokenVerifier.verifyToken;
 
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.KeycloakDeployment;
 import org.keycloak.adapters.KeycloakDeploymentBuilder;
 import org.keycloak.adapters.springboot.KeycloakSpringBootProperties;
 import org.keycloak.common.VerificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * Wrapper class to provide the validation and observation of an keycloak jwt token.
+ * Wrapper class to provide the validation and observation of an keycloak jwt token. One shared
+ * {@link KeycloakDeployment} caches the realm keys, they are refreshed in the background, so the
+ * verification of a token is a local signature check.
  */
 @Component
 @RequiredArgsConstructor
 public class KeycloakTokenObserver {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(KeycloakTokenObserver.class);
   private static final String KEYCLOAK_USER_ID = "userId";
 
   private final @NonNull KeycloakSpringBootProperties keyCloakConfiguration;
+  private final AtomicReference<KeycloakDeployment> keycloakDeployment = new AtomicReference<>();
 
   /**
    * Validates the token and returnes the user id.
@@ -31,9 +41,36 @@ public class KeycloakTokenObserver {
     if (isBlank(token)) {
       throw new VerificationException("Access token must not be null");
     }
-    var accessToken = verifyToken(token,
-        KeycloakDeploymentBuilder.build(this.keyCloakConfiguration));
+    var accessToken = verifyToken(token, obtainKeycloakDeployment());
     return accessToken.getOtherClaims().get(KEYCLOAK_USER_ID).toString();
   }
 
+  /**
+   * Reloads the realm keys into the shared deployment. Keys introduced by a key rotation are
+   * available before the first token signed with them arrives, tokens with an unknown key id still
+   * trigger a rate limited reload by the public key locator.
+   */
+  @Scheduled(fixedDelayString = "#{@liveKeycloakProperties.refreshInterval.toMillis()}")
+  public void refreshPublicKeys() {
+    if (isBlank(this.keyCloakConfiguration.getAuthServerUrl())) {
+      return;
+    }
+    try {
+      var deployment = obtainKeycloakDeployment();
+      deployment.getPublicKeyLocator().reset(deployment);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Refresh of keycloak realm keys failed, keep the cached keys", e);
+    }
+  }
+
+  private KeycloakDeployment obtainKeycloakDeployment() {
+    var deployment = this.keycloakDeployment.get();
+    if (nonNull(deployment)) {
+      return deployment;
+    }
+    var builtDeployment = KeycloakDeploymentBuilder.build(this.keyCloakConfiguration);
+    return this.keycloakDeployment.compareAndSet(null, builtDeployment)
+        ? builtDeployment : this.keycloakDeployment.get();
+  }
+
 }
@@ -0,0 +1,89 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.websocket.config.LiveEventRetryProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventRetryProperties.EventTypeLimits;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculates the retry dates of queued live events with an exponential backoff. A part of each
+ * delay is randomized, so messages queued at the same time do not retry at the same time.
+ */
+@Component
+@RequiredArgsConstructor
+public class LiveEventRetryBackoff {
+
+  private final @NonNull LiveEventRetryProperties liveEventRetryProperties;
+
+  @Value("${live.event.retry.amount}")
+  private Integer maximumRetryAmount;
+
+  /**
+   * Calculates the next retry date of the given message after it has been sent again. The delay
+   * starts with the initial delay and is multiplied with each further retry, limited by the maximum
+   * delay of the global or event type specific configuration.
+   *
+   * @param identifiedMessage the message with its current retry amount
+   * @return the next retry date
+   */
+  public LocalDateTime nextRetryDate(IdentifiedMessage identifiedMessage) {
+    var delayMillis = calculateDelayMillis(identifiedMessage.getRetryAmount(),
+        maxDelayMillis(eventTypeOf(identifiedMessage)));
+    return LocalDateTime.now(ZoneOffset.UTC).plusNanos(delayMillis * 1_000_000);
+  }
+
+  /**
+   * Returns the maximum retry amount of the given message.
+   *
+   * @param identifiedMessage the queued message
+   * @return the event type specific maximum retry amount or live.event.retry.amount
+   */
+  public int maximumRetryAmount(IdentifiedMessage identifiedMessage) {
+    return eventTypeLimits(eventTypeOf(identifiedMessage))
+        .map(EventTypeLimits::getMaxRetryAmount)
+        .orElse(this.maximumRetryAmount);
+  }
+
+  private long calculateDelayMillis(Integer retryAmount, long maxDelayMillis) {
+    var performedRetries = isNull(retryAmount) ? 0 : Math.max(retryAmount - 2, 0);
+    var exponentialDelay = this.liveEventRetryProperties.getInitialDelay().toMillis()
+        * Math.pow(this.liveEventRetryProperties.getMultiplier(), performedRetries);
+    var cappedDelay = (long) Math.min(exponentialDelay, maxDelayMillis);
+    var jitterMillis = (long) (cappedDelay * this.liveEventRetryProperties.getJitter());
+    if (jitterMillis <= 0) {
+      return cappedDelay;
+    }
+    return cappedDelay - ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+  }
+
+  private long maxDelayMillis(EventType eventType) {
+    return eventTypeLimits(eventType)
+        .map(EventTypeLimits::getMaxDelay)
+        .orElse(this.liveEventRetryProperties.getMaxDelay())
+        .toMillis();
+  }
+
+  private Optional<EventTypeLimits> eventTypeLimits(EventType eventType) {
+    if (isNull(eventType)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(this.liveEventRetryProperties.getEventTypes().get(eventType));
+  }
+
+  private EventType eventTypeOf(IdentifiedMessage identifiedMessage) {
+    var liveEventMessage = identifiedMessage.getLiveEventMessage();
+    return nonNull(liveEventMessage) ? liveEventMessage.getEventType() : null;
+  }
+
+}
@@ -1,29 +1,53 @@
 package de.caritas.cob.liveservice.websocket.service;
 
 import static de.caritas.cob.liveservice.websocket.model.Subscription.EVENTS;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.UUID.randomUUID;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.caritas.cob.liveservice.api.model.EventType;
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.SerializedLiveEvent;
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
 
 /**
- * Service to push live events to subscribed active socket session users.
+ * Service to push live events to subscribed active socket session users. Each live event message
+ * is serialized once for each content type selected by its recipient sessions, the encoded
+ * payload is shared by all recipient sessions of the content type and their retries.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,6 +58,8 @@ public class LiveEventSendService {
 
   private final @NonNull SimpMessagingTemplate simpMessagingTemplate;
   private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull LiveEventMetrics liveEventMetrics;
+  private final @NonNull LiveSessionDirectory liveSessionDirectory;
 
   /**
    * Sends a live event with {@link EventType} to given socket sessions.
@@ -49,36 +75,219 @@ public class LiveEventSendService {
           liveEventMessage.getEventType(),
           socketUserSessions.stream().map(WebSocketUserSession::getUserId)
               .collect(Collectors.toList()));
-      socketUserSessions.forEach(sessionId -> sendEventMessageToUser(liveEventMessage, sessionId));
+      var serializedLiveEvents = new HashMap<MimeType, SerializedLiveEvent>();
+      socketUserSessions.forEach(session -> sendEventMessageToUser(liveEventMessage,
+          serializedLiveEvents.computeIfAbsent(contentTypeOf(session),
+              contentType -> serialize(liveEventMessage, contentType)), session));
     }
   }
 
+  /**
+   * Sends the live events of a batch grouped by their recipient socket sessions. Each session
+   * receives its events in the given order, each event is serialized once for all its sessions of
+   * the same content type.
+   *
+   * @param liveEventsBySession the live events to send for each socket session
+   */
+  public void sendLiveEventsToSessions(
+      Map<WebSocketUserSession, List<LiveEventMessage>> liveEventsBySession) {
+    var serializedLiveEvents =
+        new IdentityHashMap<LiveEventMessage, Map<MimeType, SerializedLiveEvent>>();
+    LOGGER.info("Send batch of live events to {} sessions", liveEventsBySession.size());
+    liveEventsBySession.forEach((session, liveEventMessages) -> liveEventMessages.forEach(
+        liveEventMessage -> sendEventMessageToUser(liveEventMessage,
+            serializedLiveEvents.computeIfAbsent(liveEventMessage, message -> new HashMap<>())
+                .computeIfAbsent(contentTypeOf(session),
+                    contentType -> serializeWithoutRecipients(liveEventMessage, contentType)),
+            session)));
+  }
+
+  /**
+   * Sends a live event to users connected to other instances of the service. Users known by the
+   * {@link LiveSessionDirectory} get the event forwarded to their instances, which queue it for
+   * their sessions. The event for all other users is published to their user destinations through
+   * the broker relay and resolved to their sessions by their instances, so it is not queued for
+   * retries and acknowledgements and always encoded as JSON.
+   *
+   * @param remoteNodeIdsByUserId the other nodes by id of the users connected to other instances,
+   *                              as resolved by the {@link WebSocketSessionIdResolver}, an empty
+   *                              set for users to reach through the broker relay
+   * @param liveEventMessage      the live event message object
+   */
+  public void sendLiveEventToRemoteUsers(Map<String, Set<String>> remoteNodeIdsByUserId,
+      LiveEventMessage liveEventMessage) {
+    if (remoteNodeIdsByUserId.isEmpty()) {
+      return;
+    }
+    var userIdsByNodeId = new LinkedHashMap<String, List<String>>();
+    var relayedUserIds = new ArrayList<String>();
+    remoteNodeIdsByUserId.forEach((userId, nodeIds) -> {
+      if (nodeIds.isEmpty()) {
+        relayedUserIds.add(userId);
+      }
+      nodeIds.forEach(nodeId -> userIdsByNodeId.computeIfAbsent(nodeId, id -> new ArrayList<>())
+          .add(userId));
+    });
+    userIdsByNodeId.forEach((nodeId, nodeUserIds) -> forwardToNode(nodeId, nodeUserIds,
+        liveEventMessage));
+    sendThroughBrokerRelay(relayedUserIds, liveEventMessage);
+  }
+
+  private void forwardToNode(String nodeId, List<String> userIds,
+      LiveEventMessage liveEventMessage) {
+    LOGGER.info("Forward message with type {} to node {} for users with ids {}",
+        liveEventMessage.getEventType(), nodeId, userIds);
+    this.liveSessionDirectory.forwardLiveEvent(nodeId, new LiveEventMessage()
+        .eventType(liveEventMessage.getEventType())
+        .eventContent(liveEventMessage.getEventContent())
+        .userIds(userIds));
+  }
+
+  private void sendThroughBrokerRelay(List<String> userIds, LiveEventMessage liveEventMessage) {
+    if (userIds.isEmpty()) {
+      return;
+    }
+    LOGGER.info("Send message with type {} to remote users with ids {}",
+        liveEventMessage.getEventType(), userIds);
+    var serializedLiveEvent = serializeWithoutRecipients(liveEventMessage, APPLICATION_JSON);
+    userIds.forEach(userId -> {
+      var headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+      var messageId = randomUUID().toString();
+      headerAccessor.setNativeHeader(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER, messageId);
+      headerAccessor.setNativeHeader(NATIVE_HEADER_ID, messageId);
+      headerAccessor.setContentType(serializedLiveEvent.getContentType());
+      headerAccessor.setLeaveMutable(true);
+      this.simpMessagingTemplate.send(
+          this.simpMessagingTemplate.getUserDestinationPrefix()
+              + StringUtils.replace(userId, "/", "%2F") + EVENTS.getSubscriptionEndpoint(),
+          MessageBuilder.createMessage(serializedLiveEvent.getPayload(),
+              headerAccessor.getMessageHeaders()));
+    });
+  }
+
+  /**
+   * Stores a live event in the mailboxes of the given users without socket session. The event is
+   * serialized once as JSON, the stored messages keep only the serialized event and the event
+   * type. They are parked until their user subscribes again or the given time to live ends.
+   *
+   * @param userIds          the ids of the users without socket session
+   * @param liveEventMessage the live event message object
+   * @param timeToLive       the time the stored messages wait for their user
+   * @return the amount of users the event has been stored for
+   */
+  public int storeLiveEventForUsers(Collection<String> userIds, LiveEventMessage liveEventMessage,
+      Duration timeToLive) {
+    if (isEmpty(userIds)) {
+      return 0;
+    }
+    LOGGER.info("Store message with type {} for users with ids {}",
+        liveEventMessage.getEventType(), userIds);
+    var serializedLiveEvent = serializeWithoutRecipients(liveEventMessage, APPLICATION_JSON);
+    var storedLiveEvent = new LiveEventMessage().eventType(liveEventMessage.getEventType());
+    var createdDate = LocalDateTime.now(ZoneOffset.UTC);
+    var storedCount = 0;
+    for (String userId : userIds) {
+      var identifiedMessage = IdentifiedMessage.builder()
+          .messageId(randomUUID().toString())
+          .liveEventMessage(storedLiveEvent)
+          .serializedLiveEvent(serializedLiveEvent)
+          .websocketUserSession(WebSocketUserSession.builder().userId(userId).build())
+          .retryAmount(1)
+          .createdDate(createdDate)
+          .build();
+      if (this.liveEventMessageQueue.parkUserMessage(identifiedMessage, timeToLive)) {
+        this.liveEventMetrics.countStored(liveEventMessage.getEventType());
+        storedCount++;
+      }
+    }
+    return storedCount;
+  }
+
+  private SerializedLiveEvent serializeWithoutRecipients(LiveEventMessage liveEventMessage,
+      MimeType contentType) {
+    liveEventMessage.userIds(null);
+    return serialize(liveEventMessage, contentType);
+  }
+
   private void sendEventMessageToUser(LiveEventMessage liveEventMessage,
-      WebSocketUserSession webSocketUserSession) {
+      SerializedLiveEvent serializedLiveEvent, WebSocketUserSession webSocketUserSession) {
     var messageId = randomUUID().toString();
     var identifiedMessage = IdentifiedMessage.builder()
         .messageId(messageId)
         .liveEventMessage(liveEventMessage)
+        .serializedLiveEvent(serializedLiveEvent)
         .websocketUserSession(webSocketUserSession)
         .retryAmount(1)
         .createdDate(LocalDateTime.now(ZoneOffset.UTC))
         .build();
-    this.liveEventMessageQueue.addIdentifiedMessage(identifiedMessage);
-
+    if (this.liveEventMessageQueue.addIdentifiedMessage(identifiedMessage)) {
+      this.liveEventMetrics.countEnqueued(liveEventMessage.getEventType());
+    }
     sendIdentifiedMessage(identifiedMessage);
   }
 
+  /**
+   * Sends the given {@link IdentifiedMessage} to its websocket session. The already serialized
+   * payload of the message is reused, only the headers are created for each send. A payload
+   * serialized for another content type than the one of the session, e.g. of a message stored for
+   * a user who connects again with another encoding, is transcoded once.
+   *
+   * @param identifiedMessage the message to send
+   */
   public void sendIdentifiedMessage(IdentifiedMessage identifiedMessage) {
-    var headerAccessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
-    headerAccessor
-        .setSessionId(identifiedMessage.getWebsocketUserSession().getWebsocketSessionId());
+    var contentType = contentTypeOf(identifiedMessage.getWebsocketUserSession());
+    if (isNull(identifiedMessage.getSerializedLiveEvent())) {
+      identifiedMessage.setSerializedLiveEvent(
+          serialize(identifiedMessage.getLiveEventMessage(), contentType));
+    } else if (!contentType.equalsTypeAndSubtype(
+        identifiedMessage.getSerializedLiveEvent().getContentType())) {
+      identifiedMessage.setSerializedLiveEvent(
+          transcode(identifiedMessage.getSerializedLiveEvent(), contentType));
+    }
+    var serializedLiveEvent = identifiedMessage.getSerializedLiveEvent();
+    var websocketSessionId = identifiedMessage.getWebsocketUserSession().getWebsocketSessionId();
+    var headerAccessor = StompHeaderAccessor.create(StompCommand.SEND);
+    headerAccessor.setSessionId(websocketSessionId);
     headerAccessor.setMessageId(identifiedMessage.getMessageId());
     headerAccessor.addNativeHeader(NATIVE_HEADER_ID, identifiedMessage.getMessageId());
+    headerAccessor.setContentType(serializedLiveEvent.getContentType());
+    headerAccessor.setLeaveMutable(true);
+    this.simpMessagingTemplate.send(
+        this.simpMessagingTemplate.getUserDestinationPrefix() + websocketSessionId
+            + EVENTS.getSubscriptionEndpoint(),
+        MessageBuilder.createMessage(serializedLiveEvent.getPayload(),
+            headerAccessor.getMessageHeaders()));
+  }
+
+  private static MimeType contentTypeOf(WebSocketUserSession webSocketUserSession) {
+    return nonNull(webSocketUserSession) && nonNull(webSocketUserSession.getContentType())
+        ? webSocketUserSession.getContentType() : APPLICATION_JSON;
+  }
+
+  private SerializedLiveEvent transcode(SerializedLiveEvent serializedLiveEvent,
+      MimeType contentType) {
+    var headerAccessor = SimpMessageHeaderAccessor.create();
+    headerAccessor.setContentType(isNull(serializedLiveEvent.getContentType()) ? APPLICATION_JSON
+        : serializedLiveEvent.getContentType());
+    var liveEvent = this.simpMessagingTemplate.getMessageConverter().fromMessage(
+        MessageBuilder.createMessage(serializedLiveEvent.getPayload(),
+            headerAccessor.getMessageHeaders()), JsonNode.class);
+    if (isNull(liveEvent)) {
+      throw new MessageDeliveryException("Live event message could not be transcoded");
+    }
+    return serialize(liveEvent, contentType);
+  }
+
+  private SerializedLiveEvent serialize(Object liveEvent, MimeType contentType) {
+    var headerAccessor = SimpMessageHeaderAccessor.create();
+    headerAccessor.setContentType(contentType);
     headerAccessor.setLeaveMutable(true);
-    this.simpMessagingTemplate
-        .convertAndSendToUser(identifiedMessage.getWebsocketUserSession().getWebsocketSessionId(),
-            EVENTS.getSubscriptionEndpoint(), identifiedMessage.getLiveEventMessage(),
-            headerAccessor.getMessageHeaders());
+    var message = this.simpMessagingTemplate.getMessageConverter()
+        .toMessage(liveEvent, headerAccessor.getMessageHeaders());
+    if (isNull(message) || !(message.getPayload() instanceof byte[] payload)) {
+      throw new MessageDeliveryException("Live event message could not be serialized");
+    }
+    return new SerializedLiveEvent(payload, headerAccessor.getContentType());
   }
 
 }
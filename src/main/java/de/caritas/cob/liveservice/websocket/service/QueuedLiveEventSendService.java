@@ -1,12 +1,13 @@
 package de.caritas.cob.liveservice.websocket.service;
 
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,37 +20,81 @@ public class QueuedLiveEventSendService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(QueuedLiveEventSendService.class);
 
-  @Value("${live.event.retry.amount}")
-  private Integer maximumRetryAmount;
-
   private final @NonNull LiveEventSendService liveEventSendService;
   private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
   private final @NonNull WebSocketSessionIdResolver webSocketSessionIdResolver;
+  private final @NonNull LiveEventRetryBackoff liveEventRetryBackoff;
+  private final @NonNull LiveEventMetrics liveEventMetrics;
 
   /**
    * Retries to send all queued live event messages which were not acknowledged by the stomp client.
    */
   public void sendQueuedLiveEvents() {
     this.liveEventMessageQueue.getCurrentOpenMessages()
-        .forEach(this::sendLiveEventToUser);
+        .forEach(this::sendQueuedLiveEvent);
   }
 
-  private void sendLiveEventToUser(IdentifiedMessage identifiedMessage) {
-    if (identifiedMessage.getRetryAmount() > this.maximumRetryAmount) {
-      LOGGER.info("Maximum retry amount reached, remove message with id {} from queue",
+  /**
+   * Retries to send the given queued live event message, or removes it from the queue if the
+   * maximum retry amount or the park timeout is reached.
+   *
+   * @param identifiedMessage the queued message which is due for a retry
+   */
+  public void sendQueuedLiveEvent(IdentifiedMessage identifiedMessage) {
+    if (this.liveEventMessageQueue.isParked(identifiedMessage.getMessageId())) {
+      LOGGER.info("Park timeout reached, remove message with id {} from queue",
           identifiedMessage.getMessageId());
       this.liveEventMessageQueue.removeIdentifiedMessageWithId(identifiedMessage.getMessageId());
+      this.liveEventMetrics.countGivenUp(identifiedMessage);
+    } else if (isMaximumRetryAmountReached(identifiedMessage)) {
+      giveUp(identifiedMessage);
     } else {
-      LOGGER.info("Retry to send message with id {} and type {} the {} time",
-          identifiedMessage.getMessageId(),
-          identifiedMessage.getLiveEventMessage().getEventType(),
-          identifiedMessage.getRetryAmount());
       revalidateUsersWebsocketSession(identifiedMessage);
-      this.liveEventSendService.sendIdentifiedMessage(identifiedMessage);
-      incrementRetryAmount(identifiedMessage);
+      resendIdentifiedMessage(identifiedMessage);
+    }
+  }
+
+  /**
+   * Sends the parked messages of the user of the given session to this session immediately, in
+   * the order they have been queued. Further retries of the messages follow the backoff.
+   *
+   * @param webSocketUserSession the newly subscribed session of the user
+   */
+  public void flushUserMessages(WebSocketUserSession webSocketUserSession) {
+    for (IdentifiedMessage identifiedMessage :
+        this.liveEventMessageQueue.unparkUserMessages(webSocketUserSession)) {
+      if (isMaximumRetryAmountReached(identifiedMessage)) {
+        giveUp(identifiedMessage);
+      } else {
+        resendIdentifiedMessage(identifiedMessage);
+      }
     }
   }
 
+  private boolean isMaximumRetryAmountReached(IdentifiedMessage identifiedMessage) {
+    return identifiedMessage.getRetryAmount()
+        > this.liveEventRetryBackoff.maximumRetryAmount(identifiedMessage);
+  }
+
+  private void giveUp(IdentifiedMessage identifiedMessage) {
+    LOGGER.info("Maximum retry amount reached, remove message with id {} from queue",
+        identifiedMessage.getMessageId());
+    this.liveEventMessageQueue.removeIdentifiedMessageWithId(identifiedMessage.getMessageId());
+    this.liveEventMetrics.countGivenUp(identifiedMessage);
+  }
+
+  private void resendIdentifiedMessage(IdentifiedMessage identifiedMessage) {
+    LOGGER.info("Retry to send message with id {} and type {} the {} time",
+        identifiedMessage.getMessageId(),
+        identifiedMessage.getLiveEventMessage().getEventType(),
+        identifiedMessage.getRetryAmount());
+    this.liveEventMetrics.countRetry(identifiedMessage);
+    this.liveEventSendService.sendIdentifiedMessage(identifiedMessage);
+    incrementRetryAmount(identifiedMessage);
+    this.liveEventMessageQueue.rescheduleIdentifiedMessage(identifiedMessage,
+        this.liveEventRetryBackoff.nextRetryDate(identifiedMessage));
+  }
+
   private void revalidateUsersWebsocketSession(IdentifiedMessage identifiedMessage) {
     this.webSocketSessionIdResolver
         .resolveUserSession(identifiedMessage.getWebsocketUserSession().getUserId())
@@ -1,15 +1,27 @@
 package de.caritas.cob.liveservice.websocket.service;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.nonNull;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Component;
 
 /**
@@ -20,9 +32,13 @@ import org.springframework.stereotype.Component;
 public class WebSocketSessionIdResolver {
 
   private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull SimpUserRegistry simpUserRegistry;
+  private final @NonNull LiveSessionDirectory liveSessionDirectory;
 
   /**
-   * Resolves user ids to websocket session ids.
+   * Resolves user ids to websocket session ids. Each distinct user id is looked up once in the user
+   * index of the {@link SocketUserRegistry}, so the cost depends on the amount of recipients and
+   * not on the amount of connected sessions.
    *
    * @param userIds the user ids to search for
    * @return all current registered socket session ids
@@ -31,15 +47,72 @@ public class WebSocketSessionIdResolver {
     if (isEmpty(userIds)) {
       return emptyList();
     }
-    return socketUserRegistry.retrieveAllUsers().stream()
-        .filter(socketUser -> userIds.contains(socketUser.getUserId()))
-        .collect(Collectors.toList());
+    var userSessions = new ArrayList<WebSocketUserSession>();
+    new LinkedHashSet<>(userIds)
+        .forEach(userId -> userSessions.addAll(socketUserRegistry.findSessionsByUserId(userId)));
+    return userSessions;
   }
 
+  /**
+   * Resolves the sessions of several user ids in one pass over the user index, e.g. for all
+   * recipients of a batch of live events.
+   *
+   * @param userIds the user ids to search for
+   * @return the registered sessions of each distinct user id, empty for users without session
+   */
+  public Map<String, List<WebSocketUserSession>> resolveUserSessionsByUserId(
+      Collection<String> userIds) {
+    if (isEmpty(userIds)) {
+      return emptyMap();
+    }
+    var userSessionsByUserId = new HashMap<String, List<WebSocketUserSession>>();
+    userIds.forEach(userId -> userSessionsByUserId.computeIfAbsent(userId,
+        id -> List.copyOf(socketUserRegistry.findSessionsByUserId(id))));
+    return userSessionsByUserId;
+  }
+
+  /**
+   * Resolves one current session of the given user id.
+   *
+   * @param userId the user id to search for
+   * @return an {@link Optional} of a registered session of the user
+   */
   public Optional<WebSocketUserSession> resolveUserSession(String userId) {
-    return this.socketUserRegistry.retrieveAllUsers().stream()
-        .filter(session -> userId.equals(session.getUserId()))
+    return this.socketUserRegistry.findSessionsByUserId(userId).stream()
         .findFirst();
   }
 
+  /**
+   * Resolves the users who have no session on this instance, but are connected to another
+   * instance of the service. Other instances are known by the {@link LiveSessionDirectory} and, in
+   * broker relay mode, by the {@link SimpUserRegistry} holding the users broadcast by all
+   * instances. The nodes of all users are read from the directory at once, the result is passed on
+   * to the {@link LiveEventSendService}, so the directory is never asked twice.
+   *
+   * @param userIds the user ids to search for
+   * @return the ids of the other nodes by id of the users connected to other instances only, an
+   *     empty set for users only known by the broker relay
+   */
+  public Map<String, Set<String>> resolveRemoteNodeIdsByUserId(Collection<String> userIds) {
+    if (isEmpty(userIds)) {
+      return emptyMap();
+    }
+    var userIdsWithoutSession = userIds.stream()
+        .distinct()
+        .filter(userId -> this.socketUserRegistry.findSessionsByUserId(userId).isEmpty())
+        .collect(Collectors.toList());
+    var directoryNodeIdsByUserId = this.liveSessionDirectory
+        .findRemoteNodeIdsByUserId(userIdsWithoutSession);
+    var remoteNodeIdsByUserId = new LinkedHashMap<String, Set<String>>();
+    userIdsWithoutSession.forEach(userId -> {
+      var nodeIds = directoryNodeIdsByUserId.get(userId);
+      if (nonNull(nodeIds)) {
+        remoteNodeIdsByUserId.put(userId, nodeIds);
+      } else if (nonNull(this.simpUserRegistry.getUser(userId))) {
+        remoteNodeIdsByUserId.put(userId, emptySet());
+      }
+    });
+    return remoteNodeIdsByUserId;
+  }
+
 }
@@ -2,6 +2,7 @@ package de.caritas.cob.liveservice.websocket.stomphandler;
 
 import static java.util.Objects.nonNull;
 
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,7 @@ public class StompAcknowledgeHandler implements StompHandler {
   private static final String MESSAGE_ID = "message-id";
 
   private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
+  private final @NonNull LiveEventMetrics liveEventMetrics;
 
   /**
    * Handles the acknowledge {@link StompCommand}.
@@ -29,7 +31,8 @@ public class StompAcknowledgeHandler implements StompHandler {
   public void handle(Message<?> inboundMessage) {
     if (nonNull(inboundMessage)) {
       var messageId = extractFirstNativeHeader(inboundMessage, MESSAGE_ID);
-      this.liveEventMessageQueue.removeIdentifiedMessageWithId(messageId);
+      this.liveEventMessageQueue.removeIdentifiedMessageWithId(messageId)
+          .ifPresent(this.liveEventMetrics::countAcknowledged);
     }
   }
 
@@ -1,17 +1,25 @@
 package de.caritas.cob.liveservice.websocket.stomphandler;
 
+import static de.caritas.cob.liveservice.websocket.config.BinaryFramesWebSocketHandlerDecorator.BINARY_FRAMES;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static org.springframework.messaging.support.MessageHeaderAccessor.getAccessor;
 
+import de.caritas.cob.liveservice.websocket.config.LiveTransportProperties;
 import de.caritas.cob.liveservice.websocket.exception.InvalidAccessTokenException;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserPrincipal;
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import de.caritas.cob.liveservice.websocket.service.KeycloakTokenObserver;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.keycloak.common.VerificationException;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
 
 /**
  * Class to handle the {@link StompCommand} connect.
@@ -21,12 +29,16 @@ import org.springframework.stereotype.Component;
 public class StompConnectHandler implements StompHandler {
 
   private static final String ACCESS_TOKEN = "accessToken";
+  private static final String CONTENT_TYPE = "content-type";
 
   private final @NonNull KeycloakTokenObserver keycloakTokenObserver;
   private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull LiveTransportProperties liveTransportProperties;
 
   /**
-   * Handles the connect {@link StompCommand}.
+   * Handles the connect {@link StompCommand}. The optional content type header of the frame
+   * selects the encoding of the live events sent to the session, binary encodings are only
+   * selected for sessions able to transport binary frames.
    *
    * @param inboundMessage the incoming websocket message
    */
@@ -35,25 +47,57 @@ public class StompConnectHandler implements StompHandler {
     if (nonNull(inboundMessage)) {
       var socketSessionId = extractSessionId(inboundMessage);
       var accessToken = extractFirstNativeHeader(inboundMessage, ACCESS_TOKEN);
+      var contentType = selectContentType(inboundMessage);
 
-      verifyTokenAndAddSocketSessionUser(accessToken, socketSessionId);
+      var userId = verifyTokenAndAddSocketSessionUser(accessToken, socketSessionId, contentType);
+      assignUserPrincipal(inboundMessage, userId);
     }
   }
 
-  private void verifyTokenAndAddSocketSessionUser(String token, String socketSessionId) {
+  private String verifyTokenAndAddSocketSessionUser(String token, String socketSessionId,
+      MimeType contentType) {
     try {
       var userId = this.keycloakTokenObserver.observeUserId(token);
       var webSocketUserSession = WebSocketUserSession.builder()
           .userId(userId)
           .websocketSessionId(socketSessionId)
+          .contentType(contentType)
           .build();
 
       this.socketUserRegistry.addUser(webSocketUserSession);
+      return userId;
     } catch (VerificationException e) {
       throw new InvalidAccessTokenException("Token is invalid");
     }
   }
 
+  private MimeType selectContentType(Message<?> inboundMessage) {
+    var contentType = this.liveTransportProperties
+        .contentTypeOf(extractFirstNativeHeader(inboundMessage, CONTENT_TYPE));
+    if (isNull(contentType)) {
+      return null;
+    }
+    var accessor = getAccessor(inboundMessage, StompHeaderAccessor.class);
+    var sessionAttributes = isNull(accessor) ? null : accessor.getSessionAttributes();
+    if (isNull(sessionAttributes)
+        || !(sessionAttributes.get(BINARY_FRAMES) instanceof AtomicBoolean binaryFrames)) {
+      return null;
+    }
+    binaryFrames.set(true);
+    return contentType;
+  }
+
+  /**
+   * Assigns the user as principal of the socket session, so the session is known by the user
+   * registry of the message broker and can be reached by user destinations of other instances.
+   */
+  private static void assignUserPrincipal(Message<?> inboundMessage, String userId) {
+    var accessor = getAccessor(inboundMessage, StompHeaderAccessor.class);
+    if (nonNull(accessor) && accessor.isMutable() && nonNull(userId)) {
+      accessor.setUser(new WebSocketUserPrincipal(userId));
+    }
+  }
+
   /**
    * The supported {@link StompCommand} of this class.
    *
@@ -2,6 +2,7 @@ package de.caritas.cob.liveservice.websocket.stomphandler;
 
 import static java.util.Objects.requireNonNull;
 
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.stereotype.Component;
@@ -12,8 +13,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class StompErrorHandler extends StompRemoveHandler {
 
-  public StompErrorHandler(SocketUserRegistry socketUserRegistry) {
-    super(requireNonNull(socketUserRegistry));
+  public StompErrorHandler(SocketUserRegistry socketUserRegistry,
+      LiveEventMessageQueue liveEventMessageQueue) {
+    super(requireNonNull(socketUserRegistry), requireNonNull(liveEventMessageQueue));
   }
 
   /**
@@ -16,6 +16,15 @@ public interface StompHandler {
 
   StompCommand supportedStompCommand();
 
+  /**
+   * Handles the message after the message broker has processed it on the broker channel, e.g.
+   * when the subscription to the translated user destination has been registered.
+   *
+   * @param inboundMessage the incoming websocket message
+   */
+  default void handleAfterBroker(Message<?> inboundMessage) {
+  }
+
   /**
    * Extracts the header field with the given name of the given {@link Message}.
    *
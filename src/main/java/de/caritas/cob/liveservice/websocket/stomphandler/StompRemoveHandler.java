@@ -2,6 +2,7 @@ package de.caritas.cob.liveservice.websocket.stomphandler;
 
 import static java.util.Objects.nonNull;
 
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -14,9 +15,11 @@ import org.springframework.messaging.Message;
 abstract class StompRemoveHandler implements StompHandler {
 
   private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull LiveEventMessageQueue liveEventMessageQueue;
 
   /**
-   * Removes the socket user with the socket session id of the given inbound {@link Message}.
+   * Removes the socket user with the socket session id of the given inbound {@link Message} and
+   * stops the retries of the messages queued for the session.
    *
    * @param inboundMessage the message containing the socket session id to be removed
    */
@@ -25,6 +28,7 @@ abstract class StompRemoveHandler implements StompHandler {
     if (nonNull(inboundMessage)) {
       var socketSessionId = extractSessionId(inboundMessage);
       this.socketUserRegistry.removeSession(socketSessionId);
+      this.liveEventMessageQueue.removeSessionMessages(socketSessionId);
     }
   }
 
@@ -3,6 +3,7 @@ package de.caritas.cob.liveservice.websocket.stomphandler;
 import static java.util.Objects.nonNull;
 
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.Message;
@@ -19,6 +20,7 @@ public class StompSubscribeHandler implements StompHandler {
   private static final String SUBSCRIPTION_ID = "simpSubscriptionId";
 
   private final @NonNull SocketUserRegistry socketUserRegistry;
+  private final @NonNull QueuedLiveEventSendService queuedLiveEventSendService;
 
   /**
    * Handles the subscribe {@link StompCommand}.
@@ -36,7 +38,23 @@ public class StompSubscribeHandler implements StompHandler {
 
   private void subscribe(Message<?> message, String socketSessionId) {
     String subscriptionId = extractHeaderField(message, SUBSCRIPTION_ID);
-    this.socketUserRegistry.findUserBySessionId(socketSessionId).setSubscriptionId(subscriptionId);
+    this.socketUserRegistry.updateSubscriptionId(socketSessionId, subscriptionId);
+  }
+
+  /**
+   * Flushes the messages parked for the user of the subscribed session to the session. This is
+   * done after the broker has registered the subscription to the translated user destination of
+   * the session, otherwise the messages are discarded.
+   *
+   * @param inboundMessage the subscribe message of the broker channel
+   */
+  @Override
+  public void handleAfterBroker(Message<?> inboundMessage) {
+    var webSocketUserSession = this.socketUserRegistry
+        .findUserBySessionId(extractSessionId(inboundMessage));
+    if (nonNull(webSocketUserSession)) {
+      this.queuedLiveEventSendService.flushUserMessages(webSocketUserSession);
+    }
   }
 
   /**
@@ -0,0 +1,34 @@
+package de.caritas.cob.liveservice;
+
+import de.caritas.cob.liveservice.websocket.config.LiveBrokerRelayProperties;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Embedded ActiveMQ Artemis broker with a STOMP acceptor on the configured relay port, so the
+ * broker relay can be tested without external infrastructure. Further instances of the service
+ * started in the same test disable it to share the broker of the first instance.
+ */
+@Configuration
+@Profile("relaytesting")
+@ConditionalOnProperty(name = "live.broker.embedded.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class EmbeddedStompBrokerConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public EmbeddedActiveMQ embeddedStompBroker(LiveBrokerRelayProperties liveBrokerRelayProperties)
+      throws Exception {
+    var configuration = new ConfigurationImpl()
+        .setPersistenceEnabled(false)
+        .setSecurityEnabled(false)
+        .setJMXManagementEnabled(false)
+        .addAcceptorConfiguration("stomp", "tcp://%s:%d?protocols=STOMP".formatted(
+            liveBrokerRelayProperties.getHost(), liveBrokerRelayProperties.getPort()));
+    return new EmbeddedActiveMQ().setConfiguration(configuration);
+  }
+
+}
@@ -105,10 +105,13 @@ class LiveServiceApplicationIT extends StompClientIntegrationTest {
 
 
     assertThat(this.socketUserRegistry.retrieveAllUsers(), hasSize(1));
-    WebSocketUserSession registeredUser = this.socketUserRegistry.retrieveAllUsers().get(0);
+    var sessionId = this.socketUserRegistry.retrieveAllUsers().get(0).getWebsocketSessionId();
     await()
         .atMost(15, SECONDS)
-        .until(registeredUser::getSubscriptionId, notNullValue());
+        .until(() -> this.socketUserRegistry.findUserBySessionId(sessionId).getSubscriptionId(),
+            notNullValue());
+
+    WebSocketUserSession registeredUser = this.socketUserRegistry.findUserBySessionId(sessionId);
 
     assertThat(registeredUser, notNullValue());
     assertThat(registeredUser.getWebsocketSessionId(), notNullValue());
@@ -47,18 +47,21 @@ public abstract class StompClientIntegrationTest extends AbstractJUnit4SpringCon
   protected static final String SUBSCRIPTION_ENDPOINT = "/user/events";
   protected static final int MESSAGE_TIMEOUT = 10;
   protected static final String FIRST_VALID_USER = "firstValidUser";
-  static final String SECOND_VALID_USER = "secondValidUser";
+  protected static final String SECOND_VALID_USER = "secondValidUser";
   static final String THIRD_VALID_USER = "thirdValidUser";
 
   private static final String SOCKET_URL = "ws://localhost:%d/live";
+  private static final String PLAIN_SOCKET_URL = "ws://localhost:%d/live/ws";
   private final StompSessionHandlerAdapter sessionHandler = new StompSessionHandlerAdapter() {
   };
 
   @LocalServerPort
-  private int port;
+  protected int port;
 
   private final WebSocketStompClient socketStompClient = new WebSocketStompClient(
       new SockJsClient(singletonList(new WebSocketTransport(new StandardWebSocketClient()))));
+  private final WebSocketStompClient plainSocketStompClient = new WebSocketStompClient(
+      new StandardWebSocketClient());
 
   @Configuration
   @Import(LiveServiceApplication.class)
@@ -77,7 +80,17 @@ public abstract class StompClientIntegrationTest extends AbstractJUnit4SpringCon
 
   protected StompSession performConnect(String accessToken)
       throws ExecutionException, InterruptedException, TimeoutException {
-    socketStompClient.setMessageConverter(new MessageConverter() {
+    return connect(this.socketStompClient, SOCKET_URL, accessToken);
+  }
+
+  protected StompSession performPlainWebSocketConnect(String accessToken)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    return connect(this.plainSocketStompClient, PLAIN_SOCKET_URL, accessToken);
+  }
+
+  private StompSession connect(WebSocketStompClient stompClient, String socketUrl,
+      String accessToken) throws ExecutionException, InterruptedException, TimeoutException {
+    stompClient.setMessageConverter(new MessageConverter() {
       @SneakyThrows
       @Override
       public Object fromMessage(Message<?> message, Class<?> targetType) {
@@ -91,8 +104,8 @@ public abstract class StompClientIntegrationTest extends AbstractJUnit4SpringCon
     });
     StompHeaders connectHeaders = new StompHeaders();
     connectHeaders.add("accessToken", accessToken);
-    ListenableFuture<StompSession> connect = socketStompClient.connect(
-        SOCKET_URL.formatted(port), new WebSocketHttpHeaders(), connectHeaders,
+    ListenableFuture<StompSession> connect = stompClient.connect(
+        socketUrl.formatted(port), new WebSocketHttpHeaders(), connectHeaders,
         sessionHandler);
     return connect.get(3, TimeUnit.SECONDS);
   }
@@ -0,0 +1,35 @@
+package de.caritas.cob.liveservice;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+@TestPropertySource(properties = {"spring.profiles.active=testing",
+    "live.transport.compression-enabled=false"})
+class TransportCompressionDisabledIT extends StompClientIntegrationTest {
+
+  @Test
+  void handshake_Should_notNegotiateAnyExtension_When_compressionIsDisabled() throws Exception {
+    var handshakeHeaders = new WebSocketHttpHeaders();
+    handshakeHeaders.setSecWebSocketExtensions(
+        singletonList(new WebSocketExtension("permessage-deflate")));
+
+    var webSocketSession = new StandardWebSocketClient()
+        .execute(new TextWebSocketHandler(), handshakeHeaders,
+            URI.create("ws://localhost:%d/live/ws".formatted(this.port)))
+        .get(MESSAGE_TIMEOUT, SECONDS);
+
+    assertThat(webSocketSession.getExtensions(), empty());
+    webSocketSession.close();
+  }
+
+}
@@ -0,0 +1,121 @@
+package de.caritas.cob.liveservice;
+
+import static de.caritas.cob.liveservice.api.controller.LiveControllerIT.LIVEEVENT_SEND;
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = "spring.profiles.active=testing")
+class TransportEncodingIT extends StompClientIntegrationTest {
+
+  private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+  @Autowired
+  private SocketUserRegistry socketUserRegistry;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @AfterEach
+  void tearDown() {
+    this.socketUserRegistry.clearAllSessions();
+  }
+
+  @Test
+  void handshake_Should_negotiatePermessageDeflate_When_clientOffersIt() throws Exception {
+    var handshakeHeaders = new WebSocketHttpHeaders();
+    handshakeHeaders.setSecWebSocketExtensions(
+        singletonList(new WebSocketExtension(PERMESSAGE_DEFLATE)));
+
+    var webSocketSession = new StandardWebSocketClient()
+        .execute(new TextWebSocketHandler(), handshakeHeaders,
+            URI.create("ws://localhost:%d/live/ws".formatted(this.port)))
+        .get(MESSAGE_TIMEOUT, SECONDS);
+
+    assertThat(webSocketSession.getExtensions().stream().map(WebSocketExtension::getName)
+        .toList(), contains(PERMESSAGE_DEFLATE));
+    webSocketSession.close();
+  }
+
+  @Test
+  void sendLiveEvent_Should_sendCborEncodedEvent_When_sessionConnectedWithCborContentType()
+      throws Exception {
+    var stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+    stompClient.setMessageConverter(new SimpleMessageConverter());
+    var handshakeHeaders = new WebSocketHttpHeaders();
+    handshakeHeaders.setSecWebSocketExtensions(
+        singletonList(new WebSocketExtension(PERMESSAGE_DEFLATE)));
+    var connectHeaders = new StompHeaders();
+    connectHeaders.add("accessToken", FIRST_VALID_USER);
+    connectHeaders.setContentType(APPLICATION_CBOR);
+    var stompSession = stompClient.connectAsync("ws://localhost:%d/live/ws".formatted(this.port),
+            handshakeHeaders, connectHeaders, new StompSessionHandlerAdapter() {
+            })
+        .get(MESSAGE_TIMEOUT, SECONDS);
+    List<StompHeaders> receivedHeaders = new CopyOnWriteArrayList<>();
+    List<byte[]> receivedPayloads = new CopyOnWriteArrayList<>();
+    stompSession.subscribe(SUBSCRIPTION_ENDPOINT, new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        receivedHeaders.add(headers);
+        receivedPayloads.add((byte[]) payload);
+      }
+    });
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(() -> this.socketUserRegistry.findSessionsByUserId("validated user 1").stream()
+            .anyMatch(session -> session.getSubscriptionId() != null));
+
+    this.mockMvc.perform(post(LIVEEVENT_SEND)
+            .contentType(APPLICATION_JSON)
+            .content(buildLiveEventMessage(DIRECTMESSAGE, singletonList("validated user 1"), null)))
+        .andExpect(status().isOk());
+
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(receivedPayloads::size, is(1));
+    assertThat(receivedHeaders.get(0).getContentType().equalsTypeAndSubtype(APPLICATION_CBOR),
+        is(true));
+    assertThat(new CBORMapper().readValue(receivedPayloads.get(0), LiveEventMessage.class)
+        .getEventType(), is(DIRECTMESSAGE));
+    performDisconnect(stompSession);
+  }
+
+}
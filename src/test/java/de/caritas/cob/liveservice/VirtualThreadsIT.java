@@ -0,0 +1,78 @@
+package de.caritas.cob.liveservice;
+
+import static de.caritas.cob.liveservice.api.controller.LiveControllerIT.LIVEEVENT_SEND;
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveChannelExecutors;
+import de.caritas.cob.liveservice.websocket.config.VirtualLiveChannelExecutor;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = {"spring.profiles.active=testing",
+    "spring.threads.virtual.enabled=true"})
+class VirtualThreadsIT extends StompClientIntegrationTest {
+
+  @Autowired
+  private LiveChannelExecutors liveChannelExecutors;
+
+  @Autowired
+  private SocketUserRegistry socketUserRegistry;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @AfterEach
+  void tearDown() {
+    this.socketUserRegistry.clearAllSessions();
+  }
+
+  @Test
+  void channels_Should_runOnVirtualThreads_When_virtualThreadsAreEnabled() {
+    assertThat(this.liveChannelExecutors.getInbound(),
+        instanceOf(VirtualLiveChannelExecutor.class));
+    assertThat(this.liveChannelExecutors.getOutbound(),
+        instanceOf(VirtualLiveChannelExecutor.class));
+  }
+
+  @Test
+  void sendLiveEvent_Should_sendEventToSubscribedUser_When_virtualThreadsAreEnabled()
+      throws Exception {
+    var stompSession = performConnect(FIRST_VALID_USER);
+    List<LiveEventMessage> receivedMessages = new ArrayList<>();
+    performSubscribe(stompSession, receivedMessages);
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(() -> this.socketUserRegistry.findSessionsByUserId("validated user 1").stream()
+            .anyMatch(session -> session.getSubscriptionId() != null));
+
+    this.mockMvc.perform(post(LIVEEVENT_SEND)
+            .contentType(APPLICATION_JSON)
+            .content(buildLiveEventMessage(DIRECTMESSAGE, singletonList("validated user 1"), null)))
+        .andExpect(status().isOk());
+
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(receivedMessages::size, is(1));
+    assertThat(receivedMessages.get(0).getEventType(), is(DIRECTMESSAGE));
+    performDisconnect(stompSession);
+  }
+
+}
@@ -1,8 +1,10 @@
 package de.caritas.cob.liveservice.api.controller;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -10,6 +12,7 @@ import de.caritas.cob.liveservice.LiveServiceApplication;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -21,6 +24,7 @@ import org.springframework.web.context.WebApplicationContext;
 @SpringBootTest(classes = LiveServiceApplication.class)
 @TestPropertySource(properties = "spring.profiles.active=testing")
 @AutoConfigureMockMvc(addFilters = false)
+@AutoConfigureObservability
 class ActuatorControllerIT {
 
   @Autowired private WebApplicationContext context;
@@ -40,6 +44,15 @@ class ActuatorControllerIT {
         .andExpect(jsonPath("status", is("UP")));
   }
 
+  @Test
+  void getPrometheus_Should_returnLiveServiceMetrics() throws Exception {
+    mockMvc
+        .perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("live_socket_sessions")))
+        .andExpect(content().string(containsString("live_event_queue_size")));
+  }
+
   @Test
   void getActuatorEndpoints_Should_returnNotFound_When_ActuatorEndpointsNotExposed() throws Exception {
     mockMvc
@@ -0,0 +1,42 @@
+package de.caritas.cob.liveservice.api.controller;
+
+import static de.caritas.cob.liveservice.StompClientIntegrationTest.buildLiveEventMessage;
+import static de.caritas.cob.liveservice.api.controller.LiveControllerIT.LIVEEVENT_SEND;
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.Arrays.asList;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.caritas.cob.liveservice.LiveServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(classes = LiveServiceApplication.class,
+    properties = "live.event.dispatch.async.enabled=true")
+@AutoConfigureMockMvc(addFilters = false)
+class LiveControllerAsyncIT {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void sendLiveEvent_Should_returnStatusAccepted_When_asyncDispatchIsEnabled() throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND)
+            .content(buildLiveEventMessage(DIRECTMESSAGE, asList("1", "2"), null))
+            .contentType(APPLICATION_JSON))
+        .andExpect(status().isAccepted());
+  }
+
+  @Test
+  void sendLiveEvent_Should_returnBadRequest_When_userIdsAreMissing() throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND)
+            .content(buildLiveEventMessage(DIRECTMESSAGE, null, null))
+            .contentType(APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+}
@@ -5,8 +5,12 @@ import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
 import static de.caritas.cob.liveservice.api.model.EventType.VIDEOCALLDENY;
 import static de.caritas.cob.liveservice.api.model.EventType.VIDEOCALLREQUEST;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import de.caritas.cob.liveservice.LiveServiceApplication;
@@ -22,6 +26,7 @@ import org.springframework.test.web.servlet.MockMvc;
 public class LiveControllerIT {
 
   public static final String LIVEEVENT_SEND = "/liveevent/send";
+  public static final String LIVEEVENT_SEND_BATCH = "/liveevent/send/batch";
   public static final String USER_IDS_PARAM = "userIds";
 
   @Autowired
@@ -82,4 +87,33 @@ public class LiveControllerIT {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  public void sendLiveEventBatch_Should_returnOutcomeOfEachEvent() throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND_BATCH)
+        .content("[" + buildLiveEventMessage(DIRECTMESSAGE, asList("1", "2"), null) + ","
+            + buildLiveEventMessage(DIRECTMESSAGE, emptyList(), null) + "]")
+        .contentType(APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("outcomes", hasSize(2)))
+        .andExpect(jsonPath("outcomes[0].status", is("noActiveSession")))
+        .andExpect(jsonPath("outcomes[1].status", is("rejected")));
+  }
+
+  @Test
+  public void sendLiveEventBatch_Should_returnBadRequest_When_eventOfBatchMissesUserIds()
+      throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND_BATCH)
+        .content("[" + buildLiveEventMessage(DIRECTMESSAGE, null, null) + "]")
+        .contentType(APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void sendLiveEventBatch_Should_returnBadRequest_When_batchIsEmpty() throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND_BATCH)
+        .content("[]")
+        .contentType(APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
 }
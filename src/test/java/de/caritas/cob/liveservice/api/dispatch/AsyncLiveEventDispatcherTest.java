@@ -0,0 +1,118 @@
+package de.caritas.cob.liveservice.api.dispatch;
+
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import de.caritas.cob.liveservice.api.facade.LiveEventFacade;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncLiveEventDispatcherTest {
+
+  @Mock
+  private LiveEventFacade liveEventFacade;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private AsyncLiveEventDispatcher asyncLiveEventDispatcher;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    this.asyncLiveEventDispatcher.stopDispatcher();
+  }
+
+  @Test
+  void accept_Should_dispatchLiveEventToFacade() {
+    startDispatcher(16);
+    var liveEventMessage = liveEventMessage();
+
+    assertThat(this.asyncLiveEventDispatcher.accept(liveEventMessage), is(true));
+
+    verify(this.liveEventFacade, timeout(5000)).triggerLiveEvent(liveEventMessage);
+  }
+
+  @Test
+  void accept_Should_unparkIdleDispatcher() {
+    startDispatcher(16);
+    await().atMost(5, SECONDS).until(() -> this.asyncLiveEventDispatcher.parkedDispatchers() == 1);
+    var liveEventMessage = liveEventMessage();
+
+    this.asyncLiveEventDispatcher.accept(liveEventMessage);
+
+    verify(this.liveEventFacade, timeout(300))
+        .triggerLiveEvent(liveEventMessage);
+  }
+
+  @Test
+  void accept_Should_returnFalseAndCountDroppedEvent_When_bufferIsFull() throws Exception {
+    startDispatcher(2);
+    var dispatchStarted = new CountDownLatch(1);
+    var releaseDispatch = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      dispatchStarted.countDown();
+      releaseDispatch.await();
+      return null;
+    }).when(this.liveEventFacade).triggerLiveEvent(any());
+
+    this.asyncLiveEventDispatcher.accept(liveEventMessage());
+    dispatchStarted.await();
+    assertThat(this.asyncLiveEventDispatcher.accept(liveEventMessage()), is(true));
+    assertThat(this.asyncLiveEventDispatcher.accept(liveEventMessage()), is(true));
+    var rejectedAccepted = this.asyncLiveEventDispatcher.accept(liveEventMessage());
+    releaseDispatch.countDown();
+
+    assertThat(rejectedAccepted, is(false));
+    assertThat(this.meterRegistry.counter("live.event.dispatch.dropped").count(), is(1.0));
+  }
+
+  @Test
+  void accept_Should_countFailedDispatch_When_facadeThrowsException() {
+    startDispatcher(16);
+    doThrow(new IllegalStateException()).when(this.liveEventFacade).triggerLiveEvent(any());
+
+    this.asyncLiveEventDispatcher.accept(liveEventMessage());
+
+    await().atMost(5, SECONDS).until(
+        () -> this.meterRegistry.counter("live.event.dispatch.failed").count() == 1.0);
+  }
+
+  @Test
+  void startDispatcher_Should_registerBufferDepthGauge() {
+    startDispatcher(16);
+
+    assertThat(this.meterRegistry.get("live.event.dispatch.buffer.depth").gauge().value(),
+        is(0.0));
+    assertThat(this.meterRegistry.get("live.event.dispatch.buffer.capacity").gauge().value(),
+        is(16.0));
+  }
+
+  private void startDispatcher(int bufferCapacity) {
+    this.asyncLiveEventDispatcher = new AsyncLiveEventDispatcher(this.liveEventFacade,
+        this.meterRegistry);
+    setField(this.asyncLiveEventDispatcher, "bufferCapacity", bufferCapacity);
+    setField(this.asyncLiveEventDispatcher, "dispatcherThreads", 1);
+    this.asyncLiveEventDispatcher.startDispatcher();
+  }
+
+  private static LiveEventMessage liveEventMessage() {
+    return new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of("1"));
+  }
+
+}
@@ -0,0 +1,116 @@
+package de.caritas.cob.liveservice.api.dispatch;
+
+import static java.util.Objects.nonNull;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MpmcRingBufferTest {
+
+  @Test
+  void constructor_Should_roundCapacityUpToNextPowerOfTwo() {
+    assertThat(new MpmcRingBuffer<Integer>(5).capacity(), is(8));
+    assertThat(new MpmcRingBuffer<Integer>(8).capacity(), is(8));
+    assertThat(new MpmcRingBuffer<Integer>(1).capacity(), is(2));
+  }
+
+  @Test
+  void constructor_Should_throwIllegalArgumentException_When_capacityIsNotPositive() {
+    assertThrows(IllegalArgumentException.class, () -> new MpmcRingBuffer<Integer>(0));
+  }
+
+  @Test
+  void poll_Should_returnNull_When_bufferIsEmpty() {
+    assertThat(new MpmcRingBuffer<Integer>(4).poll(), nullValue());
+  }
+
+  @Test
+  void offer_Should_returnFalse_When_bufferIsFull() {
+    var ringBuffer = new MpmcRingBuffer<Integer>(2);
+
+    assertThat(ringBuffer.offer(1), is(true));
+    assertThat(ringBuffer.offer(2), is(true));
+    assertThat(ringBuffer.offer(3), is(false));
+    assertThat(ringBuffer.size(), is(2));
+  }
+
+  @Test
+  void poll_Should_returnElementsInInsertionOrder_When_bufferWrapsAround() {
+    var ringBuffer = new MpmcRingBuffer<Integer>(4);
+
+    for (int i = 0; i < 10; i++) {
+      ringBuffer.offer(i);
+      ringBuffer.offer(i + 100);
+      assertThat(ringBuffer.poll(), is(i));
+      assertThat(ringBuffer.poll(), is(i + 100));
+    }
+    assertThat(ringBuffer.size(), is(0));
+  }
+
+  @Test
+  void offerAndPoll_Should_notLoseOrDuplicateElements_When_usedByConcurrentProducersAndConsumers()
+      throws Exception {
+    var ringBuffer = new MpmcRingBuffer<Integer>(64);
+    var producers = 4;
+    var elementsPerProducer = 5000;
+    var executor = Executors.newFixedThreadPool(producers * 2);
+    var start = new CountDownLatch(1);
+    var consumed = ConcurrentHashMap.<Integer>newKeySet();
+    var remaining = new AtomicInteger(producers * elementsPerProducer);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int producer = 0; producer < producers; producer++) {
+      var offset = producer * elementsPerProducer;
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < elementsPerProducer; i++) {
+          while (!ringBuffer.offer(offset + i)) {
+            Thread.yield();
+          }
+        }
+        return null;
+      }));
+      futures.add(executor.submit(() -> {
+        start.await();
+        consume(ringBuffer, consumed, remaining);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(consumed.size(), is(producers * elementsPerProducer));
+    assertThat(ringBuffer.size(), is(0));
+  }
+
+  private static void consume(MpmcRingBuffer<Integer> ringBuffer, Set<Integer> consumed,
+      AtomicInteger remaining) {
+    while (remaining.get() > 0) {
+      var element = ringBuffer.poll();
+      if (nonNull(element)) {
+        if (!consumed.add(element)) {
+          throw new IllegalStateException("Element consumed twice: " + element);
+        }
+        remaining.decrementAndGet();
+      } else {
+        Thread.yield();
+      }
+    }
+  }
+
+}
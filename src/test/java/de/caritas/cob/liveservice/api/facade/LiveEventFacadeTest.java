@@ -1,25 +1,47 @@
 package de.caritas.cob.liveservice.api.facade;
 
 import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static de.caritas.cob.liveservice.api.model.EventType.VIDEOCALLDENY;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.api.model.LiveEventOutcome.StatusEnum;
+import de.caritas.cob.liveservice.websocket.config.LiveEventMailboxProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
 import de.caritas.cob.liveservice.websocket.service.LiveEventSendService;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import de.caritas.cob.liveservice.websocket.service.WebSocketSessionIdResolver;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +56,46 @@ class LiveEventFacadeTest {
   @Mock
   private LiveEventSendService liveEventSendService;
 
+  @Mock
+  private LiveEventMetrics liveEventMetrics;
+
+  @Mock
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Mock
+  private QueuedLiveEventSendService queuedLiveEventSendService;
+
+  @Mock
+  private LiveEventMailboxProperties liveEventMailboxProperties;
+
+  @Mock
+  private LiveSessionDirectory liveSessionDirectory;
+
+  @Test
+  void triggerLiveEvent_Should_throwTooManyRequests_When_queueRejectsNewMessages() {
+    when(this.liveEventMessageQueue.rejectsNewMessages()).thenReturn(true);
+    var liveEventMessage = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of("1"));
+
+    var exception = assertThrows(ResponseStatusException.class,
+        () -> this.liveEventFacade.triggerLiveEvent(liveEventMessage));
+
+    assertThat(exception.getStatusCode(), is(HttpStatus.TOO_MANY_REQUESTS));
+    verifyNoInteractions(this.sessionIdResolver, this.liveEventSendService);
+  }
+
+  @Test
+  void triggerLiveEvents_Should_throwTooManyRequests_When_queueRejectsNewMessages() {
+    when(this.liveEventMessageQueue.rejectsNewMessages()).thenReturn(true);
+    var liveEventMessages =
+        List.of(new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of("1")));
+
+    var exception = assertThrows(ResponseStatusException.class,
+        () -> this.liveEventFacade.triggerLiveEvents(liveEventMessages));
+
+    assertThat(exception.getStatusCode(), is(HttpStatus.TOO_MANY_REQUESTS));
+    verifyNoInteractions(this.sessionIdResolver, this.liveEventSendService);
+  }
+
   @Test
   void triggerLiveEvent_Should_throwBadRequestException_When_liveEventMessageIsNull() {
     assertThrows(ResponseStatusException.class, () -> this.liveEventFacade.triggerLiveEvent(null));
@@ -74,4 +136,201 @@ class LiveEventFacadeTest {
             eq(new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(expectedIds)));
   }
 
+  @Test
+  void triggerLiveEvents_Should_resolveAllRecipientsOnceAndGroupDeliveriesPerSession() {
+    var firstSession = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    var secondSession = WebSocketUserSession.builder().userId("2").websocketSessionId("b").build();
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any())).thenReturn(
+        Map.of("1", List.of(firstSession), "2", List.of(secondSession)));
+    var firstEvent = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1", "2"));
+    var secondEvent = new LiveEventMessage().eventType(VIDEOCALLDENY).userIds(asList("1"));
+
+    var result = this.liveEventFacade.triggerLiveEvents(asList(firstEvent, secondEvent));
+
+    verify(this.sessionIdResolver, times(1)).resolveUserSessionsByUserId(Set.of("1", "2"));
+    verify(this.liveEventSendService, times(1)).sendLiveEventsToSessions(Map.of(
+        firstSession, List.of(firstEvent, secondEvent),
+        secondSession, List.of(firstEvent)));
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.SENT));
+    assertThat(result.getOutcomes().get(0).getSessionCount(), is(2));
+    assertThat(result.getOutcomes().get(1).getSessionCount(), is(1));
+    verify(this.liveEventMetrics).recordFanOut(2);
+    verify(this.liveEventMetrics).recordFanOut(1);
+  }
+
+  @Test
+  void triggerLiveEvents_Should_rejectInvalidEventsAndSendTheOthers() {
+    var session = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any()))
+        .thenReturn(Map.of("1", List.of(session)));
+    var validEvent = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1"));
+
+    var result = this.liveEventFacade.triggerLiveEvents(asList(
+        new LiveEventMessage().eventType(null).userIds(asList("1")),
+        new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(emptyList()),
+        validEvent));
+
+    assertThat(result.getOutcomes(), hasSize(3));
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.REJECTED));
+    assertThat(result.getOutcomes().get(1).getStatus(), is(StatusEnum.REJECTED));
+    assertThat(result.getOutcomes().get(1).getReason(), is("User ids must not be empty"));
+    assertThat(result.getOutcomes().get(2).getStatus(), is(StatusEnum.SENT));
+    assertThat(result.getOutcomes().get(2).getIndex(), is(2));
+    verify(this.liveEventSendService).sendLiveEventsToSessions(
+        Map.of(session, List.of(validEvent)));
+  }
+
+  @Test
+  void triggerLiveEvents_Should_reportNoActiveSession_When_noRecipientIsConnected() {
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any())).thenReturn(Map.of());
+
+    var result = this.liveEventFacade.triggerLiveEvents(
+        singletonList(new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1"))));
+
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.NOACTIVESESSION));
+    assertThat(result.getOutcomes().get(0).getSessionCount(), is(0));
+  }
+
+  @Test
+  void triggerLiveEvent_Should_notStoreEvent_When_mailboxIsDisabled() {
+    this.liveEventFacade.triggerLiveEvent(new LiveEventMessage()
+        .eventType(DIRECTMESSAGE)
+        .userIds(asList("1", "2")));
+
+    verify(this.liveEventSendService, never()).storeLiveEventForUsers(any(), any(), any());
+  }
+
+  @Test
+  void triggerLiveEvent_Should_storeEventForUsersWithoutSession_When_mailboxIsEnabled() {
+    var session = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    when(this.sessionIdResolver.resolveUserSessions(any())).thenReturn(List.of(session));
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    when(this.liveEventMailboxProperties.timeToLiveOf(DIRECTMESSAGE))
+        .thenReturn(Duration.ofMinutes(5));
+    when(this.liveEventSendService.storeLiveEventForUsers(any(), any(), any())).thenReturn(2);
+    var liveEventMessage = new LiveEventMessage()
+        .eventType(DIRECTMESSAGE)
+        .userIds(asList("1", "2", "3", "2"));
+
+    this.liveEventFacade.triggerLiveEvent(liveEventMessage);
+
+    verify(this.liveEventSendService).sendLiveEventToUsers(List.of(session), liveEventMessage);
+    verify(this.liveEventSendService).storeLiveEventForUsers(List.of("2", "3"), liveEventMessage,
+        Duration.ofMinutes(5));
+    verifyNoInteractions(this.queuedLiveEventSendService);
+  }
+
+  @Test
+  void triggerLiveEvent_Should_flushStoredEvent_When_userHasConnectedMeanwhile() {
+    var session = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    when(this.sessionIdResolver.resolveUserSession("1")).thenReturn(Optional.of(session));
+
+    this.liveEventFacade.triggerLiveEvent(new LiveEventMessage()
+        .eventType(DIRECTMESSAGE)
+        .userIds(asList("1")));
+
+    verify(this.queuedLiveEventSendService).flushUserMessages(session);
+  }
+
+  @Test
+  void triggerLiveEvents_Should_reportStored_When_eventIsStoredForAllRecipients() {
+    var session = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any()))
+        .thenReturn(Map.of("1", List.of(session)));
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    when(this.liveEventSendService.storeLiveEventForUsers(any(), any(), any())).thenReturn(1);
+    var sentEvent = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1", "2"));
+    var storedEvent = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("2"));
+
+    var result = this.liveEventFacade.triggerLiveEvents(asList(sentEvent, storedEvent));
+
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.SENT));
+    assertThat(result.getOutcomes().get(1).getStatus(), is(StatusEnum.STORED));
+    assertThat(result.getOutcomes().get(1).getSessionCount(), is(0));
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("2")), eq(sentEvent),
+        any());
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("2")), eq(storedEvent),
+        any());
+  }
+
+  @Test
+  void triggerLiveEvent_Should_sendEventToRemoteUsersInsteadOfStoringIt() {
+    when(this.sessionIdResolver.resolveRemoteNodeIdsByUserId(List.of("1", "2")))
+        .thenReturn(Map.of("2", Set.of("node")));
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    var liveEventMessage = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1", "2"));
+
+    this.liveEventFacade.triggerLiveEvent(liveEventMessage);
+
+    verify(this.liveEventSendService).sendLiveEventToRemoteUsers(Map.of("2", Set.of("node")),
+        liveEventMessage);
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("1")),
+        eq(liveEventMessage), any());
+  }
+
+  @Test
+  void triggerLiveEvents_Should_reportSent_When_recipientIsConnectedToOtherInstance() {
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any()))
+        .thenReturn(Map.of("1", emptyList()));
+    when(this.sessionIdResolver.resolveRemoteNodeIdsByUserId(List.of("1")))
+        .thenReturn(Map.of("1", emptySet()));
+    var liveEventMessage = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1"));
+
+    var result = this.liveEventFacade.triggerLiveEvents(singletonList(liveEventMessage));
+
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.SENT));
+    assertThat(result.getOutcomes().get(0).getSessionCount(), is(0));
+    verify(this.liveEventSendService).sendLiveEventToRemoteUsers(Map.of("1", emptySet()),
+        liveEventMessage);
+    verify(this.liveEventSendService, never()).storeLiveEventForUsers(any(), any(), any());
+  }
+
+  @Test
+  void triggerLiveEvents_Should_reportSent_When_eventIsSentToRemoteAndStoredForOfflineUsers() {
+    when(this.sessionIdResolver.resolveUserSessionsByUserId(any()))
+        .thenReturn(Map.of("remote", emptyList(), "offline", emptyList()));
+    when(this.sessionIdResolver.resolveRemoteNodeIdsByUserId(any()))
+        .thenReturn(Map.of("remote", Set.of("node")));
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    when(this.liveEventSendService.storeLiveEventForUsers(any(), any(), any())).thenReturn(1);
+    var mixedEvent = new LiveEventMessage().eventType(DIRECTMESSAGE)
+        .userIds(asList("remote", "offline"));
+    var offlineEvent = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("offline"));
+
+    var result = this.liveEventFacade.triggerLiveEvents(asList(mixedEvent, offlineEvent));
+
+    assertThat(result.getOutcomes().get(0).getStatus(), is(StatusEnum.SENT));
+    assertThat(result.getOutcomes().get(0).getSessionCount(), is(0));
+    assertThat(result.getOutcomes().get(1).getStatus(), is(StatusEnum.STORED));
+    verify(this.liveEventSendService).sendLiveEventToRemoteUsers(Map.of("remote", Set.of("node")),
+        mixedEvent);
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("offline")),
+        eq(mixedEvent), any());
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("offline")),
+        eq(offlineEvent), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void receiveForwardedLiveEvents_Should_deliverForwardedEventToLocalSessionsWithoutForwarding() {
+    var session = WebSocketUserSession.builder().userId("1").websocketSessionId("a").build();
+    when(this.sessionIdResolver.resolveUserSessions(List.of("1", "2")))
+        .thenReturn(List.of(session));
+    when(this.liveEventMailboxProperties.isEnabled()).thenReturn(true);
+    var liveEventMessage = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(asList("1", "2"));
+    this.liveEventFacade.receiveForwardedLiveEvents();
+    ArgumentCaptor<Consumer<LiveEventMessage>> handlerCaptor =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(this.liveSessionDirectory).receiveForwardedLiveEvents(handlerCaptor.capture());
+
+    handlerCaptor.getValue().accept(liveEventMessage);
+
+    verify(this.liveEventSendService).sendLiveEventToUsers(List.of(session), liveEventMessage);
+    verify(this.liveEventSendService).storeLiveEventForUsers(eq(List.of("2")),
+        eq(liveEventMessage), any());
+    verify(this.liveEventSendService, never()).sendLiveEventToRemoteUsers(any(), any());
+    verify(this.sessionIdResolver, never()).resolveRemoteNodeIdsByUserId(any());
+  }
+
 }
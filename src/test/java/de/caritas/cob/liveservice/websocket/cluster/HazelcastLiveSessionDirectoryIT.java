@@ -0,0 +1,183 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveClusterConfig;
+import de.caritas.cob.liveservice.websocket.config.LiveClusterProperties;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HazelcastLiveSessionDirectoryIT {
+
+  private static final int FIRST_PORT = 5811;
+  private static final int SECOND_PORT = 5812;
+
+  private final SocketUserRegistry firstRegistry = new SocketUserRegistry();
+  private final SocketUserRegistry secondRegistry = new SocketUserRegistry();
+  private HazelcastInstance firstMember;
+  private HazelcastInstance secondMember;
+  private HazelcastLiveSessionDirectory firstNode;
+  private HazelcastLiveSessionDirectory secondNode;
+
+  @BeforeEach
+  void setup() {
+    var clusterName = "live-service-" + UUID.randomUUID();
+    this.firstMember = startMember(clusterName, FIRST_PORT);
+    this.secondMember = startMember(clusterName, SECOND_PORT);
+    this.firstNode = new HazelcastLiveSessionDirectory(this.firstMember, this.firstRegistry,
+        new ObjectMapper(), summaryProperties());
+    this.firstNode.start();
+    this.secondNode = new HazelcastLiveSessionDirectory(this.secondMember, this.secondRegistry,
+        new ObjectMapper(), summaryProperties());
+    this.secondNode.start();
+    await()
+        .atMost(30, SECONDS)
+        .until(() -> this.firstMember.getCluster().getMembers().size(), is(2));
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    this.secondNode.stop();
+    this.firstNode.stop();
+    this.secondMember.shutdown();
+    this.firstMember.shutdown();
+  }
+
+  @Test
+  void findRemoteNodeIds_Should_followSessionsOfUserOnOtherMember() {
+    this.firstRegistry.addUser(userSession("user", "session"));
+
+    await()
+        .atMost(10, SECONDS)
+        .until(() -> this.secondNode.findRemoteNodeIds("user"),
+            is(Set.of(this.firstNode.getLocalNodeId())));
+    assertThat(this.firstNode.findRemoteNodeIds("user"), empty());
+
+    this.firstRegistry.removeSession("session");
+
+    await()
+        .atMost(10, SECONDS)
+        .until(() -> this.secondNode.findRemoteNodeIds("user"), empty());
+  }
+
+  @Test
+  void findRemoteNodeIdsByUserId_Should_findUserMissingInSummariesOfOtherMembers() {
+    var justConnected = "just connected";
+    assertThat(this.secondNode.findRemoteNodeIdsByUserId(List.of(justConnected)), is(Map.of()));
+
+    this.firstMember.getMap(HazelcastLiveSessionDirectory.DIRECTORY_MAP_NAME)
+        .put(justConnected, new HashSet<>(Set.of(this.firstNode.getLocalNodeId())));
+
+    await()
+        .atMost(5, SECONDS)
+        .until(() -> this.secondNode.findRemoteNodeIdsByUserId(List.of(justConnected)),
+            is(Map.of(justConnected, Set.of(this.firstNode.getLocalNodeId()))));
+  }
+
+  @Test
+  void findRemoteNodeIds_Should_answerRepeatedLookupsFromNearCache() {
+    this.firstRegistry.addUser(userSession("user", "session"));
+    await()
+        .atMost(10, SECONDS)
+        .until(() -> this.secondNode.findRemoteNodeIds("user"),
+            is(Set.of(this.firstNode.getLocalNodeId())));
+    final var hits = nearCacheHits(this.secondMember);
+
+    this.secondNode.findRemoteNodeIds("user");
+    this.secondNode.findRemoteNodeIds("offline");
+    this.secondNode.findRemoteNodeIds("offline");
+
+    assertThat(nearCacheHits(this.secondMember), is(hits + 2));
+  }
+
+  @Test
+  void findRemoteNodeIdsByUserId_Should_returnNodesOfRemoteUsersOnly() {
+    this.firstRegistry.addUser(userSession("user", "session"));
+    this.secondRegistry.addUser(userSession("local", "local session"));
+    await()
+        .atMost(10, SECONDS)
+        .until(() -> this.secondNode.findRemoteNodeIds("user"),
+            is(Set.of(this.firstNode.getLocalNodeId())));
+
+    var nodeIdsByUserId = this.secondNode
+        .findRemoteNodeIdsByUserId(List.of("user", "local", "offline"));
+
+    assertThat(nodeIdsByUserId, is(Map.of("user", Set.of(this.firstNode.getLocalNodeId()))));
+  }
+
+  @Test
+  void forwardLiveEvent_Should_deliverLiveEventToHandlerOfOtherMember() {
+    var receivedEvents = new CopyOnWriteArrayList<LiveEventMessage>();
+    this.firstNode.receiveForwardedLiveEvents(receivedEvents::add);
+
+    this.secondNode.forwardLiveEvent(this.firstNode.getLocalNodeId(),
+        new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of("user")));
+
+    await()
+        .atMost(10, SECONDS)
+        .until(receivedEvents::size, is(1));
+    assertThat(receivedEvents.get(0).getEventType(), is(DIRECTMESSAGE));
+    assertThat(receivedEvents.get(0).getUserIds(), is(List.of("user")));
+  }
+
+  @Test
+  void memberRemoved_Should_removeUsersOfLeftMemberFromDirectory() {
+    this.secondRegistry.addUser(userSession("user", "session"));
+    await()
+        .atMost(10, SECONDS)
+        .until(() -> this.firstNode.findRemoteNodeIds("user"),
+            is(Set.of(this.secondNode.getLocalNodeId())));
+
+    this.secondMember.shutdown();
+
+    await()
+        .atMost(30, SECONDS)
+        .until(() -> this.firstNode.findRemoteNodeIds("user"), empty());
+  }
+
+  private static HazelcastInstance startMember(String clusterName, int port) {
+    var liveClusterProperties = new LiveClusterProperties();
+    liveClusterProperties.setClusterName(clusterName);
+    liveClusterProperties.setPort(port);
+    liveClusterProperties.setMembers(
+        List.of("127.0.0.1:" + FIRST_PORT, "127.0.0.1:" + SECOND_PORT));
+    return new LiveClusterConfig().liveClusterHazelcastInstance(liveClusterProperties);
+  }
+
+  private static long nearCacheHits(HazelcastInstance member) {
+    return member.getMap(HazelcastLiveSessionDirectory.DIRECTORY_MAP_NAME)
+        .getLocalMapStats().getNearCacheStats().getHits();
+  }
+
+  private static LiveClusterProperties summaryProperties() {
+    var liveClusterProperties = new LiveClusterProperties();
+    liveClusterProperties.setSummaryExpectedUsers(100);
+    liveClusterProperties.setSummaryFalsePositiveRate(0.0001);
+    liveClusterProperties.setSummaryPublishInterval(Duration.ofMillis(100));
+    liveClusterProperties.setSummaryRebuildInterval(Duration.ofMillis(500));
+    return liveClusterProperties;
+  }
+
+  private static WebSocketUserSession userSession(String userId, String sessionId) {
+    return WebSocketUserSession.builder().userId(userId).websocketSessionId(sessionId).build();
+  }
+
+}
@@ -0,0 +1,68 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryLiveSessionDirectoryTest {
+
+  private final SocketUserRegistry firstRegistry = new SocketUserRegistry();
+  private final SocketUserRegistry secondRegistry = new SocketUserRegistry();
+  private InMemoryLiveSessionDirectory firstNode;
+  private InMemoryLiveSessionDirectory secondNode;
+
+  @BeforeEach
+  void setup() {
+    this.firstNode = new InMemoryLiveSessionDirectory(this.firstRegistry);
+    this.firstNode.start();
+    this.secondNode = this.firstNode.newNode(this.secondRegistry);
+  }
+
+  @Test
+  void findRemoteNodeIds_Should_returnOtherNodesOfUser_When_userIsConnectedToThem() {
+    this.firstRegistry.addUser(userSession("user", "session 1"));
+    this.secondRegistry.addUser(userSession("user", "session 2"));
+
+    assertThat(this.firstNode.findRemoteNodeIds("user"),
+        is(Set.of(this.secondNode.getLocalNodeId())));
+    assertThat(this.secondNode.findRemoteNodeIds("user"),
+        is(Set.of(this.firstNode.getLocalNodeId())));
+  }
+
+  @Test
+  void findRemoteNodeIds_Should_returnEmptySet_When_lastSessionOfUserIsRemoved() {
+    this.firstRegistry.addUser(userSession("user", "session"));
+    this.firstRegistry.removeSession("session");
+
+    assertThat(this.secondNode.findRemoteNodeIds("user"), empty());
+    assertThat(this.secondNode.findRemoteNodeIds(null), empty());
+  }
+
+  @Test
+  void forwardLiveEvent_Should_passLiveEventToHandlerOfNode() {
+    var firstNodeEvents = new ArrayList<LiveEventMessage>();
+    this.firstNode.receiveForwardedLiveEvents(firstNodeEvents::add);
+    var liveEventMessage = new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of("user"));
+
+    this.secondNode.forwardLiveEvent(this.firstNode.getLocalNodeId(), liveEventMessage);
+    this.secondNode.forwardLiveEvent("unknown node", liveEventMessage);
+
+    assertThat(firstNodeEvents, contains(liveEventMessage));
+  }
+
+  private static WebSocketUserSession userSession(String userId, String sessionId) {
+    return WebSocketUserSession.builder().userId(userId).websocketSessionId(sessionId).build();
+  }
+
+}
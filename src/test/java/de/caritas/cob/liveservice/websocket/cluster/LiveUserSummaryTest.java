@@ -0,0 +1,56 @@
+package de.caritas.cob.liveservice.websocket.cluster;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class LiveUserSummaryTest {
+
+  private static final int EXPECTED_USERS = 10_000;
+
+  @Test
+  void mightContain_Should_returnTrue_When_userHasBeenAdded() {
+    var summary = LiveUserSummary.create(EXPECTED_USERS, 0.01);
+
+    IntStream.range(0, EXPECTED_USERS).forEach(i -> summary.add("user " + i));
+
+    assertThat(IntStream.range(0, EXPECTED_USERS)
+        .allMatch(i -> summary.mightContain("user " + i)), is(true));
+  }
+
+  @Test
+  void mightContain_Should_claimFewUsersNotAdded_When_summaryHoldsExpectedUsers() {
+    var summary = LiveUserSummary.create(EXPECTED_USERS, 0.01);
+    IntStream.range(0, EXPECTED_USERS).forEach(i -> summary.add("user " + i));
+
+    var falsePositives = IntStream.range(0, EXPECTED_USERS)
+        .filter(i -> summary.mightContain("other user " + i))
+        .count();
+
+    assertThat(falsePositives, lessThan(EXPECTED_USERS / 50L));
+  }
+
+  @Test
+  void mightContain_Should_returnFalse_When_summaryIsEmpty() {
+    var summary = LiveUserSummary.create(EXPECTED_USERS, 0.01);
+
+    assertThat(summary.mightContain("user"), is(false));
+  }
+
+  @Test
+  void fromByteArray_Should_readSummaryWithSameUsers() {
+    var summary = LiveUserSummary.create(100, 0.01);
+    summary.add("first user");
+    summary.add("second user");
+
+    var readSummary = LiveUserSummary.fromByteArray(summary.toByteArray());
+
+    assertThat(readSummary.mightContain("first user"), is(true));
+    assertThat(readSummary.mightContain("second user"), is(true));
+    assertThat(readSummary.toByteArray(), is(summary.toByteArray()));
+  }
+
+}
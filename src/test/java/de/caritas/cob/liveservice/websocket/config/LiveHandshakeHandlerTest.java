@@ -0,0 +1,35 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+
+class LiveHandshakeHandlerTest {
+
+  private static final List<WebSocketExtension> REQUESTED_EXTENSIONS = List.of(
+      new WebSocketExtension("x-webkit-deflate-frame"),
+      new WebSocketExtension("permessage-deflate"));
+
+  @Test
+  void filterRequestedExtensions_Should_selectPermessageDeflate_When_compressionIsEnabled() {
+    var extensions = new LiveHandshakeHandler(true).filterRequestedExtensions(
+        mock(ServerHttpRequest.class), REQUESTED_EXTENSIONS, List.of());
+
+    assertThat(extensions, contains(new WebSocketExtension("permessage-deflate")));
+  }
+
+  @Test
+  void filterRequestedExtensions_Should_selectNoExtension_When_compressionIsDisabled() {
+    var extensions = new LiveHandshakeHandler(false).filterRequestedExtensions(
+        mock(ServerHttpRequest.class), REQUESTED_EXTENSIONS, List.of());
+
+    assertThat(extensions, empty());
+  }
+
+}
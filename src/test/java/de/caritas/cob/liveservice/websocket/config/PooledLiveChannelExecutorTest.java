@@ -0,0 +1,91 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.RejectionPolicy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+class PooledLiveChannelExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private PooledLiveChannelExecutor liveChannelExecutor;
+
+  @AfterEach
+  void tearDown() {
+    this.release.countDown();
+    this.liveChannelExecutor.shutdown();
+  }
+
+  @Test
+  void execute_Should_runTaskOnCallingThreadAndCountIt_When_executorIsSaturated()
+      throws InterruptedException {
+    startSaturatedExecutor(RejectionPolicy.CALLER_RUNS);
+    var executingThread = new AtomicReference<Thread>();
+
+    this.liveChannelExecutor.execute(() -> executingThread.set(Thread.currentThread()));
+
+    assertThat(executingThread.get(), is(Thread.currentThread()));
+    assertThat(this.liveChannelExecutor.getRejectedCount(), is(1L));
+  }
+
+  @Test
+  void execute_Should_rejectTaskAndCountIt_When_executorIsSaturatedWithAbortPolicy()
+      throws InterruptedException {
+    startSaturatedExecutor(RejectionPolicy.ABORT);
+
+    assertThrows(TaskRejectedException.class, () -> this.liveChannelExecutor.execute(() -> {
+    }));
+
+    assertThat(this.liveChannelExecutor.getRejectedCount(), is(1L));
+  }
+
+  @Test
+  void getQueueSize_Should_returnWaitingTasks() throws InterruptedException {
+    var channelExecutor = new ChannelExecutor();
+    channelExecutor.setCorePoolSize(1);
+    channelExecutor.setMaxPoolSize(1);
+    this.liveChannelExecutor = new PooledLiveChannelExecutor("outbound", channelExecutor);
+    this.liveChannelExecutor.initialize();
+    occupyThread();
+
+    this.liveChannelExecutor.execute(() -> {
+    });
+
+    assertThat(this.liveChannelExecutor.getQueueSize(), is(1));
+    assertThat(this.liveChannelExecutor.getActiveCount(), is(1));
+  }
+
+  private void startSaturatedExecutor(RejectionPolicy rejectionPolicy)
+      throws InterruptedException {
+    var channelExecutor = new ChannelExecutor();
+    channelExecutor.setCorePoolSize(1);
+    channelExecutor.setMaxPoolSize(1);
+    channelExecutor.setQueueCapacity(0);
+    channelExecutor.setRejectionPolicy(rejectionPolicy);
+    this.liveChannelExecutor = new PooledLiveChannelExecutor("inbound", channelExecutor);
+    this.liveChannelExecutor.initialize();
+    occupyThread();
+  }
+
+  private void occupyThread() throws InterruptedException {
+    var started = new CountDownLatch(1);
+    this.liveChannelExecutor.execute(() -> {
+      started.countDown();
+      try {
+        this.release.await(10, SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    started.await(10, SECONDS);
+  }
+
+}
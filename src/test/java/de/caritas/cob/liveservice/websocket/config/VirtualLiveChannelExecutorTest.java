@@ -0,0 +1,79 @@
+package de.caritas.cob.liveservice.websocket.config;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualLiveChannelExecutorTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private VirtualLiveChannelExecutor liveChannelExecutor;
+
+  @AfterEach
+  void tearDown() {
+    this.release.countDown();
+    this.liveChannelExecutor.close();
+  }
+
+  @Test
+  void execute_Should_runTaskOnVirtualThread() throws InterruptedException {
+    this.liveChannelExecutor = new VirtualLiveChannelExecutor("inbound", new ChannelExecutor());
+    var executed = new CountDownLatch(1);
+    var virtualThread = new boolean[1];
+
+    this.liveChannelExecutor.execute(() -> {
+      virtualThread[0] = Thread.currentThread().isVirtual();
+      executed.countDown();
+    });
+
+    assertThat(executed.await(10, SECONDS), is(true));
+    assertThat(virtualThread[0], is(true));
+  }
+
+  @Test
+  void getActiveCount_Should_returnRunningTasks() {
+    this.liveChannelExecutor = new VirtualLiveChannelExecutor("inbound", new ChannelExecutor());
+
+    for (int i = 0; i < 3; i++) {
+      this.liveChannelExecutor.execute(this::awaitRelease);
+    }
+
+    await()
+        .atMost(10, SECONDS)
+        .until(this.liveChannelExecutor::getActiveCount, is(3));
+    assertThat(this.liveChannelExecutor.getPoolSize(), is(3));
+    assertThat(this.liveChannelExecutor.getQueueSize(), is(0));
+  }
+
+  @Test
+  void getQueueSize_Should_returnWaitingSenders_When_concurrencyLimitIsReached() {
+    var channelExecutor = new ChannelExecutor();
+    channelExecutor.setVirtualConcurrencyLimit(1);
+    this.liveChannelExecutor = new VirtualLiveChannelExecutor("outbound", channelExecutor);
+    this.liveChannelExecutor.execute(this::awaitRelease);
+
+    Thread.ofVirtual().start(() -> this.liveChannelExecutor.execute(() -> {
+    }));
+
+    await()
+        .atMost(10, SECONDS)
+        .until(this.liveChannelExecutor::getQueueSize, is(1));
+    assertThat(this.liveChannelExecutor.getActiveCount(), is(1));
+    assertThat(this.liveChannelExecutor.getRejectedCount(), is(0L));
+  }
+
+  private void awaitRelease() {
+    try {
+      this.release.await(10, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
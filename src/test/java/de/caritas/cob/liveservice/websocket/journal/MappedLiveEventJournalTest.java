@@ -0,0 +1,272 @@
+package de.caritas.cob.liveservice.websocket.journal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventJournalProperties;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.SerializedLiveEvent;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+class MappedLiveEventJournalTest {
+
+  @TempDir
+  Path journalDirectory;
+
+  private LiveEventJournalProperties liveEventJournalProperties;
+
+  @BeforeEach
+  void setup() {
+    this.liveEventJournalProperties = new LiveEventJournalProperties();
+    this.liveEventJournalProperties.setDirectory(journalDirectory.toString());
+    this.liveEventJournalProperties.setSegmentSize(DataSize.ofKilobytes(64));
+    this.liveEventJournalProperties.setSyncInterval(Duration.ofHours(1));
+    this.liveEventJournalProperties.setCompactionInterval(Duration.ofHours(1));
+  }
+
+  @Test
+  void start_Should_restoreRecordedMessagesAsParkedMessages() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    var message = message("first", 16);
+    journal.recordEnqueue(message);
+    journal.stop();
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(restoredMessages, hasSize(1));
+    var restoredMessage = restoredMessages.get(0);
+    assertThat(restoredMessage.getMessageId(), is("first"));
+    assertThat(restoredMessage.getWebsocketUserSession().getUserId(), is("user"));
+    assertThat(restoredMessage.getWebsocketUserSession().getWebsocketSessionId(),
+        is(nullValue()));
+    assertThat(restoredMessage.getLiveEventMessage().getEventType(), is(EventType.DIRECTMESSAGE));
+    assertThat(restoredMessage.getSerializedLiveEvent().getPayload(),
+        is(message.getSerializedLiveEvent().getPayload()));
+    assertThat(restoredMessage.getSerializedLiveEvent().getContentType(),
+        is(MimeTypeUtils.APPLICATION_JSON));
+    assertThat(restoredMessage.getCreatedDate(), is(message.getCreatedDate()));
+    assertThat(restoredMessage.getRetryAmount(), is(0));
+  }
+
+  @Test
+  void start_Should_notRestoreRemovedMessages() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    journal.recordEnqueue(message("first", 16));
+    journal.recordEnqueue(message("second", 16));
+    journal.recordRemoval("first");
+    journal.stop();
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(messageIdsOf(restoredMessages), contains("second"));
+  }
+
+  @Test
+  void start_Should_restoreLatestRecord_When_messageHasBeenRecordedTwice() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    journal.recordEnqueue(message("first", 16));
+    var replacingMessage = message("first", 32);
+    journal.recordEnqueue(replacingMessage);
+    journal.stop();
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(restoredMessages, hasSize(1));
+    assertThat(restoredMessages.get(0).getSerializedLiveEvent().getPayload(),
+        is(replacingMessage.getSerializedLiveEvent().getPayload()));
+  }
+
+  @Test
+  void start_Should_skipCorruptRecord_When_recordHasBeenTorn() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    journal.recordEnqueue(message("first", 16));
+    journal.recordEnqueue(message("second", 16));
+    journal.stop();
+    try (var segmentFile = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+      var recordSize = JournalSegment.HEADER_SIZE
+          + JournalRecords.encodeEnqueue(message("first", 16)).length;
+      segmentFile.seek(recordSize + JournalSegment.HEADER_SIZE + 4);
+      segmentFile.write(0xff);
+    }
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(messageIdsOf(restoredMessages), contains("first"));
+  }
+
+  @Test
+  void start_Should_recordRemoval_When_queueRejectsRestoredMessage() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    journal.recordEnqueue(message("first", 16));
+    journal.stop();
+    var rejectingQueue = mock(LiveEventMessageQueue.class);
+    when(rejectingQueue.findIdentifiedMessageWithId(anyString())).thenReturn(Optional.empty());
+    startJournal(rejectingQueue).stop();
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(restoredMessages, hasSize(0));
+  }
+
+  @Test
+  void start_Should_registerJournalOnQueue() throws Exception {
+    var liveEventMessageQueue = mock(LiveEventMessageQueue.class);
+
+    var journal = startJournal(liveEventMessageQueue);
+
+    verify(liveEventMessageQueue).useJournal(journal);
+    journal.stop();
+  }
+
+  @Test
+  void start_Should_throwIllegalArgumentException_When_segmentSizeIsTooSmall() {
+    liveEventJournalProperties.setSegmentSize(DataSize.ofKilobytes(1));
+    var journal = new MappedLiveEventJournal(mock(LiveEventMessageQueue.class),
+        liveEventJournalProperties);
+
+    assertThrows(IllegalArgumentException.class, journal::start);
+  }
+
+  @Test
+  void recordEnqueue_Should_notRecordMessage_When_messageHasNoSerializedEvent() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    var message = message("first", 16);
+    message.setSerializedLiveEvent(null);
+    journal.recordEnqueue(message);
+    journal.stop();
+
+    var liveEventMessageQueue = mock(LiveEventMessageQueue.class);
+    startJournal(liveEventMessageQueue).stop();
+
+    verify(liveEventMessageQueue, never()).restoreParkedMessage(any());
+  }
+
+  @Test
+  void compact_Should_deleteSealedSegmentsAndKeepLiveEntries() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    for (int messageNumber = 0; messageNumber < 20; messageNumber++) {
+      journal.recordEnqueue(message("message " + messageNumber, 10_000));
+      if (messageNumber != 3) {
+        journal.recordRemoval("message " + messageNumber);
+      }
+    }
+    assertThat(segmentFiles().size() > 2, is(true));
+
+    journal.compact();
+    journal.stop();
+
+    assertThat(segmentFiles(), hasSize(1));
+    var restoredMessages = restartAndCaptureRestoredMessages();
+    assertThat(messageIdsOf(restoredMessages), contains("message 3"));
+  }
+
+  @Test
+  void compact_Should_keepRecordingToCurrentSegment() throws Exception {
+    var journal = startJournal(mock(LiveEventMessageQueue.class));
+    for (int messageNumber = 0; messageNumber < 10; messageNumber++) {
+      journal.recordEnqueue(message("message " + messageNumber, 10_000));
+    }
+    journal.compact();
+    journal.recordRemoval("message 0");
+    journal.recordEnqueue(message("message 10", 10_000));
+    journal.stop();
+
+    var restoredMessages = restartAndCaptureRestoredMessages();
+
+    assertThat(restoredMessages, hasSize(10));
+    assertThat(messageIdsOf(restoredMessages).contains("message 0"), is(false));
+    assertThat(messageIdsOf(restoredMessages).contains("message 10"), is(true));
+  }
+
+  private MappedLiveEventJournal startJournal(LiveEventMessageQueue liveEventMessageQueue)
+      throws IOException {
+    var journal = new MappedLiveEventJournal(liveEventMessageQueue, liveEventJournalProperties);
+    journal.start();
+    return journal;
+  }
+
+  private List<IdentifiedMessage> restartAndCaptureRestoredMessages() throws Exception {
+    var liveEventMessageQueue = mock(LiveEventMessageQueue.class);
+    var restoredMessages = new ArrayList<IdentifiedMessage>();
+    when(liveEventMessageQueue.restoreParkedMessage(any())).thenAnswer(invocation -> {
+      restoredMessages.add(invocation.getArgument(0));
+      return true;
+    });
+    when(liveEventMessageQueue.findIdentifiedMessageWithId(anyString())).thenAnswer(
+        invocation -> restoredMessages.stream()
+            .filter(message -> message.getMessageId().equals(invocation.getArgument(0)))
+            .findFirst());
+    startJournal(liveEventMessageQueue).stop();
+    return restoredMessages;
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (var files = Files.list(journalDirectory)) {
+      return files.filter(JournalSegment::isSegmentFile)
+          .filter(this::isNotEmpty)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private boolean isNotEmpty(Path segmentFile) {
+    try {
+      return JournalSegment.open(segmentFile).writePosition() > 0;
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static List<String> messageIdsOf(List<IdentifiedMessage> messages) {
+    return messages.stream().map(IdentifiedMessage::getMessageId).collect(Collectors.toList());
+  }
+
+  private static IdentifiedMessage message(String messageId, int payloadSize) {
+    var payload = new byte[payloadSize];
+    for (int index = 0; index < payloadSize; index++) {
+      payload[index] = (byte) (index + messageId.length());
+    }
+    return IdentifiedMessage.builder()
+        .messageId(messageId)
+        .websocketUserSession(WebSocketUserSession.builder()
+            .websocketSessionId("session")
+            .userId("user")
+            .build())
+        .liveEventMessage(new LiveEventMessage().eventType(EventType.DIRECTMESSAGE))
+        .serializedLiveEvent(new SerializedLiveEvent(payload, MimeTypeUtils.APPLICATION_JSON))
+        .retryAmount(0)
+        .createdDate(LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS))
+        .build();
+  }
+
+}
@@ -0,0 +1,109 @@
+package de.caritas.cob.liveservice.websocket.metrics;
+
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static de.caritas.cob.liveservice.api.model.EventType.VIDEOCALLREQUEST;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class LiveEventMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final LiveEventMetrics liveEventMetrics = new LiveEventMetrics(meterRegistry);
+
+  @Test
+  void countEnqueued_Should_countPerEventType() {
+    this.liveEventMetrics.countEnqueued(DIRECTMESSAGE);
+    this.liveEventMetrics.countEnqueued(DIRECTMESSAGE);
+    this.liveEventMetrics.countEnqueued(VIDEOCALLREQUEST);
+
+    assertThat(count("live.event.enqueued", "directMessage"), is(2.0));
+    assertThat(count("live.event.enqueued", "videoCallRequest"), is(1.0));
+  }
+
+  @Test
+  void constructor_Should_registerCountersOfAllEventTypesOnce() {
+    final var meterCount = this.meterRegistry.getMeters().size();
+
+    this.liveEventMetrics.countEnqueued(DIRECTMESSAGE);
+    this.liveEventMetrics.countStored(null);
+    this.liveEventMetrics.recordFanOut(1);
+
+    assertThat(this.meterRegistry.getMeters().size(), is(meterCount));
+    assertThat(count("live.event.enqueued", "videoCallRequest"), is(0.0));
+    assertThat(count("live.event.stored", "unknown"), is(1.0));
+  }
+
+  @Test
+  void countStored_Should_countPerEventType() {
+    this.liveEventMetrics.countStored(DIRECTMESSAGE);
+    this.liveEventMetrics.countStored(VIDEOCALLREQUEST);
+
+    assertThat(count("live.event.stored", "directMessage"), is(1.0));
+    assertThat(count("live.event.stored", "videoCallRequest"), is(1.0));
+  }
+
+  @Test
+  void countAcknowledgedRetryAndGivenUp_Should_useEventTypeOfMessage() {
+    var identifiedMessage = IdentifiedMessage.builder()
+        .liveEventMessage(new LiveEventMessage().eventType(DIRECTMESSAGE))
+        .build();
+
+    this.liveEventMetrics.countAcknowledged(identifiedMessage);
+    this.liveEventMetrics.countRetry(identifiedMessage);
+    this.liveEventMetrics.countGivenUp(identifiedMessage);
+
+    assertThat(count("live.event.acknowledged", "directMessage"), is(1.0));
+    assertThat(count("live.event.retried", "directMessage"), is(1.0));
+    assertThat(count("live.event.given.up", "directMessage"), is(1.0));
+  }
+
+  @Test
+  void countGivenUp_Should_useUnknownEventType_When_messageHasNoLiveEvent() {
+    this.liveEventMetrics.countGivenUp(IdentifiedMessage.builder().build());
+
+    assertThat(count("live.event.given.up", "unknown"), is(1.0));
+  }
+
+  @Test
+  void countEvictedAndRejected_Should_tagEventTypeAndReason() {
+    var identifiedMessage = IdentifiedMessage.builder()
+        .liveEventMessage(new LiveEventMessage().eventType(VIDEOCALLREQUEST))
+        .build();
+
+    this.liveEventMetrics.countEvicted(identifiedMessage, "userLimit");
+    this.liveEventMetrics.countEvicted(identifiedMessage, "userLimit");
+    this.liveEventMetrics.countRejected(IdentifiedMessage.builder().build(), "heapPressure");
+
+    assertThat(this.meterRegistry.get("live.event.queue.evicted")
+        .tag(LiveEventMetrics.EVENT_TYPE_TAG, "videoCallRequest")
+        .tag(LiveEventMetrics.REASON_TAG, "userLimit")
+        .counter().count(), is(2.0));
+    assertThat(this.meterRegistry.get("live.event.queue.rejected")
+        .tag(LiveEventMetrics.EVENT_TYPE_TAG, "unknown")
+        .tag(LiveEventMetrics.REASON_TAG, "heapPressure")
+        .counter().count(), is(1.0));
+  }
+
+  @Test
+  void recordFanOut_Should_recordSessionCountDistribution() {
+    this.liveEventMetrics.recordFanOut(3);
+    this.liveEventMetrics.recordFanOut(5);
+
+    var fanOut = this.meterRegistry.get("live.event.fanout").summary();
+    assertThat(fanOut.count(), is(2L));
+    assertThat(fanOut.totalAmount(), is(8.0));
+  }
+
+  private double count(String name, String eventType) {
+    return this.meterRegistry.get(name)
+        .tag(LiveEventMetrics.EVENT_TYPE_TAG, eventType)
+        .counter()
+        .count();
+  }
+
+}
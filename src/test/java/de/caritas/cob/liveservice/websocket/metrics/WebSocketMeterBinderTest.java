@@ -0,0 +1,73 @@
+package de.caritas.cob.liveservice.websocket.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import de.caritas.cob.liveservice.websocket.config.LiveChannelExecutors;
+import de.caritas.cob.liveservice.websocket.config.LiveChannelProperties.ChannelExecutor;
+import de.caritas.cob.liveservice.websocket.config.PooledLiveChannelExecutor;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketMeterBinderTest {
+
+  @InjectMocks
+  private WebSocketMeterBinder webSocketMeterBinder;
+
+  @Mock
+  private SocketUserRegistry socketUserRegistry;
+
+  @Mock
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Mock
+  private LiveChannelExecutors liveChannelExecutors;
+
+  @BeforeEach
+  void setup() {
+    when(this.liveChannelExecutors.getInbound())
+        .thenReturn(new PooledLiveChannelExecutor("inbound", new ChannelExecutor()));
+    when(this.liveChannelExecutors.getOutbound())
+        .thenReturn(new PooledLiveChannelExecutor("outbound", new ChannelExecutor()));
+  }
+
+  @Test
+  void bindTo_Should_registerGaugesOfSessionsUsersAndQueue() {
+    when(this.socketUserRegistry.sessionCount()).thenReturn(3);
+    when(this.socketUserRegistry.userCount()).thenReturn(2);
+    when(this.liveEventMessageQueue.size()).thenReturn(7);
+    var meterRegistry = new SimpleMeterRegistry();
+
+    this.webSocketMeterBinder.bindTo(meterRegistry);
+
+    assertThat(meterRegistry.get("live.socket.sessions").gauge().value(), is(3.0));
+    assertThat(meterRegistry.get("live.socket.users").gauge().value(), is(2.0));
+    assertThat(meterRegistry.get("live.event.queue.size").gauge().value(), is(7.0));
+  }
+
+  @Test
+  void bindTo_Should_registerMetersOfBothChannelExecutors() {
+    var meterRegistry = new SimpleMeterRegistry();
+
+    this.webSocketMeterBinder.bindTo(meterRegistry);
+
+    for (var channel : new String[]{"inbound", "outbound"}) {
+      assertThat(meterRegistry.get("live.channel.queue.size").tag("channel", channel).gauge()
+          .value(), is(0.0));
+      assertThat(meterRegistry.get("live.channel.active.threads").tag("channel", channel)
+          .gauge().value(), is(0.0));
+      assertThat(meterRegistry.get("live.channel.rejected").tag("channel", channel)
+          .functionCounter().count(), is(0.0));
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+package de.caritas.cob.liveservice.websocket.registry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HeapPressureMonitorTest {
+
+  @Test
+  void constructor_Should_setCollectionUsageThresholdOfTenuredHeapPools() {
+    var tenuredPool = pool(MemoryType.HEAP, true);
+    var youngPool = pool(MemoryType.HEAP, false);
+    var nonHeapPool = pool(MemoryType.NON_HEAP, true);
+
+    new HeapPressureMonitor(List.of(tenuredPool, youngPool, nonHeapPool), 0.5);
+
+    verify(tenuredPool).setCollectionUsageThreshold(500L);
+    verify(youngPool, never()).setCollectionUsageThreshold(anyLong());
+    verify(nonHeapPool, never()).setCollectionUsageThreshold(anyLong());
+  }
+
+  @Test
+  void isUnderPressure_Should_returnTrue_When_thresholdOfTenuredPoolIsExceeded() {
+    var tenuredPool = pool(MemoryType.HEAP, true);
+    var heapPressureMonitor = new HeapPressureMonitor(List.of(tenuredPool), 0.5);
+
+    assertThat(heapPressureMonitor.isUnderPressure(), is(false));
+    when(tenuredPool.isCollectionUsageThresholdExceeded()).thenReturn(true);
+    assertThat(heapPressureMonitor.isUnderPressure(), is(true));
+  }
+
+  @Test
+  void isUnderPressure_Should_returnFalse_When_checkIsDisabled() {
+    var tenuredPool = pool(MemoryType.HEAP, true);
+    when(tenuredPool.isCollectionUsageThresholdExceeded()).thenReturn(true);
+
+    var heapPressureMonitor = new HeapPressureMonitor(List.of(tenuredPool), 1.0);
+
+    assertThat(heapPressureMonitor.isUnderPressure(), is(false));
+    verify(tenuredPool, never()).setCollectionUsageThreshold(anyLong());
+  }
+
+  private static MemoryPoolMXBean pool(MemoryType memoryType, boolean tenured) {
+    var pool = mock(MemoryPoolMXBean.class);
+    when(pool.getType()).thenReturn(memoryType);
+    when(pool.isUsageThresholdSupported()).thenReturn(tenured);
+    when(pool.isCollectionUsageThresholdSupported()).thenReturn(true);
+    when(pool.getUsage()).thenReturn(new MemoryUsage(0, 100, 100, 1000));
+    when(pool.getName()).thenReturn(tenured ? "Old Gen" : "Eden Space");
+    return pool;
+  }
+
+}
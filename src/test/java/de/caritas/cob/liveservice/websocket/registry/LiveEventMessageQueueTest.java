@@ -1,24 +1,57 @@
 package de.caritas.cob.liveservice.websocket.registry;
 
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.reflect.Whitebox.getInternalState;
 import static org.powermock.reflect.Whitebox.setInternalState;
 
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties.EvictionPolicy;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties.SessionRemovedPolicy;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class LiveEventMessageQueueTest {
 
   private LiveEventMessageQueue liveEventMessageQueue;
+  private LiveEventQueueProperties liveEventQueueProperties;
+  private HeapPressureMonitor heapPressureMonitor;
+  private LiveEventMetrics liveEventMetrics;
 
   @BeforeEach
   void setup() {
-    this.liveEventMessageQueue = new LiveEventMessageQueue();
+    this.liveEventQueueProperties = new LiveEventQueueProperties();
+    this.heapPressureMonitor = mock(HeapPressureMonitor.class);
+    this.liveEventMetrics = mock(LiveEventMetrics.class);
+    this.liveEventMessageQueue = new LiveEventMessageQueue(liveEventQueueProperties,
+        heapPressureMonitor, liveEventMetrics);
     setInternalState(liveEventMessageQueue, "minimumSecondsBeforeRetry", 1);
   }
 
@@ -43,6 +76,18 @@ class LiveEventMessageQueueTest {
     assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
   }
 
+  @Test
+  void removeIdentifiedMessageWithId_Should_discardRetryDeadline_When_messageIsNotDueYet() {
+    liveEventMessageQueue
+        .addIdentifiedMessage(IdentifiedMessage.builder().messageId("messageid").createdDate(
+            LocalDateTime.now(ZoneOffset.UTC).plus(1, HOURS)).build());
+
+    liveEventMessageQueue.removeIdentifiedMessageWithId("messageid");
+
+    assertThat((Collection<?>) getInternalState(liveEventMessageQueue, "retryDeadlines"),
+        hasSize(0));
+  }
+
   @Test
   void removeIdentifiedMessageWithId_Should_notRemoveMessage_When_messageDoesNotExists() {
     liveEventMessageQueue
@@ -86,4 +131,409 @@ class LiveEventMessageQueueTest {
     assertThat(currentOpenMessages, hasSize(0));
   }
 
+  @Test
+  void getCurrentOpenMessages_Should_returnOnlyDueMessages_orderedByRetryDate() {
+    var now = LocalDateTime.now(ZoneOffset.UTC);
+    liveEventMessageQueue.addIdentifiedMessage(IdentifiedMessage.builder().messageId("later")
+        .createdDate(now.minus(2, SECONDS)).build());
+    liveEventMessageQueue.addIdentifiedMessage(IdentifiedMessage.builder().messageId("earlier")
+        .createdDate(now.minus(5, SECONDS)).build());
+    liveEventMessageQueue.addIdentifiedMessage(IdentifiedMessage.builder().messageId("future")
+        .createdDate(now).nextRetryDate(now.plus(1, HOURS)).build());
+
+    var currentOpenMessages = liveEventMessageQueue.getCurrentOpenMessages();
+
+    assertThat(currentOpenMessages.stream().map(IdentifiedMessage::getMessageId)
+        .collect(Collectors.toList()), contains("earlier", "later"));
+  }
+
+  @Test
+  void rescheduleIdentifiedMessage_Should_excludeMessageFromSweep_When_retryDateIsNotReached() {
+    var message = IdentifiedMessage.builder().messageId("messageid").createdDate(
+        LocalDateTime.now(ZoneOffset.UTC).minus(3, SECONDS)).build();
+    liveEventMessageQueue.addIdentifiedMessage(message);
+
+    liveEventMessageQueue.rescheduleIdentifiedMessage(message,
+        LocalDateTime.now(ZoneOffset.UTC).plus(60, SECONDS));
+
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
+    assertThat(message.getNextRetryDate().isAfter(LocalDateTime.now(ZoneOffset.UTC)), is(true));
+  }
+
+  @Test
+  void rescheduleIdentifiedMessage_Should_notQueueMessage_When_messageWasAlreadyRemoved() {
+    var message = IdentifiedMessage.builder().messageId("messageid").createdDate(
+        LocalDateTime.now(ZoneOffset.UTC).minus(3, SECONDS)).build();
+    liveEventMessageQueue.addIdentifiedMessage(message);
+    liveEventMessageQueue.removeIdentifiedMessageWithId("messageid");
+
+    liveEventMessageQueue.rescheduleIdentifiedMessage(message,
+        LocalDateTime.now(ZoneOffset.UTC).minus(10, SECONDS));
+
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
+  }
+
+  @Test
+  void useRetryTimer_Should_scheduleAndCancelMessagesOnTimer() {
+    var retryTimer = mock(LiveEventRetryTimer.class);
+    liveEventMessageQueue.useRetryTimer(retryTimer);
+    var message = IdentifiedMessage.builder().messageId("messageid").createdDate(
+        LocalDateTime.now(ZoneOffset.UTC).minus(3, SECONDS)).build();
+
+    liveEventMessageQueue.addIdentifiedMessage(message);
+    liveEventMessageQueue.rescheduleIdentifiedMessage(message, LocalDateTime.now(ZoneOffset.UTC));
+    liveEventMessageQueue.removeIdentifiedMessageWithId("messageid");
+    liveEventMessageQueue.removeIdentifiedMessageWithId("messageid");
+
+    verify(retryTimer, times(2)).scheduleRetry(message);
+    verify(retryTimer, times(1)).cancelRetry("messageid");
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
+  }
+
+  @Test
+  void findIdentifiedMessageWithId_Should_returnQueuedMessage() {
+    var message = IdentifiedMessage.builder().messageId("messageid").createdDate(
+        LocalDateTime.now(ZoneOffset.UTC)).build();
+    liveEventMessageQueue.addIdentifiedMessage(message);
+
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("messageid").orElseThrow(),
+        is(message));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("other").isPresent(), is(false));
+    assertThat(liveEventMessageQueue.size(), is(1));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_evictOldestMessageOfUser_When_userLimitIsReached() {
+    liveEventQueueProperties.setMaxMessagesPerUser(2);
+
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("other user", "other"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "user"));
+    var added = liveEventMessageQueue.addIdentifiedMessage(userMessage("third", "user"));
+
+    assertThat(added, is(true));
+    assertThat(liveEventMessageQueue.size(), is(3));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("first").isPresent(), is(false));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("other user").isPresent(),
+        is(true));
+    verify(liveEventMetrics, times(1))
+        .countEvicted(any(), eq(LiveEventMessageQueue.USER_LIMIT));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_evictOldestMessageOfAllUsers_When_globalLimitIsReached() {
+    liveEventQueueProperties.setMaxMessages(2);
+
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "other"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("third", "user"));
+
+    assertThat(liveEventMessageQueue.size(), is(2));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("first").isPresent(), is(false));
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(2));
+    verify(liveEventMetrics, times(1))
+        .countEvicted(any(), eq(LiveEventMessageQueue.GLOBAL_LIMIT));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_evictMessageWithLowestPriority_When_policyIsDropLowestPriority() {
+    liveEventQueueProperties.setMaxMessages(2);
+    liveEventQueueProperties.setEvictionPolicy(EvictionPolicy.DROP_LOWEST_PRIORITY);
+    liveEventQueueProperties.getPriorities().put(EventType.VIDEOCALLREQUEST, 10);
+
+    liveEventMessageQueue.addIdentifiedMessage(
+        userMessage("video call", "user", EventType.VIDEOCALLREQUEST));
+    liveEventMessageQueue.addIdentifiedMessage(
+        userMessage("direct message", "user", EventType.DIRECTMESSAGE));
+    liveEventMessageQueue.addIdentifiedMessage(
+        userMessage("new direct message", "user", EventType.DIRECTMESSAGE));
+
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("video call").isPresent(),
+        is(true));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("direct message").isPresent(),
+        is(false));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("new direct message")
+        .isPresent(), is(true));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_rejectMessage_When_policyIsRejectNewAndUserLimitIsReached() {
+    liveEventQueueProperties.setMaxMessagesPerUser(1);
+    liveEventQueueProperties.setEvictionPolicy(EvictionPolicy.REJECT_NEW);
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+
+    var added = liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "user"));
+
+    assertThat(added, is(false));
+    assertThat(liveEventMessageQueue.size(), is(1));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("first").isPresent(), is(true));
+    assertThat(liveEventMessageQueue.rejectsNewMessages(), is(false));
+    verify(liveEventMetrics, times(1))
+        .countRejected(any(), eq(LiveEventMessageQueue.USER_LIMIT));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_rejectMessage_When_policyIsRejectNewAndGlobalLimitIsReached() {
+    liveEventQueueProperties.setMaxMessages(1);
+    liveEventQueueProperties.setEvictionPolicy(EvictionPolicy.REJECT_NEW);
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+
+    var added = liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "other"));
+
+    assertThat(added, is(false));
+    assertThat(liveEventMessageQueue.rejectsNewMessages(), is(true));
+    verify(liveEventMetrics, times(1)).countRejected(any(),
+        eq(LiveEventMessageQueue.GLOBAL_LIMIT));
+  }
+
+  @Test
+  void addIdentifiedMessage_Should_notGrowQueue_When_heapIsUnderPressure() {
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    when(heapPressureMonitor.isUnderPressure()).thenReturn(true);
+
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "other"));
+
+    assertThat(liveEventMessageQueue.size(), is(1));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("second").isPresent(), is(true));
+    verify(liveEventMetrics, times(1)).countEvicted(any(),
+        eq(LiveEventMessageQueue.HEAP_PRESSURE));
+  }
+
+  @Test
+  void removeIdentifiedMessageWithId_Should_releaseUserLimit() {
+    liveEventQueueProperties.setMaxMessagesPerUser(1);
+    liveEventQueueProperties.setEvictionPolicy(EvictionPolicy.REJECT_NEW);
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.removeIdentifiedMessageWithId("first");
+
+    var added = liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "user"));
+
+    assertThat(added, is(true));
+    assertThat((Map<?, ?>) getInternalState(liveEventMessageQueue, "evictionOrderByUser"),
+        is(aMapWithSize(1)));
+    verify(liveEventMetrics, never()).countRejected(any(), anyString());
+  }
+
+  @Test
+  void removeSessionMessages_Should_dropMessagesOfSession_When_policyIsDrop() {
+    liveEventQueueProperties.setSessionRemovedPolicy(SessionRemovedPolicy.DROP);
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("other user", "other"));
+
+    liveEventMessageQueue.removeSessionMessages("session of user");
+
+    assertThat(liveEventMessageQueue.size(), is(1));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("other user").isPresent(),
+        is(true));
+    verify(liveEventMetrics, times(2)).countEvicted(any(),
+        eq(LiveEventMessageQueue.SESSION_REMOVED));
+  }
+
+  @Test
+  void removeSessionMessages_Should_parkMessagesOfSessionUntilParkTimeout_When_policyIsPark() {
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("other user", "other"));
+
+    liveEventMessageQueue.removeSessionMessages("session of user");
+
+    assertThat(liveEventMessageQueue.size(), is(2));
+    assertThat(liveEventMessageQueue.isParked("first"), is(true));
+    assertThat(liveEventMessageQueue.isParked("other user"), is(false));
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages().stream()
+        .map(IdentifiedMessage::getMessageId).collect(Collectors.toList()),
+        contains("other user"));
+    var parkedMessage = liveEventMessageQueue.findIdentifiedMessageWithId("first").orElseThrow();
+    assertThat(parkedMessage.getNextRetryDate().isAfter(LocalDateTime.now(ZoneOffset.UTC)
+        .plus(liveEventQueueProperties.getParkTimeout()).minusMinutes(1)), is(true));
+  }
+
+  @Test
+  void rescheduleIdentifiedMessage_Should_keepMessageParked() {
+    var message = userMessage("first", "user");
+    liveEventMessageQueue.addIdentifiedMessage(message);
+    liveEventMessageQueue.removeSessionMessages("session of user");
+
+    liveEventMessageQueue.rescheduleIdentifiedMessage(message,
+        LocalDateTime.now(ZoneOffset.UTC).minus(1, SECONDS));
+
+    assertThat(liveEventMessageQueue.isParked("first"), is(true));
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
+  }
+
+  @Test
+  void unparkUserMessages_Should_returnUnparkedMessagesInQueueOrder() {
+    for (int incrementer = 0; incrementer < 20; incrementer++) {
+      liveEventMessageQueue.addIdentifiedMessage(userMessage("message " + incrementer, "user"));
+    }
+    liveEventMessageQueue.removeSessionMessages("session of user");
+
+    var unparkedMessages = liveEventMessageQueue.unparkUserMessages(
+        WebSocketUserSession.builder().websocketSessionId("new session").userId("user").build());
+
+    assertThat(unparkedMessages.stream().map(IdentifiedMessage::getMessageId)
+            .collect(Collectors.toList()),
+        is(IntStream.range(0, 20).mapToObj(incrementer -> "message " + incrementer)
+            .collect(Collectors.toList())));
+    assertThat(liveEventMessageQueue.unparkUserMessages(WebSocketUserSession.builder()
+        .websocketSessionId("new session").userId("user").build()), hasSize(0));
+  }
+
+  @Test
+  void unparkUserMessages_Should_assignParkedMessagesToNewSessionAndResumeRetries() {
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.removeSessionMessages("session of user");
+    var newSession = WebSocketUserSession.builder()
+        .websocketSessionId("new session")
+        .userId("user")
+        .build();
+
+    liveEventMessageQueue.unparkUserMessages(newSession);
+
+    assertThat(liveEventMessageQueue.isParked("first"), is(false));
+    var unparkedMessage = liveEventMessageQueue.findIdentifiedMessageWithId("first").orElseThrow();
+    assertThat(unparkedMessage.getWebsocketUserSession(), is(newSession));
+    assertThat(unparkedMessage.getNextRetryDate().isAfter(LocalDateTime.now(ZoneOffset.UTC)
+        .plus(2, SECONDS)), is(false));
+    assertThat((Map<?, ?>) getInternalState(liveEventMessageQueue, "parkedMessageIdsByUserId"),
+        is(aMapWithSize(0)));
+
+    liveEventMessageQueue.removeSessionMessages("new session");
+    assertThat(liveEventMessageQueue.isParked("first"), is(true));
+  }
+
+  @Test
+  void removeIdentifiedMessageWithId_Should_removeMessageFromSessionIndex() {
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+
+    liveEventMessageQueue.removeIdentifiedMessageWithId("first");
+
+    assertThat((Map<?, ?>) getInternalState(liveEventMessageQueue, "messageIdsBySessionId"),
+        is(aMapWithSize(0)));
+  }
+
+  @Test
+  void useJournal_Should_recordAddedAndRemovedMessages() {
+    var journal = mock(LiveEventJournal.class);
+    liveEventMessageQueue.useJournal(journal);
+    liveEventQueueProperties.setMaxMessagesPerUser(1);
+    var first = userMessage("first", "user");
+    var second = userMessage("second", "user");
+
+    liveEventMessageQueue.addIdentifiedMessage(first);
+    liveEventMessageQueue.addIdentifiedMessage(second);
+    liveEventMessageQueue.removeIdentifiedMessageWithId("second");
+
+    var inOrder = inOrder(journal);
+    inOrder.verify(journal).recordEnqueue(first);
+    inOrder.verify(journal).recordEnqueue(second);
+    inOrder.verify(journal).recordRemoval("first");
+    inOrder.verify(journal).recordRemoval("second");
+  }
+
+  @Test
+  void restoreParkedMessage_Should_parkMessageUntilUserSubscribes() {
+    liveEventQueueProperties.setParkTimeout(Duration.ofMinutes(5));
+    var message = userMessage("first", "user");
+    message.setWebsocketUserSession(WebSocketUserSession.builder().userId("user").build());
+
+    var restored = liveEventMessageQueue.restoreParkedMessage(message);
+
+    assertThat(restored, is(true));
+    assertThat(liveEventMessageQueue.isParked("first"), is(true));
+    assertThat(message.getNextRetryDate().isAfter(LocalDateTime.now(ZoneOffset.UTC)
+        .plus(4, MINUTES)), is(true));
+    var newSession = WebSocketUserSession.builder()
+        .websocketSessionId("new session")
+        .userId("user")
+        .build();
+    assertThat(liveEventMessageQueue.unparkUserMessages(newSession), contains(message));
+  }
+
+  @Test
+  void restoreParkedMessage_Should_rejectMessage_When_messageHasNoUser() {
+    var restored = liveEventMessageQueue.restoreParkedMessage(
+        IdentifiedMessage.builder().messageId("messageid").createdDate(
+            LocalDateTime.now(ZoneOffset.UTC)).build());
+
+    assertThat(restored, is(false));
+    assertThat(liveEventMessageQueue.size(), is(0));
+  }
+
+  @Test
+  void parkUserMessage_Should_parkMessageUntilGivenTimeout() {
+    var message = userMessage("first", "user");
+    message.setWebsocketUserSession(WebSocketUserSession.builder().userId("user").build());
+
+    var parked = liveEventMessageQueue.parkUserMessage(message, Duration.ofSeconds(30));
+
+    assertThat(parked, is(true));
+    assertThat(liveEventMessageQueue.isParked("first"), is(true));
+    assertThat(message.getNextRetryDate().isAfter(LocalDateTime.now(ZoneOffset.UTC)
+        .plus(29, SECONDS)), is(true));
+    assertThat(message.getNextRetryDate().isBefore(LocalDateTime.now(ZoneOffset.UTC)
+        .plus(31, SECONDS)), is(true));
+  }
+
+  @Test
+  void parkUserMessage_Should_evictOldestParkedMessageOfUser_When_parkedLimitIsReached() {
+    liveEventQueueProperties.setMaxParkedMessagesPerUser(2);
+
+    liveEventMessageQueue.parkUserMessage(userMessage("first", "user"), Duration.ofMinutes(1));
+    liveEventMessageQueue.parkUserMessage(userMessage("other user", "other"),
+        Duration.ofMinutes(1));
+    liveEventMessageQueue.parkUserMessage(userMessage("second", "user"), Duration.ofMinutes(1));
+    liveEventMessageQueue.parkUserMessage(userMessage("third", "user"), Duration.ofMinutes(1));
+
+    assertThat(liveEventMessageQueue.size(), is(3));
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("first").isPresent(), is(false));
+    assertThat(liveEventMessageQueue.isParked("second"), is(true));
+    assertThat(liveEventMessageQueue.isParked("third"), is(true));
+    verify(liveEventMetrics, times(1))
+        .countEvicted(any(), eq(LiveEventMessageQueue.PARKED_LIMIT));
+  }
+
+  @Test
+  void removeSessionMessages_Should_evictOldestParkedMessages_When_parkedLimitIsReached() {
+    liveEventQueueProperties.setMaxParkedMessagesPerUser(1);
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("first", "user"));
+    liveEventMessageQueue.addIdentifiedMessage(userMessage("second", "user"));
+
+    liveEventMessageQueue.removeSessionMessages("session of user");
+
+    assertThat(liveEventMessageQueue.findIdentifiedMessageWithId("first").isPresent(), is(false));
+    assertThat(liveEventMessageQueue.isParked("second"), is(true));
+  }
+
+  @Test
+  void useRetryTimer_Should_handOverMessagesQueuedBeforeTimerIsSet() {
+    var retryTimer = mock(LiveEventRetryTimer.class);
+    var message = userMessage("first", "user");
+    liveEventMessageQueue.addIdentifiedMessage(message);
+
+    liveEventMessageQueue.useRetryTimer(retryTimer);
+
+    verify(retryTimer).scheduleRetry(message);
+    assertThat(liveEventMessageQueue.getCurrentOpenMessages(), hasSize(0));
+    assertThat((Collection<?>) getInternalState(liveEventMessageQueue, "retryDeadlines"),
+        hasSize(0));
+  }
+
+  private static IdentifiedMessage userMessage(String messageId, String userId) {
+    return userMessage(messageId, userId, EventType.DIRECTMESSAGE);
+  }
+
+  private static IdentifiedMessage userMessage(String messageId, String userId,
+      EventType eventType) {
+    return IdentifiedMessage.builder()
+        .messageId(messageId)
+        .liveEventMessage(new LiveEventMessage().eventType(eventType))
+        .websocketUserSession(WebSocketUserSession.builder()
+            .websocketSessionId("session of " + userId)
+            .userId(userId)
+            .build())
+        .createdDate(LocalDateTime.now(ZoneOffset.UTC).minus(2, SECONDS))
+        .build();
+  }
+
 }
@@ -1,12 +1,22 @@
 package de.caritas.cob.liveservice.websocket.registry;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -82,8 +92,136 @@ class SocketUserRegistryTest {
     }
 
     assertThat(socketUserRegistry.retrieveAllUsers(), hasSize(2500));
-    WebSocketUserSession webSocketUserSession = socketUserRegistry.retrieveAllUsers().get(0);
-    assertThat(webSocketUserSession.getWebsocketSessionId(), is("user 2500"));
+    assertThat(socketUserRegistry.findUserBySessionId("user 2499"), nullValue());
+    assertThat(socketUserRegistry.findUserBySessionId("user 2500"), notNullValue());
+  }
+
+  @Test
+  void findSessionsByUserId_Should_returnAllSessionsOfUser_When_userHasMultipleSessions() {
+    socketUserRegistry.addUser(userSession("user", "session 1"));
+    socketUserRegistry.addUser(userSession("user", "session 2"));
+    socketUserRegistry.addUser(userSession("other", "session 3"));
+
+    var userSessions = socketUserRegistry.findSessionsByUserId("user");
+
+    assertThat(userSessions, hasSize(2));
+    assertThat(userSessions, containsInAnyOrder(userSession("user", "session 1"),
+        userSession("user", "session 2")));
+  }
+
+  @Test
+  void findSessionsByUserId_Should_returnEmptyCollection_When_userIdIsNullOrUnknown() {
+    socketUserRegistry.addUser(userSession(null, "session"));
+
+    assertThat(socketUserRegistry.findSessionsByUserId(null), empty());
+    assertThat(socketUserRegistry.findSessionsByUserId("unknown"), empty());
+  }
+
+  @Test
+  void removeSession_Should_removeSessionFromUserIndex() {
+    socketUserRegistry.addUser(userSession("user", "session 1"));
+    socketUserRegistry.addUser(userSession("user", "session 2"));
+
+    socketUserRegistry.removeSession("session 1");
+
+    assertThat(socketUserRegistry.findSessionsByUserId("user"),
+        contains(userSession("user", "session 2")));
+    socketUserRegistry.removeSession("session 2");
+    assertThat(socketUserRegistry.findSessionsByUserId("user"), empty());
+  }
+
+  @Test
+  void updateSubscriptionId_Should_replaceSessionInAllIndexes_When_sessionExists() {
+    socketUserRegistry.addUser(userSession("user", "session"));
+
+    socketUserRegistry.updateSubscriptionId("session", "subscription");
+
+    assertThat(socketUserRegistry.findUserBySessionId("session").getSubscriptionId(),
+        is("subscription"));
+    assertThat(socketUserRegistry.findSessionsByUserId("user").iterator().next()
+        .getSubscriptionId(), is("subscription"));
+    assertThat(socketUserRegistry.retrieveAllUsers(), hasSize(1));
+  }
+
+  @Test
+  void updateSubscriptionId_Should_notRegisterSession_When_sessionDoesNotExist() {
+    socketUserRegistry.updateSubscriptionId("session", "subscription");
+
+    assertThat(socketUserRegistry.retrieveAllUsers(), hasSize(0));
+    assertThat(socketUserRegistry.findSessionsByUserId("user"), empty());
+  }
+
+  @Test
+  void sessionCountAndUserCount_Should_countSessionsAndDistinctUsers() {
+    socketUserRegistry.addUser(userSession("user 1", "session 1"));
+    socketUserRegistry.addUser(userSession("user 1", "session 2"));
+    socketUserRegistry.addUser(userSession("user 2", "session 3"));
+
+    assertThat(socketUserRegistry.sessionCount(), is(3));
+    assertThat(socketUserRegistry.userCount(), is(2));
+    socketUserRegistry.removeSession("session 3");
+    assertThat(socketUserRegistry.userCount(), is(1));
+  }
+
+  private WebSocketUserSession userSession(String userId, String sessionId) {
+    return WebSocketUserSession.builder()
+        .userId(userId)
+        .websocketSessionId(sessionId)
+        .build();
+  }
+
+  @Test
+  void addUserAndRemoveSession_Should_registerUserInDirectoryWithFirstAndLastSession() {
+    var sessionDirectory = mock(LiveSessionDirectory.class);
+    socketUserRegistry.useSessionDirectory(sessionDirectory);
+
+    socketUserRegistry.addUser(userSession("user", "session 1"));
+    socketUserRegistry.addUser(userSession("user", "session 2"));
+    socketUserRegistry.removeSession("session 1");
+    verify(sessionDirectory, never()).unregisterUser("user");
+    socketUserRegistry.removeSession("session 2");
+
+    var directoryUpdates = inOrder(sessionDirectory);
+    directoryUpdates.verify(sessionDirectory).registerUser("user");
+    directoryUpdates.verify(sessionDirectory).unregisterUser("user");
+    directoryUpdates.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void useSessionDirectory_Should_registerAlreadyConnectedUsers() {
+    var sessionDirectory = mock(LiveSessionDirectory.class);
+    socketUserRegistry.addUser(userSession("user", "session"));
+
+    socketUserRegistry.useSessionDirectory(sessionDirectory);
+    socketUserRegistry.clearAllSessions();
+
+    verify(sessionDirectory).registerUser("user");
+    verify(sessionDirectory).unregisterUser("user");
+  }
+
+  @Test
+  void addUserAndRemoveSession_Should_keepDirectoryInStep_When_sessionsOfUserChangeConcurrently() {
+    var registeredCount = new AtomicInteger();
+    var sessionDirectory = mock(LiveSessionDirectory.class);
+    doAnswer(invocation -> registeredCount.incrementAndGet())
+        .when(sessionDirectory).registerUser("user");
+    doAnswer(invocation -> registeredCount.decrementAndGet())
+        .when(sessionDirectory).unregisterUser("user");
+    socketUserRegistry.useSessionDirectory(sessionDirectory);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 1000; i++) {
+        var sessionId = "session " + i;
+        executor.execute(() -> {
+          socketUserRegistry.addUser(userSession("user", sessionId));
+          socketUserRegistry.removeSession(sessionId);
+        });
+      }
+    }
+
+    assertThat(registeredCount.get(), is(0));
+    assertThat(socketUserRegistry.findSessionsByUserId("user"), empty());
+    assertThat(socketUserRegistry.userCount(), is(0));
   }
 
 }
@@ -0,0 +1,96 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HashedWheelTimerTest {
+
+  private HashedWheelTimer hashedWheelTimer;
+
+  @BeforeEach
+  void setup() {
+    this.hashedWheelTimer = new HashedWheelTimer(10, MILLISECONDS, 8, "test-timer");
+    this.hashedWheelTimer.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.hashedWheelTimer.stop();
+  }
+
+  @Test
+  void newTimeout_Should_executeTaskOnce_When_delayHasPassed() {
+    var executions = new AtomicInteger();
+
+    var timeout = this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 50, MILLISECONDS);
+
+    await().atMost(2, SECONDS).until(executions::get, is(1));
+    assertThat(timeout.isExpired(), is(true));
+    assertThat(this.hashedWheelTimer.pendingTimeouts(), is(0));
+  }
+
+  @Test
+  void newTimeout_Should_executeTask_When_delayExceedsOneWheelRound() {
+    var executions = new AtomicInteger();
+    var scheduledAt = System.nanoTime();
+
+    this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 250, MILLISECONDS);
+
+    await().atMost(2, SECONDS).until(executions::get, is(1));
+    assertThat(System.nanoTime() - scheduledAt >= MILLISECONDS.toNanos(250), is(true));
+  }
+
+  @Test
+  void newTimeout_Should_notExecuteTaskBeforeDelay() {
+    var executions = new AtomicInteger();
+
+    this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 1, SECONDS);
+
+    assertThat(executions.get(), is(0));
+    assertThat(this.hashedWheelTimer.pendingTimeouts(), is(1));
+  }
+
+  @Test
+  void cancel_Should_preventExecutionAndRemoveTimeout() {
+    var executions = new AtomicInteger();
+    var timeout = this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 100, MILLISECONDS);
+
+    assertThat(timeout.cancel(), is(true));
+
+    await().atMost(2, SECONDS).until(this.hashedWheelTimer::pendingTimeouts, is(0));
+    await().pollDelay(200, MILLISECONDS).until(() -> true);
+    assertThat(executions.get(), is(0));
+    assertThat(timeout.isExpired(), is(false));
+  }
+
+  @Test
+  void cancel_Should_returnFalse_When_taskHasAlreadyBeenExecuted() {
+    var executions = new AtomicInteger();
+    var timeout = this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 0, MILLISECONDS);
+
+    await().atMost(2, SECONDS).until(executions::get, is(1));
+
+    assertThat(timeout.cancel(), is(false));
+  }
+
+  @Test
+  void newTimeout_Should_executeFurtherTasks_When_taskThrowsException() {
+    var executions = new AtomicInteger();
+
+    this.hashedWheelTimer.newTimeout(() -> {
+      throw new IllegalStateException("failure");
+    }, 0, MILLISECONDS);
+    this.hashedWheelTimer.newTimeout(executions::incrementAndGet, 20, MILLISECONDS);
+
+    await().atMost(2, SECONDS).until(executions::get, is(1));
+  }
+
+}
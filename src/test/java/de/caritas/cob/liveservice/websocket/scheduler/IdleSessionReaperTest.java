@@ -0,0 +1,181 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.powermock.reflect.Whitebox.setInternalState;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventQueueProperties.SessionRemovedPolicy;
+import de.caritas.cob.liveservice.websocket.config.LiveSessionProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.HeapPressureMonitor;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+
+@ExtendWith(MockitoExtension.class)
+class IdleSessionReaperTest {
+
+  private final LiveSessionProperties liveSessionProperties = new LiveSessionProperties();
+
+  private IdleSessionReaper idleSessionReaper;
+
+  @Mock
+  private SocketUserRegistry socketUserRegistry;
+
+  @Mock
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Mock
+  private MessageChannel clientOutboundChannel;
+
+  @BeforeEach
+  void setup() {
+    this.liveSessionProperties.setIdleTimeout(Duration.ofMinutes(5));
+    this.idleSessionReaper = new IdleSessionReaper(this.socketUserRegistry,
+        this.liveEventMessageQueue, this.liveSessionProperties, this.clientOutboundChannel);
+  }
+
+  @Test
+  void reapIdleSessions_Should_removeAndCloseSession_When_sessionIsIdle() {
+    var idleSession = buildSession("idle");
+    idleSession.getLastActivity().set(0);
+    when(this.socketUserRegistry.retrieveAllUsers()).thenReturn(List.of(idleSession));
+
+    this.idleSessionReaper.reapIdleSessions();
+
+    verify(this.socketUserRegistry).removeSession("idle");
+    verify(this.liveEventMessageQueue).removeSessionMessages("idle");
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(this.clientOutboundChannel).send(messageCaptor.capture());
+    var accessor = SimpMessageHeaderAccessor.wrap(messageCaptor.getValue());
+    assertThat(accessor.getMessageType(), is(SimpMessageType.DISCONNECT_ACK));
+    assertThat(accessor.getSessionId(), is("idle"));
+  }
+
+  @Test
+  void reapIdleSessions_Should_keepSession_When_sessionIsActive() {
+    var idleSession = buildSession("idle");
+    idleSession.getLastActivity().set(0);
+    var activeSession = buildSession("active");
+    when(this.socketUserRegistry.retrieveAllUsers())
+        .thenReturn(List.of(idleSession, activeSession));
+
+    this.idleSessionReaper.reapIdleSessions();
+
+    verify(this.socketUserRegistry, never()).removeSession("active");
+    verify(this.liveEventMessageQueue, never()).removeSessionMessages("active");
+    verify(this.socketUserRegistry).removeSession("idle");
+  }
+
+  @Test
+  void reapIdleSessions_Should_parkQueuedMessagesOfReapedSession_When_policyIsPark() {
+    var liveEventQueueProperties = new LiveEventQueueProperties();
+    var liveEventMessageQueue = buildLiveEventMessageQueue(liveEventQueueProperties);
+    var idleSession = buildSession("idle");
+    idleSession.getLastActivity().set(0);
+    liveEventMessageQueue.addIdentifiedMessage(buildMessage(idleSession));
+    when(this.socketUserRegistry.retrieveAllUsers()).thenReturn(List.of(idleSession));
+
+    new IdleSessionReaper(this.socketUserRegistry, liveEventMessageQueue,
+        this.liveSessionProperties, this.clientOutboundChannel).reapIdleSessions();
+
+    assertThat(liveEventMessageQueue.size(), is(1));
+    assertThat(liveEventMessageQueue.isParked("message"), is(true));
+  }
+
+  @Test
+  void reapIdleSessions_Should_dropQueuedMessagesOfReapedSession_When_policyIsDrop() {
+    var liveEventQueueProperties = new LiveEventQueueProperties();
+    liveEventQueueProperties.setSessionRemovedPolicy(SessionRemovedPolicy.DROP);
+    var liveEventMessageQueue = buildLiveEventMessageQueue(liveEventQueueProperties);
+    var idleSession = buildSession("idle");
+    idleSession.getLastActivity().set(0);
+    liveEventMessageQueue.addIdentifiedMessage(buildMessage(idleSession));
+    when(this.socketUserRegistry.retrieveAllUsers()).thenReturn(List.of(idleSession));
+
+    new IdleSessionReaper(this.socketUserRegistry, liveEventMessageQueue,
+        this.liveSessionProperties, this.clientOutboundChannel).reapIdleSessions();
+
+    assertThat(liveEventMessageQueue.size(), is(0));
+  }
+
+  @Test
+  void reapIdleSessions_Should_notReapAnySession_When_idleTimeoutIsDefault() {
+    this.liveSessionProperties.setIdleTimeout(new LiveSessionProperties().getIdleTimeout());
+
+    this.idleSessionReaper.reapIdleSessions();
+
+    verifyNoInteractions(this.socketUserRegistry, this.liveEventMessageQueue,
+        this.clientOutboundChannel);
+  }
+
+  @Test
+  void reapIdleSessions_Should_notReapAnySession_When_idleTimeoutIsZero() {
+    this.liveSessionProperties.setIdleTimeout(Duration.ZERO);
+
+    this.idleSessionReaper.reapIdleSessions();
+
+    verifyNoInteractions(this.socketUserRegistry, this.liveEventMessageQueue,
+        this.clientOutboundChannel);
+  }
+
+  @Test
+  void reapIdleSessions_Should_notCloseAnySession_When_noSessionIsIdle() {
+    when(this.socketUserRegistry.retrieveAllUsers()).thenReturn(List.of(buildSession("active")));
+
+    this.idleSessionReaper.reapIdleSessions();
+
+    verify(this.socketUserRegistry, never()).removeSession(anyString());
+    verify(this.clientOutboundChannel, never()).send(any());
+  }
+
+  private LiveEventMessageQueue buildLiveEventMessageQueue(
+      LiveEventQueueProperties liveEventQueueProperties) {
+    var liveEventMessageQueue = new LiveEventMessageQueue(liveEventQueueProperties,
+        mock(HeapPressureMonitor.class), mock(LiveEventMetrics.class));
+    setInternalState(liveEventMessageQueue, "minimumSecondsBeforeRetry", 1);
+    return liveEventMessageQueue;
+  }
+
+  private IdentifiedMessage buildMessage(WebSocketUserSession webSocketUserSession) {
+    return IdentifiedMessage.builder()
+        .messageId("message")
+        .liveEventMessage(new LiveEventMessage().eventType(EventType.DIRECTMESSAGE))
+        .websocketUserSession(webSocketUserSession)
+        .createdDate(LocalDateTime.now(ZoneOffset.UTC))
+        .build();
+  }
+
+  private WebSocketUserSession buildSession(String socketSessionId) {
+    return WebSocketUserSession.builder()
+        .websocketSessionId(socketSessionId)
+        .userId("user-" + socketSessionId)
+        .build();
+  }
+
+}
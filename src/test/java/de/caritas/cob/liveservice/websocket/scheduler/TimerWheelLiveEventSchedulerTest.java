@@ -0,0 +1,127 @@
+package de.caritas.cob.liveservice.websocket.scheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TimerWheelLiveEventSchedulerTest {
+
+  @InjectMocks
+  private TimerWheelLiveEventScheduler timerWheelLiveEventScheduler;
+
+  @Mock
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Mock
+  private QueuedLiveEventSendService queuedLiveEventSendService;
+
+  @BeforeEach
+  void setup() {
+    setField(timerWheelLiveEventScheduler, "tickMillis", 10L);
+    setField(timerWheelLiveEventScheduler, "wheelSize", 16);
+    setField(timerWheelLiveEventScheduler, "sendThreads", 2);
+    this.timerWheelLiveEventScheduler.startTimer();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.timerWheelLiveEventScheduler.stopTimer();
+  }
+
+  @Test
+  void startTimer_Should_registerSchedulerAsRetryTimerOfQueue() {
+    verify(this.liveEventMessageQueue).useRetryTimer(this.timerWheelLiveEventScheduler);
+  }
+
+  @Test
+  void scheduleRetry_Should_sendQueuedMessage_When_retryDateIsReached() {
+    var message = identifiedMessage(100);
+    when(this.liveEventMessageQueue.findIdentifiedMessageWithId("messageid"))
+        .thenReturn(Optional.of(message));
+
+    this.timerWheelLiveEventScheduler.scheduleRetry(message);
+
+    verify(this.queuedLiveEventSendService, never()).sendQueuedLiveEvent(any());
+    verify(this.queuedLiveEventSendService, timeout(2000)).sendQueuedLiveEvent(message);
+  }
+
+  @Test
+  void scheduleRetry_Should_notSendMessage_When_messageIsNotQueuedAnymore() {
+    var message = identifiedMessage(0);
+    when(this.liveEventMessageQueue.findIdentifiedMessageWithId("messageid"))
+        .thenReturn(Optional.empty());
+
+    this.timerWheelLiveEventScheduler.scheduleRetry(message);
+
+    verify(this.liveEventMessageQueue, timeout(2000)).findIdentifiedMessageWithId("messageid");
+    verify(this.queuedLiveEventSendService, never()).sendQueuedLiveEvent(any());
+  }
+
+  @Test
+  void scheduleRetry_Should_sendOtherMessages_When_sendOfOneMessageBlocks() throws Exception {
+    var blockingMessage = identifiedMessage("blocking", 0);
+    var otherMessage = identifiedMessage("other", 50);
+    when(this.liveEventMessageQueue.findIdentifiedMessageWithId("blocking"))
+        .thenReturn(Optional.of(blockingMessage));
+    when(this.liveEventMessageQueue.findIdentifiedMessageWithId("other"))
+        .thenReturn(Optional.of(otherMessage));
+    var blockingSendReleased = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      blockingSendReleased.await();
+      return null;
+    }).when(this.queuedLiveEventSendService).sendQueuedLiveEvent(blockingMessage);
+
+    this.timerWheelLiveEventScheduler.scheduleRetry(blockingMessage);
+    this.timerWheelLiveEventScheduler.scheduleRetry(otherMessage);
+
+    verify(this.queuedLiveEventSendService, timeout(2000)).sendQueuedLiveEvent(otherMessage);
+    blockingSendReleased.countDown();
+  }
+
+  @Test
+  void cancelRetry_Should_preventSendingOfMessage() {
+    this.timerWheelLiveEventScheduler.scheduleRetry(identifiedMessage(100));
+
+    this.timerWheelLiveEventScheduler.cancelRetry("messageid");
+
+    await().pollDelay(300, MILLISECONDS).atMost(1, SECONDS).until(() -> true);
+    verify(this.liveEventMessageQueue, never()).findIdentifiedMessageWithId(any());
+    verify(this.queuedLiveEventSendService, never()).sendQueuedLiveEvent(any());
+  }
+
+  private IdentifiedMessage identifiedMessage(long retryDelayMillis) {
+    return identifiedMessage("messageid", retryDelayMillis);
+  }
+
+  private IdentifiedMessage identifiedMessage(String messageId, long retryDelayMillis) {
+    return IdentifiedMessage.builder()
+        .messageId(messageId)
+        .nextRetryDate(LocalDateTime.now(ZoneOffset.UTC).plusNanos(
+            MILLISECONDS.toNanos(retryDelayMillis)))
+        .build();
+  }
+
+}
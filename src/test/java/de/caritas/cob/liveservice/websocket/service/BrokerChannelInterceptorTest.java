@@ -0,0 +1,86 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import de.caritas.cob.liveservice.websocket.stomphandler.StompHandler;
+import de.caritas.cob.liveservice.websocket.stomphandler.StompHandlerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.support.MessageBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class BrokerChannelInterceptorTest {
+
+  @InjectMocks
+  private BrokerChannelInterceptor brokerChannelInterceptor;
+
+  @Mock
+  private StompHandlerRegistry stompHandlerRegistry;
+
+  @Test
+  void afterMessageHandled_Should_passSubscriptionToStompHandler_When_brokerHasHandledUserDestination() {
+    var stompHandler = mock(StompHandler.class);
+    when(stompHandlerRegistry.retrieveStompHandler(StompCommand.SUBSCRIBE))
+        .thenReturn(stompHandler);
+    var message = buildMessage(SimpMessageType.SUBSCRIBE, "/events-usersession");
+
+    brokerChannelInterceptor.afterMessageHandled(message, mock(MessageChannel.class),
+        mock(SimpleBrokerMessageHandler.class), null);
+
+    verify(stompHandler).handleAfterBroker(message);
+  }
+
+  @Test
+  void afterMessageHandled_Should_notPassSubscriptionToStompHandler_When_destinationIsNoUserDestination() {
+    brokerChannelInterceptor.afterMessageHandled(
+        buildMessage(SimpMessageType.SUBSCRIBE, "/user/events"), mock(MessageChannel.class),
+        mock(SimpleBrokerMessageHandler.class), null);
+    brokerChannelInterceptor.afterMessageHandled(
+        buildMessage(SimpMessageType.SUBSCRIBE, "/events"), mock(MessageChannel.class),
+        mock(SimpleBrokerMessageHandler.class), null);
+
+    verifyNoInteractions(stompHandlerRegistry);
+  }
+
+  @Test
+  void afterMessageHandled_Should_notPassMessageToStompHandler_When_messageIsNoSubscription() {
+    brokerChannelInterceptor.afterMessageHandled(
+        buildMessage(SimpMessageType.MESSAGE, "/events-usersession"), mock(MessageChannel.class),
+        mock(SimpleBrokerMessageHandler.class), null);
+
+    verifyNoInteractions(stompHandlerRegistry);
+  }
+
+  @Test
+  void afterMessageHandled_Should_notPassSubscriptionToStompHandler_When_otherHandlerHasHandledIt() {
+    var message = buildMessage(SimpMessageType.SUBSCRIBE, "/events-usersession");
+
+    brokerChannelInterceptor.afterMessageHandled(message, mock(MessageChannel.class),
+        mock(MessageHandler.class), null);
+    brokerChannelInterceptor.afterMessageHandled(message, mock(MessageChannel.class),
+        mock(SimpleBrokerMessageHandler.class), new IllegalStateException());
+
+    verifyNoInteractions(stompHandlerRegistry);
+  }
+
+  private Message<byte[]> buildMessage(SimpMessageType messageType, String destination) {
+    var accessor = SimpMessageHeaderAccessor.create(messageType);
+    accessor.setSessionId("session");
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+}
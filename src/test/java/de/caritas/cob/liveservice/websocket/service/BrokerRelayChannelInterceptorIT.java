@@ -0,0 +1,124 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.core.Is.is;
+
+import de.caritas.cob.liveservice.StompClientIntegrationTest;
+import de.caritas.cob.liveservice.TaskSchedulerConfig;
+import de.caritas.cob.liveservice.api.facade.LiveEventFacade;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.profiles.active=relaytesting")
+class BrokerRelayChannelInterceptorIT extends StompClientIntegrationTest {
+
+  private static final String VALIDATED_USER = "validated user 1";
+
+  @Autowired
+  private LiveEventFacade liveEventFacade;
+
+  @Autowired
+  private LiveEventMessageQueue liveEventMessageQueue;
+
+  @Autowired
+  private StompBrokerRelayMessageHandler stompBrokerRelayMessageHandler;
+
+  @BeforeEach
+  void awaitBrokerConnection() {
+    await()
+        .atMost(30, SECONDS)
+        .until(this.stompBrokerRelayMessageHandler::isBrokerAvailable);
+  }
+
+  @Test
+  void triggerLiveEvent_Should_sendEventThroughBrokerWithQueuedMessageId_When_clientAcknowledges()
+      throws Exception {
+    var stompSession = performConnect(FIRST_VALID_USER);
+    var receivedHeaders = new CopyOnWriteArrayList<StompHeaders>();
+    subscribeWithClientAcknowledge(stompSession, receivedHeaders);
+
+    this.liveEventFacade.triggerLiveEvent(
+        new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of(VALIDATED_USER)));
+
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(receivedHeaders::size, is(1));
+    var headers = receivedHeaders.get(0);
+    assertThat(headers.getMessageId(), notNullValue());
+    assertThat(headers.getMessageId(), is(headers.getFirst("id")));
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(this.liveEventMessageQueue::size, is(0));
+    assertThat(receivedHeaders, hasSize(1));
+    performDisconnect(stompSession);
+  }
+
+  @Test
+  void triggerLiveEvent_Should_sendEventToUserOfOtherInstance_When_userHasNoLocalSession()
+      throws Exception {
+    var stompSession = performConnect(FIRST_VALID_USER);
+    var receivedHeaders = new CopyOnWriteArrayList<StompHeaders>();
+    subscribeWithClientAcknowledge(stompSession, receivedHeaders);
+
+    try (var otherInstance = new SpringApplicationBuilder(TestConfig.class,
+        TaskSchedulerConfig.class)
+        .profiles("relaytesting")
+        .properties("server.port=0", "live.broker.embedded.enabled=false")
+        .run()) {
+      var otherUserRegistry = otherInstance.getBean(SimpUserRegistry.class);
+      await()
+          .atMost(30, SECONDS)
+          .until(() -> otherUserRegistry.getUser(VALIDATED_USER), notNullValue());
+
+      otherInstance.getBean(LiveEventFacade.class).triggerLiveEvent(
+          new LiveEventMessage().eventType(DIRECTMESSAGE).userIds(List.of(VALIDATED_USER)));
+
+      await()
+          .atMost(MESSAGE_TIMEOUT, SECONDS)
+          .until(receivedHeaders::size, is(1));
+      assertThat(otherInstance.getBean(LiveEventMessageQueue.class).size(), is(0));
+    }
+    performDisconnect(stompSession);
+  }
+
+  private void subscribeWithClientAcknowledge(StompSession stompSession,
+      List<StompHeaders> receivedHeaders) {
+    var subscribeHeaders = new StompHeaders();
+    subscribeHeaders.setDestination(SUBSCRIPTION_ENDPOINT);
+    subscribeHeaders.setAck("client-individual");
+    stompSession.subscribe(subscribeHeaders, new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return LiveEventMessage.class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        receivedHeaders.add(headers);
+        var acknowledgeHeaders = new StompHeaders();
+        acknowledgeHeaders.set("message-id", headers.getMessageId());
+        acknowledgeHeaders.setId(headers.getMessageId());
+        stompSession.acknowledge(acknowledgeHeaders, true);
+      }
+    });
+  }
+
+}
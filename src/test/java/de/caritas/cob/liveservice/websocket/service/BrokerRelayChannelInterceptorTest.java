@@ -0,0 +1,88 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+import de.caritas.cob.liveservice.websocket.config.LiveBrokerRelayProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+class BrokerRelayChannelInterceptorTest {
+
+  private final MessageChannel messageChannel = mock(MessageChannel.class);
+  private final BrokerRelayChannelInterceptor brokerRelayChannelInterceptor =
+      new BrokerRelayChannelInterceptor(new LiveBrokerRelayProperties());
+
+  @Test
+  void preSend_Should_notRelayFrame_When_clientAcknowledgesOrSends() {
+    for (var command : new StompCommand[]{StompCommand.ACK, StompCommand.NACK,
+        StompCommand.SEND}) {
+      var message = buildMessage(StompHeaderAccessor.create(command));
+
+      assertThat(this.brokerRelayChannelInterceptor.preSend(message, messageChannel), nullValue());
+    }
+  }
+
+  @Test
+  void preSend_Should_notRelaySubscription_When_destinationIsBroadcastDestination() {
+    var accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    accessor.setSessionId("session");
+    accessor.setDestination("/topic/live-user-registry");
+
+    var result = this.brokerRelayChannelInterceptor.preSend(buildMessage(accessor),
+        messageChannel);
+
+    assertThat(result, nullValue());
+  }
+
+  @Test
+  void preSend_Should_relaySubscriptionWithoutAcknowledgementMode() {
+    var accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    accessor.setDestination("/events");
+    accessor.setNativeHeader("ack", "client-individual");
+
+    var result = this.brokerRelayChannelInterceptor.preSend(buildMessage(accessor),
+        messageChannel);
+
+    var resultAccessor = StompHeaderAccessor.wrap(result);
+    assertThat(resultAccessor.getFirstNativeHeader("ack"), nullValue());
+    assertThat(resultAccessor.getDestination(), is("/events"));
+    assertThat(StompHeaderAccessor.getAccessor(result, StompHeaderAccessor.class).isMutable(),
+        is(true));
+  }
+
+  @Test
+  void preSend_Should_setQueuedMessageIdAsMessageId_When_messageIsSentToClient() {
+    var accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+    accessor.setNativeHeader("message-id", "broker message id");
+    accessor.setNativeHeader("id", "queued message id");
+
+    var result = this.brokerRelayChannelInterceptor.preSend(buildMessage(accessor),
+        messageChannel);
+
+    var resultAccessor = StompHeaderAccessor.wrap(result);
+    assertThat(resultAccessor.getFirstNativeHeader("message-id"), is("queued message id"));
+    assertThat(resultAccessor.getFirstNativeHeader("id"), is("queued message id"));
+  }
+
+  @Test
+  void preSend_Should_returnMessageUnchanged_When_messageHasNoCommand() {
+    var message = MessageBuilder.withPayload(new byte[0]).build();
+
+    var result = this.brokerRelayChannelInterceptor.preSend(message, messageChannel);
+
+    assertThat(result, sameInstance(message));
+  }
+
+  private static Message<byte[]> buildMessage(StompHeaderAccessor accessor) {
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+}
@@ -11,6 +11,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import de.caritas.cob.liveservice.websocket.stomphandler.StompHandlerRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,6 +38,9 @@ class ClientInboundChannelInterceptorTest {
   @Mock
   private StompHandlerRegistry stompHandlerRegistry;
 
+  @Mock
+  private SocketUserRegistry socketUserRegistry;
+
   @Mock
   private MessageHeaders messageHeaders;
 
@@ -117,4 +122,16 @@ class ClientInboundChannelInterceptorTest {
     verify(stompHandlerRegistry, times(1)).retrieveStompHandler(StompCommand.ACK);
   }
 
+  @Test
+  void preSend_Should_recordActivityOfSession_When_heartbeatIsReceived() {
+    var session = WebSocketUserSession.builder().websocketSessionId("session").build();
+    session.getLastActivity().set(0);
+    when(stompHeaderAccessor.getSessionId()).thenReturn("session");
+    when(socketUserRegistry.findUserBySessionId("session")).thenReturn(session);
+
+    clientInboundChannelInterceptor.preSend(message, mock(MessageChannel.class));
+
+    assertThat(session.isIdleSince(1), is(false));
+  }
+
 }
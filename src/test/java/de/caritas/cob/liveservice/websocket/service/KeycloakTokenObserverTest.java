@@ -2,15 +2,22 @@ package de.caritas.cob.liveservice.websocket.service;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.keycloak.adapters.KeycloakDeployment;
 import org.keycloak.adapters.KeycloakDeploymentBuilder;
 import org.keycloak.adapters.rotation.AdapterTokenVerifier;
+import org.keycloak.adapters.rotation.PublicKeyLocator;
 import org.keycloak.adapters.springboot.KeycloakSpringBootProperties;
 import org.keycloak.common.VerificationException;
 import org.keycloak.representations.AccessToken;
@@ -31,6 +38,12 @@ class KeycloakTokenObserverTest {
   @Mock
   private KeycloakSpringBootProperties keycloakSpringBootProperties;
 
+  @Mock
+  private KeycloakDeployment keycloakDeployment;
+
+  @Mock
+  private PublicKeyLocator publicKeyLocator;
+
   @BeforeEach
   void setUpStaticMocks() throws Exception {
     try (var mocks = MockitoAnnotations.openMocks(this)) {
@@ -66,4 +79,53 @@ class KeycloakTokenObserverTest {
     assertThat(userId, is("validId"));
   }
 
+  @Test
+  void observeUserId_Should_buildKeycloakDeploymentOnlyOnce_When_calledSeveralTimes()
+      throws VerificationException {
+    AccessToken accessToken = new AccessToken();
+    accessToken.setOtherClaims("userId", "validId");
+    mockedKeycloakDeploymentBuilder.when(() -> KeycloakDeploymentBuilder.build(any(
+        KeycloakSpringBootProperties.class))).thenReturn(keycloakDeployment);
+    mockedAdapterTokenVerifier.when(() -> AdapterTokenVerifier.verifyToken(any(), any()))
+        .thenReturn(accessToken);
+
+    this.keycloakTokenObserver.observeUserId("valid token");
+    this.keycloakTokenObserver.observeUserId("other valid token");
+
+    mockedKeycloakDeploymentBuilder.verify(
+        () -> KeycloakDeploymentBuilder.build(any(KeycloakSpringBootProperties.class)), times(1));
+    mockedAdapterTokenVerifier.verify(
+        () -> AdapterTokenVerifier.verifyToken("other valid token", keycloakDeployment));
+  }
+
+  @Test
+  void refreshPublicKeys_Should_reloadKeysOfSharedDeployment_When_authServerIsConfigured() {
+    when(keycloakSpringBootProperties.getAuthServerUrl()).thenReturn("https://localhost/auth");
+    when(keycloakDeployment.getPublicKeyLocator()).thenReturn(publicKeyLocator);
+    mockedKeycloakDeploymentBuilder.when(() -> KeycloakDeploymentBuilder.build(any(
+        KeycloakSpringBootProperties.class))).thenReturn(keycloakDeployment);
+
+    this.keycloakTokenObserver.refreshPublicKeys();
+
+    verify(publicKeyLocator).reset(keycloakDeployment);
+  }
+
+  @Test
+  void refreshPublicKeys_Should_notBuildDeployment_When_authServerIsNotConfigured() {
+    this.keycloakTokenObserver.refreshPublicKeys();
+
+    mockedKeycloakDeploymentBuilder.verifyNoInteractions();
+  }
+
+  @Test
+  void refreshPublicKeys_Should_keepRunning_When_keyReloadFails() {
+    when(keycloakSpringBootProperties.getAuthServerUrl()).thenReturn("https://localhost/auth");
+    when(keycloakDeployment.getPublicKeyLocator()).thenReturn(publicKeyLocator);
+    doThrow(new IllegalStateException()).when(publicKeyLocator).reset(any());
+    mockedKeycloakDeploymentBuilder.when(() -> KeycloakDeploymentBuilder.build(any(
+        KeycloakSpringBootProperties.class))).thenReturn(keycloakDeployment);
+
+    assertDoesNotThrow(() -> this.keycloakTokenObserver.refreshPublicKeys());
+  }
+
 }
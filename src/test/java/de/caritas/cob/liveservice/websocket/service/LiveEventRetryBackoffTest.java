@@ -0,0 +1,105 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import de.caritas.cob.liveservice.api.model.EventType;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.config.LiveEventRetryProperties;
+import de.caritas.cob.liveservice.websocket.config.LiveEventRetryProperties.EventTypeLimits;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LiveEventRetryBackoffTest {
+
+  private final LiveEventRetryProperties liveEventRetryProperties = new LiveEventRetryProperties();
+  private LiveEventRetryBackoff liveEventRetryBackoff;
+
+  @BeforeEach
+  void setup() {
+    this.liveEventRetryProperties.setInitialDelay(Duration.ofSeconds(1));
+    this.liveEventRetryProperties.setMultiplier(2.0);
+    this.liveEventRetryProperties.setMaxDelay(Duration.ofSeconds(10));
+    this.liveEventRetryProperties.setJitter(0);
+    this.liveEventRetryBackoff = new LiveEventRetryBackoff(this.liveEventRetryProperties);
+    setField(this.liveEventRetryBackoff, "maximumRetryAmount", 5);
+  }
+
+  @Test
+  void nextRetryDate_Should_increaseDelayExponentially_When_retryAmountIncreases() {
+    assertThat(delayMillis(message(2, EventType.DIRECTMESSAGE)), isAround(1000));
+    assertThat(delayMillis(message(3, EventType.DIRECTMESSAGE)), isAround(2000));
+    assertThat(delayMillis(message(4, EventType.DIRECTMESSAGE)), isAround(4000));
+  }
+
+  @Test
+  void nextRetryDate_Should_limitDelayToMaxDelay() {
+    assertThat(delayMillis(message(10, EventType.DIRECTMESSAGE)), isAround(10000));
+  }
+
+  @Test
+  void nextRetryDate_Should_useEventTypeSpecificMaxDelay_When_configured() {
+    var limits = new EventTypeLimits();
+    limits.setMaxDelay(Duration.ofSeconds(2));
+    this.liveEventRetryProperties.getEventTypes().put(EventType.VIDEOCALLREQUEST, limits);
+
+    assertThat(delayMillis(message(10, EventType.VIDEOCALLREQUEST)), isAround(2000));
+    assertThat(delayMillis(message(10, EventType.DIRECTMESSAGE)), isAround(10000));
+  }
+
+  @Test
+  void nextRetryDate_Should_randomizeDelayWithinJitterRange() {
+    this.liveEventRetryProperties.setJitter(0.5);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(delayMillis(message(4, EventType.DIRECTMESSAGE)),
+          allOf(greaterThanOrEqualTo(1900L), lessThanOrEqualTo(4100L)));
+    }
+  }
+
+  @Test
+  void maximumRetryAmount_Should_returnEventTypeSpecificAmount_When_configured() {
+    var limits = new EventTypeLimits();
+    limits.setMaxRetryAmount(10);
+    this.liveEventRetryProperties.getEventTypes().put(EventType.VIDEOCALLREQUEST, limits);
+
+    assertThat(this.liveEventRetryBackoff.maximumRetryAmount(
+        message(1, EventType.VIDEOCALLREQUEST)), is(10));
+    assertThat(this.liveEventRetryBackoff.maximumRetryAmount(
+        message(1, EventType.DIRECTMESSAGE)), is(5));
+  }
+
+  @Test
+  void maximumRetryAmount_Should_returnGlobalAmount_When_messageHasNoEventType() {
+    var message = IdentifiedMessage.builder().retryAmount(1).build();
+
+    assertThat(this.liveEventRetryBackoff.maximumRetryAmount(message), is(5));
+  }
+
+  private long delayMillis(IdentifiedMessage identifiedMessage) {
+    var now = LocalDateTime.now(ZoneOffset.UTC);
+    return Duration.between(now, this.liveEventRetryBackoff.nextRetryDate(identifiedMessage))
+        .toMillis();
+  }
+
+  private static Matcher<Long> isAround(long expectedMillis) {
+    return allOf(greaterThanOrEqualTo(expectedMillis - 100), lessThanOrEqualTo(expectedMillis));
+  }
+
+  private IdentifiedMessage message(int retryAmount, EventType eventType) {
+    return IdentifiedMessage.builder()
+        .retryAmount(retryAmount)
+        .liveEventMessage(new LiveEventMessage().eventType(eventType))
+        .build();
+  }
+
+}
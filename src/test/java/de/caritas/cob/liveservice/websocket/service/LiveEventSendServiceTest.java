@@ -2,27 +2,59 @@ package de.caritas.cob.liveservice.websocket.service;
 
 import static de.caritas.cob.liveservice.websocket.model.Subscription.EVENTS;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import de.caritas.cob.liveservice.api.model.EventType;
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
+import de.caritas.cob.liveservice.websocket.model.SerializedLiveEvent;
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
 
 @ExtendWith(MockitoExtension.class)
 class LiveEventSendServiceTest {
@@ -36,6 +68,12 @@ class LiveEventSendServiceTest {
   @Mock
   private LiveEventMessageQueue liveEventMessageQueue;
 
+  @Mock
+  private LiveEventMetrics liveEventMetrics;
+
+  @Mock
+  private LiveSessionDirectory liveSessionDirectory;
+
   @Test
   void sendLiveEventToUsers_Should_notInteractWithMessagingTemplate_When_sessionIdsAreNull() {
     this.liveEventSendService.sendLiveEventToUsers(null, buildLiveEventMessage());
@@ -53,18 +91,20 @@ class LiveEventSendServiceTest {
 
   @Test
   void sendLiveEventToUsers_Should_sendEventMessageToExpectedUser_When_sessionIdIsGiven() {
+    givenMessagingTemplateWithConverter();
+
     this.liveEventSendService
         .sendLiveEventToUsers(
             singletonList(WebSocketUserSession.builder().websocketSessionId("1").build()),
             buildLiveEventMessage());
 
     verify(messagingTemplate, times(1))
-        .convertAndSendToUser(eq("1"), eq(EVENTS.getSubscriptionEndpoint()), eq(
-            buildLiveEventMessage()), any(MessageHeaders.class));
+        .send(eq("/user/1" + EVENTS.getSubscriptionEndpoint()), any(Message.class));
   }
 
   @Test
   void sendLiveEventToUsers_Should_sendEventMessageToAllUsers_When_sessionIdsAreGiven() {
+    givenMessagingTemplateWithConverter();
     var userSession = Stream.of("1", "2", "3", "4", "5")
         .map(id -> WebSocketUserSession.builder().websocketSessionId(id).build())
         .collect(Collectors.toList());
@@ -72,8 +112,255 @@ class LiveEventSendServiceTest {
     this.liveEventSendService.sendLiveEventToUsers(userSession, buildLiveEventMessage());
 
     verify(messagingTemplate, times(5))
-        .convertAndSendToUser(anyString(), eq(EVENTS.getSubscriptionEndpoint()), eq(
-            buildLiveEventMessage()), any(MessageHeaders.class));
+        .send(endsWith(EVENTS.getSubscriptionEndpoint()), any(Message.class));
+  }
+
+  @Test
+  void sendLiveEventToUsers_Should_serializeEventMessageOnceAndShareThePayload_When_sessionIdsAreGiven() {
+    var messageConverter = givenMessagingTemplateWithConverter();
+    var userSession = Stream.of("1", "2", "3")
+        .map(id -> WebSocketUserSession.builder().websocketSessionId(id).build())
+        .collect(Collectors.toList());
+
+    this.liveEventSendService.sendLiveEventToUsers(userSession, buildLiveEventMessage());
+
+    verify(messageConverter, times(1)).toMessage(any(), any(MessageHeaders.class));
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, times(3)).send(anyString(), messageCaptor.capture());
+    var payloads = messageCaptor.getAllValues().stream()
+        .map(Message::getPayload)
+        .distinct()
+        .collect(Collectors.toList());
+    assertThat(payloads, hasSize(1));
+    assertThat(new String((byte[]) payloads.get(0), StandardCharsets.UTF_8),
+        containsString("directMessage"));
+  }
+
+  @Test
+  void sendLiveEventToUsers_Should_sendMessageWithSessionAndMessageIdHeaders() {
+    givenMessagingTemplateWithConverter();
+
+    this.liveEventSendService
+        .sendLiveEventToUsers(
+            singletonList(WebSocketUserSession.builder().websocketSessionId("1").build()),
+            buildLiveEventMessage());
+
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate).send(anyString(), messageCaptor.capture());
+    var headerAccessor = StompHeaderAccessor.wrap(messageCaptor.getValue());
+    assertThat(headerAccessor.getSessionId(), is("1"));
+    assertThat(headerAccessor.getMessageId(), notNullValue());
+    assertThat(headerAccessor.getFirstNativeHeader("id"), is(headerAccessor.getMessageId()));
+    assertThat(headerAccessor.getContentType().isCompatibleWith(MimeTypeUtils.APPLICATION_JSON),
+        is(true));
+  }
+
+  @Test
+  void sendIdentifiedMessage_Should_reuseSerializedPayload_When_messageIsRetried() {
+    var messageConverter = givenMessagingTemplateWithConverter();
+    var serializedLiveEvent = new SerializedLiveEvent(new byte[]{1, 2, 3},
+        MimeTypeUtils.APPLICATION_JSON);
+    var identifiedMessage = IdentifiedMessage.builder()
+        .messageId("messageId")
+        .liveEventMessage(buildLiveEventMessage())
+        .serializedLiveEvent(serializedLiveEvent)
+        .websocketUserSession(WebSocketUserSession.builder().websocketSessionId("1").build())
+        .build();
+
+    this.liveEventSendService.sendIdentifiedMessage(identifiedMessage);
+
+    verifyNoInteractions(messageConverter);
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate).send(anyString(), messageCaptor.capture());
+    assertThat(messageCaptor.getValue().getPayload(), sameInstance(serializedLiveEvent.getPayload()));
+  }
+
+  @Test
+  void sendLiveEventToUsers_Should_serializeEventOncePerContentType_When_sessionsSelectCbor()
+      throws Exception {
+    givenMessagingTemplateWithCborConverter();
+    var jsonSession = WebSocketUserSession.builder().websocketSessionId("1").build();
+    var cborSessions = Stream.of("2", "3")
+        .map(id -> WebSocketUserSession.builder().websocketSessionId(id)
+            .contentType(MediaType.APPLICATION_CBOR).build());
+
+    this.liveEventSendService.sendLiveEventToUsers(
+        Stream.concat(Stream.of(jsonSession), cborSessions).collect(Collectors.toList()),
+        buildLiveEventMessage());
+
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, times(3)).send(anyString(), messageCaptor.capture());
+    var messages = messageCaptor.getAllValues();
+    assertThat(new String((byte[]) messages.get(0).getPayload(), StandardCharsets.UTF_8),
+        containsString("directMessage"));
+    assertThat(messages.get(1).getPayload(), sameInstance(messages.get(2).getPayload()));
+    assertThat(StompHeaderAccessor.wrap(messages.get(1)).getContentType()
+        .equalsTypeAndSubtype(MediaType.APPLICATION_CBOR), is(true));
+    assertThat(new CBORMapper().readValue((byte[]) messages.get(1).getPayload(),
+        LiveEventMessage.class).getEventType(), is(EventType.DIRECTMESSAGE));
+  }
+
+  @Test
+  void sendIdentifiedMessage_Should_transcodePayload_When_sessionSelectedAnotherContentType()
+      throws Exception {
+    givenMessagingTemplateWithCborConverter();
+    var serializedLiveEvent = new SerializedLiveEvent(
+        "{\"eventType\":\"directMessage\"}".getBytes(StandardCharsets.UTF_8),
+        MimeTypeUtils.APPLICATION_JSON);
+    var identifiedMessage = IdentifiedMessage.builder()
+        .messageId("messageId")
+        .liveEventMessage(new LiveEventMessage().eventType(EventType.DIRECTMESSAGE))
+        .serializedLiveEvent(serializedLiveEvent)
+        .websocketUserSession(WebSocketUserSession.builder().websocketSessionId("1")
+            .contentType(MediaType.APPLICATION_CBOR).build())
+        .build();
+
+    this.liveEventSendService.sendIdentifiedMessage(identifiedMessage);
+
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate).send(anyString(), messageCaptor.capture());
+    assertThat(new CBORMapper().readValue((byte[]) messageCaptor.getValue().getPayload(),
+        LiveEventMessage.class).getEventType(), is(EventType.DIRECTMESSAGE));
+    assertThat(identifiedMessage.getSerializedLiveEvent().getContentType()
+        .equalsTypeAndSubtype(MediaType.APPLICATION_CBOR), is(true));
+  }
+
+  @Test
+  void sendLiveEventsToSessions_Should_serializeEachEventOnceAndSendItToAllItsSessions() {
+    var firstSession = WebSocketUserSession.builder().websocketSessionId("1").build();
+    var secondSession = WebSocketUserSession.builder().websocketSessionId("2").build();
+    var firstEvent = buildLiveEventMessage().userIds(List.of("a", "b"));
+    var secondEvent = buildLiveEventMessage().eventType(EventType.VIDEOCALLDENY);
+    var liveEventsBySession = new LinkedHashMap<WebSocketUserSession, List<LiveEventMessage>>();
+    liveEventsBySession.put(firstSession, List.of(firstEvent, secondEvent));
+    liveEventsBySession.put(secondSession, List.of(firstEvent));
+    var messageConverter = givenMessagingTemplateWithConverter();
+    when(liveEventMessageQueue.addIdentifiedMessage(any())).thenReturn(true);
+
+    this.liveEventSendService.sendLiveEventsToSessions(liveEventsBySession);
+
+    verify(messageConverter, times(2)).toMessage(any(), any(MessageHeaders.class));
+    verify(messagingTemplate, times(2)).send(eq("/user/1/events"), any(Message.class));
+    verify(messagingTemplate, times(1)).send(eq("/user/2/events"), any(Message.class));
+    verify(liveEventMessageQueue, times(3)).addIdentifiedMessage(any());
+    verify(liveEventMetrics, times(2)).countEnqueued(EventType.DIRECTMESSAGE);
+    verify(liveEventMetrics, times(1)).countEnqueued(EventType.VIDEOCALLDENY);
+    assertThat(firstEvent.getUserIds(), nullValue());
+  }
+
+  @Test
+  void sendLiveEventToUsers_Should_sendMessageOnceWithoutCountingItAsEnqueued_When_queueRejectsIt() {
+    givenMessagingTemplateWithConverter();
+    when(liveEventMessageQueue.addIdentifiedMessage(any())).thenReturn(false);
+
+    this.liveEventSendService.sendLiveEventToUsers(
+        List.of(WebSocketUserSession.builder().websocketSessionId("1").build()),
+        buildLiveEventMessage());
+
+    verify(messagingTemplate).send(eq("/user/1/events"), any(Message.class));
+    verifyNoInteractions(liveEventMetrics);
+  }
+
+  @Test
+  void sendLiveEventToRemoteUsers_Should_sendToUserDestinationOfEachUserWithoutQueueing() {
+    final var messageConverter = givenMessagingTemplateWithConverter();
+
+    var remoteNodeIdsByUserId = new LinkedHashMap<String, Set<String>>();
+    remoteNodeIdsByUserId.put("a", emptySet());
+    remoteNodeIdsByUserId.put("b/c", emptySet());
+
+    this.liveEventSendService.sendLiveEventToRemoteUsers(remoteNodeIdsByUserId,
+        buildLiveEventMessage());
+
+    var messageCaptor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate).send(eq("/user/a/events"), messageCaptor.capture());
+    verify(messagingTemplate).send(eq("/user/b%2Fc/events"), any(Message.class));
+    var headerAccessor = StompHeaderAccessor.wrap(messageCaptor.getValue());
+    assertThat(headerAccessor.getSessionId(), nullValue());
+    assertThat(headerAccessor.getFirstNativeHeader("id"),
+        is(headerAccessor.getFirstNativeHeader("message-id")));
+    verify(messageConverter, times(1)).toMessage(any(), any(MessageHeaders.class));
+    verifyNoInteractions(liveEventMessageQueue, liveEventMetrics);
+  }
+
+  @Test
+  void sendLiveEventToRemoteUsers_Should_forwardEventToNodesOfUsersKnownByDirectory() {
+    var remoteNodeIdsByUserId = new LinkedHashMap<String, Set<String>>();
+    remoteNodeIdsByUserId.put("a", Set.of("node 1"));
+    remoteNodeIdsByUserId.put("b", Set.of("node 1"));
+    remoteNodeIdsByUserId.put("c", Set.of("node 2"));
+    var liveEventMessage = buildLiveEventMessage().eventContent("content");
+
+    this.liveEventSendService.sendLiveEventToRemoteUsers(remoteNodeIdsByUserId,
+        liveEventMessage);
+
+    var captor = ArgumentCaptor.forClass(LiveEventMessage.class);
+    verify(liveSessionDirectory).forwardLiveEvent(eq("node 1"), captor.capture());
+    verify(liveSessionDirectory).forwardLiveEvent(eq("node 2"), captor.capture());
+    assertThat(captor.getAllValues().get(0).getUserIds(), is(List.of("a", "b")));
+    assertThat(captor.getAllValues().get(0).getEventContent(), is("content"));
+    assertThat(captor.getAllValues().get(1).getUserIds(), is(List.of("c")));
+    verifyNoInteractions(messagingTemplate, liveEventMessageQueue);
+  }
+
+  @Test
+  void sendLiveEventToRemoteUsers_Should_notSendEvent_When_noUserIsGiven() {
+    this.liveEventSendService.sendLiveEventToRemoteUsers(emptyMap(), buildLiveEventMessage());
+
+    verifyNoInteractions(messagingTemplate, liveEventMessageQueue, liveSessionDirectory);
+  }
+
+  @Test
+  void storeLiveEventForUsers_Should_parkOneCompactMessagePerUserSharingTheSerializedEvent() {
+    final var messageConverter = spy(new MappingJackson2MessageConverter());
+    when(messagingTemplate.getMessageConverter()).thenReturn(messageConverter);
+    when(liveEventMessageQueue.parkUserMessage(any(), any())).thenReturn(true, false);
+    var liveEventMessage = buildLiveEventMessage().userIds(List.of("a", "b"));
+
+    var storedCount = this.liveEventSendService.storeLiveEventForUsers(List.of("a", "b"),
+        liveEventMessage, Duration.ofMinutes(5));
+
+    assertThat(storedCount, is(1));
+    var captor = ArgumentCaptor.forClass(IdentifiedMessage.class);
+    verify(liveEventMessageQueue, times(2)).parkUserMessage(captor.capture(),
+        eq(Duration.ofMinutes(5)));
+    var storedMessages = captor.getAllValues();
+    assertThat(storedMessages.get(0).getWebsocketUserSession().getUserId(), is("a"));
+    assertThat(storedMessages.get(1).getWebsocketUserSession().getUserId(), is("b"));
+    assertThat(storedMessages.get(0).getWebsocketUserSession().getWebsocketSessionId(),
+        nullValue());
+    assertThat(storedMessages.get(0).getSerializedLiveEvent(),
+        sameInstance(storedMessages.get(1).getSerializedLiveEvent()));
+    assertThat(storedMessages.get(0).getLiveEventMessage().getEventContent(), nullValue());
+    verify(messageConverter, times(1)).toMessage(any(), any(MessageHeaders.class));
+    verify(liveEventMetrics, times(1)).countStored(liveEventMessage.getEventType());
+    verify(liveEventMessageQueue, never()).addIdentifiedMessage(any());
+    verify(messagingTemplate, never()).send(anyString(), any(Message.class));
+  }
+
+  @Test
+  void storeLiveEventForUsers_Should_notSerializeEvent_When_noUserIsGiven() {
+    var storedCount = this.liveEventSendService.storeLiveEventForUsers(emptyList(),
+        buildLiveEventMessage(), Duration.ofMinutes(5));
+
+    assertThat(storedCount, is(0));
+    verifyNoInteractions(messagingTemplate, liveEventMessageQueue);
+  }
+
+  private MessageConverter givenMessagingTemplateWithConverter() {
+    var messageConverter = spy(new MappingJackson2MessageConverter());
+    lenient().when(messagingTemplate.getMessageConverter()).thenReturn(messageConverter);
+    when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+    return messageConverter;
+  }
+
+  private void givenMessagingTemplateWithCborConverter() {
+    var cborMessageConverter = new MappingJackson2MessageConverter(MediaType.APPLICATION_CBOR);
+    cborMessageConverter.setObjectMapper(new CBORMapper());
+    cborMessageConverter.setStrictContentTypeMatch(true);
+    when(messagingTemplate.getMessageConverter()).thenReturn(new CompositeMessageConverter(
+        List.of(new MappingJackson2MessageConverter(), cborMessageConverter)));
+    when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
   }
 
   private LiveEventMessage buildLiveEventMessage() {
@@ -0,0 +1,82 @@
+package de.caritas.cob.liveservice.websocket.service;
+
+import static de.caritas.cob.liveservice.api.controller.LiveControllerIT.LIVEEVENT_SEND;
+import static de.caritas.cob.liveservice.api.model.EventType.DIRECTMESSAGE;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.caritas.cob.liveservice.StompClientIntegrationTest;
+import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The first retry of a queued message is due a minute after it has been queued or unparked, so
+ * every message received within the flush timeout has been flushed on subscription.
+ */
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = {"spring.profiles.active=queuedtesting",
+    "live.event.minimum.seconds.before.retry=60", "live.event.retry.backoff.initial-delay=1m"})
+class QueuedLiveEventFlushIT extends StompClientIntegrationTest {
+
+  private static final int FLUSH_TIMEOUT = 3;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void subscribe_Should_flushParkedMessage_When_userWasNotConnected() throws Exception {
+    sendDirectMessage("validated user 2");
+
+    var stompSession = performConnect(SECOND_VALID_USER);
+    List<LiveEventMessage> receivedMessages = new ArrayList<>();
+    performSubscribe(stompSession, receivedMessages);
+
+    await()
+        .atMost(FLUSH_TIMEOUT, SECONDS)
+        .until(receivedMessages::size, is(1));
+    assertThat(receivedMessages.get(0).getEventType(), is(DIRECTMESSAGE));
+    performDisconnect(stompSession);
+  }
+
+  @Test
+  void subscribe_Should_flushParkedMessage_When_userReconnects() throws Exception {
+    var stompSession = performConnect(FIRST_VALID_USER);
+    List<LiveEventMessage> receivedMessages = new ArrayList<>();
+    performSubscribe(stompSession, receivedMessages);
+    sendDirectMessage("validated user 1");
+    await()
+        .atMost(FLUSH_TIMEOUT, SECONDS)
+        .until(receivedMessages::size, is(1));
+    performDisconnect(stompSession);
+
+    var newStompSession = performConnect(FIRST_VALID_USER);
+    List<LiveEventMessage> flushedMessages = new ArrayList<>();
+    performSubscribe(newStompSession, flushedMessages);
+
+    await()
+        .atMost(FLUSH_TIMEOUT, SECONDS)
+        .until(flushedMessages::size, is(1));
+    assertThat(flushedMessages.get(0).getEventType(), is(DIRECTMESSAGE));
+    performDisconnect(newStompSession);
+  }
+
+  private void sendDirectMessage(String userId) throws Exception {
+    this.mockMvc.perform(post(LIVEEVENT_SEND)
+            .contentType(APPLICATION_JSON)
+            .content(buildLiveEventMessage(DIRECTMESSAGE, singletonList(userId), null)))
+        .andExpect(status().isOk());
+  }
+
+}
@@ -7,7 +7,6 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
-import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.core.Is.is;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -61,7 +60,7 @@ class QueuedLiveEventSendServiceIT extends StompClientIntegrationTest {
     }
     await()
         .atMost(MESSAGE_TIMEOUT, SECONDS)
-        .until(this.liveEventMessageQueue::getCurrentOpenMessages, hasSize(0));
+        .until(this.liveEventMessageQueue::size, is(0));
     performDisconnect(stompSession);
   }
 
@@ -80,15 +79,40 @@ class QueuedLiveEventSendServiceIT extends StompClientIntegrationTest {
 
     performDisconnect(stompSession);
     var newStompSession = performConnect(FIRST_VALID_USER);
-    performSubscribe(newStompSession, receivedMessages);
+    List<LiveEventMessage> flushedMessages = new ArrayList<>();
+    performSubscribe(newStompSession, flushedMessages);
 
     await()
-        .atMost(MESSAGE_TIMEOUT * 10, SECONDS)
-        .until(receivedMessages::size, is(1));
-    var resultMessage = receivedMessages.iterator().next();
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(flushedMessages::size, greaterThanOrEqualTo(1));
+    var resultMessage = flushedMessages.iterator().next();
     assertThat(resultMessage, notNullValue());
     assertThat(resultMessage.getEventType(), is(DIRECTMESSAGE));
     performDisconnect(newStompSession);
   }
 
+  @Test
+  void sendLiveEvent_Should_storeDirectMessageAndSendItOnSubscription_When_userIsNotConnected()
+      throws Exception {
+    mockMvc.perform(post(LIVEEVENT_SEND)
+        .contentType(APPLICATION_JSON)
+        .content(buildLiveEventMessage(DIRECTMESSAGE, singletonList("validated user 1"), null))
+        .contentType(APPLICATION_JSON))
+        .andExpect(status().isOk());
+    assertThat(this.liveEventMessageQueue.size(), is(1));
+
+    var stompSession = performConnect(FIRST_VALID_USER);
+    List<LiveEventMessage> receivedMessages = new ArrayList<>();
+    performSubscribe(stompSession, receivedMessages);
+
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(receivedMessages::size, greaterThanOrEqualTo(1));
+    assertThat(receivedMessages.get(0).getEventType(), is(DIRECTMESSAGE));
+    await()
+        .atMost(MESSAGE_TIMEOUT, SECONDS)
+        .until(this.liveEventMessageQueue::size, is(0));
+    performDisconnect(stompSession);
+  }
+
 }
@@ -4,17 +4,21 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import de.caritas.cob.liveservice.api.model.EventType;
 import de.caritas.cob.liveservice.api.model.LiveEventMessage;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,9 +43,15 @@ class QueuedLiveEventSendServiceTest {
   @Mock
   WebSocketSessionIdResolver webSocketSessionIdResolver;
 
+  @Mock
+  LiveEventRetryBackoff liveEventRetryBackoff;
+
+  @Mock
+  LiveEventMetrics liveEventMetrics;
+
   @BeforeEach
   void setup() {
-    setField(queuedLiveEventSendService, "maximumRetryAmount", 5);
+    lenient().when(liveEventRetryBackoff.maximumRetryAmount(any())).thenReturn(5);
   }
 
   @Test
@@ -60,6 +70,7 @@ class QueuedLiveEventSendServiceTest {
     this.queuedLiveEventSendService.sendQueuedLiveEvents();
 
     verify(this.liveEventMessageQueue, times(1)).removeIdentifiedMessageWithId("messageid");
+    verify(this.liveEventMetrics, times(1)).countGivenUp(any());
     verifyNoMoreInteractions(this.liveEventSendService, this.webSocketSessionIdResolver);
   }
 
@@ -78,12 +89,83 @@ class QueuedLiveEventSendServiceTest {
         .liveEventMessage(new LiveEventMessage().eventType(EventType.DIRECTMESSAGE))
         .build();
     when(this.liveEventMessageQueue.getCurrentOpenMessages()).thenReturn(Set.of(message));
+    var nextRetryDate = LocalDateTime.now();
+    when(this.liveEventRetryBackoff.nextRetryDate(message)).thenReturn(nextRetryDate);
 
     this.queuedLiveEventSendService.sendQueuedLiveEvents();
 
     verify(this.webSocketSessionIdResolver, times(1)).resolveUserSession("userid");
     verify(this.liveEventSendService, times(1)).sendIdentifiedMessage(any());
+    verify(this.liveEventMessageQueue, times(1)).rescheduleIdentifiedMessage(message,
+        nextRetryDate);
     assertThat(message.getRetryAmount(), is(2));
+    verify(this.liveEventMetrics, times(1)).countRetry(message);
+  }
+
+  @Test
+  void sendQueuedLiveEvent_Should_removeMessage_When_eventTypeSpecificRetryAmountIsReached() {
+    var message = IdentifiedMessage.builder().retryAmount(3).messageId("messageid").build();
+    when(this.liveEventRetryBackoff.maximumRetryAmount(message)).thenReturn(2);
+
+    this.queuedLiveEventSendService.sendQueuedLiveEvent(message);
+
+    verify(this.liveEventMessageQueue, times(1)).removeIdentifiedMessageWithId("messageid");
+    verifyNoMoreInteractions(this.liveEventSendService, this.webSocketSessionIdResolver);
+  }
+
+  @Test
+  void sendQueuedLiveEvent_Should_removeMessageWithoutSending_When_parkTimeoutIsReached() {
+    var message = IdentifiedMessage.builder().retryAmount(1).messageId("messageid").build();
+    when(this.liveEventMessageQueue.isParked("messageid")).thenReturn(true);
+
+    this.queuedLiveEventSendService.sendQueuedLiveEvent(message);
+
+    verify(this.liveEventMessageQueue, times(1)).removeIdentifiedMessageWithId("messageid");
+    verify(this.liveEventMetrics, times(1)).countGivenUp(message);
+    verifyNoMoreInteractions(this.liveEventSendService, this.webSocketSessionIdResolver);
+  }
+
+  @Test
+  void flushUserMessages_Should_sendUnparkedMessagesToNewSessionInQueueOrder() {
+    var newSession = WebSocketUserSession.builder()
+        .websocketSessionId("new session")
+        .userId("userid")
+        .build();
+    var firstMessage = unparkedMessage("first", newSession);
+    var secondMessage = unparkedMessage("second", newSession);
+    when(this.liveEventMessageQueue.unparkUserMessages(newSession))
+        .thenReturn(List.of(firstMessage, secondMessage));
+
+    this.queuedLiveEventSendService.flushUserMessages(newSession);
+
+    var inOrder = inOrder(this.liveEventSendService);
+    inOrder.verify(this.liveEventSendService).sendIdentifiedMessage(firstMessage);
+    inOrder.verify(this.liveEventSendService).sendIdentifiedMessage(secondMessage);
+    verify(this.liveEventMessageQueue, times(2)).rescheduleIdentifiedMessage(any(), any());
+    verifyNoMoreInteractions(this.webSocketSessionIdResolver);
+    assertThat(firstMessage.getRetryAmount(), is(2));
+  }
+
+  @Test
+  void flushUserMessages_Should_removeMessage_When_maximumRetryAmountIsReached() {
+    var newSession = WebSocketUserSession.builder().userId("userid").build();
+    var message = IdentifiedMessage.builder().retryAmount(10).messageId("messageid").build();
+    when(this.liveEventMessageQueue.unparkUserMessages(newSession)).thenReturn(List.of(message));
+
+    this.queuedLiveEventSendService.flushUserMessages(newSession);
+
+    verify(this.liveEventMessageQueue, times(1)).removeIdentifiedMessageWithId("messageid");
+    verifyNoMoreInteractions(this.liveEventSendService);
+  }
+
+  private static IdentifiedMessage unparkedMessage(String messageId,
+      WebSocketUserSession webSocketUserSession) {
+    return IdentifiedMessage.builder()
+        .retryAmount(1)
+        .messageId(messageId)
+        .websocketUserSession(webSocketUserSession)
+        .liveEventMessage(new LiveEventMessage().eventType(EventType.VIDEOCALLREQUEST))
+        .build();
   }
 
 }
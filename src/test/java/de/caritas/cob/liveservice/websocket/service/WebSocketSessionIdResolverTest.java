@@ -2,20 +2,35 @@ package de.caritas.cob.liveservice.websocket.service;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
+import de.caritas.cob.liveservice.websocket.registry.LiveSessionDirectory;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 
 @ExtendWith(MockitoExtension.class)
 public class WebSocketSessionIdResolverTest {
@@ -26,6 +41,12 @@ public class WebSocketSessionIdResolverTest {
   @Mock
   private SocketUserRegistry socketUserRegistry;
 
+  @Mock
+  private SimpUserRegistry simpUserRegistry;
+
+  @Mock
+  private LiveSessionDirectory liveSessionDirectory;
+
   @Test
   public void resolveUserIds_Should_returnEmptyList_When_userIdsAreNull() {
     List<WebSocketUserSession> sessionIds = this.sessionIdResolver.resolveUserSessions(null);
@@ -43,18 +64,34 @@ public class WebSocketSessionIdResolverTest {
   @Test
   public void resolveUserIds_Should_returnEmptyList_When_noUserIsRegistered() {
     List<String> userIds = asList("1", "2", "3");
-    List<WebSocketUserSession> registeredSessions = asList(
-        userSession("4", "41"),
-        userSession("5", "51"),
-        userSession("6", "61")
-    );
-    when(socketUserRegistry.retrieveAllUsers()).thenReturn(registeredSessions);
+    when(socketUserRegistry.findSessionsByUserId(anyString())).thenReturn(emptyList());
 
     List<WebSocketUserSession> sessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
 
     assertThat(sessionIds, hasSize(0));
   }
 
+  @Test
+  public void resolveUserSessionsByUserId_Should_lookUpEachDistinctUserIdOnce() {
+    var firstSession = userSession("1", "session 1");
+    when(socketUserRegistry.findSessionsByUserId("1")).thenReturn(singletonList(firstSession));
+    when(socketUserRegistry.findSessionsByUserId("2")).thenReturn(emptyList());
+
+    var sessionsByUserId = this.sessionIdResolver
+        .resolveUserSessionsByUserId(asList("1", "2", "1"));
+
+    assertThat(sessionsByUserId.get("1"), is(singletonList(firstSession)));
+    assertThat(sessionsByUserId.get("2"), hasSize(0));
+    verify(socketUserRegistry, times(1)).findSessionsByUserId("1");
+    verify(socketUserRegistry, never()).retrieveAllUsers();
+  }
+
+  @Test
+  public void resolveUserSessionsByUserId_Should_returnEmptyMap_When_userIdsAreEmpty() {
+    assertThat(this.sessionIdResolver.resolveUserSessionsByUserId(emptyList()).isEmpty(),
+        is(true));
+  }
+
   private WebSocketUserSession userSession(String userId, String sessionId) {
     return WebSocketUserSession.builder()
         .userId(userId)
@@ -65,13 +102,11 @@ public class WebSocketSessionIdResolverTest {
   @Test
   public void resolveUserIds_Should_returnResolvedSessions_When_usersAreRegistered() {
     List<String> userIds = asList("1", "2", "3", "4", "5", "6", "7", "8", "9");
-    List<WebSocketUserSession> registeredSessions = asList(
-        userSession("2", "21"),
-        userSession("4", "41"),
-        userSession("7", "71"),
-        userSession("9", "91")
-    );
-    when(socketUserRegistry.retrieveAllUsers()).thenReturn(registeredSessions);
+    when(socketUserRegistry.findSessionsByUserId(anyString())).thenReturn(emptyList());
+    when(socketUserRegistry.findSessionsByUserId("2")).thenReturn(List.of(userSession("2", "21")));
+    when(socketUserRegistry.findSessionsByUserId("4")).thenReturn(List.of(userSession("4", "41")));
+    when(socketUserRegistry.findSessionsByUserId("7")).thenReturn(List.of(userSession("7", "71")));
+    when(socketUserRegistry.findSessionsByUserId("9")).thenReturn(List.of(userSession("9", "91")));
 
     List<WebSocketUserSession> sessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
 
@@ -80,35 +115,30 @@ public class WebSocketSessionIdResolverTest {
     assertThat(sessionIds.get(1).getWebsocketSessionId(), is("41"));
     assertThat(sessionIds.get(2).getWebsocketSessionId(), is("71"));
     assertThat(sessionIds.get(3).getWebsocketSessionId(), is("91"));
+    verify(socketUserRegistry, never()).retrieveAllUsers();
   }
 
   @Test
-  public void resolveUserIds_Should_returnResolvedSessions_When_registryContainsNullUserIds() {
-    List<String> userIds = asList("1", "2", "3", "4", "5", "6", "7", "8", "9");
-    List<WebSocketUserSession> registeredSessions = asList(
-        userSession("2", "21"),
-        userSession(null, "41"),
-        userSession("7", "71"),
-        userSession(null, "91")
-    );
-    when(socketUserRegistry.retrieveAllUsers()).thenReturn(registeredSessions);
+  public void resolveUserIds_Should_resolveEachUserOnlyOnce_When_userIdsContainDuplicates() {
+    List<String> userIds = asList("1", "2", "1", "2", "1");
+    when(socketUserRegistry.findSessionsByUserId("1")).thenReturn(List.of(userSession("1", "11")));
+    when(socketUserRegistry.findSessionsByUserId("2")).thenReturn(List.of(userSession("2", "21")));
 
     List<WebSocketUserSession> sessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
 
     assertThat(sessionIds, hasSize(2));
-    assertThat(sessionIds.get(0).getWebsocketSessionId(), is("21"));
-    assertThat(sessionIds.get(1).getWebsocketSessionId(), is("71"));
+    verify(socketUserRegistry, times(1)).findSessionsByUserId("1");
+    verify(socketUserRegistry, times(1)).findSessionsByUserId("2");
   }
 
   @Test
   public void resolveUserIds_Should_returnResolvedSessions_When_userIsRegisteredMultipleTimes() {
     List<String> userIds = singletonList("1");
-    List<WebSocketUserSession> registeredSessions = asList(
+    when(socketUserRegistry.findSessionsByUserId("1")).thenReturn(asList(
         userSession("1", "21"),
         userSession("1", "41"),
         userSession("1", "71")
-    );
-    when(socketUserRegistry.retrieveAllUsers()).thenReturn(registeredSessions);
+    ));
 
     List<WebSocketUserSession> sessionIds = this.sessionIdResolver.resolveUserSessions(userIds);
 
@@ -118,4 +148,56 @@ public class WebSocketSessionIdResolverTest {
     assertThat(sessionIds.get(2).getWebsocketSessionId(), is("71"));
   }
 
+  @Test
+  public void resolveUserSession_Should_returnSessionOfUser_When_userIsRegistered() {
+    when(socketUserRegistry.findSessionsByUserId("1")).thenReturn(List.of(userSession("1", "11")));
+
+    Optional<WebSocketUserSession> session = this.sessionIdResolver.resolveUserSession("1");
+
+    assertThat(session.isPresent(), is(true));
+    assertThat(session.get().getWebsocketSessionId(), is("11"));
+    verify(socketUserRegistry, never()).retrieveAllUsers();
+  }
+
+  @Test
+  public void resolveUserSession_Should_returnEmptyOptional_When_userIsNotRegistered() {
+    when(socketUserRegistry.findSessionsByUserId(any())).thenReturn(emptyList());
+
+    Optional<WebSocketUserSession> session = this.sessionIdResolver.resolveUserSession("1");
+
+    assertThat(session.isPresent(), is(false));
+  }
+
+  @Test
+  public void resolveRemoteNodeIdsByUserId_Should_returnUsersKnownByOtherInstancesOnly() {
+    when(simpUserRegistry.getUser("remote")).thenReturn(mock(SimpUser.class));
+    when(socketUserRegistry.findSessionsByUserId("local"))
+        .thenReturn(List.of(userSession("local", "11")));
+
+    var remoteNodeIdsByUserId = this.sessionIdResolver
+        .resolveRemoteNodeIdsByUserId(asList("local", "remote", "offline", "remote"));
+
+    assertThat(remoteNodeIdsByUserId, is(Map.of("remote", emptySet())));
+    verify(simpUserRegistry, never()).getUser("local");
+  }
+
+  @Test
+  public void resolveRemoteNodeIdsByUserId_Should_returnNodesOfUsersInSessionDirectory() {
+    when(liveSessionDirectory.findRemoteNodeIdsByUserId(List.of("remote", "offline")))
+        .thenReturn(Map.of("remote", Set.of("node")));
+
+    var remoteNodeIdsByUserId = this.sessionIdResolver
+        .resolveRemoteNodeIdsByUserId(asList("remote", "offline"));
+
+    assertThat(remoteNodeIdsByUserId, is(Map.of("remote", Set.of("node"))));
+    verify(liveSessionDirectory, times(1)).findRemoteNodeIdsByUserId(anyCollection());
+    verify(simpUserRegistry, never()).getUser("remote");
+  }
+
+  @Test
+  public void resolveRemoteNodeIdsByUserId_Should_returnEmptyMap_When_userIdsAreEmpty() {
+    assertThat(this.sessionIdResolver.resolveRemoteNodeIdsByUserId(emptyList()),
+        is(emptyMap()));
+  }
+
 }
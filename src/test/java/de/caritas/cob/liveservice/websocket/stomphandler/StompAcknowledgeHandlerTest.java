@@ -11,7 +11,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
+import de.caritas.cob.liveservice.websocket.model.IdentifiedMessage;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
+import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,6 +38,9 @@ class StompAcknowledgeHandlerTest {
   @Mock
   private LiveEventMessageQueue liveEventMessageQueue;
 
+  @Mock
+  private LiveEventMetrics liveEventMetrics;
+
   @Mock
   private MessageHeaders messageHeaders;
 
@@ -82,6 +88,19 @@ class StompAcknowledgeHandlerTest {
     this.stompAcknowledgeHandler.handle(this.message);
 
     verify(this.liveEventMessageQueue, times(1)).removeIdentifiedMessageWithId("id");
+    verifyNoInteractions(this.liveEventMetrics);
+  }
+
+  @Test
+  void handle_Should_countAcknowledgedMessage_When_messageWasQueued() {
+    var identifiedMessage = IdentifiedMessage.builder().messageId("id").build();
+    when(this.stompHeaderAccessor.getFirstNativeHeader(anyString())).thenReturn("id");
+    when(this.liveEventMessageQueue.removeIdentifiedMessageWithId("id"))
+        .thenReturn(Optional.of(identifiedMessage));
+
+    this.stompAcknowledgeHandler.handle(this.message);
+
+    verify(this.liveEventMetrics, times(1)).countAcknowledged(identifiedMessage);
   }
 
 }
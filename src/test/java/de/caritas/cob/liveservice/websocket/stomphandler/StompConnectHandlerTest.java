@@ -1,10 +1,13 @@
 package de.caritas.cob.liveservice.websocket.stomphandler;
 
+import static de.caritas.cob.liveservice.websocket.config.BinaryFramesWebSocketHandlerDecorator.BINARY_FRAMES;
+import static java.util.Objects.isNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
@@ -12,9 +15,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.config.LiveTransportProperties;
 import de.caritas.cob.liveservice.websocket.exception.InvalidAccessTokenException;
+import de.caritas.cob.liveservice.websocket.model.WebSocketUserPrincipal;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import de.caritas.cob.liveservice.websocket.service.KeycloakTokenObserver;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +30,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -42,6 +50,9 @@ class StompConnectHandlerTest {
   @Mock
   private SocketUserRegistry socketUserRegistry;
 
+  @Mock
+  private LiveTransportProperties liveTransportProperties;
+
   @Mock
   private MessageHeaders messageHeaders;
 
@@ -102,4 +113,50 @@ class StompConnectHandlerTest {
     verify(this.socketUserRegistry, times(1)).addUser(any());
   }
 
+  @Test
+  void handle_Should_assignUserPrincipalToSession_When_tokenIsValid()
+      throws VerificationException {
+    when(this.stompHeaderAccessor.getFirstNativeHeader(anyString())).thenReturn("accessToken");
+    when(this.stompHeaderAccessor.isMutable()).thenReturn(true);
+    when(this.keycloakTokenObserver.observeUserId("accessToken")).thenReturn("userId");
+
+    this.stompConnectHandler.handle(this.message);
+
+    verify(this.stompHeaderAccessor).setUser(new WebSocketUserPrincipal("userId"));
+  }
+
+  @Test
+  void handle_Should_addSessionWithSelectedContentType_When_sessionSupportsBinaryFrames()
+      throws VerificationException {
+    var binaryFrames = new AtomicBoolean();
+    givenContentTypeHeader(Map.of(BINARY_FRAMES, binaryFrames));
+
+    this.stompConnectHandler.handle(this.message);
+
+    verify(this.socketUserRegistry).addUser(argThat(
+        session -> MediaType.APPLICATION_CBOR.equals(session.getContentType())));
+    assertThat(binaryFrames.get(), is(true));
+  }
+
+  @Test
+  void handle_Should_addSessionWithDefaultContentType_When_sessionOnlySupportsTextFrames()
+      throws VerificationException {
+    givenContentTypeHeader(Map.of());
+
+    this.stompConnectHandler.handle(this.message);
+
+    verify(this.socketUserRegistry).addUser(argThat(session -> isNull(session.getContentType())));
+  }
+
+  private void givenContentTypeHeader(Map<String, Object> sessionAttributes)
+      throws VerificationException {
+    when(this.stompHeaderAccessor.getFirstNativeHeader("accessToken")).thenReturn("accessToken");
+    when(this.stompHeaderAccessor.getFirstNativeHeader("content-type"))
+        .thenReturn("application/cbor");
+    when(this.stompHeaderAccessor.getSessionAttributes()).thenReturn(sessionAttributes);
+    when(this.liveTransportProperties.contentTypeOf("application/cbor"))
+        .thenReturn(MediaType.APPLICATION_CBOR);
+    when(this.keycloakTokenObserver.observeUserId("accessToken")).thenReturn("userId");
+  }
+
 }
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -28,6 +29,9 @@ class StompDisconnectHandlerTest {
   @Mock
   SocketUserRegistry socketUserRegistry;
 
+  @Mock
+  LiveEventMessageQueue liveEventMessageQueue;
+
   @Test
   void supportedStompCommand_Should_return_disconnect() {
     var stompCommand = this.stompDisconnectHandler.supportedStompCommand();
@@ -39,7 +43,7 @@ class StompDisconnectHandlerTest {
   void handle_Should_useNoService_When_messageIsNull() {
     this.stompDisconnectHandler.handle(null);
 
-    verifyNoMoreInteractions(this.socketUserRegistry);
+    verifyNoMoreInteractions(this.socketUserRegistry, this.liveEventMessageQueue);
   }
 
   @Test
@@ -51,6 +55,7 @@ class StompDisconnectHandlerTest {
     this.stompDisconnectHandler.handle(message);
 
     verify(this.socketUserRegistry, times(1)).removeSession("123");
+    verify(this.liveEventMessageQueue, times(1)).removeSessionMessages("123");
   }
 
 }
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -28,6 +29,9 @@ class StompErrorHandlerTest {
   @Mock
   SocketUserRegistry socketUserRegistry;
 
+  @Mock
+  LiveEventMessageQueue liveEventMessageQueue;
+
   @Test
   void supportedStompCommand_Should_return_error() {
     var stompCommand = this.stompErrorHandler.supportedStompCommand();
@@ -39,7 +43,7 @@ class StompErrorHandlerTest {
   void handle_Should_useNoService_When_messageIsNull() {
     this.stompErrorHandler.handle(null);
 
-    verifyNoMoreInteractions(this.socketUserRegistry);
+    verifyNoMoreInteractions(this.socketUserRegistry, this.liveEventMessageQueue);
   }
 
   @Test
@@ -51,6 +55,7 @@ class StompErrorHandlerTest {
     this.stompErrorHandler.handle(message);
 
     verify(this.socketUserRegistry, times(1)).removeSession("123");
+    verify(this.liveEventMessageQueue, times(1)).removeSessionMessages("123");
   }
 
 }
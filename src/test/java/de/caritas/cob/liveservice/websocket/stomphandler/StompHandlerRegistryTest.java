@@ -7,9 +7,12 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import de.caritas.cob.liveservice.websocket.config.LiveTransportProperties;
+import de.caritas.cob.liveservice.websocket.metrics.LiveEventMetrics;
 import de.caritas.cob.liveservice.websocket.registry.LiveEventMessageQueue;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
 import de.caritas.cob.liveservice.websocket.service.KeycloakTokenObserver;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -61,11 +64,15 @@ class StompHandlerRegistryTest {
 
   static List<StompHandler> stompCommandWithHandler() {
     return asList(
-        new StompConnectHandler(mock(KeycloakTokenObserver.class), mock(SocketUserRegistry.class)),
-        new StompSubscribeHandler(mock(SocketUserRegistry.class)),
-        new StompAcknowledgeHandler(mock(LiveEventMessageQueue.class)),
-        new StompDisconnectHandler(mock(SocketUserRegistry.class)),
-        new StompErrorHandler(mock(SocketUserRegistry.class))
+        new StompConnectHandler(mock(KeycloakTokenObserver.class), mock(SocketUserRegistry.class),
+            new LiveTransportProperties()),
+        new StompSubscribeHandler(mock(SocketUserRegistry.class),
+            mock(QueuedLiveEventSendService.class)),
+        new StompAcknowledgeHandler(mock(LiveEventMessageQueue.class),
+            mock(LiveEventMetrics.class)),
+        new StompDisconnectHandler(mock(SocketUserRegistry.class),
+            mock(LiveEventMessageQueue.class)),
+        new StompErrorHandler(mock(SocketUserRegistry.class), mock(LiveEventMessageQueue.class))
     );
   }
 
@@ -4,7 +4,6 @@ import static java.util.Collections.emptyMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -13,6 +12,7 @@ import static org.mockito.Mockito.when;
 
 import de.caritas.cob.liveservice.websocket.model.WebSocketUserSession;
 import de.caritas.cob.liveservice.websocket.registry.SocketUserRegistry;
+import de.caritas.cob.liveservice.websocket.service.QueuedLiveEventSendService;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -35,6 +35,9 @@ class StompSubscribeHandlerTest {
   @Mock
   SocketUserRegistry socketUserRegistry;
 
+  @Mock
+  QueuedLiveEventSendService queuedLiveEventSendService;
+
   @Test
   void supportedStompCommand_Should_return_subscribe() {
     var stompCommand = this.stompSubscribeHandler.supportedStompCommand();
@@ -46,21 +49,45 @@ class StompSubscribeHandlerTest {
   void handle_Should_useNoServices_When_messageIsNull() {
     this.stompSubscribeHandler.handle(null);
 
-    verifyNoMoreInteractions(this.socketUserRegistry);
+    verifyNoMoreInteractions(this.socketUserRegistry, this.queuedLiveEventSendService);
   }
 
   @Test
   void handle_Should_subscribeUser_When_messageIsValid() {
-    var socketUserSession = mock(WebSocketUserSession.class);
-    when(this.socketUserRegistry.findUserBySessionId(anyString())).thenReturn(socketUserSession);
     var message = mock(Message.class);
     var messageHeaders = Map.of("simpSessionId", (Object) "123", "simpSubscriptionId", "345");
     when(message.getHeaders()).thenReturn(new MessageHeaders(messageHeaders));
 
     this.stompSubscribeHandler.handle(message);
 
-    verify(this.socketUserRegistry, times(1)).findUserBySessionId("123");
-    verify(socketUserSession, times(1)).setSubscriptionId("345");
+    verify(this.socketUserRegistry, times(1)).updateSubscriptionId("123", "345");
+    verifyNoMoreInteractions(this.queuedLiveEventSendService);
+  }
+
+  @Test
+  void handleAfterBroker_Should_flushMessagesOfUser_When_sessionIsRegistered() {
+    var message = mock(Message.class);
+    when(message.getHeaders()).thenReturn(new MessageHeaders(Map.of("simpSessionId", "123")));
+    var webSocketUserSession = WebSocketUserSession.builder()
+        .websocketSessionId("123")
+        .userId("user")
+        .subscriptionId("345")
+        .build();
+    when(this.socketUserRegistry.findUserBySessionId("123")).thenReturn(webSocketUserSession);
+
+    this.stompSubscribeHandler.handleAfterBroker(message);
+
+    verify(this.queuedLiveEventSendService, times(1)).flushUserMessages(webSocketUserSession);
+  }
+
+  @Test
+  void handleAfterBroker_Should_flushNothing_When_sessionIsNotRegistered() {
+    var message = mock(Message.class);
+    when(message.getHeaders()).thenReturn(new MessageHeaders(Map.of("simpSessionId", "123")));
+
+    this.stompSubscribeHandler.handleAfterBroker(message);
+
+    verifyNoMoreInteractions(this.queuedLiveEventSendService);
   }
 
   @ParameterizedTest